@@ -0,0 +1,25 @@
+package com.tanggo.fund.metadriven.lwc.lob.commands;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 改单命令参数
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AmendOrderCommand {
+
+    private String orderId;
+    // 下单时携带的订单键（可选），携带时按订单键改单，不查找orderId
+    private Long orderKey;
+    private String symbol;
+    // 交易品种ID（可选），携带时按ID定位品种和订单薄
+    private Integer symbolId;
+    private BigDecimal price;  // 新价格，null表示不变
+    private BigDecimal quantity;  // 新的订单总量（含已成交），null表示不变
+}
@@ -0,0 +1,28 @@
+package com.tanggo.fund.metadriven.lwc.lob.commands;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.LimitOrder;
+import com.tanggo.fund.metadriven.lwc.lob.domain.Trade;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 改单结果DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AmendOrderResult {
+    private boolean success;
+    private String orderId;
+    private LimitOrder order;
+    private List<Trade> trades;
+
+    @Override
+    public String toString() {
+        return String.format("AmendOrderResult{success=%s, orderId=%s, order=%s, trades=%d}",
+                success, orderId, order, trades != null ? trades.size() : 0);
+    }
+}
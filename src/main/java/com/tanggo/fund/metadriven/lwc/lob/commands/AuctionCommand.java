@@ -0,0 +1,25 @@
+package com.tanggo.fund.metadriven.lwc.lob.commands;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * 集合竞价命令参数
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuctionCommand {
+
+    public enum Action {
+        START,    // 进入收集期
+        UNCROSS,  // 撮合后继续收集（周期性竞价）
+        END       // 撮合后恢复连续撮合
+    }
+
+    private String symbol;
+    // 交易品种ID（可选），携带时按ID解析交易对
+    private Integer symbolId;
+    private Action action;
+}
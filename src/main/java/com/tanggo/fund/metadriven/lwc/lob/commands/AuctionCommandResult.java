@@ -0,0 +1,25 @@
+package com.tanggo.fund.metadriven.lwc.lob.commands;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.AuctionResult;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * 集合竞价命令结果DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuctionCommandResult {
+    private boolean success;
+    private String symbol;
+    private AuctionCommand.Action action;
+    private AuctionResult result;  // START时为null
+
+    @Override
+    public String toString() {
+        return String.format("AuctionCommandResult{success=%s, symbol=%s, action=%s, result=%s}",
+                success, symbol, action, result);
+    }
+}
@@ -13,5 +13,9 @@ import lombok.AllArgsConstructor;
 public class CancelOrderCommand {
 
     private String orderId;
+    // 下单时携带的订单键（可选），携带时按订单键撤单，不查找orderId
+    private Long orderKey;
     private String symbol;
+    // 交易品种ID（可选），携带时按ID定位品种和订单薄
+    private Integer symbolId;
 }
@@ -0,0 +1,26 @@
+package com.tanggo.fund.metadriven.lwc.lob.commands;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 成交预估查询参数（FOK可行性、价格冲击）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstimateFillCommand {
+
+    private String symbol;
+    // 交易品种ID（可选），携带时按ID解析品种
+    private Integer symbolId;
+    // 主动方向：BUY吃卖盘，SELL吃买盘
+    private OrderSide side;
+    private BigDecimal quantity;
+    // 限价（可选），为null时不限价
+    private BigDecimal limitPrice;
+}
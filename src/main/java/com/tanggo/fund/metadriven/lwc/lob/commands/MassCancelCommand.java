@@ -0,0 +1,21 @@
+package com.tanggo.fund.metadriven.lwc.lob.commands;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * 批量撤单命令参数 - symbol与ownerId至少指定一个
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MassCancelCommand {
+
+    private String symbol;  // 交易对，null表示所有交易对
+    // 交易品种ID（可选），携带时按ID解析交易对
+    private Integer symbolId;
+    private OrderSide side;  // 买卖方向，null表示两侧
+    private String ownerId;  // 参与者ID，null表示所有参与者
+}
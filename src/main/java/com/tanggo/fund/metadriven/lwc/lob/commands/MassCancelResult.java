@@ -0,0 +1,24 @@
+package com.tanggo.fund.metadriven.lwc.lob.commands;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 批量撤单结果DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MassCancelResult {
+    private boolean success;
+    private List<String> cancelledOrderIds;
+
+    @Override
+    public String toString() {
+        return String.format("MassCancelResult{success=%s, cancelled=%d}",
+                success, cancelledOrderIds != null ? cancelledOrderIds.size() : 0);
+    }
+}
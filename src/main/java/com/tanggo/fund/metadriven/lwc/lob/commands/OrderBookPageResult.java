@@ -0,0 +1,17 @@
+package com.tanggo.fund.metadriven.lwc.lob.commands;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookPage;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * 逐笔(L3)订单薄分页结果DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderBookPageResult {
+    private String cursorId;  // 读取下一页用的游标ID，最后一页时为null
+    private OrderBookPage page;
+}
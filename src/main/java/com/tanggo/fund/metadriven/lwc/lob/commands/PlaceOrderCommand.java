@@ -16,8 +16,18 @@ import java.math.BigDecimal;
 public class PlaceOrderCommand {
 
     private String orderId;
+    // 网关分配的64位订单键（可选，非0），携带时挂单按订单键登记，之后可按订单键撤单/改单；止损单不支持
+    private Long orderKey;
     private String symbol;
+    // 交易品种ID（可选），携带时按ID定位品种和订单薄
+    private Integer symbolId;
+    // 下单参与者ID（可选），用于按参与者批量撤单
+    private String ownerId;
     private OrderSide side;
     private BigDecimal price;
     private BigDecimal quantity;
+    // 全部成交否则撤销（可选），为true时对手方深度不足则整单撤销、不挂单
+    private Boolean fillOrKill;
+    // 止损触发价（可选），携带时为止损单：price为触发后的限价，price为null时为止损市价单
+    private BigDecimal stopPrice;
 }
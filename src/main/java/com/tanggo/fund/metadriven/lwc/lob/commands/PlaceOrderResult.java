@@ -1,6 +1,7 @@
 package com.tanggo.fund.metadriven.lwc.lob.commands;
 
 import com.tanggo.fund.metadriven.lwc.lob.domain.LimitOrder;
+import com.tanggo.fund.metadriven.lwc.lob.domain.StopOrder;
 import com.tanggo.fund.metadriven.lwc.lob.domain.Trade;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -18,10 +19,22 @@ public class PlaceOrderResult {
     private boolean success;
     private LimitOrder order;
     private List<Trade> trades;
+    // 本次下单引发成交而被触发的止损单
+    private List<LimitOrder> triggeredOrders;
+    // 止损下单时挂起的止损单（此时order为null）
+    private StopOrder stopOrder;
+    // 批量下单中被拒绝时的原因（此时success为false）
+    private String rejectReason;
+
+    public PlaceOrderResult(boolean success, LimitOrder order, List<Trade> trades) {
+        this.success = success;
+        this.order = order;
+        this.trades = trades;
+    }
 
     @Override
     public String toString() {
-        return String.format("PlaceOrderResult{success=%s, order=%s, trades=%d}",
-                success, order, trades != null ? trades.size() : 0);
+        return String.format("PlaceOrderResult{success=%s, order=%s, trades=%d, stopOrder=%s, rejectReason=%s}",
+                success, order, trades != null ? trades.size() : 0, stopOrder, rejectReason);
     }
 }
@@ -0,0 +1,18 @@
+package com.tanggo.fund.metadriven.lwc.lob.commands;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 批量下单命令参数 - 一次提交多个订单，可跨交易对
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlaceOrdersCommand {
+
+    private List<PlaceOrderCommand> orders;
+}
@@ -0,0 +1,25 @@
+package com.tanggo.fund.metadriven.lwc.lob.commands;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 批量下单结果DTO - 与命令中的订单一一对应
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlaceOrdersResult {
+    // 全部订单都被接受；被拒绝的订单见各自结果，其他订单照常生效
+    private boolean success;
+    private List<PlaceOrderResult> results;
+
+    @Override
+    public String toString() {
+        return String.format("PlaceOrdersResult{success=%s, orders=%d}",
+                success, results != null ? results.size() : 0);
+    }
+}
@@ -13,5 +13,9 @@ import lombok.AllArgsConstructor;
 public class QueryOrderBookCommand {
 
     private String symbol;
+    // 交易品种ID（可选），携带时按ID解析交易对
+    private Integer symbolId;
     private Integer depth;  // 查询深度
+    private Integer pageSize;  // 逐笔(L3)分页大小，设置时返回逐笔订单而不是聚合档位
+    private String cursorId;  // 继续读取的L3游标ID
 }
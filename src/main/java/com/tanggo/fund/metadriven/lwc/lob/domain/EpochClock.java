@@ -0,0 +1,63 @@
+package com.tanggo.fund.metadriven.lwc.lob.domain;
+
+import java.time.Instant;
+
+/**
+ * 纪元纳秒时钟 - 以启动时的墙钟为基准叠加System.nanoTime()增量
+ * 撮合路径上取时间戳不创建Instant对象
+ * 可把当前线程的时间固定为一条命令的时间戳（{@link #pin(long)}）：命令执行期间订单、成交的时间都取该值，
+ * 日志重放时固定为记录的时间戳，重建的订单时间与原始执行一致
+ */
+public final class EpochClock {
+
+    private static final long BASE_EPOCH_NANOS;
+    private static final long BASE_NANO_TIME;
+
+    private static final ThreadLocal<PinnedTime> PINNED = ThreadLocal.withInitial(PinnedTime::new);
+
+    static {
+        Instant now = Instant.now();
+        BASE_NANO_TIME = System.nanoTime();
+        BASE_EPOCH_NANOS = now.getEpochSecond() * 1_000_000_000L + now.getNano();
+    }
+
+    private EpochClock() {
+    }
+
+    /**
+     * 当前时间：当前线程固定了时间时返回固定的值
+     */
+    public static long epochNanos() {
+        PinnedTime pinned = PINNED.get();
+        return pinned.active ? pinned.epochNanos : realTimeNanos();
+    }
+
+    /**
+     * 实时时钟，不受固定时间影响
+     */
+    public static long realTimeNanos() {
+        return BASE_EPOCH_NANOS + (System.nanoTime() - BASE_NANO_TIME);
+    }
+
+    /**
+     * 把当前线程的时间固定为epochNanos，直到 {@link #unpin()}（不可嵌套）
+     */
+    public static void pin(long epochNanos) {
+        PinnedTime pinned = PINNED.get();
+        pinned.epochNanos = epochNanos;
+        pinned.active = true;
+    }
+
+    public static void unpin() {
+        PINNED.get().active = false;
+    }
+
+    public static Instant toInstant(long epochNanos) {
+        return Instant.ofEpochSecond(0L, epochNanos);
+    }
+
+    private static final class PinnedTime {
+        long epochNanos;
+        boolean active;
+    }
+}
@@ -0,0 +1,116 @@
+package com.tanggo.fund.metadriven.lwc.lob.domain;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * 交易品种定义 - 值对象
+ * 定义价格最小变动单位(tickSize)和数量最小单位(lotSize)
+ * 撮合内部统一使用 long 类型的 ticks/lots 定点数，BigDecimal 仅用于 API 边界换算
+ * symbolId 为品种注册时分配的稠密整数ID，用于按数组下标定位订单薄，未注册时为 {@link #UNASSIGNED_ID}
+ */
+public final class Instrument {
+
+    public static final int UNASSIGNED_ID = -1;
+
+    private final int symbolId;
+    private final String symbol;
+    private final BigDecimal tickSize;
+    private final BigDecimal lotSize;
+
+    public Instrument(String symbol, BigDecimal tickSize, BigDecimal lotSize) {
+        this(UNASSIGNED_ID, symbol, tickSize, lotSize);
+    }
+
+    public Instrument(int symbolId, String symbol, BigDecimal tickSize, BigDecimal lotSize) {
+        if (symbolId < UNASSIGNED_ID) {
+            throw new IllegalArgumentException("Invalid symbol id: " + symbolId);
+        }
+        if (symbol == null || symbol.isEmpty()) {
+            throw new IllegalArgumentException("Symbol cannot be null or empty");
+        }
+        if (tickSize == null || tickSize.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Tick size must be positive");
+        }
+        if (lotSize == null || lotSize.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Lot size must be positive");
+        }
+        this.symbolId = symbolId;
+        this.symbol = symbol;
+        this.tickSize = tickSize.stripTrailingZeros();
+        this.lotSize = lotSize.stripTrailingZeros();
+    }
+
+    /**
+     * 注册时分配symbolId，返回新的品种定义
+     */
+    public Instrument withSymbolId(int symbolId) {
+        return new Instrument(symbolId, symbol, tickSize, lotSize);
+    }
+
+    /**
+     * 价格 -> ticks，价格必须是tickSize的整数倍
+     */
+    public long toTicks(BigDecimal price) {
+        return toUnits(price, tickSize, "Price");
+    }
+
+    /**
+     * ticks -> 价格
+     */
+    public BigDecimal toPrice(long ticks) {
+        return tickSize.multiply(BigDecimal.valueOf(ticks));
+    }
+
+    /**
+     * 数量 -> lots，数量必须是lotSize的整数倍
+     */
+    public long toLots(BigDecimal quantity) {
+        return toUnits(quantity, lotSize, "Quantity");
+    }
+
+    /**
+     * lots -> 数量
+     */
+    public BigDecimal toQuantity(long lots) {
+        return lotSize.multiply(BigDecimal.valueOf(lots));
+    }
+
+    private static long toUnits(BigDecimal value, BigDecimal unit, String name) {
+        if (value == null) {
+            throw new IllegalArgumentException(name + " cannot be null");
+        }
+        BigDecimal[] qr = value.divideAndRemainder(unit);
+        if (qr[1].signum() != 0) {
+            throw new IllegalArgumentException(name + " " + value.toPlainString()
+                    + " is not a multiple of " + unit.toPlainString());
+        }
+        try {
+            return qr[0].setScale(0, RoundingMode.UNNECESSARY).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(name + " " + value.toPlainString() + " is out of range", e);
+        }
+    }
+
+    public int getSymbolId() {
+        return symbolId;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public BigDecimal getTickSize() {
+        return tickSize;
+    }
+
+    public BigDecimal getLotSize() {
+        return lotSize;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Instrument{id=%d, symbol=%s, tick=%s, lot=%s}",
+                symbolId, symbol, tickSize.toPlainString(), lotSize.toPlainString());
+    }
+}
@@ -6,71 +6,219 @@ import java.time.Instant;
 /**
  * 限价订单实体 - Clean Architecture实体层
  * 纯业务逻辑，无外部依赖
+ * 价格和数量内部以 long 定点数(ticks/lots)保存，BigDecimal 仅在 getter 中按品种精度换算
+ * 时间戳以纪元纳秒保存；零分配撮合模式下订单由 {@link OrderPool} 回收复用
+ * 订单对象只用于进入撮合的订单和返回给调用方的快照，挂入订单薄的剩余部分复制到 {@link OrderStore} 的紧凑记录
  */
 public class LimitOrder {
 
-    private final String orderId;
-    private final String symbol;
-    private final OrderSide side;
-    private final BigDecimal price;
-    private BigDecimal quantity;
-    private BigDecimal filledQuantity;
+    private String orderId;
+    // 下单参与者（可选），订单薄按参与者维护侵入式链表以支持批量撤单
+    private String ownerId;
+    private Instrument instrument;
+    private OrderSide side;
+    private long priceTicks;
+    private long quantityLots;
+    private long filledLots;
     private OrderStatus status;
-    private final Instant createTime;
-    private Instant updateTime;
+    private long createTimeNanos;
+    private long updateTimeNanos;
 
-    public LimitOrder(String orderId, String symbol, OrderSide side,
+    // 对象池空闲栈指针，由 OrderPool 维护
+    LimitOrder next;
+
+    // 是否来自对象池
+    boolean pooled;
+
+    /**
+     * API边界构造器：按品种精度把BigDecimal换算为ticks/lots
+     */
+    public LimitOrder(String orderId, Instrument instrument, OrderSide side,
                       BigDecimal price, BigDecimal quantity) {
+        this(orderId, null, instrument, side, price, quantity);
+    }
+
+    public LimitOrder(String orderId, String ownerId, Instrument instrument, OrderSide side,
+                      BigDecimal price, BigDecimal quantity) {
+        this(orderId, ownerId, instrument, side,
+                toTicks(instrument, price), toLots(instrument, quantity));
+    }
+
+    public LimitOrder(String orderId, Instrument instrument, OrderSide side,
+                      long priceTicks, long quantityLots) {
+        this(orderId, null, instrument, side, priceTicks, quantityLots);
+    }
+
+    public LimitOrder(String orderId, String ownerId, Instrument instrument, OrderSide side,
+                      long priceTicks, long quantityLots) {
+        init(orderId, ownerId, instrument, side, priceTicks, quantityLots);
+    }
+
+    /**
+     * 对象池使用的空订单
+     */
+    LimitOrder() {
+    }
+
+    void init(String orderId, String ownerId, Instrument instrument, OrderSide side,
+              long priceTicks, long quantityLots) {
         if (orderId == null || orderId.isEmpty()) {
             throw new IllegalArgumentException("OrderId cannot be null or empty");
         }
-        if (symbol == null || symbol.isEmpty()) {
-            throw new IllegalArgumentException("Symbol cannot be null or empty");
+        if (instrument == null) {
+            throw new IllegalArgumentException("Instrument cannot be null");
         }
-        if (price == null || price.compareTo(BigDecimal.ZERO) <= 0) {
+        if (priceTicks <= 0) {
             throw new IllegalArgumentException("Price must be positive");
         }
-        if (quantity == null || quantity.compareTo(BigDecimal.ZERO) <= 0) {
+        if (quantityLots <= 0) {
             throw new IllegalArgumentException("Quantity must be positive");
         }
 
         this.orderId = orderId;
-        this.symbol = symbol;
+        this.ownerId = ownerId;
+        this.instrument = instrument;
         this.side = side;
-        this.price = price;
-        this.quantity = quantity;
-        this.filledQuantity = BigDecimal.ZERO;
+        this.priceTicks = priceTicks;
+        this.quantityLots = quantityLots;
+        this.filledLots = 0L;
         this.status = OrderStatus.PENDING;
-        this.createTime = Instant.now();
-        this.updateTime = Instant.now();
+        this.createTimeNanos = EpochClock.epochNanos();
+        this.updateTimeNanos = this.createTimeNanos;
+    }
+
+    /**
+     * 归还对象池前清空引用
+     */
+    void recycle() {
+        this.orderId = null;
+        this.ownerId = null;
+        this.instrument = null;
+        this.side = null;
+        this.status = null;
+    }
+
+    boolean isRecycled() {
+        return orderId == null;
+    }
+
+    private static long toTicks(Instrument instrument, BigDecimal price) {
+        if (instrument == null) {
+            throw new IllegalArgumentException("Instrument cannot be null");
+        }
+        if (price == null || price.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Price must be positive");
+        }
+        return instrument.toTicks(price);
+    }
+
+    private static long toLots(Instrument instrument, BigDecimal quantity) {
+        if (quantity == null || quantity.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        return instrument.toLots(quantity);
+    }
+
+    /**
+     * 拷贝为独立的订单快照（不在任何档位中），用于保留享元撮合结果
+     */
+    public LimitOrder copy() {
+        LimitOrder copy = new LimitOrder();
+        copy.orderId = orderId;
+        copy.ownerId = ownerId;
+        copy.instrument = instrument;
+        copy.side = side;
+        copy.priceTicks = priceTicks;
+        copy.quantityLots = quantityLots;
+        copy.filledLots = filledLots;
+        copy.status = status;
+        copy.createTimeNanos = createTimeNanos;
+        copy.updateTimeNanos = updateTimeNanos;
+        return copy;
+    }
+
+    /**
+     * 按挂单记录重建订单：按保存的成交量和时间戳恢复，状态为PENDING或PARTIALLY_FILLED
+     */
+    public static LimitOrder restore(String orderId, String ownerId, Instrument instrument, OrderSide side,
+                                     long priceTicks, long quantityLots, long filledLots,
+                                     long createTimeNanos, long updateTimeNanos) {
+        LimitOrder order = new LimitOrder(orderId, ownerId, instrument, side, priceTicks, quantityLots);
+        order.restoreState(filledLots, createTimeNanos, updateTimeNanos);
+        return order;
+    }
+
+    void restoreState(long filledLots, long createTimeNanos, long updateTimeNanos) {
+        if (filledLots < 0 || filledLots >= quantityLots) {
+            throw new IllegalArgumentException("Resting order must have remaining quantity: " + orderId);
+        }
+        this.filledLots = filledLots;
+        this.status = filledLots > 0 ? OrderStatus.PARTIALLY_FILLED : OrderStatus.PENDING;
+        this.createTimeNanos = createTimeNanos;
+        this.updateTimeNanos = updateTimeNanos;
     }
 
     /**
      * 业务规则：部分成交
      */
-    public void fill(BigDecimal fillQuantity) {
-        if (fillQuantity == null || fillQuantity.compareTo(BigDecimal.ZERO) <= 0) {
+    public void fill(long fillLots) {
+        if (fillLots <= 0) {
             throw new IllegalArgumentException("Fill quantity must be positive");
         }
         if (this.status == OrderStatus.CANCELLED || this.status == OrderStatus.FILLED) {
             throw new IllegalStateException("Cannot fill cancelled or filled order");
         }
 
-        BigDecimal newFilledQty = this.filledQuantity.add(fillQuantity);
-        if (newFilledQty.compareTo(this.quantity) > 0) {
+        long newFilledLots = this.filledLots + fillLots;
+        if (newFilledLots > this.quantityLots) {
             throw new IllegalArgumentException("Fill quantity exceeds remaining quantity");
         }
 
-        this.filledQuantity = newFilledQty;
-        this.updateTime = Instant.now();
+        this.filledLots = newFilledLots;
+        this.updateTimeNanos = EpochClock.epochNanos();
 
-        if (this.filledQuantity.compareTo(this.quantity) == 0) {
+        if (this.filledLots == this.quantityLots) {
             this.status = OrderStatus.FILLED;
         } else {
             this.status = OrderStatus.PARTIALLY_FILLED;
         }
     }
 
+    /**
+     * 业务规则：原地减量 - 新的订单总量须小于原总量且大于已成交量
+     */
+    public void reduceQuantity(long newQuantityLots) {
+        if (!isActive()) {
+            throw new IllegalStateException("Cannot amend inactive order");
+        }
+        if (newQuantityLots >= this.quantityLots) {
+            throw new IllegalArgumentException("New quantity must be less than current quantity");
+        }
+        if (newQuantityLots <= this.filledLots) {
+            throw new IllegalArgumentException("New quantity must exceed filled quantity");
+        }
+        this.quantityLots = newQuantityLots;
+        this.updateTimeNanos = EpochClock.epochNanos();
+    }
+
+    /**
+     * 业务规则：改价或增量 - 重新挂单后排到新档位队尾
+     */
+    public void replace(long newPriceTicks, long newQuantityLots) {
+        if (!isActive()) {
+            throw new IllegalStateException("Cannot amend inactive order");
+        }
+        if (newPriceTicks <= 0) {
+            throw new IllegalArgumentException("Price must be positive");
+        }
+        if (newQuantityLots <= this.filledLots) {
+            throw new IllegalArgumentException("New quantity must exceed filled quantity");
+        }
+        this.priceTicks = newPriceTicks;
+        this.quantityLots = newQuantityLots;
+        this.updateTimeNanos = EpochClock.epochNanos();
+    }
+
     /**
      * 业务规则：取消订单
      */
@@ -79,14 +227,32 @@ public class LimitOrder {
             throw new IllegalStateException("Cannot cancel filled order");
         }
         this.status = OrderStatus.CANCELLED;
-        this.updateTime = Instant.now();
+        this.updateTimeNanos = EpochClock.epochNanos();
+    }
+
+    /**
+     * 业务规则：拒绝订单 - 只有尚未撮合的新订单可以拒绝
+     */
+    public void reject() {
+        if (this.status != OrderStatus.PENDING || this.filledLots > 0) {
+            throw new IllegalStateException("Cannot reject order in status " + status);
+        }
+        this.status = OrderStatus.REJECTED;
+        this.updateTimeNanos = EpochClock.epochNanos();
+    }
+
+    /**
+     * 获取剩余数量(lots)
+     */
+    public long getRemainingLots() {
+        return this.quantityLots - this.filledLots;
     }
 
     /**
      * 获取剩余数量
      */
     public BigDecimal getRemainingQuantity() {
-        return this.quantity.subtract(this.filledQuantity);
+        return instrument.toQuantity(getRemainingLots());
     }
 
     /**
@@ -102,41 +268,69 @@ public class LimitOrder {
         return orderId;
     }
 
+    public String getOwnerId() {
+        return ownerId;
+    }
+
     public String getSymbol() {
-        return symbol;
+        return instrument.getSymbol();
+    }
+
+    public Instrument getInstrument() {
+        return instrument;
     }
 
     public OrderSide getSide() {
         return side;
     }
 
+    public long getPriceTicks() {
+        return priceTicks;
+    }
+
     public BigDecimal getPrice() {
-        return price;
+        return instrument.toPrice(priceTicks);
+    }
+
+    public long getQuantityLots() {
+        return quantityLots;
     }
 
     public BigDecimal getQuantity() {
-        return quantity;
+        return instrument.toQuantity(quantityLots);
+    }
+
+    public long getFilledLots() {
+        return filledLots;
     }
 
     public BigDecimal getFilledQuantity() {
-        return filledQuantity;
+        return instrument.toQuantity(filledLots);
     }
 
     public OrderStatus getStatus() {
         return status;
     }
 
+    public long getCreateTimeNanos() {
+        return createTimeNanos;
+    }
+
+    public long getUpdateTimeNanos() {
+        return updateTimeNanos;
+    }
+
     public Instant getCreateTime() {
-        return createTime;
+        return EpochClock.toInstant(createTimeNanos);
     }
 
     public Instant getUpdateTime() {
-        return updateTime;
+        return EpochClock.toInstant(updateTimeNanos);
     }
 
     @Override
     public String toString() {
         return String.format("LimitOrder{id=%s, symbol=%s, side=%s, price=%s, qty=%s, filled=%s, status=%s}",
-                orderId, symbol, side, price, quantity, filledQuantity, status);
+                orderId, getSymbol(), side, getPrice(), getQuantity(), getFilledQuantity(), status);
     }
-}
\ No newline at end of file
+}
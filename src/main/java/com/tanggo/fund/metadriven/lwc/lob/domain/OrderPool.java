@@ -0,0 +1,78 @@
+package com.tanggo.fund.metadriven.lwc.lob.domain;
+
+/**
+ * 订单对象池 - 单线程使用（由订单薄所属撮合线程独占）
+ * 空闲订单通过自身的next指针串成栈，取出/归还均不分配对象
+ */
+public final class OrderPool {
+
+    private final int maxSize;
+    private LimitOrder free;
+    private int size;
+
+    /**
+     * @param maxSize 池中最多保留的空闲订单数
+     */
+    public OrderPool(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * 取出一个订单并按参数初始化，池空时新建
+     */
+    public LimitOrder acquire(String orderId, String ownerId, Instrument instrument, OrderSide side,
+                              long priceTicks, long quantityLots) {
+        LimitOrder order = free;
+        if (order != null) {
+            free = order.next;
+            order.next = null;
+            size--;
+        } else {
+            order = new LimitOrder();
+            order.pooled = true;
+        }
+        try {
+            order.init(orderId, ownerId, instrument, side, priceTicks, quantityLots);
+        } catch (IllegalArgumentException e) {
+            order.recycle();
+            push(order);
+            throw e;
+        }
+        return order;
+    }
+
+    /**
+     * 按挂单记录取出订单快照（保留成交量和时间戳），池空时新建
+     */
+    public LimitOrder acquire(OrderStore store, int handle, Instrument instrument, long priceTicks) {
+        LimitOrder order = acquire(store.getOrderId(handle), store.getOwnerId(handle), instrument,
+            store.getSide(handle), priceTicks, store.getQuantityLots(handle));
+        order.restoreState(store.getFilledLots(handle), store.getCreateTimeNanos(handle),
+            store.getUpdateTimeNanos(handle));
+        return order;
+    }
+
+    /**
+     * 归还已完结或不再被引用的池化订单，重复归还被忽略
+     */
+    public void release(LimitOrder order) {
+        if (!order.pooled || order.isRecycled()) {
+            return;
+        }
+        order.recycle();
+        push(order);
+    }
+
+    private void push(LimitOrder order) {
+        if (size >= maxSize) {
+            return;
+        }
+        order.next = free;
+        free = order;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+}
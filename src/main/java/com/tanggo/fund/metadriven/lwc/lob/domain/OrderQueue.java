@@ -0,0 +1,73 @@
+package com.tanggo.fund.metadriven.lwc.lob.domain;
+
+/**
+ * 价格档位订单队列 - 以挂单句柄相连的侵入式双向链表的表头
+ * 前后句柄保存在 {@link OrderStore} 的挂单记录中，由其O(1)追加和摘除，
+ * 入队只追加到队尾，保持时间优先(FIFO)
+ * 同时增量维护档位的剩余总量和订单数，快照无需逐单累加
+ */
+public final class OrderQueue {
+
+    // 所在方向：true为买方档位；挂单记录不单独保存方向，由所在档位给出
+    private final boolean bid;
+    private long priceTicks;
+    // 队首/队尾挂单句柄，由 OrderStore 维护
+    int head = OrderStore.NONE;
+    int tail = OrderStore.NONE;
+    int size;
+    // 档位内所有订单的剩余数量之和(lots)
+    long totalLots;
+
+    public OrderQueue(boolean bid, long priceTicks) {
+        this.bid = bid;
+        this.priceTicks = priceTicks;
+    }
+
+    /**
+     * 复用空档位到新的价格
+     */
+    public void reset(long priceTicks) {
+        if (size != 0) {
+            throw new IllegalStateException("Cannot reset non-empty level " + this.priceTicks);
+        }
+        this.priceTicks = priceTicks;
+        this.totalLots = 0L;
+    }
+
+    /**
+     * 队首挂单句柄（时间最早），为空时返回 {@link OrderStore#NONE}
+     */
+    public int peekFirst() {
+        return head;
+    }
+
+    public boolean isBid() {
+        return bid;
+    }
+
+    public long getPriceTicks() {
+        return priceTicks;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 档位订单数
+     */
+    public int getOrderCount() {
+        return size;
+    }
+
+    /**
+     * 档位剩余总量(lots)
+     */
+    public long getTotalLots() {
+        return totalLots;
+    }
+}
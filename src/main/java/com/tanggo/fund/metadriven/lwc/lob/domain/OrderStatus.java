@@ -7,5 +7,6 @@ public enum OrderStatus {
     PENDING,           // 待处理
     PARTIALLY_FILLED,  // 部分成交
     FILLED,            // 完全成交
-    CANCELLED          // 已取消
+    CANCELLED,         // 已取消
+    REJECTED           // 已拒绝（校验失败，未进入订单薄）
 }
\ No newline at end of file
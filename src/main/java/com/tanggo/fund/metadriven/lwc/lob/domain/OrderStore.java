@@ -0,0 +1,479 @@
+package com.tanggo.fund.metadriven.lwc.lob.domain;
+
+/**
+ * 挂单存储 - 按列存放的紧凑挂单记录，挂单以int句柄引用
+ * 每个订单薄一个实例（交易对由订单薄确定，不逐单保存）；价格由所在档位 {@link OrderQueue} 给出，
+ * 方向由所在档位给出，状态由成交量推出（挂单只可能是PENDING或PARTIALLY_FILLED），参与者以int句柄引用
+ * 每笔挂单固定占用：5个long（总量、已成交量、创建/更新时间纳秒、订单键）+ 5个int（档位前后、参与者前后、参与者）
+ * + 2个引用（订单ID、档位），压缩指针下共68字节，无对象头、无每单对象
+ * 订单ID不编码为整数句柄：记录只引用调用方传入的String，该String随挂单保留到成交或撤销，
+ * 其自身大小（典型的十余字符ID约40~56字节）不含在上述60字节内，容量规划时须另计；
+ * 这样成交回报、撤单结果可以直接返回原ID，撮合路径不为ID分配对象。参与者ID同样按参与者保留一份
+ * 记录按4096笔一块分配，块内为原始数组，扩容不复制已有数据；释放的句柄串成空闲栈复用，稳态挂单/撤单不分配对象
+ * 档位队列和参与者链表都是以句柄相连的侵入式双向链表，O(1)追加和摘除；
+ * 参与者的最后一笔挂单摘除时注销该参与者，参与者句柄和链表对象复用，参与者表只随同时挂单的参与者数增长
+ * 单线程使用（由订单薄所属撮合线程独占）
+ */
+public final class OrderStore {
+
+    /**
+     * 空句柄：链表结尾、不存在的挂单和无参与者都用0表示
+     */
+    public static final int NONE = 0;
+
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    /**
+     * 一块挂单记录，各字段一个原始数组，同一下标为同一笔挂单
+     */
+    private static final class Chunk {
+        final long[] quantityLots = new long[CHUNK_SIZE];
+        final long[] filledLots = new long[CHUNK_SIZE];
+        final long[] createTimeNanos = new long[CHUNK_SIZE];
+        final long[] updateTimeNanos = new long[CHUNK_SIZE];
+        // 网关分配的64位订单键，0表示未携带
+        final long[] orderKey = new long[CHUNK_SIZE];
+        // 档位队列前后句柄；空闲句柄通过next串成栈
+        final int[] prev = new int[CHUNK_SIZE];
+        final int[] next = new int[CHUNK_SIZE];
+        // 参与者链表前后句柄和参与者句柄
+        final int[] ownerPrev = new int[CHUNK_SIZE];
+        final int[] ownerNext = new int[CHUNK_SIZE];
+        final int[] owner = new int[CHUNK_SIZE];
+        final String[] orderId = new String[CHUNK_SIZE];
+        // 所在档位，null表示不在档位中
+        final OrderQueue[] level = new OrderQueue[CHUNK_SIZE];
+    }
+
+    private Chunk[] chunks = new Chunk[16];
+    private int chunkCount;
+    // 从未使用过的最小句柄（句柄0保留为NONE）
+    private int limit = 1;
+    // 空闲句柄栈顶
+    private int free = NONE;
+    private int size;
+
+    // 参与者ID -> 参与者句柄：开放寻址哈希表（线性探测，键取自链表的参与者ID），NONE为空槽，负载不超过1/2
+    private int[] ownerSlots = new int[16];
+    private int ownerShift = Integer.numberOfLeadingZeros(15);
+    private int ownerCount;
+    // 参与者句柄 -> 链表；已注销的句柄及其链表对象入空闲栈，再次注册时复用
+    private OwnerOrderList[] owners = new OwnerOrderList[16];
+    private int ownerLimit = 1;
+    private int[] freeOwners = new int[16];
+    private int freeOwnerCount;
+
+    private Chunk chunk(int order) {
+        return chunks[order >>> CHUNK_BITS];
+    }
+
+    /**
+     * 新增一笔挂单记录并追加到参与者链表尾，此时尚未进入档位（随后调用 {@link #addLast}）
+     *
+     * @param orderKey 网关分配的64位订单键，0表示未携带
+     * @param ownerId 参与者ID，null表示无参与者
+     * @return 挂单句柄
+     */
+    public int add(String orderId, long orderKey, String ownerId, long quantityLots, long filledLots,
+                   long createTimeNanos, long updateTimeNanos) {
+        int order = allocate();
+        Chunk c = chunk(order);
+        int i = order & CHUNK_MASK;
+        c.orderId[i] = orderId;
+        c.orderKey[i] = orderKey;
+        c.quantityLots[i] = quantityLots;
+        c.filledLots[i] = filledLots;
+        c.createTimeNanos[i] = createTimeNanos;
+        c.updateTimeNanos[i] = updateTimeNanos;
+        if (ownerId != null) {
+            linkOwner(ownerList(ownerId), order);
+        }
+        size++;
+        return order;
+    }
+
+    private int allocate() {
+        if (free != NONE) {
+            int order = free;
+            Chunk c = chunk(order);
+            free = c.next[order & CHUNK_MASK];
+            c.next[order & CHUNK_MASK] = NONE;
+            return order;
+        }
+        if ((limit >>> CHUNK_BITS) == chunkCount) {
+            if (chunkCount == chunks.length) {
+                Chunk[] grown = new Chunk[chunkCount * 2];
+                System.arraycopy(chunks, 0, grown, 0, chunkCount);
+                chunks = grown;
+            }
+            chunks[chunkCount++] = new Chunk();
+        }
+        return limit++;
+    }
+
+    /**
+     * 释放挂单记录：从档位和参与者链表摘除（如仍在其中），句柄归还空闲栈
+     */
+    public void release(int order) {
+        Chunk c = chunk(order);
+        int i = order & CHUNK_MASK;
+        if (c.level[i] != null) {
+            remove(order);
+        }
+        if (c.owner[i] != NONE) {
+            unlinkOwner(order);
+        }
+        c.orderId[i] = null;
+        c.orderKey[i] = 0L;
+        c.next[i] = free;
+        free = order;
+        size--;
+    }
+
+    // ---- 档位队列 ----
+
+    /**
+     * 追加到档位队尾
+     */
+    public void addLast(OrderQueue level, int order) {
+        Chunk c = chunk(order);
+        int i = order & CHUNK_MASK;
+        if (c.level[i] != null) {
+            throw new IllegalStateException("Order already queued: " + c.orderId[i]);
+        }
+        c.level[i] = level;
+        c.prev[i] = level.tail;
+        c.next[i] = NONE;
+        if (level.tail == NONE) {
+            level.head = order;
+        } else {
+            chunk(level.tail).next[level.tail & CHUNK_MASK] = order;
+        }
+        level.tail = order;
+        level.size++;
+        level.totalLots += c.quantityLots[i] - c.filledLots[i];
+    }
+
+    /**
+     * O(1)从所在档位摘除
+     *
+     * @return 原所在档位，不在档位中时返回null
+     */
+    public OrderQueue remove(int order) {
+        Chunk c = chunk(order);
+        int i = order & CHUNK_MASK;
+        OrderQueue level = c.level[i];
+        if (level == null) {
+            return null;
+        }
+        int prev = c.prev[i];
+        int next = c.next[i];
+        if (prev == NONE) {
+            level.head = next;
+        } else {
+            chunk(prev).next[prev & CHUNK_MASK] = next;
+        }
+        if (next == NONE) {
+            level.tail = prev;
+        } else {
+            chunk(next).prev[next & CHUNK_MASK] = prev;
+        }
+        c.prev[i] = NONE;
+        c.next[i] = NONE;
+        c.level[i] = null;
+        level.size--;
+        level.totalLots -= c.quantityLots[i] - c.filledLots[i];
+        return level;
+    }
+
+    /**
+     * 档位中排在order之后的挂单，没有时返回NONE
+     */
+    public int next(int order) {
+        return chunk(order).next[order & CHUNK_MASK];
+    }
+
+    // ---- 参与者链表 ----
+
+    /**
+     * 参与者挂单链表，不存在时注册（优先复用已注销的句柄和链表对象）
+     */
+    private OwnerOrderList ownerList(String ownerId) {
+        int handle = findOwner(ownerId);
+        if (handle != NONE) {
+            return owners[handle];
+        }
+        OwnerOrderList list;
+        if (freeOwnerCount > 0) {
+            handle = freeOwners[--freeOwnerCount];
+            list = owners[handle];
+            list.ownerId = ownerId;
+        } else {
+            if (ownerLimit == owners.length) {
+                OwnerOrderList[] grown = new OwnerOrderList[ownerLimit * 2];
+                System.arraycopy(owners, 0, grown, 0, ownerLimit);
+                owners = grown;
+                int[] grownFree = new int[ownerLimit * 2];
+                System.arraycopy(freeOwners, 0, grownFree, 0, freeOwnerCount);
+                freeOwners = grownFree;
+            }
+            handle = ownerLimit++;
+            list = new OwnerOrderList(ownerId, handle);
+            owners[handle] = list;
+        }
+        if (++ownerCount * 2 > ownerSlots.length) {
+            rehashOwners(ownerSlots.length * 2);
+        }
+        int i = ownerSlot(ownerId);
+        while (ownerSlots[i] != NONE) {
+            i = (i + 1) & (ownerSlots.length - 1);
+        }
+        ownerSlots[i] = handle;
+        return list;
+    }
+
+    /**
+     * 参与者挂单链表，参与者当前没有挂单时返回null
+     */
+    public OwnerOrderList getOwnerList(String ownerId) {
+        int handle = findOwner(ownerId);
+        return handle != NONE ? owners[handle] : null;
+    }
+
+    private int ownerSlot(String ownerId) {
+        return (ownerId.hashCode() * 0x9E3779B9) >>> ownerShift;
+    }
+
+    private int findOwner(String ownerId) {
+        int mask = ownerSlots.length - 1;
+        for (int i = ownerSlot(ownerId); ownerSlots[i] != NONE; i = (i + 1) & mask) {
+            String id = owners[ownerSlots[i]].ownerId;
+            if (id == ownerId || id.equals(ownerId)) {
+                return ownerSlots[i];
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * 注销链表已空的参与者：删除哈希表登记（后移回填，不留墓碑），句柄和链表对象入空闲栈
+     */
+    private void releaseOwner(OwnerOrderList list) {
+        int mask = ownerSlots.length - 1;
+        int hole = ownerSlot(list.ownerId);
+        while (ownerSlots[hole] != list.handle) {
+            hole = (hole + 1) & mask;
+        }
+        ownerSlots[hole] = NONE;
+        for (int i = (hole + 1) & mask; ownerSlots[i] != NONE; i = (i + 1) & mask) {
+            int home = ownerSlot(owners[ownerSlots[i]].ownerId);
+            // home不在(hole, i]区间内时，该记录可以前移到hole
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                ownerSlots[hole] = ownerSlots[i];
+                ownerSlots[i] = NONE;
+                hole = i;
+            }
+        }
+        ownerCount--;
+        list.ownerId = null;
+        freeOwners[freeOwnerCount++] = list.handle;
+    }
+
+    private void rehashOwners(int capacity) {
+        int[] old = ownerSlots;
+        ownerSlots = new int[capacity];
+        ownerShift = Integer.numberOfLeadingZeros(capacity - 1);
+        for (int handle : old) {
+            if (handle != NONE) {
+                int i = ownerSlot(owners[handle].ownerId);
+                while (ownerSlots[i] != NONE) {
+                    i = (i + 1) & (capacity - 1);
+                }
+                ownerSlots[i] = handle;
+            }
+        }
+    }
+
+    /**
+     * 当前有挂单的参与者数
+     */
+    public int getOwnerCount() {
+        return ownerCount;
+    }
+
+    private void linkOwner(OwnerOrderList list, int order) {
+        Chunk c = chunk(order);
+        int i = order & CHUNK_MASK;
+        c.owner[i] = list.handle;
+        c.ownerPrev[i] = list.tail;
+        c.ownerNext[i] = NONE;
+        if (list.tail == NONE) {
+            list.head = order;
+        } else {
+            chunk(list.tail).ownerNext[list.tail & CHUNK_MASK] = order;
+        }
+        list.tail = order;
+        list.size++;
+    }
+
+    private void unlinkOwner(int order) {
+        Chunk c = chunk(order);
+        int i = order & CHUNK_MASK;
+        OwnerOrderList list = owners[c.owner[i]];
+        int prev = c.ownerPrev[i];
+        int next = c.ownerNext[i];
+        if (prev == NONE) {
+            list.head = next;
+        } else {
+            chunk(prev).ownerNext[prev & CHUNK_MASK] = next;
+        }
+        if (next == NONE) {
+            list.tail = prev;
+        } else {
+            chunk(next).ownerPrev[next & CHUNK_MASK] = prev;
+        }
+        c.ownerPrev[i] = NONE;
+        c.ownerNext[i] = NONE;
+        c.owner[i] = NONE;
+        if (--list.size == 0) {
+            releaseOwner(list);
+        }
+    }
+
+    /**
+     * 参与者链表中排在order之后的挂单，没有时返回NONE
+     */
+    public int nextOwned(int order) {
+        return chunk(order).ownerNext[order & CHUNK_MASK];
+    }
+
+    // ---- 状态变更 ----
+
+    /**
+     * 成交fillLots，同步所在档位的剩余总量
+     *
+     * @return 剩余数量(lots)，0表示完全成交
+     */
+    public long fill(int order, long fillLots) {
+        Chunk c = chunk(order);
+        int i = order & CHUNK_MASK;
+        long filled = c.filledLots[i] + fillLots;
+        if (fillLots <= 0 || filled > c.quantityLots[i]) {
+            throw new IllegalArgumentException("Invalid fill quantity " + fillLots + " for order " + c.orderId[i]);
+        }
+        c.filledLots[i] = filled;
+        c.updateTimeNanos[i] = EpochClock.epochNanos();
+        if (c.level[i] != null) {
+            c.level[i].totalLots -= fillLots;
+        }
+        return c.quantityLots[i] - filled;
+    }
+
+    /**
+     * 原地减量 - 新的订单总量须小于原总量且大于已成交量，档位中的挂单保持时间优先
+     */
+    public void reduceQuantity(int order, long newQuantityLots) {
+        Chunk c = chunk(order);
+        int i = order & CHUNK_MASK;
+        if (newQuantityLots >= c.quantityLots[i]) {
+            throw new IllegalArgumentException("New quantity must be less than current quantity");
+        }
+        if (newQuantityLots <= c.filledLots[i]) {
+            throw new IllegalArgumentException("New quantity must exceed filled quantity");
+        }
+        long reducedLots = c.quantityLots[i] - newQuantityLots;
+        c.quantityLots[i] = newQuantityLots;
+        c.updateTimeNanos[i] = EpochClock.epochNanos();
+        if (c.level[i] != null) {
+            c.level[i].totalLots -= reducedLots;
+        }
+    }
+
+    /**
+     * 改价/增量后按订单当前状态覆盖数量和更新时间，挂单须已从档位摘除
+     */
+    public void update(int order, long quantityLots, long filledLots, long updateTimeNanos) {
+        Chunk c = chunk(order);
+        int i = order & CHUNK_MASK;
+        if (c.level[i] != null) {
+            throw new IllegalStateException("Order must be removed from its level before update: " + c.orderId[i]);
+        }
+        c.quantityLots[i] = quantityLots;
+        c.filledLots[i] = filledLots;
+        c.updateTimeNanos[i] = updateTimeNanos;
+    }
+
+    // ---- 读取 ----
+
+    public String getOrderId(int order) {
+        return chunk(order).orderId[order & CHUNK_MASK];
+    }
+
+    /**
+     * 网关分配的64位订单键，0表示未携带
+     */
+    public long getOrderKey(int order) {
+        return chunk(order).orderKey[order & CHUNK_MASK];
+    }
+
+    public String getOwnerId(int order) {
+        int owner = chunk(order).owner[order & CHUNK_MASK];
+        return owner != NONE ? owners[owner].getOwnerId() : null;
+    }
+
+    /**
+     * 方向，挂单须在档位中
+     */
+    public OrderSide getSide(int order) {
+        return isBuy(order) ? OrderSide.BUY : OrderSide.SELL;
+    }
+
+    public boolean isBuy(int order) {
+        return chunk(order).level[order & CHUNK_MASK].isBid();
+    }
+
+    /**
+     * 所在档位，不在档位中时返回null
+     */
+    public OrderQueue getLevel(int order) {
+        return chunk(order).level[order & CHUNK_MASK];
+    }
+
+    public long getQuantityLots(int order) {
+        return chunk(order).quantityLots[order & CHUNK_MASK];
+    }
+
+    public long getFilledLots(int order) {
+        return chunk(order).filledLots[order & CHUNK_MASK];
+    }
+
+    public long getRemainingLots(int order) {
+        Chunk c = chunk(order);
+        int i = order & CHUNK_MASK;
+        return c.quantityLots[i] - c.filledLots[i];
+    }
+
+    public long getCreateTimeNanos(int order) {
+        return chunk(order).createTimeNanos[order & CHUNK_MASK];
+    }
+
+    public long getUpdateTimeNanos(int order) {
+        return chunk(order).updateTimeNanos[order & CHUNK_MASK];
+    }
+
+    /**
+     * 挂单数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 已分配的最大句柄
+     */
+    public int getMaxHandle() {
+        return limit - 1;
+    }
+}
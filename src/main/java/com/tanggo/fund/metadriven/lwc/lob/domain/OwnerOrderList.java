@@ -0,0 +1,43 @@
+package com.tanggo.fund.metadriven.lwc.lob.domain;
+
+/**
+ * 参与者挂单链表 - 以挂单句柄相连的侵入式双向链表的表头
+ * 前后句柄保存在 {@link OrderStore} 的挂单记录中（与档位队列指针相互独立），
+ * 挂单/摘除均为O(1)，按参与者批量撤单只遍历该参与者的订单
+ * 链表清空时参与者被注销，链表对象随句柄复用给之后注册的参与者，不应在订单薄操作之间持有
+ */
+public final class OwnerOrderList {
+
+    // 参与者ID，注销后为null，复用时由 OrderStore 重新设置
+    String ownerId;
+    // 参与者句柄，挂单记录以此引用参与者
+    final int handle;
+    // 链表头/尾挂单句柄，由 OrderStore 维护
+    int head = OrderStore.NONE;
+    int tail = OrderStore.NONE;
+    int size;
+
+    OwnerOrderList(String ownerId, int handle) {
+        this.ownerId = ownerId;
+        this.handle = handle;
+    }
+
+    /**
+     * 链表头挂单句柄，为空时返回 {@link OrderStore#NONE}
+     */
+    public int peekFirst() {
+        return head;
+    }
+
+    public String getOwnerId() {
+        return ownerId;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+}
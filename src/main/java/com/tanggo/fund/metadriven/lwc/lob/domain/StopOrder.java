@@ -0,0 +1,144 @@
+package com.tanggo.fund.metadriven.lwc.lob.domain;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * 止损/止损限价订单 - 不可变值对象
+ * 挂起期间不进入订单薄档位，由订单薄的触发价索引保存；最新成交价达到触发价时
+ * （买入止损：最新价 >= 触发价；卖出止损：最新价 <= 触发价）转为 {@link LimitOrder} 进入撮合
+ * 限价为0表示止损市价单：触发后按对手方挂单立即成交，未成交部分撤销
+ */
+public final class StopOrder {
+
+    private final String orderId;
+    private final String ownerId;
+    private final Instrument instrument;
+    private final OrderSide side;
+    private final long triggerPriceTicks;
+    private final long limitPriceTicks;
+    private final long quantityLots;
+    private final long createTimeNanos;
+
+    public StopOrder(String orderId, String ownerId, Instrument instrument, OrderSide side,
+                     long triggerPriceTicks, long limitPriceTicks, long quantityLots) {
+        this(orderId, ownerId, instrument, side, triggerPriceTicks, limitPriceTicks, quantityLots,
+            EpochClock.epochNanos());
+    }
+
+    /**
+     * 指定创建时间，用于从检查点恢复
+     */
+    public StopOrder(String orderId, String ownerId, Instrument instrument, OrderSide side,
+                     long triggerPriceTicks, long limitPriceTicks, long quantityLots, long createTimeNanos) {
+        if (orderId == null || orderId.isEmpty()) {
+            throw new IllegalArgumentException("OrderId cannot be null or empty");
+        }
+        if (instrument == null) {
+            throw new IllegalArgumentException("Instrument cannot be null");
+        }
+        if (side == null) {
+            throw new IllegalArgumentException("Side cannot be null");
+        }
+        if (triggerPriceTicks <= 0) {
+            throw new IllegalArgumentException("Trigger price must be positive");
+        }
+        if (limitPriceTicks < 0) {
+            throw new IllegalArgumentException("Limit price cannot be negative");
+        }
+        if (quantityLots <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        this.orderId = orderId;
+        this.ownerId = ownerId;
+        this.instrument = instrument;
+        this.side = side;
+        this.triggerPriceTicks = triggerPriceTicks;
+        this.limitPriceTicks = limitPriceTicks;
+        this.quantityLots = quantityLots;
+        this.createTimeNanos = createTimeNanos;
+    }
+
+    /**
+     * 最新成交价是否达到触发价
+     */
+    public boolean isTriggeredBy(long lastPriceTicks) {
+        return side == OrderSide.BUY ? lastPriceTicks >= triggerPriceTicks : lastPriceTicks <= triggerPriceTicks;
+    }
+
+    /**
+     * 触发后转为进入撮合的订单；止损市价单以对手方任意价格可成交的极限价撮合
+     */
+    public LimitOrder toLimitOrder() {
+        long priceTicks = isMarket() ? (side == OrderSide.BUY ? Long.MAX_VALUE : 1L) : limitPriceTicks;
+        return new LimitOrder(orderId, ownerId, instrument, side, priceTicks, quantityLots);
+    }
+
+    /**
+     * 是否为止损市价单
+     */
+    public boolean isMarket() {
+        return limitPriceTicks == 0L;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public String getOwnerId() {
+        return ownerId;
+    }
+
+    public Instrument getInstrument() {
+        return instrument;
+    }
+
+    public String getSymbol() {
+        return instrument.getSymbol();
+    }
+
+    public OrderSide getSide() {
+        return side;
+    }
+
+    public long getTriggerPriceTicks() {
+        return triggerPriceTicks;
+    }
+
+    public BigDecimal getTriggerPrice() {
+        return instrument.toPrice(triggerPriceTicks);
+    }
+
+    public long getLimitPriceTicks() {
+        return limitPriceTicks;
+    }
+
+    /**
+     * 限价，止损市价单返回null
+     */
+    public BigDecimal getLimitPrice() {
+        return isMarket() ? null : instrument.toPrice(limitPriceTicks);
+    }
+
+    public long getQuantityLots() {
+        return quantityLots;
+    }
+
+    public BigDecimal getQuantity() {
+        return instrument.toQuantity(quantityLots);
+    }
+
+    public long getCreateTimeNanos() {
+        return createTimeNanos;
+    }
+
+    public Instant getCreateTime() {
+        return EpochClock.toInstant(createTimeNanos);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("StopOrder{id=%s, symbol=%s, side=%s, trigger=%s, limit=%s, qty=%s}",
+                orderId, getSymbol(), side, getTriggerPrice(), getLimitPrice(), getQuantity());
+    }
+}
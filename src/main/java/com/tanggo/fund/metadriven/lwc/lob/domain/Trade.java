@@ -5,18 +5,36 @@ import java.math.BigDecimal;
 
 /**
  * 成交记录
+ * 成交价/量以 ticks/lots 保存，getter 按品种精度换算为 BigDecimal
+ * 零分配撮合模式下由 {@link TradeBuffer} 复用，需要保留时调用 {@link #copy()}
  */
 public class Trade {
-    private final String buyOrderId;
-    private final String sellOrderId;
-    private final BigDecimal price;
-    private final BigDecimal quantity;
+    private String buyOrderId;
+    private String sellOrderId;
+    private Instrument instrument;
+    private long priceTicks;
+    private long quantityLots;
 
-    public Trade(String buyOrderId, String sellOrderId, BigDecimal price, BigDecimal quantity) {
+    public Trade(String buyOrderId, String sellOrderId, Instrument instrument, long priceTicks, long quantityLots) {
+        set(buyOrderId, sellOrderId, instrument, priceTicks, quantityLots);
+    }
+
+    Trade() {
+    }
+
+    void set(String buyOrderId, String sellOrderId, Instrument instrument, long priceTicks, long quantityLots) {
         this.buyOrderId = buyOrderId;
         this.sellOrderId = sellOrderId;
-        this.price = price;
-        this.quantity = quantity;
+        this.instrument = instrument;
+        this.priceTicks = priceTicks;
+        this.quantityLots = quantityLots;
+    }
+
+    /**
+     * 拷贝为独立的成交记录
+     */
+    public Trade copy() {
+        return new Trade(buyOrderId, sellOrderId, instrument, priceTicks, quantityLots);
     }
 
     public String getBuyOrderId() {
@@ -27,16 +45,24 @@ public class Trade {
         return sellOrderId;
     }
 
+    public long getPriceTicks() {
+        return priceTicks;
+    }
+
+    public long getQuantityLots() {
+        return quantityLots;
+    }
+
     public BigDecimal getPrice() {
-        return price;
+        return instrument.toPrice(priceTicks);
     }
 
     public BigDecimal getQuantity() {
-        return quantity;
+        return instrument.toQuantity(quantityLots);
     }
 
     @Override
     public String toString() {
-        return String.format("Trade{buy=%s, sell=%s, price=%s, qty=%s}", buyOrderId, sellOrderId, price, quantity);
+        return String.format("Trade{buy=%s, sell=%s, price=%s, qty=%s}", buyOrderId, sellOrderId, getPrice(), getQuantity());
     }
 }
@@ -0,0 +1,57 @@
+package com.tanggo.fund.metadriven.lwc.lob.domain;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * 可复用的成交缓冲区 - 只读List视图
+ * Trade对象按需创建后保留在缓冲区中，clear()后原地复写，稳态撮合不再分配成交对象
+ */
+public final class TradeBuffer extends AbstractList<Trade> implements RandomAccess {
+
+    private Trade[] trades;
+    private int size;
+
+    public TradeBuffer(int initialCapacity) {
+        this.trades = new Trade[Math.max(initialCapacity, 1)];
+    }
+
+    /**
+     * 追加一笔成交，复用缓冲区中已有的Trade对象
+     */
+    public Trade add(String buyOrderId, String sellOrderId, Instrument instrument,
+                     long priceTicks, long quantityLots) {
+        if (size == trades.length) {
+            trades = Arrays.copyOf(trades, size * 2);
+        }
+        Trade trade = trades[size];
+        if (trade == null) {
+            trade = new Trade();
+            trades[size] = trade;
+        }
+        trade.set(buyOrderId, sellOrderId, instrument, priceTicks, quantityLots);
+        size++;
+        return trade;
+    }
+
+    @Override
+    public Trade get(int index) {
+        Objects.checkIndex(index, size);
+        return trades[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 清空（保留Trade对象供复用）
+     */
+    @Override
+    public void clear() {
+        size = 0;
+    }
+}
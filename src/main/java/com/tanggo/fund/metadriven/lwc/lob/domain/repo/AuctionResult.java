@@ -0,0 +1,69 @@
+package com.tanggo.fund.metadriven.lwc.lob.domain.repo;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.Trade;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 集合竞价撮合结果 - 不可变值对象
+ * 所有成交都以同一均衡价成交；订单薄未交叉时均衡价为0、成交为空
+ */
+public class AuctionResult {
+    private final String symbol;
+    private final Instrument instrument;
+    private final long priceTicks;
+    private final long volumeLots;
+    private final List<Trade> trades;
+
+    public AuctionResult(String symbol, Instrument instrument, long priceTicks, long volumeLots, List<Trade> trades) {
+        this.symbol = symbol;
+        this.instrument = instrument;
+        this.priceTicks = priceTicks;
+        this.volumeLots = volumeLots;
+        this.trades = trades;
+    }
+
+    /**
+     * 尚无订单薄的交易对
+     */
+    public static AuctionResult empty(String symbol) {
+        return new AuctionResult(symbol, null, 0L, 0L, Collections.emptyList());
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public boolean hasUncrossed() {
+        return volumeLots > 0;
+    }
+
+    public long getPriceTicks() {
+        return priceTicks;
+    }
+
+    public long getVolumeLots() {
+        return volumeLots;
+    }
+
+    public BigDecimal getPrice() {
+        return priceTicks > 0 ? instrument.toPrice(priceTicks) : null;
+    }
+
+    public BigDecimal getVolume() {
+        return instrument != null ? instrument.toQuantity(volumeLots) : BigDecimal.ZERO;
+    }
+
+    public List<Trade> getTrades() {
+        return trades;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AuctionResult{symbol=%s, price=%s, volume=%s, trades=%d}",
+                symbol, getPrice(), getVolume(), trades.size());
+    }
+}
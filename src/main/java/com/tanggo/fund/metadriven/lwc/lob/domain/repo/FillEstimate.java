@@ -0,0 +1,89 @@
+package com.tanggo.fund.metadriven.lwc.lob.domain.repo;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+/**
+ * 成交预估 - 不可变值对象
+ * 按当前挂单、以价格优先级吃掉对手方深度时可成交的数量和名义金额，不改变订单薄
+ * 名义金额以 ticks*lots 表示，均价 = 名义金额 / 可成交量
+ */
+public class FillEstimate {
+    private final Instrument instrument;
+    // 主动方方向：BUY吃卖盘，SELL吃买盘
+    private final OrderSide side;
+    private final long requestedLots;
+    private final long fillableLots;
+    private final long notional;
+
+    public FillEstimate(Instrument instrument, OrderSide side, long requestedLots, long fillableLots, long notional) {
+        this.instrument = instrument;
+        this.side = side;
+        this.requestedLots = requestedLots;
+        this.fillableLots = fillableLots;
+        this.notional = notional;
+    }
+
+    public String getSymbol() {
+        return instrument.getSymbol();
+    }
+
+    public Instrument getInstrument() {
+        return instrument;
+    }
+
+    public OrderSide getSide() {
+        return side;
+    }
+
+    /**
+     * 可否全部成交（FOK可行性）
+     */
+    public boolean isFullyFillable() {
+        return fillableLots >= requestedLots;
+    }
+
+    public long getRequestedLots() {
+        return requestedLots;
+    }
+
+    public long getFillableLots() {
+        return fillableLots;
+    }
+
+    /**
+     * 名义金额(ticks*lots)
+     */
+    public long getNotional() {
+        return notional;
+    }
+
+    public BigDecimal getRequestedQuantity() {
+        return instrument.toQuantity(requestedLots);
+    }
+
+    public BigDecimal getFillableQuantity() {
+        return instrument.toQuantity(fillableLots);
+    }
+
+    /**
+     * 成交均价，没有可成交量时返回null
+     */
+    public BigDecimal getAveragePrice() {
+        if (fillableLots == 0) {
+            return null;
+        }
+        return BigDecimal.valueOf(notional)
+                .divide(BigDecimal.valueOf(fillableLots), MathContext.DECIMAL64)
+                .multiply(instrument.getTickSize());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("FillEstimate{symbol=%s, side=%s, requested=%s, fillable=%s, avgPrice=%s}",
+                getSymbol(), side, getRequestedQuantity(), getFillableQuantity(), getAveragePrice());
+    }
+}
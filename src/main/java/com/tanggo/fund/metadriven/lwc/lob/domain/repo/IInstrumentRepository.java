@@ -0,0 +1,28 @@
+package com.tanggo.fund.metadriven.lwc.lob.domain.repo;
+
+import com.tanggo.fund.metadriven.lwc.cqrs.outbound.trait.IRepository;
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+
+/**
+ * 交易品种仓储接口 - 提供每个交易对的tickSize/lotSize定义
+ */
+public interface IInstrumentRepository extends IRepository {
+
+    /**
+     * 获取交易品种定义
+     *
+     * @param symbol 交易对符号
+     * @return 交易品种
+     * @throws IllegalArgumentException 交易对未配置
+     */
+    Instrument getInstrument(String symbol);
+
+    /**
+     * 按注册时分配的稠密ID获取交易品种定义
+     *
+     * @param symbolId 交易品种ID
+     * @return 交易品种
+     * @throws IllegalArgumentException ID未注册
+     */
+    Instrument getInstrument(int symbolId);
+}
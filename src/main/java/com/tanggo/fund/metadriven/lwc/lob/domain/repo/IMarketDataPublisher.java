@@ -0,0 +1,19 @@
+package com.tanggo.fund.metadriven.lwc.lob.domain.repo;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+
+/**
+ * 合并行情发布接口 - 面向跟不上逐笔增量的慢消费者
+ * 领域层定义接口，基础设施层实现
+ */
+public interface IMarketDataPublisher {
+
+    /**
+     * 订阅按(方向, 价格)合并的档位变化，发送间隔不小于flushIntervalMicros
+     *
+     * @param instrument 交易品种
+     * @param flushIntervalMicros 两次发送之间的最小间隔（微秒）
+     * @return 订阅；首批为当前完整档位状态，之后每批应用完即与该批最大序号时的订单薄一致，不会出现缺口
+     */
+    LevelUpdateSubscription subscribeConflated(Instrument instrument, long flushIntervalMicros);
+}
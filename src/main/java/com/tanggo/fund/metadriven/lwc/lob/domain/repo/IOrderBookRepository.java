@@ -2,7 +2,15 @@ package com.tanggo.fund.metadriven.lwc.lob.domain.repo;
 
 
 import com.tanggo.fund.metadriven.lwc.cqrs.outbound.trait.IRepository;
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
 import com.tanggo.fund.metadriven.lwc.lob.domain.LimitOrder;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import com.tanggo.fund.metadriven.lwc.lob.domain.StopOrder;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 订单薄仓储接口 - 遵循Clean Architecture的依赖倒置原则
@@ -18,6 +26,130 @@ public interface IOrderBookRepository extends IRepository {
      */
     MatchResult addOrder(LimitOrder order);
 
+    /**
+     * 批量下单 - 实现应按交易对只路由一次，同一订单薄的订单整组处理（同一交易对内保持提交顺序）；
+     * 被拒绝的订单以拒绝结果返回（{@link MatchResult#isRejected()}），不影响其他订单，不会中途抛出异常而丢失已执行订单的结果；
+     * 默认实现逐个调用 {@link #addOrder(LimitOrder)}
+     *
+     * @param orders 限价订单
+     * @return 撮合结果，与orders一一对应
+     */
+    default MatchResult[] addOrders(List<LimitOrder> orders) {
+        MatchResult[] results = new MatchResult[orders.size()];
+        for (int i = 0; i < results.length; i++) {
+            LimitOrder order = orders.get(i);
+            try {
+                results[i] = addOrder(order);
+            } catch (IllegalArgumentException | UnsupportedOperationException e) {
+                results[i] = MatchResult.rejected(order, e.getMessage());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 零分配下单（字段形式）- 订单由仓储从对象池创建，
+     * 返回的撮合结果可能是享元，仅在同一线程下一次调用前有效，需要保留时调用 {@link MatchResult#copy()}
+     * 默认实现直接构造订单后调用 {@link #addOrder(LimitOrder)}
+     *
+     * @param orderId 订单ID
+     * @param instrument 交易品种
+     * @param side 买卖方向
+     * @param priceTicks 价格(ticks)
+     * @param quantityLots 数量(lots)
+     * @return 撮合结果
+     */
+    default MatchResult placeOrder(String orderId, Instrument instrument, OrderSide side,
+                                   long priceTicks, long quantityLots) {
+        return placeOrder(orderId, null, instrument, side, priceTicks, quantityLots);
+    }
+
+    /**
+     * 零分配下单（字段形式，携带参与者ID）- 同 {@link #placeOrder(String, Instrument, OrderSide, long, long)}
+     *
+     * @param orderId 订单ID
+     * @param ownerId 参与者ID（可选）
+     * @param instrument 交易品种
+     * @param side 买卖方向
+     * @param priceTicks 价格(ticks)
+     * @param quantityLots 数量(lots)
+     * @return 撮合结果
+     */
+    default MatchResult placeOrder(String orderId, String ownerId, Instrument instrument, OrderSide side,
+                                   long priceTicks, long quantityLots) {
+        return addOrder(new LimitOrder(orderId, ownerId, instrument, side, priceTicks, quantityLots));
+    }
+
+    /**
+     * 零分配下单（携带订单键）- 网关把订单ID映射为64位订单键，挂单按订单键登记，
+     * 之后的撤单/改单/查询可按订单键定位而不哈希订单ID；默认实现只支持未携带订单键（0）
+     *
+     * @param orderId 订单ID
+     * @param orderKey 网关分配的64位订单键，0表示未携带
+     * @param ownerId 参与者ID（可选）
+     * @param instrument 交易品种
+     * @param side 买卖方向
+     * @param priceTicks 价格(ticks)
+     * @param quantityLots 数量(lots)
+     * @return 撮合结果
+     */
+    default MatchResult placeOrder(String orderId, long orderKey, String ownerId, Instrument instrument,
+                                   OrderSide side, long priceTicks, long quantityLots) {
+        if (orderKey != 0L) {
+            throw new UnsupportedOperationException("Order keys are not supported by " + getClass().getSimpleName());
+        }
+        return placeOrder(orderId, ownerId, instrument, side, priceTicks, quantityLots);
+    }
+
+    /**
+     * 全部成交否则撤销（FOK）- 撮合前按累计深度判断限价内的对手方挂单能否全部成交，
+     * 不能时订单直接撤销且订单薄不变；返回的撮合结果可能是享元，需要保留时调用 {@link MatchResult#copy()}；默认实现不支持
+     *
+     * @param orderId 订单ID
+     * @param ownerId 参与者ID（可选）
+     * @param instrument 交易品种
+     * @param side 买卖方向
+     * @param priceTicks 限价(ticks)
+     * @param quantityLots 数量(lots)
+     * @return 撮合结果，订单状态为FILLED或CANCELLED
+     */
+    default MatchResult placeFillOrKill(String orderId, String ownerId, Instrument instrument, OrderSide side,
+                                        long priceTicks, long quantityLots) {
+        throw new UnsupportedOperationException("Fill-or-kill is not supported by " + getClass().getSimpleName());
+    }
+
+    /**
+     * 止损/止损限价单 - 挂起在订单薄的触发价索引中，不进入档位；最新成交价达到触发价时转为订单进入撮合，
+     * 其撮合结果体现在触发它的那次操作的 {@link MatchResult#getTriggeredOrders()} 和成交中；
+     * 触发价已被当前最新价满足时拒绝；可按订单ID撤单；默认实现不支持
+     *
+     * @param orderId 订单ID
+     * @param ownerId 参与者ID（可选）
+     * @param instrument 交易品种
+     * @param side 买卖方向（买入止损：最新价 >= 触发价时触发；卖出止损：最新价 <= 触发价时触发）
+     * @param triggerPriceTicks 触发价(ticks)
+     * @param limitPriceTicks 触发后的限价(ticks)，0表示止损市价单
+     * @param quantityLots 数量(lots)
+     * @return 挂起的止损单
+     */
+    default StopOrder placeStopOrder(String orderId, String ownerId, Instrument instrument, OrderSide side,
+                                     long triggerPriceTicks, long limitPriceTicks, long quantityLots) {
+        throw new UnsupportedOperationException("Stop orders are not supported by " + getClass().getSimpleName());
+    }
+
+    /**
+     * 成交预估 - 按当前挂单计算在限价内吃掉指定数量可成交的数量和名义金额，不改变订单薄；默认实现不支持
+     *
+     * @param instrument 交易品种
+     * @param side 主动方向（BUY吃卖盘，SELL吃买盘）
+     * @param quantityLots 数量(lots)
+     * @param limitPriceTicks 限价(ticks)，0表示不限价
+     * @return 成交预估
+     */
+    default FillEstimate estimateFill(Instrument instrument, OrderSide side, long quantityLots, long limitPriceTicks) {
+        throw new UnsupportedOperationException("Fill estimates are not supported by " + getClass().getSimpleName());
+    }
+
     /**
      * 取消指定订单
      *
@@ -27,6 +159,145 @@ public interface IOrderBookRepository extends IRepository {
      */
     boolean cancelOrder(String symbol, String orderId);
 
+    /**
+     * 批量撤单 - 同一交易对的一组订单，实现应只定位一次订单薄；默认实现逐个调用 {@link #cancelOrder(String, String)}
+     *
+     * @param symbol 交易对符号
+     * @param orderIds 订单ID
+     * @return 撤单结果，与orderIds一一对应，true表示成功取消
+     */
+    default boolean[] cancelOrders(String symbol, List<String> orderIds) {
+        boolean[] results = new boolean[orderIds.size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = cancelOrder(symbol, orderIds.get(i));
+        }
+        return results;
+    }
+
+    /**
+     * 按品种批量撤单 - 已注册品种可按symbolId定位订单薄，默认实现按交易对符号撤单
+     *
+     * @param instrument 交易品种
+     * @param orderIds 订单ID
+     * @return 撤单结果，与orderIds一一对应，true表示成功取消
+     */
+    default boolean[] cancelOrders(Instrument instrument, List<String> orderIds) {
+        return cancelOrders(instrument.getSymbol(), orderIds);
+    }
+
+    /**
+     * 按品种取消指定订单 - 已注册品种可按symbolId定位订单薄，默认实现按交易对符号撤单
+     *
+     * @param instrument 交易品种
+     * @param orderId 订单ID
+     * @return true表示成功取消，false表示订单不存在
+     */
+    default boolean cancelOrder(Instrument instrument, String orderId) {
+        return cancelOrder(instrument.getSymbol(), orderId);
+    }
+
+    /**
+     * 按订单键取消挂单（见 {@link #placeOrder(String, long, String, Instrument, OrderSide, long, long)}）；默认实现不支持
+     *
+     * @param instrument 交易品种
+     * @param orderKey 下单时携带的订单键
+     * @return true表示成功取消，false表示订单不存在
+     */
+    default boolean cancelOrder(Instrument instrument, long orderKey) {
+        throw new UnsupportedOperationException("Order keys are not supported by " + getClass().getSimpleName());
+    }
+
+    /**
+     * 改单 - 只减少数量时原地修改并保持时间优先；改价或增量时原子地移到新价格队尾（可能立即成交）
+     * 返回的撮合结果可能是享元，需要保留时调用 {@link MatchResult#copy()}；默认实现不支持
+     *
+     * @param instrument 交易品种
+     * @param orderId 订单ID
+     * @param newPriceTicks 新价格(ticks)，0表示不变
+     * @param newQuantityLots 新的订单总量(lots，含已成交)，0表示不变
+     * @return 撮合结果，订单不存在时返回null
+     */
+    default MatchResult amendOrder(Instrument instrument, String orderId, long newPriceTicks, long newQuantityLots) {
+        throw new UnsupportedOperationException("Order amend is not supported by " + getClass().getSimpleName());
+    }
+
+    /**
+     * 按订单键改单 - 同 {@link #amendOrder(Instrument, String, long, long)}；默认实现不支持
+     *
+     * @param instrument 交易品种
+     * @param orderKey 下单时携带的订单键
+     * @param newPriceTicks 新价格(ticks)，0表示不变
+     * @param newQuantityLots 新的订单总量(lots，含已成交)，0表示不变
+     * @return 撮合结果，订单不存在时返回null
+     */
+    default MatchResult amendOrder(Instrument instrument, long orderKey, long newPriceTicks, long newQuantityLots) {
+        throw new UnsupportedOperationException("Order keys are not supported by " + getClass().getSimpleName());
+    }
+
+    /**
+     * 批量撤单 - 撤销交易对指定方向和/或指定参与者的全部挂单，耗时与撤销的订单数成正比；默认实现不支持
+     *
+     * @param symbol 交易对符号
+     * @param side 买卖方向，null表示两侧
+     * @param ownerId 参与者ID，null表示所有参与者
+     * @return 被撤订单的ID
+     */
+    default List<String> massCancel(String symbol, OrderSide side, String ownerId) {
+        throw new UnsupportedOperationException("Mass cancel is not supported by " + getClass().getSimpleName());
+    }
+
+    /**
+     * 按品种批量撤单（kill switch）- 已注册品种可按symbolId定位订单薄，默认实现按交易对符号撤单
+     *
+     * @param instrument 交易品种
+     * @param side 买卖方向，null表示两侧
+     * @param ownerId 参与者ID，null表示所有参与者
+     * @return 被撤订单的ID
+     */
+    default List<String> massCancel(Instrument instrument, OrderSide side, String ownerId) {
+        return massCancel(instrument.getSymbol(), side, ownerId);
+    }
+
+    /**
+     * 进入集合竞价收集期 - 此后该交易对的新订单只挂单不撮合，直到 {@link #uncrossAuction}；默认实现不支持
+     *
+     * @param instrument 交易品种
+     */
+    default void beginAuction(Instrument instrument) {
+        throw new UnsupportedOperationException("Auctions are not supported by " + getClass().getSimpleName());
+    }
+
+    /**
+     * 集合竞价撮合 - 一次遍历累计深度求出成交量最大的均衡价，所有可成交订单以该价格成交；默认实现不支持
+     *
+     * @param symbol 交易对符号
+     * @param continueAuction true表示撮合后继续收集（周期性竞价），false表示恢复连续撮合
+     * @return 竞价结果
+     */
+    default AuctionResult uncrossAuction(String symbol, boolean continueAuction) {
+        throw new UnsupportedOperationException("Auctions are not supported by " + getClass().getSimpleName());
+    }
+
+    /**
+     * 按品种集合竞价撮合 - 已注册品种可按symbolId定位订单薄，默认实现按交易对符号撮合
+     *
+     * @param instrument 交易品种
+     * @param continueAuction true表示撮合后继续收集（周期性竞价），false表示恢复连续撮合
+     * @return 竞价结果
+     */
+    default AuctionResult uncrossAuction(Instrument instrument, boolean continueAuction) {
+        return uncrossAuction(instrument.getSymbol(), continueAuction);
+    }
+
+    /**
+     * 获取已有订单薄的交易对 - 供跨交易对的批量操作使用；默认实现不支持
+     *
+     * @return 交易对符号集合
+     */
+    default Set<String> getSymbols() {
+        throw new UnsupportedOperationException("Symbol listing is not supported by " + getClass().getSimpleName());
+    }
+
     /**
      * 获取订单薄快照
      *
@@ -36,6 +307,115 @@ public interface IOrderBookRepository extends IRepository {
      */
     OrderBookSnapshot getSnapshot(String symbol, int depth);
 
+    /**
+     * 按品种获取订单薄快照 - 已注册品种可按symbolId定位订单薄，默认实现按交易对符号查询
+     *
+     * @param instrument 交易品种
+     * @param depth 深度（档位数量）
+     * @return 订单薄快照
+     */
+    default OrderBookSnapshot getSnapshot(Instrument instrument, int depth) {
+        return getSnapshot(instrument.getSymbol(), depth);
+    }
+
+    /**
+     * 获取撮合线程发布的不可变深度快照 - 任意线程可无锁读取且不干扰撮合线程，
+     * 实现不支持发布视图或depth超过发布深度时返回null，默认实现返回null
+     *
+     * @param symbol 交易对符号
+     * @param depth 深度（档位数量）
+     * @return 订单薄快照，或null
+     */
+    default OrderBookSnapshot getPublishedSnapshot(String symbol, int depth) {
+        return null;
+    }
+
+    /**
+     * 按品种获取发布的深度快照 - 同 {@link #getPublishedSnapshot(String, int)}，默认实现按交易对符号查询
+     *
+     * @param instrument 交易品种
+     * @param depth 深度（档位数量）
+     * @return 订单薄快照，或null
+     */
+    default OrderBookSnapshot getPublishedSnapshot(Instrument instrument, int depth) {
+        return getPublishedSnapshot(instrument.getSymbol(), depth);
+    }
+
+    /**
+     * 获取最优买卖价(BBO) - 实现应保证任意线程可无锁读取且不干扰撮合线程，
+     * 默认实现由深度为1的快照构建
+     *
+     * @param symbol 交易对符号
+     * @return 最优买卖价
+     */
+    default TopOfBook getTopOfBook(String symbol) {
+        OrderBookSnapshot snapshot = getSnapshot(symbol, 1);
+        PriceLevel bid = snapshot.getBids().isEmpty() ? null : snapshot.getBids().get(0);
+        PriceLevel ask = snapshot.getAsks().isEmpty() ? null : snapshot.getAsks().get(0);
+        if (bid == null && ask == null) {
+            return TopOfBook.empty(symbol);
+        }
+        return new TopOfBook(symbol, (bid != null ? bid : ask).getInstrument(), 0L,
+            bid != null ? bid.getPriceTicks() : 0L, bid != null ? bid.getQuantityLots() : 0L,
+            ask != null ? ask.getPriceTicks() : 0L, ask != null ? ask.getQuantityLots() : 0L);
+    }
+
+    /**
+     * 按品种获取最优买卖价(BBO) - 已注册品种可按symbolId定位订单薄，默认实现按交易对符号查询
+     *
+     * @param instrument 交易品种
+     * @return 最优买卖价
+     */
+    default TopOfBook getTopOfBook(Instrument instrument) {
+        return getTopOfBook(instrument.getSymbol());
+    }
+
+    /**
+     * 订阅L2增量行情 - 订单薄在下单、撮合、撤单时把档位变化写入订阅者的有界缓冲区，
+     * 缓冲区满时丢弃并标记缺口，不反压撮合线程；默认实现不支持
+     *
+     * @param instrument 交易品种
+     * @param capacity 缓冲区容量（2的幂）
+     * @return 订阅
+     */
+    default LevelUpdateSubscription subscribeLevelUpdates(Instrument instrument, int capacity) {
+        throw new UnsupportedOperationException("Level updates are not supported by " + getClass().getSimpleName());
+    }
+
+    /**
+     * 打开逐笔(L3)订单薄游标 - 分页遍历打开时版本的全部挂单，每页只占用撮合线程很短时间；
+     * 默认实现不支持
+     *
+     * @param symbol 交易对符号
+     * @return 游标，用完必须关闭
+     */
+    default OrderBookCursor openOrderCursor(String symbol) {
+        throw new UnsupportedOperationException("Order cursors are not supported by " + getClass().getSimpleName());
+    }
+
+    /**
+     * 打开检查点游标 - 同 {@link #openOrderCursor}，条目带完整挂单状态，
+     * 并通过 {@link OrderBookCursor#getState()} 提供打开时的订单薄状态；默认实现不支持
+     *
+     * @param symbol 交易对符号
+     * @return 游标，用完必须关闭
+     */
+    default OrderBookCursor openCheckpointCursor(String symbol) {
+        throw new UnsupportedOperationException("Checkpoints are not supported by " + getClass().getSimpleName());
+    }
+
+    /**
+     * 从检查点装载订单薄 - 挂单按条目顺序（买方价格降序、卖方价格升序、档位内排队顺序）直接挂入，
+     * 不撮合、不写日志；交易对必须还没有挂单。只能在接收命令之前调用；默认实现不支持
+     *
+     * @param instrument 交易品种
+     * @param state 订单薄状态
+     * @param orders 挂单条目
+     */
+    default void loadOrderBook(Instrument instrument, OrderBookState state, Iterator<OrderBookEntry> orders) {
+        throw new UnsupportedOperationException("Checkpoints are not supported by " + getClass().getSimpleName());
+    }
+
     /**
      * 查询订单是否存在
      *
@@ -45,6 +425,28 @@ public interface IOrderBookRepository extends IRepository {
      */
     boolean existsOrder(String symbol, String orderId);
 
+    /**
+     * 按品种查询订单是否存在 - 已注册品种可按symbolId定位订单薄，默认实现按交易对符号查询
+     *
+     * @param instrument 交易品种
+     * @param orderId 订单ID
+     * @return true表示订单存在
+     */
+    default boolean existsOrder(Instrument instrument, String orderId) {
+        return existsOrder(instrument.getSymbol(), orderId);
+    }
+
+    /**
+     * 按订单键查询挂单是否存在；默认实现不支持
+     *
+     * @param instrument 交易品种
+     * @param orderKey 下单时携带的订单键
+     * @return true表示挂单存在
+     */
+    default boolean existsOrder(Instrument instrument, long orderKey) {
+        throw new UnsupportedOperationException("Order keys are not supported by " + getClass().getSimpleName());
+    }
+
     /**
      * 获取指定交易对的订单数量
      *
@@ -52,4 +454,240 @@ public interface IOrderBookRepository extends IRepository {
      * @return 订单数量
      */
     int getOrderCount(String symbol);
+
+    /**
+     * 按品种获取订单数量 - 已注册品种可按symbolId定位订单薄，默认实现按交易对符号查询
+     *
+     * @param instrument 交易品种
+     * @return 订单数量
+     */
+    default int getOrderCount(Instrument instrument) {
+        return getOrderCount(instrument.getSymbol());
+    }
+
+    /**
+     * 异步下单 - 由撮合线程处理的实现返回撮合完成时结束的Future，
+     * 默认实现同步执行
+     *
+     * @param order 限价订单
+     * @return 撮合结果Future
+     */
+    default CompletableFuture<MatchResult> addOrderAsync(LimitOrder order) {
+        try {
+            return CompletableFuture.completedFuture(addOrder(order));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 异步批量下单 - 默认实现同步执行
+     *
+     * @param orders 限价订单
+     * @return 撮合结果Future，与orders一一对应
+     */
+    default CompletableFuture<MatchResult[]> addOrdersAsync(List<LimitOrder> orders) {
+        try {
+            return CompletableFuture.completedFuture(addOrders(orders));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 异步下单（字段形式）- 由撮合线程处理的实现把字段拷贝进入站缓冲区，在撮合线程上创建订单，
+     * 默认实现直接构造订单后同步执行
+     *
+     * @param orderId 订单ID
+     * @param instrument 交易品种
+     * @param side 买卖方向
+     * @param priceTicks 价格(ticks)
+     * @param quantityLots 数量(lots)
+     * @return 撮合结果Future
+     */
+    default CompletableFuture<MatchResult> addOrderAsync(String orderId, Instrument instrument, OrderSide side,
+                                                         long priceTicks, long quantityLots) {
+        return addOrderAsync(orderId, null, instrument, side, priceTicks, quantityLots);
+    }
+
+    /**
+     * 异步下单（字段形式，携带参与者ID）- 默认实现直接构造订单后同步执行
+     *
+     * @param orderId 订单ID
+     * @param ownerId 参与者ID（可选）
+     * @param instrument 交易品种
+     * @param side 买卖方向
+     * @param priceTicks 价格(ticks)
+     * @param quantityLots 数量(lots)
+     * @return 撮合结果Future
+     */
+    default CompletableFuture<MatchResult> addOrderAsync(String orderId, String ownerId, Instrument instrument,
+                                                         OrderSide side, long priceTicks, long quantityLots) {
+        try {
+            return addOrderAsync(new LimitOrder(orderId, ownerId, instrument, side, priceTicks, quantityLots));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 异步下单（字段形式，携带订单键）- 默认实现同步执行，结果拷贝后返回
+     *
+     * @param orderKey 网关分配的64位订单键，0表示未携带
+     * @return 撮合结果Future
+     */
+    default CompletableFuture<MatchResult> addOrderAsync(String orderId, long orderKey, String ownerId,
+                                                         Instrument instrument, OrderSide side,
+                                                         long priceTicks, long quantityLots) {
+        if (orderKey == 0L) {
+            return addOrderAsync(orderId, ownerId, instrument, side, priceTicks, quantityLots);
+        }
+        try {
+            return CompletableFuture.completedFuture(
+                placeOrder(orderId, orderKey, ownerId, instrument, side, priceTicks, quantityLots).copy());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 异步批量撤单 - 默认实现同步执行
+     *
+     * @param symbol 交易对符号
+     * @param side 买卖方向，null表示两侧
+     * @param ownerId 参与者ID，null表示所有参与者
+     * @return 被撤订单ID的Future
+     */
+    default CompletableFuture<List<String>> massCancelAsync(String symbol, OrderSide side, String ownerId) {
+        try {
+            return CompletableFuture.completedFuture(massCancel(symbol, side, ownerId));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 按品种异步批量撤单 - 默认实现同步执行
+     *
+     * @param instrument 交易品种
+     * @param side 买卖方向，null表示两侧
+     * @param ownerId 参与者ID，null表示所有参与者
+     * @return 被撤订单ID的Future
+     */
+    default CompletableFuture<List<String>> massCancelAsync(Instrument instrument, OrderSide side, String ownerId) {
+        try {
+            return CompletableFuture.completedFuture(massCancel(instrument, side, ownerId));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 异步撤单 - 默认实现同步执行
+     *
+     * @param symbol 交易对符号
+     * @param orderId 订单ID
+     * @return 撤单结果Future
+     */
+    default CompletableFuture<Boolean> cancelOrderAsync(String symbol, String orderId) {
+        try {
+            return CompletableFuture.completedFuture(cancelOrder(symbol, orderId));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 异步改单 - 默认实现同步执行，结果拷贝后返回
+     *
+     * @param instrument 交易品种
+     * @param orderId 订单ID
+     * @param newPriceTicks 新价格(ticks)，0表示不变
+     * @param newQuantityLots 新的订单总量(lots，含已成交)，0表示不变
+     * @return 撮合结果Future，订单不存在时结果为null
+     */
+    default CompletableFuture<MatchResult> amendOrderAsync(Instrument instrument, String orderId,
+                                                           long newPriceTicks, long newQuantityLots) {
+        try {
+            MatchResult result = amendOrder(instrument, orderId, newPriceTicks, newQuantityLots);
+            return CompletableFuture.completedFuture(result != null ? result.copy() : null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 异步批量撤单 - 默认实现同步执行
+     *
+     * @param symbol 交易对符号
+     * @param orderIds 订单ID
+     * @return 撤单结果Future，与orderIds一一对应
+     */
+    default CompletableFuture<boolean[]> cancelOrdersAsync(String symbol, List<String> orderIds) {
+        try {
+            return CompletableFuture.completedFuture(cancelOrders(symbol, orderIds));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 按品种异步批量撤单 - 默认实现同步执行
+     *
+     * @param instrument 交易品种
+     * @param orderIds 订单ID
+     * @return 撤单结果Future，与orderIds一一对应
+     */
+    default CompletableFuture<boolean[]> cancelOrdersAsync(Instrument instrument, List<String> orderIds) {
+        try {
+            return CompletableFuture.completedFuture(cancelOrders(instrument, orderIds));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 按品种异步撤单 - 默认实现同步执行
+     *
+     * @param instrument 交易品种
+     * @param orderId 订单ID
+     * @return 撤单结果Future
+     */
+    default CompletableFuture<Boolean> cancelOrderAsync(Instrument instrument, String orderId) {
+        try {
+            return CompletableFuture.completedFuture(cancelOrder(instrument, orderId));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 按订单键异步撤单 - 默认实现同步执行
+     *
+     * @param instrument 交易品种
+     * @param orderKey 下单时携带的订单键
+     * @return 撤单结果Future
+     */
+    default CompletableFuture<Boolean> cancelOrderAsync(Instrument instrument, long orderKey) {
+        try {
+            return CompletableFuture.completedFuture(cancelOrder(instrument, orderKey));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 按订单键异步改单 - 默认实现同步执行，结果拷贝后返回
+     *
+     * @return 撮合结果Future，订单不存在时结果为null
+     */
+    default CompletableFuture<MatchResult> amendOrderAsync(Instrument instrument, long orderKey,
+                                                           long newPriceTicks, long newQuantityLots) {
+        try {
+            MatchResult result = amendOrder(instrument, orderKey, newPriceTicks, newQuantityLots);
+            return CompletableFuture.completedFuture(result != null ? result.copy() : null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 }
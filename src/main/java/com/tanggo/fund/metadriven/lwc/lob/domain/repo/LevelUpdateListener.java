@@ -0,0 +1,21 @@
+package com.tanggo.fund.metadriven.lwc.lob.domain.repo;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+
+/**
+ * L2增量行情回调 - 以原始类型参数传递，消费时不创建事件对象
+ */
+@FunctionalInterface
+public interface LevelUpdateListener {
+
+    /**
+     * 档位变化
+     *
+     * @param sequence 产生该变化的订单薄更新序号（同一操作的多个档位变化序号相同）
+     * @param side 买卖方向
+     * @param priceTicks 档位价格(ticks)
+     * @param quantityLots 档位新的剩余总量(lots)，0表示档位已删除
+     * @param orderCount 档位新的订单数
+     */
+    void onLevelUpdate(long sequence, OrderSide side, long priceTicks, long quantityLots, int orderCount);
+}
@@ -0,0 +1,39 @@
+package com.tanggo.fund.metadriven.lwc.lob.domain.repo;
+
+/**
+ * L2增量行情订阅 - 有界缓冲，撮合线程写入、订阅者拉取
+ * 缓冲区满时撮合线程不等待，丢弃增量并标记缺口，慢消费者不会反压撮合。
+ *
+ * 快照+增量协议：
+ * 1. 订阅后调用 {@link IOrderBookRepository#getSnapshot} 取得序号为S的快照；
+ * 2. 拉取增量，丢弃序号 <= S 的变化，其余按序应用；
+ * 3. 相邻增量的序号只能相同或加1，出现跳号或 {@link #hasGap()} 为true时，
+ *    调用 {@link #clearGap()} 后重新取快照。
+ */
+public interface LevelUpdateSubscription extends AutoCloseable {
+
+    String getSymbol();
+
+    /**
+     * 拉取至多maxUpdates条增量，不阻塞
+     *
+     * @return 本次处理的增量条数
+     */
+    int poll(LevelUpdateListener listener, int maxUpdates);
+
+    /**
+     * 是否因缓冲区满丢弃过增量
+     */
+    boolean hasGap();
+
+    /**
+     * 丢弃缓冲区中未消费的增量并清除缺口标记，之后需重新取快照
+     */
+    void clearGap();
+
+    /**
+     * 取消订阅
+     */
+    @Override
+    void close();
+}
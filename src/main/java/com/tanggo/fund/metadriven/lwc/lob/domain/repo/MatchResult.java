@@ -3,18 +3,80 @@ package com.tanggo.fund.metadriven.lwc.lob.domain.repo;
 import com.tanggo.fund.metadriven.lwc.lob.domain.LimitOrder;
 import com.tanggo.fund.metadriven.lwc.lob.domain.Trade;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * 撮合结果
+ * 成交包含本次操作引发的全部成交：订单自身的成交，以及因最新价变化被触发的止损单的连锁成交
+ * 零分配撮合模式下作为享元复用：仅在同一线程下一次撮合前有效，需要保留时调用 {@link #copy()}
+ * 批量下单中校验失败的订单以拒绝结果返回（{@link #rejected(LimitOrder, String)}），不影响同批其他订单
  */
 public class MatchResult {
-    private final LimitOrder order;
-    private final List<Trade> trades;
+    private LimitOrder order;
+    private List<Trade> trades;
+    // 本次操作中被触发并进入撮合的止损单
+    private List<LimitOrder> triggeredOrders;
+    // 拒绝原因，订单未被拒绝时为null
+    private String rejectReason;
 
     public MatchResult(LimitOrder order, List<Trade> trades) {
+        this(order, trades, Collections.emptyList());
+    }
+
+    public MatchResult(LimitOrder order, List<Trade> trades, List<LimitOrder> triggeredOrders) {
+        this.order = order;
+        this.trades = trades;
+        this.triggeredOrders = triggeredOrders;
+    }
+
+    /**
+     * 被拒绝的订单：未进入撮合、没有成交，订单状态置为REJECTED
+     */
+    public static MatchResult rejected(LimitOrder order, String reason) {
+        order.reject();
+        MatchResult result = new MatchResult(order, Collections.emptyList());
+        result.rejectReason = reason != null ? reason : "Rejected";
+        return result;
+    }
+
+    /**
+     * 享元复用：指向本次撮合的订单和成交
+     */
+    public MatchResult reuse(LimitOrder order, List<Trade> trades) {
+        return reuse(order, trades, Collections.emptyList());
+    }
+
+    /**
+     * 享元复用：指向本次撮合的订单、成交和被触发的止损单
+     */
+    public MatchResult reuse(LimitOrder order, List<Trade> trades, List<LimitOrder> triggeredOrders) {
         this.order = order;
         this.trades = trades;
+        this.triggeredOrders = triggeredOrders;
+        this.rejectReason = null;
+        return this;
+    }
+
+    /**
+     * 拷贝为独立的撮合结果（订单快照 + 成交副本 + 被触发止损单快照）
+     */
+    public MatchResult copy() {
+        List<Trade> tradeCopies = new ArrayList<>(trades.size());
+        for (int i = 0; i < trades.size(); i++) {
+            tradeCopies.add(trades.get(i).copy());
+        }
+        List<LimitOrder> triggeredCopies = Collections.emptyList();
+        if (!triggeredOrders.isEmpty()) {
+            triggeredCopies = new ArrayList<>(triggeredOrders.size());
+            for (int i = 0; i < triggeredOrders.size(); i++) {
+                triggeredCopies.add(triggeredOrders.get(i).copy());
+            }
+        }
+        MatchResult copy = new MatchResult(order.copy(), tradeCopies, triggeredCopies);
+        copy.rejectReason = rejectReason;
+        return copy;
     }
 
     public LimitOrder getOrder() {
@@ -25,6 +87,18 @@ public class MatchResult {
         return trades;
     }
 
+    public List<LimitOrder> getTriggeredOrders() {
+        return triggeredOrders;
+    }
+
+    public boolean isRejected() {
+        return rejectReason != null;
+    }
+
+    public String getRejectReason() {
+        return rejectReason;
+    }
+
     public boolean hasMatched() {
         return !trades.isEmpty();
     }
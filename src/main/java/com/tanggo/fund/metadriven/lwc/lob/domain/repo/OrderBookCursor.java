@@ -0,0 +1,56 @@
+package com.tanggo.fund.metadriven.lwc.lob.domain.repo;
+
+/**
+ * 逐笔(L3)订单薄游标 - 在打开时的订单薄版本上分页遍历全部挂单
+ * 每页只处理有限条目，遍历期间撮合照常进行；不再使用时必须关闭
+ */
+public interface OrderBookCursor extends AutoCloseable {
+
+    String getSymbol();
+
+    /**
+     * 游标对应的订单薄更新序号
+     */
+    long getSequence();
+
+    /**
+     * 取下一页，至多maxOrders条
+     */
+    OrderBookPage nextPage(int maxOrders);
+
+    @Override
+    void close();
+
+    /**
+     * 打开时订单薄除挂单以外的状态，只有检查点游标提供，其他游标返回null
+     */
+    default OrderBookState getState() {
+        return null;
+    }
+
+    /**
+     * 尚无订单薄的交易对：只有一页空结果
+     */
+    static OrderBookCursor empty(String symbol) {
+        return new OrderBookCursor() {
+            @Override
+            public String getSymbol() {
+                return symbol;
+            }
+
+            @Override
+            public long getSequence() {
+                return 0L;
+            }
+
+            @Override
+            public OrderBookPage nextPage(int maxOrders) {
+                return new OrderBookPage(symbol, 0L, java.util.Collections.emptyList(), true);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
@@ -0,0 +1,114 @@
+package com.tanggo.fund.metadriven.lwc.lob.domain.repo;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+
+import java.math.BigDecimal;
+
+/**
+ * 逐笔(L3)订单薄条目 - 某个版本下一笔挂单的价格、剩余数量和在档位内的排队位置
+ * 同时带有恢复挂单所需的完整状态（参与者、总量/已成交量、时间戳），供检查点使用；
+ * 订单键为下单时网关分配的64位订单ID（0表示未携带），随检查点保存，装载后仍可按订单键撤单/改单
+ */
+public class OrderBookEntry {
+    private final Instrument instrument;
+    private final String orderId;
+    private final OrderSide side;
+    private final long priceTicks;
+    private final long remainingLots;
+    private final int queuePosition;
+    private final String ownerId;
+    private final long orderKey;
+    private final long quantityLots;
+    private final long filledLots;
+    private final long createTimeNanos;
+    private final long updateTimeNanos;
+
+    public OrderBookEntry(Instrument instrument, String orderId, OrderSide side,
+                          long priceTicks, long remainingLots, int queuePosition) {
+        this(instrument, orderId, null, side, priceTicks, queuePosition, 0L, remainingLots, 0L, 0L, 0L);
+    }
+
+    public OrderBookEntry(Instrument instrument, String orderId, String ownerId, OrderSide side,
+                          long priceTicks, int queuePosition, long orderKey, long quantityLots, long filledLots,
+                          long createTimeNanos, long updateTimeNanos) {
+        this.instrument = instrument;
+        this.orderId = orderId;
+        this.side = side;
+        this.priceTicks = priceTicks;
+        this.remainingLots = quantityLots - filledLots;
+        this.queuePosition = queuePosition;
+        this.ownerId = ownerId;
+        this.orderKey = orderKey;
+        this.quantityLots = quantityLots;
+        this.filledLots = filledLots;
+        this.createTimeNanos = createTimeNanos;
+        this.updateTimeNanos = updateTimeNanos;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public OrderSide getSide() {
+        return side;
+    }
+
+    public long getPriceTicks() {
+        return priceTicks;
+    }
+
+    public long getRemainingLots() {
+        return remainingLots;
+    }
+
+    public BigDecimal getPrice() {
+        return instrument.toPrice(priceTicks);
+    }
+
+    public BigDecimal getRemainingQuantity() {
+        return instrument.toQuantity(remainingLots);
+    }
+
+    /**
+     * 档位内的排队位置，0为队首
+     */
+    public int getQueuePosition() {
+        return queuePosition;
+    }
+
+    public String getOwnerId() {
+        return ownerId;
+    }
+
+    /**
+     * 网关分配的64位订单键，0表示未携带
+     */
+    public long getOrderKey() {
+        return orderKey;
+    }
+
+    /**
+     * 订单总量(lots，含已成交)
+     */
+    public long getQuantityLots() {
+        return quantityLots;
+    }
+
+    public long getFilledLots() {
+        return filledLots;
+    }
+
+    public long getCreateTimeNanos() {
+        return createTimeNanos;
+    }
+
+    public long getUpdateTimeNanos() {
+        return updateTimeNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%s %s %s @ %s #%d]", orderId, side, getRemainingQuantity(), getPrice(), queuePosition);
+    }
+}
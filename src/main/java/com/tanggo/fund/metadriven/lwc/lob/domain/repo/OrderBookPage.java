@@ -0,0 +1,45 @@
+package com.tanggo.fund.metadriven.lwc.lob.domain.repo;
+
+import java.util.List;
+
+/**
+ * 逐笔(L3)订单薄的一页 - 先买方（价格降序）后卖方（价格升序），档位内按排队顺序
+ * 同一游标的所有页都属于序号为sequence的同一版本订单薄
+ */
+public class OrderBookPage {
+    private final String symbol;
+    private final long sequence;
+    private final List<OrderBookEntry> entries;
+    private final boolean last;
+
+    public OrderBookPage(String symbol, long sequence, List<OrderBookEntry> entries, boolean last) {
+        this.symbol = symbol;
+        this.sequence = sequence;
+        this.entries = entries;
+        this.last = last;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public List<OrderBookEntry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * 是否为最后一页
+     */
+    public boolean isLast() {
+        return last;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("OrderBookPage[%s #%d, entries=%d, last=%s]", symbol, sequence, entries.size(), last);
+    }
+}
@@ -2,13 +2,23 @@ package com.tanggo.fund.metadriven.lwc.lob.domain.repo;
 
 import java.util.List;
 
+/**
+ * 订单薄深度快照
+ * sequence 为快照对应的订单薄更新序号，同一序号下的快照内容一致
+ */
 public class OrderBookSnapshot {
     private final String symbol;
+    private final long sequence;
     private final List<PriceLevel> bids;
     private final List<PriceLevel> asks;
 
     public OrderBookSnapshot(String symbol, List<PriceLevel> bids, List<PriceLevel> asks) {
+        this(symbol, 0L, bids, asks);
+    }
+
+    public OrderBookSnapshot(String symbol, long sequence, List<PriceLevel> bids, List<PriceLevel> asks) {
         this.symbol = symbol;
+        this.sequence = sequence;
         this.bids = bids;
         this.asks = asks;
     }
@@ -17,6 +27,10 @@ public class OrderBookSnapshot {
         return symbol;
     }
 
+    public long getSequence() {
+        return sequence;
+    }
+
     public List<PriceLevel> getBids() {
         return bids;
     }
@@ -28,7 +42,7 @@ public class OrderBookSnapshot {
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        sb.append("OrderBook[").append(symbol).append("]\n");
+        sb.append("OrderBook[").append(symbol).append(" #").append(sequence).append("]\n");
         sb.append("Asks:\n");
         for (int i = asks.size() - 1; i >= 0; i--) {
             sb.append("  ").append(asks.get(i)).append("\n");
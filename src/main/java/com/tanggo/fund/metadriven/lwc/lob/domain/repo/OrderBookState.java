@@ -0,0 +1,103 @@
+package com.tanggo.fund.metadriven.lwc.lob.domain.repo;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.StopOrder;
+
+import java.util.List;
+
+/**
+ * 订单薄在某个版本下除挂单以外的状态 - 检查点游标打开时捕获，与游标各页的挂单一起可完整恢复订单薄
+ */
+public class OrderBookState {
+    private final String symbol;
+    private final long sequence;
+    private final long lastOrderKey;
+    private final long lastTradePriceTicks;
+    private final boolean auction;
+    private final int orderCount;
+    private final List<StopOrder> stopOrders;
+    private final long journalPosition;
+
+    public OrderBookState(String symbol, long sequence, long lastOrderKey, long lastTradePriceTicks,
+                          boolean auction, int orderCount, List<StopOrder> stopOrders) {
+        this(symbol, sequence, lastOrderKey, lastTradePriceTicks, auction, orderCount, stopOrders, -1L);
+    }
+
+    public OrderBookState(String symbol, long sequence, long lastOrderKey, long lastTradePriceTicks,
+                          boolean auction, int orderCount, List<StopOrder> stopOrders, long journalPosition) {
+        this.symbol = symbol;
+        this.sequence = sequence;
+        this.lastOrderKey = lastOrderKey;
+        this.lastTradePriceTicks = lastTradePriceTicks;
+        this.auction = auction;
+        this.orderCount = orderCount;
+        this.stopOrders = stopOrders;
+        this.journalPosition = journalPosition;
+    }
+
+    /**
+     * 附带命令日志位置的副本
+     */
+    public OrderBookState withJournalPosition(long journalPosition) {
+        return new OrderBookState(symbol, sequence, lastOrderKey, lastTradePriceTicks,
+            auction, orderCount, stopOrders, journalPosition);
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * 订单薄更新序号
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * 已分配的最大内部订单键（挂单句柄），仅供诊断，装载时不使用
+     */
+    public long getLastOrderKey() {
+        return lastOrderKey;
+    }
+
+    /**
+     * 最新成交价(ticks)，0表示尚无成交
+     */
+    public long getLastTradePriceTicks() {
+        return lastTradePriceTicks;
+    }
+
+    /**
+     * 是否处于集合竞价收集期
+     */
+    public boolean isAuction() {
+        return auction;
+    }
+
+    /**
+     * 挂单数
+     */
+    public int getOrderCount() {
+        return orderCount;
+    }
+
+    /**
+     * 挂起的止损单，按触发优先级排列
+     */
+    public List<StopOrder> getStopOrders() {
+        return stopOrders;
+    }
+
+    /**
+     * 该版本对应的命令日志位置（此前写入的该交易对命令均已生效），-1表示未知
+     */
+    public long getJournalPosition() {
+        return journalPosition;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("OrderBookState[%s #%d, orders=%d, stops=%d, auction=%s]",
+            symbol, sequence, orderCount, stopOrders.size(), auction);
+    }
+}
@@ -1,27 +1,44 @@
 package com.tanggo.fund.metadriven.lwc.lob.domain.repo;
 
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+
 import java.math.BigDecimal;
 
 /**
  * 价格档位
+ * 档位价/量以 ticks/lots 保存，getter 按品种精度换算为 BigDecimal
  */
 public  class PriceLevel {
-    private final BigDecimal price;
-    private final BigDecimal quantity;
+    private final Instrument instrument;
+    private final long priceTicks;
+    private final long quantityLots;
     private final int orderCount;
 
-    public PriceLevel(BigDecimal price, BigDecimal quantity, int orderCount) {
-        this.price = price;
-        this.quantity = quantity;
+    public PriceLevel(Instrument instrument, long priceTicks, long quantityLots, int orderCount) {
+        this.instrument = instrument;
+        this.priceTicks = priceTicks;
+        this.quantityLots = quantityLots;
         this.orderCount = orderCount;
     }
 
+    public Instrument getInstrument() {
+        return instrument;
+    }
+
+    public long getPriceTicks() {
+        return priceTicks;
+    }
+
+    public long getQuantityLots() {
+        return quantityLots;
+    }
+
     public BigDecimal getPrice() {
-        return price;
+        return instrument.toPrice(priceTicks);
     }
 
     public BigDecimal getQuantity() {
-        return quantity;
+        return instrument.toQuantity(quantityLots);
     }
 
     public int getOrderCount() {
@@ -30,6 +47,6 @@ public  class PriceLevel {
 
     @Override
     public String toString() {
-        return String.format("[%s @ %s (%d orders)]", quantity, price, orderCount);
+        return String.format("[%s @ %s (%d orders)]", getQuantity(), getPrice(), orderCount);
     }
 }
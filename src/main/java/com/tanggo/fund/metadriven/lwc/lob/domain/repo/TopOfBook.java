@@ -0,0 +1,92 @@
+package com.tanggo.fund.metadriven.lwc.lob.domain.repo;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+
+import java.math.BigDecimal;
+
+/**
+ * 最优买卖价(BBO) - 不可变值对象
+ * 价/量以 ticks/lots 保存，某一侧为空时该侧数量为0、BigDecimal getter返回null
+ * sequence 为发布时的订单薄更新序号
+ */
+public class TopOfBook {
+    private final String symbol;
+    private final Instrument instrument;
+    private final long sequence;
+    private final long bidPriceTicks;
+    private final long bidLots;
+    private final long askPriceTicks;
+    private final long askLots;
+
+    public TopOfBook(String symbol, Instrument instrument, long sequence,
+                     long bidPriceTicks, long bidLots, long askPriceTicks, long askLots) {
+        this.symbol = symbol;
+        this.instrument = instrument;
+        this.sequence = sequence;
+        this.bidPriceTicks = bidPriceTicks;
+        this.bidLots = bidLots;
+        this.askPriceTicks = askPriceTicks;
+        this.askLots = askLots;
+    }
+
+    /**
+     * 尚无订单薄的交易对
+     */
+    public static TopOfBook empty(String symbol) {
+        return new TopOfBook(symbol, null, 0L, 0L, 0L, 0L, 0L);
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public boolean hasBid() {
+        return bidLots > 0;
+    }
+
+    public boolean hasAsk() {
+        return askLots > 0;
+    }
+
+    public long getBidPriceTicks() {
+        return bidPriceTicks;
+    }
+
+    public long getBidLots() {
+        return bidLots;
+    }
+
+    public long getAskPriceTicks() {
+        return askPriceTicks;
+    }
+
+    public long getAskLots() {
+        return askLots;
+    }
+
+    public BigDecimal getBidPrice() {
+        return hasBid() ? instrument.toPrice(bidPriceTicks) : null;
+    }
+
+    public BigDecimal getBidQuantity() {
+        return hasBid() ? instrument.toQuantity(bidLots) : null;
+    }
+
+    public BigDecimal getAskPrice() {
+        return hasAsk() ? instrument.toPrice(askPriceTicks) : null;
+    }
+
+    public BigDecimal getAskQuantity() {
+        return hasAsk() ? instrument.toQuantity(askLots) : null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TopOfBook[%s #%d bid=%s x %s, ask=%s x %s]",
+            symbol, sequence, getBidPrice(), getBidQuantity(), getAskPrice(), getAskQuantity());
+    }
+}
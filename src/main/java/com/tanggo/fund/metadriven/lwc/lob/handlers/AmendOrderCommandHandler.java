@@ -0,0 +1,64 @@
+package com.tanggo.fund.metadriven.lwc.lob.handlers;
+
+import com.tanggo.fund.metadriven.lwc.cqrs.ICommandHandler;
+import com.tanggo.fund.metadriven.lwc.lob.commands.AmendOrderCommand;
+import com.tanggo.fund.metadriven.lwc.lob.commands.AmendOrderResult;
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.MatchResult;
+import com.tanggo.fund.metadriven.lwc.lob.service.OrderBookService;
+
+import java.util.List;
+
+/**
+ * 改单命令处理器
+ */
+public class AmendOrderCommandHandler implements ICommandHandler {
+
+    private OrderBookService orderBookService;
+
+    // Setter for Spring XML injection
+    public void setOrderBookService(OrderBookService orderBookService) {
+        this.orderBookService = orderBookService;
+    }
+
+    @Override
+    public CommandResult handle(Command command) {
+        Object param = command.param();
+        if (!(param instanceof AmendOrderCommand cmd)) {
+            throw new IllegalArgumentException("Command param must be AmendOrderCommand");
+        }
+
+        // 执行改单：只减量时原地修改保持时间优先，改价/增量时原子移到新价格
+        // 携带订单键时按订单键定位，不查找订单ID
+        Instrument instrument = orderBookService.resolveInstrument(cmd.getSymbolId(), cmd.getSymbol());
+        MatchResult result = cmd.getOrderKey() != null
+            ? orderBookService.amendOrder(instrument, cmd.getOrderKey(), cmd.getPrice(), cmd.getQuantity())
+            : orderBookService.amendOrder(instrument, cmd.getOrderId(), cmd.getPrice(), cmd.getQuantity());
+
+        // 构造返回结果
+        AmendOrderResult data = new AmendOrderResult();
+        data.setSuccess(result != null);
+        data.setOrderId(cmd.getOrderId());
+        if (result != null) {
+            data.setOrder(result.getOrder());
+            data.setTrades(result.getTrades());
+        }
+
+        return CommandResult.success(command, data);
+    }
+
+    @Override
+    public void afterHandle(Command command, List<EntityEvent> entityEvents) {
+
+    }
+
+    @Override
+    public void preHandle(Command command) {
+
+    }
+
+    @Override
+    public List<EntityEvent> doHandle(Command command) {
+        return List.of();
+    }
+}
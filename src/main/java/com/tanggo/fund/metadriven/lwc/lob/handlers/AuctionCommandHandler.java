@@ -0,0 +1,61 @@
+package com.tanggo.fund.metadriven.lwc.lob.handlers;
+
+import com.tanggo.fund.metadriven.lwc.cqrs.ICommandHandler;
+import com.tanggo.fund.metadriven.lwc.lob.commands.AuctionCommand;
+import com.tanggo.fund.metadriven.lwc.lob.commands.AuctionCommandResult;
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.AuctionResult;
+import com.tanggo.fund.metadriven.lwc.lob.service.OrderBookService;
+
+import java.util.List;
+
+/**
+ * 集合竞价命令处理器
+ */
+public class AuctionCommandHandler implements ICommandHandler {
+
+    private OrderBookService orderBookService;
+
+    // Setter for Spring XML injection
+    public void setOrderBookService(OrderBookService orderBookService) {
+        this.orderBookService = orderBookService;
+    }
+
+    @Override
+    public CommandResult handle(Command command) {
+        Object param = command.param();
+        if (!(param instanceof AuctionCommand cmd)) {
+            throw new IllegalArgumentException("Command param must be AuctionCommand");
+        }
+        if (cmd.getAction() == null) {
+            throw new IllegalArgumentException("Auction action cannot be null");
+        }
+
+        Instrument instrument = orderBookService.resolveInstrument(cmd.getSymbolId(), cmd.getSymbol());
+        String symbol = instrument.getSymbol();
+        AuctionResult result = null;
+        switch (cmd.getAction()) {
+            case START -> orderBookService.beginAuction(instrument);
+            case UNCROSS -> result = orderBookService.uncrossAuction(instrument, true);
+            case END -> result = orderBookService.uncrossAuction(instrument, false);
+        }
+
+        // 构造返回结果
+        return CommandResult.success(command, new AuctionCommandResult(true, symbol, cmd.getAction(), result));
+    }
+
+    @Override
+    public void afterHandle(Command command, List<EntityEvent> entityEvents) {
+
+    }
+
+    @Override
+    public void preHandle(Command command) {
+
+    }
+
+    @Override
+    public List<EntityEvent> doHandle(Command command) {
+        return List.of();
+    }
+}
@@ -3,6 +3,7 @@ package com.tanggo.fund.metadriven.lwc.lob.handlers;
 import com.tanggo.fund.metadriven.lwc.cqrs.ICommandHandler;
 import com.tanggo.fund.metadriven.lwc.lob.commands.CancelOrderCommand;
 import com.tanggo.fund.metadriven.lwc.lob.commands.CancelOrderResult;
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
 import com.tanggo.fund.metadriven.lwc.lob.service.OrderBookService;
 
 import java.util.List;
@@ -26,8 +27,11 @@ public class CancelOrderCommandHandler implements ICommandHandler {
             throw new IllegalArgumentException("Command param must be CancelOrderCommand");
         }
 
-        // 执行撤单
-        boolean success = orderBookService.cancelOrder(cmd.getSymbol(), cmd.getOrderId());
+        // 执行撤单：携带订单键时按订单键定位，不查找订单ID
+        Instrument instrument = orderBookService.resolveInstrument(cmd.getSymbolId(), cmd.getSymbol());
+        boolean success = cmd.getOrderKey() != null
+            ? orderBookService.cancelOrder(instrument, cmd.getOrderKey())
+            : orderBookService.cancelOrder(instrument, cmd.getOrderId());
 
         // 构造返回结果
         CancelOrderResult data = new CancelOrderResult();
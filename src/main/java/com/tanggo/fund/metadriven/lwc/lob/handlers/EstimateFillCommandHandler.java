@@ -0,0 +1,52 @@
+package com.tanggo.fund.metadriven.lwc.lob.handlers;
+
+import com.tanggo.fund.metadriven.lwc.cqrs.ICommandHandler;
+import com.tanggo.fund.metadriven.lwc.lob.commands.EstimateFillCommand;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.FillEstimate;
+import com.tanggo.fund.metadriven.lwc.lob.service.OrderBookService;
+
+import java.util.List;
+
+/**
+ * 成交预估查询处理器
+ */
+public class EstimateFillCommandHandler implements ICommandHandler {
+
+    private OrderBookService orderBookService;
+
+    // Setter for Spring XML injection
+    public void setOrderBookService(OrderBookService orderBookService) {
+        this.orderBookService = orderBookService;
+    }
+
+    @Override
+    public CommandResult handle(Command command) {
+        Object param = command.param();
+        if (!(param instanceof EstimateFillCommand cmd)) {
+            throw new IllegalArgumentException("Command param must be EstimateFillCommand");
+        }
+
+        FillEstimate estimate = orderBookService.estimateFill(
+            orderBookService.resolveInstrument(cmd.getSymbolId(), cmd.getSymbol()),
+            cmd.getSide(),
+            cmd.getQuantity(),
+            cmd.getLimitPrice()
+        );
+        return CommandResult.success(command, estimate);
+    }
+
+    @Override
+    public void afterHandle(Command command, List<EntityEvent> entityEvents) {
+
+    }
+
+    @Override
+    public void preHandle(Command command) {
+
+    }
+
+    @Override
+    public List<EntityEvent> doHandle(Command command) {
+        return List.of();
+    }
+}
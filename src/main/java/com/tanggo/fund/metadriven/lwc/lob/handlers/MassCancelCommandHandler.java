@@ -0,0 +1,57 @@
+package com.tanggo.fund.metadriven.lwc.lob.handlers;
+
+import com.tanggo.fund.metadriven.lwc.cqrs.ICommandHandler;
+import com.tanggo.fund.metadriven.lwc.lob.commands.MassCancelCommand;
+import com.tanggo.fund.metadriven.lwc.lob.commands.MassCancelResult;
+import com.tanggo.fund.metadriven.lwc.lob.service.OrderBookService;
+
+import java.util.List;
+
+/**
+ * 批量撤单命令处理器
+ */
+public class MassCancelCommandHandler implements ICommandHandler {
+
+    private OrderBookService orderBookService;
+
+    // Setter for Spring XML injection
+    public void setOrderBookService(OrderBookService orderBookService) {
+        this.orderBookService = orderBookService;
+    }
+
+    @Override
+    public CommandResult handle(Command command) {
+        Object param = command.param();
+        if (!(param instanceof MassCancelCommand cmd)) {
+            throw new IllegalArgumentException("Command param must be MassCancelCommand");
+        }
+
+        // 执行批量撤单：按参与者链表或逐档撤销，一次返回全部被撤订单ID
+        // 携带symbolId时按品种定位分片和订单薄，不哈希交易对字符串
+        List<String> cancelled = cmd.getSymbolId() != null
+            ? orderBookService.massCancel(orderBookService.getInstrument(cmd.getSymbolId()), cmd.getSide(), cmd.getOwnerId())
+            : orderBookService.massCancel(cmd.getSymbol(), cmd.getSide(), cmd.getOwnerId());
+
+        // 构造返回结果
+        MassCancelResult data = new MassCancelResult();
+        data.setSuccess(true);
+        data.setCancelledOrderIds(cancelled);
+
+        return CommandResult.success(command, data);
+    }
+
+    @Override
+    public void afterHandle(Command command, List<EntityEvent> entityEvents) {
+
+    }
+
+    @Override
+    public void preHandle(Command command) {
+
+    }
+
+    @Override
+    public List<EntityEvent> doHandle(Command command) {
+        return List.of();
+    }
+}
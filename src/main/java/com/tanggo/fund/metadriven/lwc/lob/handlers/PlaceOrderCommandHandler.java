@@ -2,7 +2,8 @@ package com.tanggo.fund.metadriven.lwc.lob.handlers;
 
 import com.tanggo.fund.metadriven.lwc.cqrs.ICommandHandler;
 import com.tanggo.fund.metadriven.lwc.lob.commands.PlaceOrderCommand;
-import com.tanggo.fund.metadriven.lwc.lob.domain.LimitOrder;
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.StopOrder;
 import com.tanggo.fund.metadriven.lwc.lob.domain.repo.MatchResult;
 import com.tanggo.fund.metadriven.lwc.lob.commands.PlaceOrderResult;
 import com.tanggo.fund.metadriven.lwc.lob.service.OrderBookService;
@@ -28,25 +29,58 @@ public class PlaceOrderCommandHandler implements ICommandHandler {
             throw new IllegalArgumentException("Command param must be PlaceOrderCommand");
         }
 
-        // 创建限价订单
-        LimitOrder order = new LimitOrder(
-            cmd.getOrderId(),
-            cmd.getSymbol(),
-            cmd.getSide(),
-            cmd.getPrice(),
-            cmd.getQuantity()
-        );
+        Instrument instrument = orderBookService.resolveInstrument(cmd.getSymbolId(), cmd.getSymbol());
+        PlaceOrderResult data = place(orderBookService, cmd, instrument);
 
-        // 提交到订单薄
-        MatchResult result = orderBookService.placeOrder(order);
+        return CommandResult.success(command, data);
+    }
+
+    /**
+     * 按订单类型提交一个订单：止损单、FOK或普通限价单（批量下单中的止损单和FOK也经此提交）
+     */
+    static PlaceOrderResult place(OrderBookService orderBookService, PlaceOrderCommand cmd, Instrument instrument) {
+        if (cmd.getStopPrice() != null) {
+            if (cmd.getOrderKey() != null) {
+                throw new IllegalArgumentException("Order key is not supported for stop orders");
+            }
+            // 止损单：挂起到订单薄的触发价索引，最新价达到触发价时进入撮合
+            StopOrder stopOrder = orderBookService.placeStopOrder(cmd.getOrderId(), cmd.getOwnerId(), instrument,
+                cmd.getSide(), cmd.getStopPrice(), cmd.getPrice(), cmd.getQuantity());
+            PlaceOrderResult data = new PlaceOrderResult();
+            data.setStopOrder(stopOrder);
+            data.setTrades(List.of());
+            data.setSuccess(true);
+            return data;
+        }
+
+        MatchResult result;
+        if (Boolean.TRUE.equals(cmd.getFillOrKill())) {
+            // FOK：撮合线程先按累计深度判断可行性，不可行时订单薄不变
+            result = orderBookService.placeFillOrKill(
+                cmd.getOrderId(), cmd.getOwnerId(), instrument, cmd.getSide(), cmd.getPrice(), cmd.getQuantity());
+        } else if (cmd.getOrderKey() != null) {
+            // 携带订单键：挂单按订单键登记，之后的撤单/改单可按订单键定位
+            result = orderBookService.placeOrder(cmd.getOrderId(), cmd.getOrderKey(), cmd.getOwnerId(), instrument,
+                cmd.getSide(), cmd.getPrice(), cmd.getQuantity());
+        } else {
+            // 提交到订单薄：命令字段按品种精度换算后拷贝进撮合入站缓冲区，订单由撮合线程创建
+            result = orderBookService.placeOrder(
+                cmd.getOrderId(),
+                cmd.getOwnerId(),
+                instrument,
+                cmd.getSide(),
+                cmd.getPrice(),
+                cmd.getQuantity()
+            );
+        }
 
         // 构造返回结果
         PlaceOrderResult data = new PlaceOrderResult();
         data.setOrder(result.getOrder());
         data.setTrades(result.getTrades());
+        data.setTriggeredOrders(result.getTriggeredOrders());
         data.setSuccess(true);
-
-        return CommandResult.success(command, data);
+        return data;
     }
 
     @Override
@@ -0,0 +1,142 @@
+package com.tanggo.fund.metadriven.lwc.lob.handlers;
+
+import com.tanggo.fund.metadriven.lwc.cqrs.ICommandHandler;
+import com.tanggo.fund.metadriven.lwc.lob.commands.PlaceOrderCommand;
+import com.tanggo.fund.metadriven.lwc.lob.commands.PlaceOrderResult;
+import com.tanggo.fund.metadriven.lwc.lob.commands.PlaceOrdersCommand;
+import com.tanggo.fund.metadriven.lwc.lob.commands.PlaceOrdersResult;
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.LimitOrder;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.MatchResult;
+import com.tanggo.fund.metadriven.lwc.lob.service.OrderBookService;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量下单命令处理器
+ */
+public class PlaceOrdersCommandHandler implements ICommandHandler {
+
+    private OrderBookService orderBookService;
+
+    // Setter for Spring XML injection
+    public void setOrderBookService(OrderBookService orderBookService) {
+        this.orderBookService = orderBookService;
+    }
+
+    @Override
+    public CommandResult handle(Command command) {
+        Object param = command.param();
+        if (!(param instanceof PlaceOrdersCommand cmd)) {
+            throw new IllegalArgumentException("Command param must be PlaceOrdersCommand");
+        }
+        if (cmd.getOrders() == null || cmd.getOrders().isEmpty()) {
+            throw new IllegalArgumentException("Orders cannot be empty");
+        }
+
+        // 提交任何订单之前解析全部品种（每个交易对只解析一次）并换算全部字段：
+        // 任何一条无效（未知交易对、价格或数量不合精度）时整个命令失败，没有订单被提交
+        int n = cmd.getOrders().size();
+        Map<Object, Instrument> instruments = new HashMap<>();
+        List<Instrument> resolved = new ArrayList<>(n);
+        List<LimitOrder> limitOrders = new ArrayList<>(n);
+        for (PlaceOrderCommand order : cmd.getOrders()) {
+            Object key = order.getSymbolId() != null ? order.getSymbolId() : order.getSymbol();
+            Instrument instrument = instruments.computeIfAbsent(key,
+                k -> orderBookService.resolveInstrument(order.getSymbolId(), order.getSymbol()));
+            resolved.add(instrument);
+            limitOrders.add(prepare(order, instrument));
+        }
+
+        // 连续的普通限价单整组提交：仓储按交易对分组，每个订单薄整组撮合
+        // FOK和止损单按各自的语义逐单提交，提交前先提交之前积累的限价单，保持命令顺序
+        // 订单薄拒绝的订单记为失败结果，不影响其他订单，已执行订单的结果都会返回
+        List<PlaceOrderResult> data = new ArrayList<>(n);
+        List<LimitOrder> batch = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            LimitOrder limitOrder = limitOrders.get(i);
+            if (limitOrder != null) {
+                batch.add(limitOrder);
+                continue;
+            }
+            placeBatch(batch, data);
+            data.add(placeSingle(cmd.getOrders().get(i), resolved.get(i)));
+        }
+        placeBatch(batch, data);
+
+        boolean allAccepted = data.stream().allMatch(PlaceOrderResult::isSuccess);
+        return CommandResult.success(command, new PlaceOrdersResult(allAccepted, data));
+    }
+
+    /**
+     * 按与逐单下单相同的规则校验并换算一个订单的字段：普通限价单返回构造好的订单，
+     * FOK、止损单和携带订单键的限价单只校验、返回null（逐单提交）
+     */
+    private static LimitOrder prepare(PlaceOrderCommand order, Instrument instrument) {
+        if (order.getSide() == null) {
+            throw new IllegalArgumentException("Side cannot be null");
+        }
+        if (order.getStopPrice() != null) {
+            if (order.getStopPrice().compareTo(BigDecimal.ZERO) <= 0) {
+                throw new IllegalArgumentException("Trigger price must be positive");
+            }
+            instrument.toTicks(order.getStopPrice());
+            // 止损市价单没有限价，以触发价校验其余字段
+            new LimitOrder(order.getOrderId(), order.getOwnerId(), instrument, order.getSide(),
+                order.getPrice() != null ? order.getPrice() : order.getStopPrice(), order.getQuantity());
+            return null;
+        }
+        LimitOrder limitOrder = new LimitOrder(order.getOrderId(), order.getOwnerId(), instrument,
+            order.getSide(), order.getPrice(), order.getQuantity());
+        return Boolean.TRUE.equals(order.getFillOrKill()) || order.getOrderKey() != null ? null : limitOrder;
+    }
+
+    /**
+     * 逐单提交FOK、止损单或携带订单键的限价单，被拒绝（如止损触发价已满足、分片已停止）时返回失败结果
+     */
+    private PlaceOrderResult placeSingle(PlaceOrderCommand order, Instrument instrument) {
+        try {
+            return PlaceOrderCommandHandler.place(orderBookService, order, instrument);
+        } catch (IllegalArgumentException | IllegalStateException | UnsupportedOperationException e) {
+            PlaceOrderResult rejected = new PlaceOrderResult(false, null, List.of());
+            rejected.setRejectReason(e.getMessage());
+            return rejected;
+        }
+    }
+
+    /**
+     * 整组提交积累的普通限价单，结果（含被触发的止损单）按顺序追加到data
+     */
+    private void placeBatch(List<LimitOrder> orders, List<PlaceOrderResult> data) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        MatchResult[] results = orderBookService.placeOrders(orders);
+        for (MatchResult result : results) {
+            PlaceOrderResult placed = new PlaceOrderResult(!result.isRejected(), result.getOrder(), result.getTrades());
+            placed.setTriggeredOrders(result.getTriggeredOrders());
+            placed.setRejectReason(result.getRejectReason());
+            data.add(placed);
+        }
+        orders.clear();
+    }
+
+    @Override
+    public void afterHandle(Command command, List<EntityEvent> entityEvents) {
+
+    }
+
+    @Override
+    public void preHandle(Command command) {
+
+    }
+
+    @Override
+    public List<EntityEvent> doHandle(Command command) {
+        return List.of();
+    }
+}
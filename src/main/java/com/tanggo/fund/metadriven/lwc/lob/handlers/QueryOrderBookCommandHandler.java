@@ -1,7 +1,10 @@
 package com.tanggo.fund.metadriven.lwc.lob.handlers;
 
 import com.tanggo.fund.metadriven.lwc.cqrs.ICommandHandler;
+import com.tanggo.fund.metadriven.lwc.lob.commands.OrderBookPageResult;
 import com.tanggo.fund.metadriven.lwc.lob.commands.QueryOrderBookCommand;
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookPage;
 import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookSnapshot;
 import com.tanggo.fund.metadriven.lwc.lob.service.OrderBookService;
 
@@ -26,10 +29,25 @@ public class QueryOrderBookCommandHandler implements ICommandHandler {
             throw new IllegalArgumentException("Command param must be QueryOrderBookCommand");
         }
 
-        // 查询订单薄快照
+        // 携带symbolId时按品种定位订单薄，不哈希交易对字符串
+        Instrument instrument = cmd.getSymbolId() != null ? orderBookService.getInstrument(cmd.getSymbolId()) : null;
+        String symbol = instrument != null ? instrument.getSymbol() : cmd.getSymbol();
+
+        // 逐笔(L3)分页：继续已有游标，或打开新游标返回第一页
+        if (cmd.getCursorId() != null || cmd.getPageSize() != null) {
+            int pageSize = cmd.getPageSize() != null ? cmd.getPageSize() : 500;
+            String cursorId = cmd.getCursorId() != null
+                ? cmd.getCursorId()
+                : orderBookService.openOrderBookCursor(symbol);
+            OrderBookPage page = orderBookService.nextOrderBookPage(cursorId, pageSize);
+            return CommandResult.success(command, new OrderBookPageResult(page.isLast() ? null : cursorId, page));
+        }
+
+        // 查询订单薄快照：发布深度内读取撮合线程发布的不可变视图，不阻塞撮合
         int depth = cmd.getDepth() != null ? cmd.getDepth() : 10;
-        OrderBookSnapshot snapshot =
-            orderBookService.getOrderBookSnapshot(cmd.getSymbol(), depth);
+        OrderBookSnapshot snapshot = instrument != null
+            ? orderBookService.getOrderBookSnapshot(instrument, depth)
+            : orderBookService.getOrderBookSnapshot(symbol, depth);
 
         // 构造返回结果
         return CommandResult.success(command, snapshot);
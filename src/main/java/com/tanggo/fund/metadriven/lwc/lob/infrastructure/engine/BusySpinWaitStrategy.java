@@ -0,0 +1,12 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.engine;
+
+/**
+ * 忙等策略 - 时延最低，独占一个CPU核，适用于绑核部署
+ */
+public class BusySpinWaitStrategy implements WaitStrategy {
+
+    @Override
+    public void idle(int idleCount) {
+        Thread.onSpinWait();
+    }
+}
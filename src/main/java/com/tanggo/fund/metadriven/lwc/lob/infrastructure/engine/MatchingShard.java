@@ -0,0 +1,241 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.engine;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.LimitOrder;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.IOrderBookRepository;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.MatchResult;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 撮合分片 - 一个专属撮合线程 + 一个入站环形缓冲区
+ * 分片线程独占其负责交易对的订单薄（单写者）；多生产者认领槽位、拷贝命令字段后发布，
+ * 撮合线程批量消费，入站路径无需为每条命令分配队列节点
+ */
+class MatchingShard implements OrderCommandProcessor.Handler {
+
+    private final IOrderBookRepository books;
+    private final OrderCommandRingBuffer ringBuffer;
+    private final OrderCommandProcessor processor;
+    private final Thread thread;
+    private volatile boolean accepting = true;
+
+    MatchingShard(String name, IOrderBookRepository books, int bufferSize, WaitStrategy waitStrategy) {
+        this.books = books;
+        this.ringBuffer = new OrderCommandRingBuffer(bufferSize);
+        this.processor = new OrderCommandProcessor(ringBuffer, waitStrategy, this);
+        this.thread = new Thread(processor, name);
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * 发布下单命令（字段形式，订单在撮合线程上创建；orderKey为0表示未携带订单键）
+     */
+    void publishPlace(String orderId, long orderKey, String ownerId, Instrument instrument, OrderSide side,
+                      long priceTicks, long quantityLots, CompletableFuture<MatchResult> future) {
+        long sequence = claim();
+        if (sequence == OrderCommandRingBuffer.CLOSED) {
+            future.completeExceptionally(stopped());
+            return;
+        }
+        OrderCommandSlot slot = ringBuffer.get(sequence);
+        slot.type = OrderCommandSlot.Type.PLACE;
+        slot.orderId = orderId;
+        slot.orderKey = orderKey;
+        slot.ownerId = ownerId;
+        slot.instrument = instrument;
+        slot.side = side;
+        slot.priceTicks = priceTicks;
+        slot.quantityLots = quantityLots;
+        slot.placeFuture = future;
+        ringBuffer.publish(sequence);
+    }
+
+    /**
+     * 发布下单命令（已构造好的订单）
+     */
+    void publishPlace(LimitOrder order, CompletableFuture<MatchResult> future) {
+        long sequence = claim();
+        if (sequence == OrderCommandRingBuffer.CLOSED) {
+            future.completeExceptionally(stopped());
+            return;
+        }
+        OrderCommandSlot slot = ringBuffer.get(sequence);
+        slot.type = OrderCommandSlot.Type.PLACE;
+        slot.order = order;
+        slot.placeFuture = future;
+        ringBuffer.publish(sequence);
+    }
+
+    /**
+     * 发布撤单命令
+     */
+    void publishCancel(String symbol, String orderId, CompletableFuture<Boolean> future) {
+        long sequence = claim();
+        if (sequence == OrderCommandRingBuffer.CLOSED) {
+            future.completeExceptionally(stopped());
+            return;
+        }
+        OrderCommandSlot slot = ringBuffer.get(sequence);
+        slot.type = OrderCommandSlot.Type.CANCEL;
+        slot.symbol = symbol;
+        slot.orderId = orderId;
+        slot.cancelFuture = future;
+        ringBuffer.publish(sequence);
+    }
+
+    /**
+     * 发布撤单命令（按品种，撮合线程按symbolId定位订单薄）
+     */
+    void publishCancel(Instrument instrument, String orderId, CompletableFuture<Boolean> future) {
+        long sequence = claim();
+        if (sequence == OrderCommandRingBuffer.CLOSED) {
+            future.completeExceptionally(stopped());
+            return;
+        }
+        OrderCommandSlot slot = ringBuffer.get(sequence);
+        slot.type = OrderCommandSlot.Type.CANCEL;
+        slot.instrument = instrument;
+        slot.orderId = orderId;
+        slot.cancelFuture = future;
+        ringBuffer.publish(sequence);
+    }
+
+    /**
+     * 发布撤单命令（按订单键）
+     */
+    void publishCancel(Instrument instrument, long orderKey, CompletableFuture<Boolean> future) {
+        long sequence = claim();
+        if (sequence == OrderCommandRingBuffer.CLOSED) {
+            future.completeExceptionally(stopped());
+            return;
+        }
+        OrderCommandSlot slot = ringBuffer.get(sequence);
+        slot.type = OrderCommandSlot.Type.CANCEL;
+        slot.instrument = instrument;
+        slot.orderKey = orderKey;
+        slot.cancelFuture = future;
+        ringBuffer.publish(sequence);
+    }
+
+    /**
+     * 发布改单命令（0表示价格/数量不变；orderId为null时按订单键定位）
+     */
+    void publishAmend(Instrument instrument, String orderId, long orderKey, long priceTicks, long quantityLots,
+                      CompletableFuture<MatchResult> future) {
+        long sequence = claim();
+        if (sequence == OrderCommandRingBuffer.CLOSED) {
+            future.completeExceptionally(stopped());
+            return;
+        }
+        OrderCommandSlot slot = ringBuffer.get(sequence);
+        slot.type = OrderCommandSlot.Type.AMEND;
+        slot.instrument = instrument;
+        slot.orderId = orderId;
+        slot.orderKey = orderKey;
+        slot.priceTicks = priceTicks;
+        slot.quantityLots = quantityLots;
+        slot.placeFuture = future;
+        ringBuffer.publish(sequence);
+    }
+
+    /**
+     * 投递任意任务到分片线程（查询等），future由任务完成；分片停止时以异常完成
+     */
+    void execute(Runnable task, CompletableFuture<?> future) {
+        long sequence = claim();
+        if (sequence == OrderCommandRingBuffer.CLOSED) {
+            future.completeExceptionally(stopped());
+            return;
+        }
+        OrderCommandSlot slot = ringBuffer.get(sequence);
+        slot.type = OrderCommandSlot.Type.TASK;
+        slot.task = task;
+        slot.taskFuture = future;
+        ringBuffer.publish(sequence);
+    }
+
+    /**
+     * 认领槽位；分片已停止时返回OrderCommandRingBuffer.CLOSED，调用方以异常完成future
+     */
+    private long claim() {
+        if (!accepting) {
+            return OrderCommandRingBuffer.CLOSED;
+        }
+        return ringBuffer.next();
+    }
+
+    private IllegalStateException stopped() {
+        return new IllegalStateException("Matching shard " + thread.getName() + " is stopped");
+    }
+
+    @Override
+    public void onCommand(OrderCommandSlot slot, long sequence, boolean endOfBatch) {
+        switch (slot.type) {
+            case PLACE -> {
+                try {
+                    // 字段形式走零分配下单路径，享元结果拷贝后再跨线程交给调用方
+                    MatchResult result = slot.order != null ? books.addOrder(slot.order)
+                        : books.placeOrder(slot.orderId, slot.orderKey, slot.ownerId, slot.instrument, slot.side,
+                            slot.priceTicks, slot.quantityLots).copy();
+                    slot.placeFuture.complete(result);
+                } catch (Throwable e) {
+                    slot.placeFuture.completeExceptionally(e);
+                }
+            }
+            case CANCEL -> {
+                try {
+                    boolean cancelled = slot.instrument == null ? books.cancelOrder(slot.symbol, slot.orderId)
+                        : slot.orderId != null ? books.cancelOrder(slot.instrument, slot.orderId)
+                        : books.cancelOrder(slot.instrument, slot.orderKey);
+                    slot.cancelFuture.complete(cancelled);
+                } catch (Throwable e) {
+                    slot.cancelFuture.completeExceptionally(e);
+                }
+            }
+            case AMEND -> {
+                try {
+                    MatchResult result = slot.orderId != null
+                        ? books.amendOrder(slot.instrument, slot.orderId, slot.priceTicks, slot.quantityLots)
+                        : books.amendOrder(slot.instrument, slot.orderKey, slot.priceTicks, slot.quantityLots);
+                    slot.placeFuture.complete(result != null ? result.copy() : null);
+                } catch (Throwable e) {
+                    slot.placeFuture.completeExceptionally(e);
+                }
+            }
+            case TASK -> slot.task.run();
+        }
+    }
+
+    @Override
+    public void onRejected(OrderCommandSlot slot, long sequence) {
+        IllegalStateException stopped = stopped();
+        switch (slot.type) {
+            case PLACE, AMEND -> slot.placeFuture.completeExceptionally(stopped);
+            case CANCEL -> slot.cancelFuture.completeExceptionally(stopped);
+            case TASK -> slot.taskFuture.completeExceptionally(stopped);
+        }
+    }
+
+    /**
+     * 当前线程是否为本分片的撮合线程
+     */
+    boolean inShardThread() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * 停止分片：不再接受新命令，处理完已发布的命令后退出
+     * 与停止并发认领的命令以IllegalStateException完成，任何已发出的future都会完成
+     */
+    void stop() throws InterruptedException {
+        accepting = false;
+        processor.halt();
+        thread.join();
+    }
+}
@@ -0,0 +1,91 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.engine;
+
+/**
+ * 环形缓冲区的批量消费者
+ * 每轮取出全部连续已发布的序号，按顺序交给处理器，整批处理完后才推进消费进度
+ * 停止后处理完已发布的命令，然后关闭缓冲区，把停止时已认领的其余命令逐条拒绝
+ */
+final class OrderCommandProcessor implements Runnable {
+
+    /**
+     * 槽位处理器
+     */
+    interface Handler {
+        /**
+         * @param slot       命令槽位（返回后即被清空复用）
+         * @param sequence   序号
+         * @param endOfBatch 是否为本批最后一条
+         */
+        void onCommand(OrderCommandSlot slot, long sequence, boolean endOfBatch);
+
+        /**
+         * 停止后拒绝命令：以异常完成槽位携带的future
+         */
+        void onRejected(OrderCommandSlot slot, long sequence);
+    }
+
+    private final OrderCommandRingBuffer ringBuffer;
+    private final WaitStrategy waitStrategy;
+    private final Handler handler;
+    private volatile boolean running = true;
+
+    OrderCommandProcessor(OrderCommandRingBuffer ringBuffer, WaitStrategy waitStrategy, Handler handler) {
+        this.ringBuffer = ringBuffer;
+        this.waitStrategy = waitStrategy;
+        this.handler = handler;
+    }
+
+    @Override
+    public void run() {
+        long next = ringBuffer.consumed() + 1;
+        int idleCount = 0;
+        while (true) {
+            long highest = ringBuffer.highestPublished(next, ringBuffer.cursor());
+            if (highest < next) {
+                if (!running) {
+                    drain(next);
+                    return;
+                }
+                waitStrategy.idle(idleCount++);
+                continue;
+            }
+            idleCount = 0;
+            for (long sequence = next; sequence <= highest; sequence++) {
+                OrderCommandSlot slot = ringBuffer.get(sequence);
+                handler.onCommand(slot, sequence, sequence == highest);
+                slot.clear();
+            }
+            ringBuffer.markConsumed(highest);
+            next = highest + 1;
+        }
+    }
+
+    /**
+     * 关闭缓冲区，拒绝[next, 关闭点]内的命令
+     * 这些序号的生产者一定会发布，逐条等待发布后拒绝并释放槽位，缓冲区满时等待的生产者因此得以继续
+     */
+    private void drain(long next) {
+        long limit = ringBuffer.close();
+        int idleCount = 0;
+        while (next <= limit) {
+            if (!ringBuffer.isPublished(next)) {
+                waitStrategy.idle(idleCount++);
+                continue;
+            }
+            idleCount = 0;
+            OrderCommandSlot slot = ringBuffer.get(next);
+            handler.onRejected(slot, next);
+            slot.clear();
+            ringBuffer.markConsumed(next);
+            next++;
+        }
+    }
+
+    void halt() {
+        running = false;
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+}
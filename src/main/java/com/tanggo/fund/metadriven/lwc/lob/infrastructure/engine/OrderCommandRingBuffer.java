@@ -0,0 +1,145 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.engine;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 多生产者/单消费者的预分配环形缓冲区（Disruptor风格）
+ * - 槽位在构造时一次性分配，生产者通过CAS递增游标认领序号，写入槽位字段后发布
+ * - 每个槽位记录已发布的轮次，消费者据此找出连续可读的最高序号，批量处理
+ * - 缓冲区满时生产者等待消费者释放槽位（背压）
+ * - 消费者停止时关闭缓冲区：关闭点之后认领的序号被拒绝，生产者不再等待也不发布
+ */
+final class OrderCommandRingBuffer {
+
+    private static final VarHandle AVAILABLE = MethodHandles.arrayElementVarHandle(int[].class);
+
+    /**
+     * next()的返回值：缓冲区已关闭，序号被拒绝
+     */
+    static final long CLOSED = -1L;
+
+    private static final long OPEN = Long.MAX_VALUE;
+    private static final long CLOSING = Long.MIN_VALUE;
+
+    private final OrderCommandSlot[] slots;
+    private final int mask;
+    private final int indexShift;
+    // 每个槽位最近一次发布的轮次(sequence >>> indexShift)
+    private final int[] available;
+
+    // 已认领的最大序号
+    private final Sequence cursor = new Sequence(-1L);
+    // 消费者已处理完成的序号
+    private final Sequence consumed = new Sequence(-1L);
+    // 生产者缓存的消费进度，减少对consumed的读取
+    private final Sequence consumedCache = new Sequence(-1L);
+    // 关闭前最后一个被接受的序号；OPEN表示未关闭，CLOSING表示消费者正在读取游标
+    private volatile long closedAt = OPEN;
+
+    /**
+     * @param bufferSize 槽位数，必须为2的幂
+     */
+    OrderCommandRingBuffer(int bufferSize) {
+        if (bufferSize <= 0 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("bufferSize必须为2的幂: " + bufferSize);
+        }
+        this.slots = new OrderCommandSlot[bufferSize];
+        for (int i = 0; i < bufferSize; i++) {
+            slots[i] = new OrderCommandSlot();
+        }
+        this.mask = bufferSize - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(bufferSize);
+        this.available = new int[bufferSize];
+        for (int i = 0; i < bufferSize; i++) {
+            AVAILABLE.setRelease(available, i, -1);
+        }
+    }
+
+    /**
+     * 认领下一个序号，缓冲区满时等待
+     * 序号在关闭点之后时返回CLOSED（等待中途关闭也立即返回）：该序号不会被消费，调用方不得写入或发布
+     */
+    long next() {
+        long next = cursor.incrementAndGet();
+        long wrapPoint = next - slots.length;
+        if (wrapPoint > consumedCache.get()) {
+            long progress;
+            while (wrapPoint > (progress = consumed.get())) {
+                if (rejected(next)) {
+                    return CLOSED;
+                }
+                LockSupport.parkNanos(1L);
+            }
+            consumedCache.set(progress);
+        }
+        return rejected(next) ? CLOSED : next;
+    }
+
+    /**
+     * 关闭缓冲区（消费者调用），返回最后一个被接受的序号
+     * 不大于该序号的命令生产者照常发布，消费者须逐条取走；之后认领的序号都被拒绝
+     * 先写关闭标记再读游标，与生产者"先递增游标再读关闭标记"配对：二者至少有一方看到对方的写入
+     */
+    long close() {
+        closedAt = CLOSING;
+        long limit = cursor.getVolatile();
+        closedAt = limit;
+        return limit;
+    }
+
+    private boolean rejected(long sequence) {
+        long limit;
+        while ((limit = closedAt) == CLOSING) {
+            Thread.onSpinWait();
+        }
+        return sequence > limit;
+    }
+
+    OrderCommandSlot get(long sequence) {
+        return slots[(int) sequence & mask];
+    }
+
+    /**
+     * 发布序号，消费者可见
+     */
+    void publish(long sequence) {
+        AVAILABLE.setRelease(available, (int) sequence & mask, (int) (sequence >>> indexShift));
+    }
+
+    boolean isPublished(long sequence) {
+        return (int) AVAILABLE.getAcquire(available, (int) sequence & mask) == (int) (sequence >>> indexShift);
+    }
+
+    /**
+     * 从lowerBound起连续已发布的最高序号，lowerBound本身未发布时返回lowerBound - 1
+     */
+    long highestPublished(long lowerBound, long upperBound) {
+        for (long sequence = lowerBound; sequence <= upperBound; sequence++) {
+            if (!isPublished(sequence)) {
+                return sequence - 1;
+            }
+        }
+        return upperBound;
+    }
+
+    long cursor() {
+        return cursor.get();
+    }
+
+    long consumed() {
+        return consumed.get();
+    }
+
+    /**
+     * 消费者处理完成后推进进度，释放槽位
+     */
+    void markConsumed(long sequence) {
+        consumed.set(sequence);
+    }
+
+    int bufferSize() {
+        return slots.length;
+    }
+}
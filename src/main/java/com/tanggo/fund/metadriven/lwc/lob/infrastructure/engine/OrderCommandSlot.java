@@ -0,0 +1,61 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.engine;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.LimitOrder;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.MatchResult;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 环形缓冲区槽位 - 预分配、可变的命令载体
+ * 生产者把下单/撤单命令的字段拷贝进槽位，消费者处理后清空引用以便复用
+ */
+final class OrderCommandSlot {
+
+    enum Type {
+        PLACE,
+        CANCEL,
+        AMEND,
+        TASK
+    }
+
+    Type type;
+
+    // PLACE：字段形式，或已构造好的订单；AMEND复用instrument/orderId/priceTicks/quantityLots/placeFuture
+    String orderId;
+    // 网关分配的64位订单键，0表示未携带；CANCEL/AMEND的orderId为null时按订单键定位
+    long orderKey;
+    String ownerId;
+    Instrument instrument;
+    OrderSide side;
+    long priceTicks;
+    long quantityLots;
+    LimitOrder order;
+    CompletableFuture<MatchResult> placeFuture;
+
+    // CANCEL：按品种撤单时同时携带instrument
+    String symbol;
+    CompletableFuture<Boolean> cancelFuture;
+
+    // TASK：查询等其他需在撮合线程执行的操作
+    Runnable task;
+    CompletableFuture<?> taskFuture;
+
+    void clear() {
+        type = null;
+        orderId = null;
+        orderKey = 0L;
+        ownerId = null;
+        instrument = null;
+        side = null;
+        priceTicks = 0L;
+        quantityLots = 0L;
+        order = null;
+        placeFuture = null;
+        symbol = null;
+        cancelFuture = null;
+        task = null;
+        taskFuture = null;
+    }
+}
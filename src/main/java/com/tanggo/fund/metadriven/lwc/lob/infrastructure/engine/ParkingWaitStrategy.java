@@ -0,0 +1,37 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.engine;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 休眠策略 - 自旋、让出后短暂park，CPU占用最低，唤醒时延为park粒度
+ */
+public class ParkingWaitStrategy implements WaitStrategy {
+
+    private int spinTries = 100;
+    private int yieldTries = 100;
+    private long parkNanos = 50_000L;
+
+    @Override
+    public void idle(int idleCount) {
+        if (idleCount < spinTries) {
+            Thread.onSpinWait();
+        } else if (idleCount < spinTries + yieldTries) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(parkNanos);
+        }
+    }
+
+    // Setters for Spring XML injection
+    public void setSpinTries(int spinTries) {
+        this.spinTries = spinTries;
+    }
+
+    public void setYieldTries(int yieldTries) {
+        this.yieldTries = yieldTries;
+    }
+
+    public void setParkNanos(long parkNanos) {
+        this.parkNanos = parkNanos;
+    }
+}
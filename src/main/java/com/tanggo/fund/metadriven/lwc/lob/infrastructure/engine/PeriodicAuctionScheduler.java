@@ -0,0 +1,89 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.engine;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.AuctionResult;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.IInstrumentRepository;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.IOrderBookRepository;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 周期性集合竞价调度器 - 低流动性交易对整天以竞价方式撮合
+ * 启动时把配置的交易对切换为收集模式，之后按各自间隔触发一次撮合，撮合后继续收集
+ * 撮合本身投递到交易对所属的撮合线程执行，仓储必须支持从非撮合线程调用（如分片撮合引擎）
+ */
+public class PeriodicAuctionScheduler implements AutoCloseable {
+
+    private final IOrderBookRepository repository;
+    private final IInstrumentRepository instrumentRepository;
+    private final Map<String, Long> intervalsMillis = new LinkedHashMap<>();
+    private Consumer<AuctionResult> resultListener = result -> { };
+
+    private ScheduledExecutorService scheduler;
+
+    public PeriodicAuctionScheduler(IOrderBookRepository repository, IInstrumentRepository instrumentRepository) {
+        this.repository = Objects.requireNonNull(repository, "repository不能为null");
+        this.instrumentRepository = Objects.requireNonNull(instrumentRepository, "instrumentRepository不能为null");
+    }
+
+    // Setter for Spring XML injection：交易对 -> 撮合间隔(毫秒)
+    public void setIntervalsMillis(Map<String, Long> intervalsMillis) {
+        for (Map.Entry<String, Long> entry : intervalsMillis.entrySet()) {
+            if (entry.getValue() == null || entry.getValue() <= 0) {
+                throw new IllegalArgumentException("Auction interval must be positive: " + entry.getKey());
+            }
+        }
+        this.intervalsMillis.putAll(intervalsMillis);
+    }
+
+    // Setter for Spring XML injection（可选）：接收每次撮合的成交
+    public void setResultListener(Consumer<AuctionResult> resultListener) {
+        this.resultListener = Objects.requireNonNull(resultListener, "resultListener不能为null");
+    }
+
+    public synchronized void start() {
+        if (scheduler != null || intervalsMillis.isEmpty()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "lob-auction-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (Map.Entry<String, Long> entry : intervalsMillis.entrySet()) {
+            Instrument instrument = instrumentRepository.getInstrument(entry.getKey());
+            long interval = entry.getValue();
+            repository.beginAuction(instrument);
+            scheduler.scheduleAtFixedRate(() -> uncross(instrument), interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void uncross(Instrument instrument) {
+        try {
+            AuctionResult result = repository.uncrossAuction(instrument, true);
+            if (result.hasUncrossed()) {
+                resultListener.accept(result);
+            }
+        } catch (RuntimeException e) {
+            // 单次撮合失败不应终止该交易对后续的周期性撮合
+            System.err.printf("[WARN] 周期性竞价撮合失败: symbol=%s, error=%s%n", instrument.getSymbol(), e);
+        }
+    }
+
+    /**
+     * 停止调度，已在收集期的交易对保持竞价模式，需要时由 AuctionCommand END 恢复连续撮合
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.engine;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * 缓存行填充的序号计数器
+ * 生产者游标与消费者进度分别位于独立缓存行，避免伪共享
+ */
+class Sequence extends SequenceRhsPadding {
+
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(SequenceValue.class, "value", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    Sequence(long initialValue) {
+        VALUE.setRelease(this, initialValue);
+    }
+
+    long get() {
+        return (long) VALUE.getAcquire(this);
+    }
+
+    /**
+     * 顺序一致的读取，用于需要与其他volatile写配对的场合（见OrderCommandRingBuffer.close）
+     */
+    long getVolatile() {
+        return (long) VALUE.getVolatile(this);
+    }
+
+    void set(long value) {
+        VALUE.setRelease(this, value);
+    }
+
+    long incrementAndGet() {
+        return (long) VALUE.getAndAdd(this, 1L) + 1L;
+    }
+}
+
+@SuppressWarnings("unused")
+class SequenceLhsPadding {
+    protected long p1, p2, p3, p4, p5, p6, p7;
+}
+
+class SequenceValue extends SequenceLhsPadding {
+    protected volatile long value;
+}
+
+@SuppressWarnings("unused")
+class SequenceRhsPadding extends SequenceValue {
+    protected long p9, p10, p11, p12, p13, p14, p15;
+}
@@ -0,0 +1,594 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.engine;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.LimitOrder;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import com.tanggo.fund.metadriven.lwc.lob.domain.StopOrder;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.AuctionResult;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.FillEstimate;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.IOrderBookRepository;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.LevelUpdateSubscription;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.MatchResult;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookCursor;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookEntry;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookPage;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookSnapshot;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookState;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.TopOfBook;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * 按交易对分片的单写者撮合引擎
+ * 交易对按哈希映射到固定数量的专属撮合线程，每个线程独占其订单薄并处理自己的入站环形缓冲区：
+ * - 同一交易对的命令串行执行，订单薄内部无需加锁
+ * - 不同交易对在不同线程并行撮合，吞吐随核数扩展
+ * 所有操作都投递到分片线程执行，异步接口返回完成Future，同步接口等待Future完成
+ */
+public class ShardedOrderBookRepository implements IOrderBookRepository, AutoCloseable {
+
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    private final IOrderBookRepository delegate;
+    private final MatchingShard[] shards;
+
+    // symbolId -> 分片下标+1（0表示尚未缓存），首次按品种路由时登记（写时复制）
+    private volatile int[] shardsById = new int[64];
+
+    /**
+     * @param delegate   实际的订单薄仓储（非线程安全，由分片线程独占访问）
+     * @param shardCount 撮合线程数
+     */
+    public ShardedOrderBookRepository(IOrderBookRepository delegate, int shardCount) {
+        this(delegate, shardCount, DEFAULT_BUFFER_SIZE, new ParkingWaitStrategy());
+    }
+
+    /**
+     * @param delegate     实际的订单薄仓储（非线程安全，由分片线程独占访问）
+     * @param shardCount   撮合线程数
+     * @param bufferSize   每个分片环形缓冲区的槽位数（2的幂）
+     * @param waitStrategy 撮合线程空闲时的等待策略
+     */
+    public ShardedOrderBookRepository(IOrderBookRepository delegate, int shardCount,
+                                      int bufferSize, WaitStrategy waitStrategy) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate不能为null");
+        Objects.requireNonNull(waitStrategy, "waitStrategy不能为null");
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("shardCount必须大于0");
+        }
+        this.shards = new MatchingShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new MatchingShard("lob-matching-" + i, delegate, bufferSize, waitStrategy);
+        }
+        for (MatchingShard shard : shards) {
+            shard.start();
+        }
+    }
+
+    /**
+     * 交易对 -> 分片下标
+     * 按交易对字符串的哈希（String已缓存hashCode）分片，保证按符号和按symbolId的调用落到同一分片
+     */
+    int shardIndex(String symbol) {
+        int h = symbol.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), shards.length);
+    }
+
+    /**
+     * 品种 -> 分片下标
+     * 已注册品种按symbolId读缓存数组，不再访问交易对字符串；缓存值取自 {@link #shardIndex(String)}，
+     * 按符号和按品种的调用仍落到同一分片。未分配ID的品种按交易对哈希
+     */
+    int shardIndex(Instrument instrument) {
+        int symbolId = instrument.getSymbolId();
+        if (symbolId == Instrument.UNASSIGNED_ID) {
+            return shardIndex(instrument.getSymbol());
+        }
+        int[] cached = shardsById;
+        if (symbolId < cached.length && cached[symbolId] != 0) {
+            return cached[symbolId] - 1;
+        }
+        return cacheShard(symbolId, instrument.getSymbol());
+    }
+
+    private synchronized int cacheShard(int symbolId, String symbol) {
+        int shard = shardIndex(symbol);
+        int[] cached = shardsById;
+        cached = Arrays.copyOf(cached, Math.max(cached.length, Integer.highestOneBit(symbolId) << 1));
+        cached[symbolId] = shard + 1;
+        shardsById = cached;
+        return shard;
+    }
+
+    private <T> CompletableFuture<T> submit(String symbol, Supplier<T> action) {
+        return submit(shards[shardIndex(symbol)], action);
+    }
+
+    private <T> CompletableFuture<T> submit(Instrument instrument, Supplier<T> action) {
+        return submit(shards[shardIndex(instrument)], action);
+    }
+
+    private <T> CompletableFuture<T> submit(MatchingShard shard, Supplier<T> action) {
+        // 已在分片线程内（如回调中再次调用），直接执行避免自我等待
+        if (shard.inShardThread()) {
+            try {
+                return CompletableFuture.completedFuture(action.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        CompletableFuture<T> future = new CompletableFuture<>();
+        shard.execute(() -> {
+            try {
+                future.complete(action.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }, future);
+        return future;
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<MatchResult> addOrderAsync(LimitOrder order) {
+        MatchingShard shard = shards[shardIndex(order.getInstrument())];
+        if (shard.inShardThread()) {
+            return IOrderBookRepository.super.addOrderAsync(order);
+        }
+        CompletableFuture<MatchResult> future = new CompletableFuture<>();
+        shard.publishPlace(order, future);
+        return future;
+    }
+
+    /**
+     * 按分片分组，每个分片只投递一次整组任务，各分片并行撮合后按原顺序合并结果
+     * 某个分片整组失败（如分片已停止）时该组订单以拒绝结果返回，其他分片已执行的结果照常返回
+     */
+    @Override
+    public CompletableFuture<MatchResult[]> addOrdersAsync(List<LimitOrder> orders) {
+        int n = orders.size();
+        int[] shardOf = new int[n];
+        int[] counts = new int[shards.length];
+        for (int i = 0; i < n; i++) {
+            shardOf[i] = shardIndex(orders.get(i).getInstrument());
+            counts[shardOf[i]]++;
+        }
+        MatchResult[] results = new MatchResult[n];
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int s = 0; s < shards.length; s++) {
+            if (counts[s] == 0) {
+                continue;
+            }
+            int[] indexes = new int[counts[s]];
+            List<LimitOrder> group = new ArrayList<>(counts[s]);
+            for (int i = 0; i < n; i++) {
+                if (shardOf[i] == s) {
+                    indexes[group.size()] = i;
+                    group.add(orders.get(i));
+                }
+            }
+            futures.add(submit(shards[s], () -> delegate.addOrders(group)).handle((groupResults, failure) -> {
+                for (int j = 0; j < indexes.length; j++) {
+                    results[indexes[j]] = failure == null ? groupResults[j]
+                        : MatchResult.rejected(group.get(j), failure.getMessage());
+                }
+                return null;
+            }));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenApply(v -> results);
+    }
+
+    @Override
+    public CompletableFuture<boolean[]> cancelOrdersAsync(String symbol, List<String> orderIds) {
+        return submit(symbol, () -> delegate.cancelOrders(symbol, orderIds));
+    }
+
+    @Override
+    public CompletableFuture<boolean[]> cancelOrdersAsync(Instrument instrument, List<String> orderIds) {
+        return submit(instrument, () -> delegate.cancelOrders(instrument, orderIds));
+    }
+
+    @Override
+    public CompletableFuture<MatchResult> addOrderAsync(String orderId, String ownerId, Instrument instrument,
+                                                        OrderSide side, long priceTicks, long quantityLots) {
+        MatchingShard shard = shards[shardIndex(instrument)];
+        if (shard.inShardThread()) {
+            return IOrderBookRepository.super.addOrderAsync(orderId, ownerId, instrument, side, priceTicks, quantityLots);
+        }
+        CompletableFuture<MatchResult> future = new CompletableFuture<>();
+        shard.publishPlace(orderId, 0L, ownerId, instrument, side, priceTicks, quantityLots, future);
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<MatchResult> addOrderAsync(String orderId, long orderKey, String ownerId,
+                                                        Instrument instrument, OrderSide side,
+                                                        long priceTicks, long quantityLots) {
+        MatchingShard shard = shards[shardIndex(instrument)];
+        if (shard.inShardThread()) {
+            return IOrderBookRepository.super.addOrderAsync(orderId, orderKey, ownerId, instrument, side,
+                priceTicks, quantityLots);
+        }
+        CompletableFuture<MatchResult> future = new CompletableFuture<>();
+        shard.publishPlace(orderId, orderKey, ownerId, instrument, side, priceTicks, quantityLots, future);
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> cancelOrderAsync(String symbol, String orderId) {
+        MatchingShard shard = shards[shardIndex(symbol)];
+        if (shard.inShardThread()) {
+            return IOrderBookRepository.super.cancelOrderAsync(symbol, orderId);
+        }
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        shard.publishCancel(symbol, orderId, future);
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> cancelOrderAsync(Instrument instrument, String orderId) {
+        MatchingShard shard = shards[shardIndex(instrument)];
+        if (shard.inShardThread()) {
+            return IOrderBookRepository.super.cancelOrderAsync(instrument, orderId);
+        }
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        shard.publishCancel(instrument, orderId, future);
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> cancelOrderAsync(Instrument instrument, long orderKey) {
+        MatchingShard shard = shards[shardIndex(instrument)];
+        if (shard.inShardThread()) {
+            return IOrderBookRepository.super.cancelOrderAsync(instrument, orderKey);
+        }
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        shard.publishCancel(instrument, orderKey, future);
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<MatchResult> amendOrderAsync(Instrument instrument, String orderId,
+                                                          long newPriceTicks, long newQuantityLots) {
+        MatchingShard shard = shards[shardIndex(instrument)];
+        if (shard.inShardThread()) {
+            return IOrderBookRepository.super.amendOrderAsync(instrument, orderId, newPriceTicks, newQuantityLots);
+        }
+        CompletableFuture<MatchResult> future = new CompletableFuture<>();
+        shard.publishAmend(instrument, orderId, 0L, newPriceTicks, newQuantityLots, future);
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<MatchResult> amendOrderAsync(Instrument instrument, long orderKey,
+                                                          long newPriceTicks, long newQuantityLots) {
+        MatchingShard shard = shards[shardIndex(instrument)];
+        if (shard.inShardThread()) {
+            return IOrderBookRepository.super.amendOrderAsync(instrument, orderKey, newPriceTicks, newQuantityLots);
+        }
+        CompletableFuture<MatchResult> future = new CompletableFuture<>();
+        shard.publishAmend(instrument, null, orderKey, newPriceTicks, newQuantityLots, future);
+        return future;
+    }
+
+    @Override
+    public MatchResult addOrder(LimitOrder order) {
+        return await(addOrderAsync(order));
+    }
+
+    @Override
+    public MatchResult[] addOrders(List<LimitOrder> orders) {
+        return await(addOrdersAsync(orders));
+    }
+
+    @Override
+    public boolean[] cancelOrders(String symbol, List<String> orderIds) {
+        return await(cancelOrdersAsync(symbol, orderIds));
+    }
+
+    @Override
+    public boolean[] cancelOrders(Instrument instrument, List<String> orderIds) {
+        return await(cancelOrdersAsync(instrument, orderIds));
+    }
+
+    @Override
+    public MatchResult placeOrder(String orderId, String ownerId, Instrument instrument, OrderSide side,
+                                  long priceTicks, long quantityLots) {
+        if (shards[shardIndex(instrument)].inShardThread()) {
+            return delegate.placeOrder(orderId, ownerId, instrument, side, priceTicks, quantityLots);
+        }
+        return await(addOrderAsync(orderId, ownerId, instrument, side, priceTicks, quantityLots));
+    }
+
+    @Override
+    public MatchResult placeOrder(String orderId, long orderKey, String ownerId, Instrument instrument,
+                                  OrderSide side, long priceTicks, long quantityLots) {
+        if (shards[shardIndex(instrument)].inShardThread()) {
+            return delegate.placeOrder(orderId, orderKey, ownerId, instrument, side, priceTicks, quantityLots);
+        }
+        return await(addOrderAsync(orderId, orderKey, ownerId, instrument, side, priceTicks, quantityLots));
+    }
+
+    /**
+     * FOK的可行性判断与撮合在同一个分片任务内完成，判断与成交之间不会插入其他命令
+     */
+    @Override
+    public MatchResult placeFillOrKill(String orderId, String ownerId, Instrument instrument, OrderSide side,
+                                       long priceTicks, long quantityLots) {
+        if (shards[shardIndex(instrument)].inShardThread()) {
+            return delegate.placeFillOrKill(orderId, ownerId, instrument, side, priceTicks, quantityLots);
+        }
+        return await(submit(instrument,
+            () -> delegate.placeFillOrKill(orderId, ownerId, instrument, side, priceTicks, quantityLots).copy()));
+    }
+
+    /**
+     * 触发价索引属于订单薄，止损单在所属分片线程上挂起，与该交易对的撮合串行
+     */
+    @Override
+    public StopOrder placeStopOrder(String orderId, String ownerId, Instrument instrument, OrderSide side,
+                                    long triggerPriceTicks, long limitPriceTicks, long quantityLots) {
+        return await(submit(instrument, () -> delegate.placeStopOrder(orderId, ownerId, instrument, side,
+            triggerPriceTicks, limitPriceTicks, quantityLots)));
+    }
+
+    /**
+     * 累计深度索引只能在撮合线程读取，预估投递到分片线程执行（O(log n)，不阻塞撮合）
+     */
+    @Override
+    public FillEstimate estimateFill(Instrument instrument, OrderSide side, long quantityLots, long limitPriceTicks) {
+        return await(submit(instrument,
+            () -> delegate.estimateFill(instrument, side, quantityLots, limitPriceTicks)));
+    }
+
+    @Override
+    public MatchResult amendOrder(Instrument instrument, String orderId, long newPriceTicks, long newQuantityLots) {
+        if (shards[shardIndex(instrument)].inShardThread()) {
+            return delegate.amendOrder(instrument, orderId, newPriceTicks, newQuantityLots);
+        }
+        return await(amendOrderAsync(instrument, orderId, newPriceTicks, newQuantityLots));
+    }
+
+    @Override
+    public MatchResult amendOrder(Instrument instrument, long orderKey, long newPriceTicks, long newQuantityLots) {
+        if (shards[shardIndex(instrument)].inShardThread()) {
+            return delegate.amendOrder(instrument, orderKey, newPriceTicks, newQuantityLots);
+        }
+        return await(amendOrderAsync(instrument, orderKey, newPriceTicks, newQuantityLots));
+    }
+
+    @Override
+    public boolean cancelOrder(String symbol, String orderId) {
+        return await(cancelOrderAsync(symbol, orderId));
+    }
+
+    @Override
+    public boolean cancelOrder(Instrument instrument, String orderId) {
+        return await(cancelOrderAsync(instrument, orderId));
+    }
+
+    @Override
+    public boolean cancelOrder(Instrument instrument, long orderKey) {
+        return await(cancelOrderAsync(instrument, orderKey));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> massCancelAsync(String symbol, OrderSide side, String ownerId) {
+        return submit(symbol, () -> delegate.massCancel(symbol, side, ownerId));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> massCancelAsync(Instrument instrument, OrderSide side, String ownerId) {
+        return submit(instrument, () -> delegate.massCancel(instrument, side, ownerId));
+    }
+
+    @Override
+    public List<String> massCancel(String symbol, OrderSide side, String ownerId) {
+        return await(massCancelAsync(symbol, side, ownerId));
+    }
+
+    @Override
+    public List<String> massCancel(Instrument instrument, OrderSide side, String ownerId) {
+        return await(massCancelAsync(instrument, side, ownerId));
+    }
+
+    @Override
+    public void beginAuction(Instrument instrument) {
+        await(submit(instrument, () -> {
+            delegate.beginAuction(instrument);
+            return Boolean.TRUE;
+        }));
+    }
+
+    @Override
+    public AuctionResult uncrossAuction(String symbol, boolean continueAuction) {
+        return await(submit(symbol, () -> delegate.uncrossAuction(symbol, continueAuction)));
+    }
+
+    @Override
+    public AuctionResult uncrossAuction(Instrument instrument, boolean continueAuction) {
+        return await(submit(instrument, () -> delegate.uncrossAuction(instrument, continueAuction)));
+    }
+
+    /**
+     * 订单薄登记是线程安全的，直接在调用线程读取
+     */
+    @Override
+    public Set<String> getSymbols() {
+        return delegate.getSymbols();
+    }
+
+    /**
+     * 发布深度范围内直接读取订单薄发布的不可变视图；更深的快照投递到撮合线程生成
+     */
+    @Override
+    public OrderBookSnapshot getSnapshot(String symbol, int depth) {
+        OrderBookSnapshot published = delegate.getPublishedSnapshot(symbol, depth);
+        if (published != null) {
+            return published;
+        }
+        return await(submit(symbol, () -> delegate.getSnapshot(symbol, depth)));
+    }
+
+    @Override
+    public OrderBookSnapshot getSnapshot(Instrument instrument, int depth) {
+        OrderBookSnapshot published = delegate.getPublishedSnapshot(instrument, depth);
+        if (published != null) {
+            return published;
+        }
+        return await(submit(instrument, () -> delegate.getSnapshot(instrument, depth)));
+    }
+
+    @Override
+    public OrderBookSnapshot getPublishedSnapshot(String symbol, int depth) {
+        return delegate.getPublishedSnapshot(symbol, depth);
+    }
+
+    @Override
+    public OrderBookSnapshot getPublishedSnapshot(Instrument instrument, int depth) {
+        return delegate.getPublishedSnapshot(instrument, depth);
+    }
+
+    /**
+     * BBO由订单薄以seqlock发布，直接在调用线程读取，不进入撮合线程队列
+     */
+    @Override
+    public TopOfBook getTopOfBook(String symbol) {
+        return delegate.getTopOfBook(symbol);
+    }
+
+    @Override
+    public TopOfBook getTopOfBook(Instrument instrument) {
+        return delegate.getTopOfBook(instrument);
+    }
+
+    /**
+     * 订阅登记是线程安全的，直接在调用线程执行；增量由撮合线程写入订阅缓冲区
+     */
+    @Override
+    public LevelUpdateSubscription subscribeLevelUpdates(Instrument instrument, int capacity) {
+        return delegate.subscribeLevelUpdates(instrument, capacity);
+    }
+
+    /**
+     * 游标在撮合线程上打开，之后每取一页投递一次撮合线程任务
+     */
+    @Override
+    public OrderBookCursor openOrderCursor(String symbol) {
+        OrderBookCursor cursor = await(submit(symbol, () -> delegate.openOrderCursor(symbol)));
+        return new ShardedOrderBookCursor(cursor);
+    }
+
+    /**
+     * 检查点游标同样在撮合线程上打开并逐页读取，每页只占用撮合线程很短时间
+     */
+    @Override
+    public OrderBookCursor openCheckpointCursor(String symbol) {
+        OrderBookCursor cursor = await(submit(symbol, () -> delegate.openCheckpointCursor(symbol)));
+        return new ShardedOrderBookCursor(cursor);
+    }
+
+    /**
+     * 装载在所属分片线程上执行，之后该交易对的命令在同一线程上看到装载后的订单薄
+     */
+    @Override
+    public void loadOrderBook(Instrument instrument, OrderBookState state, Iterator<OrderBookEntry> orders) {
+        await(submit(instrument, () -> {
+            delegate.loadOrderBook(instrument, state, orders);
+            return Boolean.TRUE;
+        }));
+    }
+
+    /**
+     * 把游标操作投递到所属分片线程的包装
+     */
+    private final class ShardedOrderBookCursor implements OrderBookCursor {
+
+        private final OrderBookCursor cursor;
+
+        ShardedOrderBookCursor(OrderBookCursor cursor) {
+            this.cursor = cursor;
+        }
+
+        @Override
+        public String getSymbol() {
+            return cursor.getSymbol();
+        }
+
+        @Override
+        public long getSequence() {
+            return cursor.getSequence();
+        }
+
+        @Override
+        public OrderBookState getState() {
+            return cursor.getState();
+        }
+
+        @Override
+        public OrderBookPage nextPage(int maxOrders) {
+            return await(submit(cursor.getSymbol(), () -> cursor.nextPage(maxOrders)));
+        }
+
+        @Override
+        public void close() {
+            await(submit(cursor.getSymbol(), () -> {
+                cursor.close();
+                return Boolean.TRUE;
+            }));
+        }
+    }
+
+    @Override
+    public boolean existsOrder(String symbol, String orderId) {
+        return await(submit(symbol, () -> delegate.existsOrder(symbol, orderId)));
+    }
+
+    @Override
+    public boolean existsOrder(Instrument instrument, String orderId) {
+        return await(submit(instrument, () -> delegate.existsOrder(instrument, orderId)));
+    }
+
+    @Override
+    public boolean existsOrder(Instrument instrument, long orderKey) {
+        return await(submit(instrument, () -> delegate.existsOrder(instrument, orderKey)));
+    }
+
+    @Override
+    public int getOrderCount(String symbol) {
+        return await(submit(symbol, () -> delegate.getOrderCount(symbol)));
+    }
+
+    @Override
+    public int getOrderCount(Instrument instrument) {
+        return await(submit(instrument, () -> delegate.getOrderCount(instrument)));
+    }
+
+    /**
+     * 停止所有撮合线程（已发布的命令会被处理完，与停止并发提交的命令以异常完成）
+     */
+    @Override
+    public void close() throws InterruptedException {
+        for (MatchingShard shard : shards) {
+            shard.stop();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.engine;
+
+/**
+ * 消费者等待策略 - 在CPU占用与唤醒时延之间取舍，按部署环境配置
+ */
+public interface WaitStrategy {
+
+    /**
+     * 消费者无新命令时调用一次
+     *
+     * @param idleCount 连续空闲次数（有新命令后归零）
+     */
+    void idle(int idleCount);
+}
@@ -0,0 +1,23 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.engine;
+
+/**
+ * 让出策略 - 先自旋，之后Thread.yield()，核数充足时兼顾时延与CPU
+ */
+public class YieldingWaitStrategy implements WaitStrategy {
+
+    private int spinTries = 100;
+
+    @Override
+    public void idle(int idleCount) {
+        if (idleCount < spinTries) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+    }
+
+    // Setter for Spring XML injection
+    public void setSpinTries(int spinTries) {
+        this.spinTries = spinTries;
+    }
+}
@@ -0,0 +1,200 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.journal;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import com.tanggo.fund.metadriven.lwc.lob.domain.StopOrder;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.IInstrumentRepository;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookEntry;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookState;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 订单薄检查点文件格式（大端序）：
+ * <pre>
+ * int    magic       'LOBK'
+ * int    version
+ * int    crc         CRC32C，覆盖索引区，最后写入
+ * long   indexOffset 索引区在文件中的位置，最后写入
+ * book * bookCount:  每个订单薄连续存放，可按索引独立读取
+ *   str  symbol
+ *   long sequence, long lastOrderKey, long lastTradePriceTicks, bool auction
+ *   long journalPosition  该交易对从这里开始重放
+ *   int  stopCount,  stop  * stopCount:  str orderId, str ownerId, byte side, long trigger, long limit, long qty, long createTime
+ *   int  orderCount, order * orderCount: byte side, long price, str orderId, str ownerId, long orderKey(0=未携带),
+ *                                        long qty, long filled, long createTime, long updateTime
+ * index:
+ *   long base        开始检查点时的日志位置：检查点中没有的交易对从这里开始重放
+ *   int  bookCount
+ *   entry * bookCount: str symbol, long offset, long length, int crc  订单薄的位置、长度和CRC32C
+ * </pre>
+ * 挂单按买方价格降序、卖方价格升序、档位内排队顺序排列，装载时逐个追加即可恢复时间优先；
+ * str与日志相同：short长度-1表示null，&gt;=0为Latin-1单字节字符，&lt;-1为 -(长度+2) 个UTF-16字符
+ * 文件名 checkpoint-&lt;base&gt;.ckp，先写入临时文件并刷盘，再原子改名
+ */
+final class CheckpointFile {
+
+    static final int MAGIC = 0x4C4F424B;
+    static final int VERSION = 3;
+    // magic + version + crc + indexOffset
+    static final int HEADER_LENGTH = 20;
+    // 头部中crc的位置
+    static final int CRC_OFFSET = 8;
+
+    static final String PREFIX = "checkpoint-";
+    static final String SUFFIX = ".ckp";
+
+    private CheckpointFile() {
+    }
+
+    static Path path(Path directory, long basePosition) {
+        return directory.resolve(String.format("%s%020d%s", PREFIX, basePosition, SUFFIX));
+    }
+
+    /**
+     * 目录下全部检查点，按基准位置升序
+     */
+    static List<Path> list(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return new ArrayList<>(files
+                .filter(path -> {
+                    String name = path.getFileName().toString();
+                    return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                })
+                .sorted()
+                .toList());
+        }
+    }
+
+    /**
+     * 最新的检查点，没有时返回null
+     */
+    static Path latest(Path directory) throws IOException {
+        List<Path> checkpoints = list(directory);
+        return checkpoints.isEmpty() ? null : checkpoints.get(checkpoints.size() - 1);
+    }
+
+    static void writeState(DataOutput out, OrderBookState state) throws IOException {
+        writeString(out, state.getSymbol());
+        out.writeLong(state.getSequence());
+        out.writeLong(state.getLastOrderKey());
+        out.writeLong(state.getLastTradePriceTicks());
+        out.writeBoolean(state.isAuction());
+        out.writeLong(state.getJournalPosition());
+        List<StopOrder> stops = state.getStopOrders();
+        out.writeInt(stops.size());
+        for (StopOrder stop : stops) {
+            writeString(out, stop.getOrderId());
+            writeString(out, stop.getOwnerId());
+            out.writeByte(JournalRecord.encodeSide(stop.getSide()));
+            out.writeLong(stop.getTriggerPriceTicks());
+            out.writeLong(stop.getLimitPriceTicks());
+            out.writeLong(stop.getQuantityLots());
+            out.writeLong(stop.getCreateTimeNanos());
+        }
+        out.writeInt(state.getOrderCount());
+    }
+
+    /**
+     * 读取订单薄状态，之后紧跟orderCount个挂单
+     */
+    static OrderBookState readState(DataInput in, IInstrumentRepository instruments) throws IOException {
+        String symbol = readString(in);
+        long sequence = in.readLong();
+        long lastOrderKey = in.readLong();
+        long lastTradePrice = in.readLong();
+        boolean auction = in.readBoolean();
+        long journalPosition = in.readLong();
+        Instrument instrument = instruments.getInstrument(symbol);
+        int stopCount = in.readInt();
+        List<StopOrder> stops = new ArrayList<>(stopCount);
+        for (int i = 0; i < stopCount; i++) {
+            String orderId = readString(in);
+            String ownerId = readString(in);
+            OrderSide side = JournalRecord.decodeSide(in.readByte());
+            stops.add(new StopOrder(orderId, ownerId, instrument, side,
+                in.readLong(), in.readLong(), in.readLong(), in.readLong()));
+        }
+        int orderCount = in.readInt();
+        return new OrderBookState(symbol, sequence, lastOrderKey, lastTradePrice, auction, orderCount, stops,
+            journalPosition);
+    }
+
+    static void writeEntry(DataOutput out, OrderBookEntry entry) throws IOException {
+        out.writeByte(JournalRecord.encodeSide(entry.getSide()));
+        out.writeLong(entry.getPriceTicks());
+        writeString(out, entry.getOrderId());
+        writeString(out, entry.getOwnerId());
+        out.writeLong(entry.getOrderKey());
+        out.writeLong(entry.getQuantityLots());
+        out.writeLong(entry.getFilledLots());
+        out.writeLong(entry.getCreateTimeNanos());
+        out.writeLong(entry.getUpdateTimeNanos());
+    }
+
+    /**
+     * 读取一个挂单，排队位置由同档位的前一个挂单推出
+     *
+     * @param previous 前一个读出的挂单，没有时为null
+     */
+    static OrderBookEntry readEntry(DataInput in, Instrument instrument, OrderBookEntry previous) throws IOException {
+        OrderSide side = JournalRecord.decodeSide(in.readByte());
+        long priceTicks = in.readLong();
+        int queuePosition = previous != null && previous.getSide() == side && previous.getPriceTicks() == priceTicks
+            ? previous.getQueuePosition() + 1 : 0;
+        String orderId = readString(in);
+        String ownerId = readString(in);
+        return new OrderBookEntry(instrument, orderId, ownerId, side, priceTicks, queuePosition,
+            in.readLong(), in.readLong(), in.readLong(), in.readLong(), in.readLong());
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeShort(-1);
+            return;
+        }
+        int n = value.length();
+        if (n > Short.MAX_VALUE - 2) {
+            throw new IllegalArgumentException("Checkpoint string too long: " + n);
+        }
+        boolean latin1 = true;
+        for (int i = 0; i < n && latin1; i++) {
+            latin1 = value.charAt(i) <= 0xFF;
+        }
+        if (latin1) {
+            out.writeShort(n);
+            out.writeBytes(value);
+        } else {
+            out.writeShort(-(n + 2));
+            out.writeChars(value);
+        }
+    }
+
+    static String readString(DataInput in) throws IOException {
+        short n = in.readShort();
+        if (n == -1) {
+            return null;
+        }
+        if (n >= 0) {
+            byte[] bytes = new byte[n];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+        char[] chars = new char[-(n + 2)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = in.readChar();
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,255 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.journal;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.IInstrumentRepository;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookEntry;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookState;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+
+/**
+ * 读取检查点文件 - 打开时读入并校验索引区，之后按索引独立读取各订单薄
+ * 不同订单薄可由不同线程同时读取（共享文件通道上的定位读），挂单以迭代器流式解码，不在内存中整体展开；
+ * 每个订单薄读完后调用 {@link BookReader#verify()} 校验CRC
+ */
+public final class CheckpointReader implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 256 << 10;
+
+    private final Path file;
+    private final IInstrumentRepository instrumentRepository;
+    private final FileChannel channel;
+    private final long basePosition;
+    private final String[] symbols;
+    private final long[] offsets;
+    private final long[] lengths;
+    private final int[] crcs;
+
+    public CheckpointReader(Path file, IInstrumentRepository instrumentRepository) throws IOException {
+        this.file = file;
+        this.instrumentRepository = instrumentRepository;
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(CheckpointFile.HEADER_LENGTH);
+            readFully(header, 0L);
+            header.flip();
+            if (header.getInt() != CheckpointFile.MAGIC) {
+                throw new IOException("Not an order book checkpoint: " + file);
+            }
+            int version = header.getInt();
+            if (version != CheckpointFile.VERSION) {
+                throw new IOException("Unsupported checkpoint version " + version + ": " + file);
+            }
+            int expectedCrc = header.getInt();
+            long indexOffset = header.getLong();
+            long size = channel.size();
+            if (indexOffset < CheckpointFile.HEADER_LENGTH || indexOffset > size) {
+                throw new IOException("Invalid checkpoint index offset " + indexOffset + ": " + file);
+            }
+
+            CRC32C crc = new CRC32C();
+            DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new CheckedInputStream(new RegionInputStream(channel, indexOffset, size), crc)));
+            this.basePosition = in.readLong();
+            int bookCount = in.readInt();
+            if (bookCount < 0) {
+                throw new IOException("Invalid checkpoint book count " + bookCount + ": " + file);
+            }
+            this.symbols = new String[bookCount];
+            this.offsets = new long[bookCount];
+            this.lengths = new long[bookCount];
+            this.crcs = new int[bookCount];
+            for (int i = 0; i < bookCount; i++) {
+                symbols[i] = CheckpointFile.readString(in);
+                offsets[i] = in.readLong();
+                lengths[i] = in.readLong();
+                crcs[i] = in.readInt();
+                if (offsets[i] < CheckpointFile.HEADER_LENGTH || lengths[i] < 0 || offsets[i] + lengths[i] > indexOffset) {
+                    throw new IOException("Invalid checkpoint index entry for " + symbols[i] + ": " + file);
+                }
+            }
+            if (in.read() != -1) {
+                throw new IOException("Trailing data in checkpoint " + file);
+            }
+            if ((int) crc.getValue() != expectedCrc) {
+                throw new IOException("Checkpoint index checksum mismatch: " + file);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Truncated checkpoint " + file);
+            }
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * 开始检查点时的日志位置，检查点中没有的交易对从这里开始重放
+     */
+    public long getBasePosition() {
+        return basePosition;
+    }
+
+    public int getBookCount() {
+        return symbols.length;
+    }
+
+    public String getSymbol(int book) {
+        return symbols[book];
+    }
+
+    /**
+     * 第book个订单薄在文件中的字节数
+     */
+    public long getBookLength(int book) {
+        return lengths[book];
+    }
+
+    /**
+     * 打开第book个订单薄（按交易对排序），可从任意线程调用，不同订单薄互不影响
+     */
+    public BookReader openBook(int book) throws IOException {
+        return new BookReader(book);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * 单个订单薄的读取器 - 先取状态，再通过 {@link #orders()} 按价格优先级和排队顺序读取挂单
+     * 只能由一个线程使用
+     */
+    public final class BookReader {
+
+        private final int book;
+        private final CRC32C crc = new CRC32C();
+        private final DataInputStream in;
+        private final OrderBookState state;
+        private final Instrument instrument;
+        private int ordersLeft;
+
+        private BookReader(int book) throws IOException {
+            this.book = book;
+            this.in = new DataInputStream(new BufferedInputStream(new CheckedInputStream(
+                new RegionInputStream(channel, offsets[book], offsets[book] + lengths[book]), crc), BUFFER_SIZE));
+            this.state = CheckpointFile.readState(in, instrumentRepository);
+            if (!state.getSymbol().equals(symbols[book])) {
+                throw new IOException("Checkpoint book " + state.getSymbol() + " does not match index entry "
+                    + symbols[book] + ": " + file);
+            }
+            this.instrument = instrumentRepository.getInstrument(state.getSymbol());
+            this.ordersLeft = state.getOrderCount();
+        }
+
+        public OrderBookState getState() {
+            return state;
+        }
+
+        /**
+         * 挂单迭代器，读取错误以 {@link UncheckedIOException} 抛出
+         */
+        public Iterator<OrderBookEntry> orders() {
+            return new Iterator<>() {
+                private OrderBookEntry previous;
+
+                @Override
+                public boolean hasNext() {
+                    return ordersLeft > 0;
+                }
+
+                @Override
+                public OrderBookEntry next() {
+                    if (ordersLeft == 0) {
+                        throw new NoSuchElementException();
+                    }
+                    try {
+                        OrderBookEntry entry = CheckpointFile.readEntry(in, instrument, previous);
+                        ordersLeft--;
+                        previous = entry;
+                        return entry;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Failed to read checkpoint " + file, e);
+                    }
+                }
+            };
+        }
+
+        /**
+         * 校验：跳过未读的挂单，该订单薄无多余内容且CRC与索引一致
+         */
+        public void verify() throws IOException {
+            while (ordersLeft > 0) {
+                CheckpointFile.readEntry(in, instrument, null);
+                ordersLeft--;
+            }
+            if (in.read() != -1) {
+                throw new IOException("Trailing data in checkpoint book " + symbols[book] + ": " + file);
+            }
+            if ((int) crc.getValue() != crcs[book]) {
+                throw new IOException("Checkpoint checksum mismatch for " + symbols[book] + ": " + file);
+            }
+        }
+    }
+
+    /**
+     * 文件中[position, end)区间的输入流，使用定位读，不改变通道位置，多个实例可并发读取同一通道
+     */
+    private static final class RegionInputStream extends InputStream {
+
+        private final FileChannel channel;
+        private final long end;
+        private long position;
+
+        RegionInputStream(FileChannel channel, long position, long end) {
+            this.channel = channel;
+            this.position = position;
+            this.end = end;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (position >= end) {
+                return -1;
+            }
+            int n = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, end - position)), position);
+            if (n < 0) {
+                throw new EOFException("Truncated checkpoint region at " + position);
+            }
+            position += n;
+            return n;
+        }
+    }
+}
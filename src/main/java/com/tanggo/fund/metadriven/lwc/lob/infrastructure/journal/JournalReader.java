@@ -0,0 +1,203 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.journal;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * 顺序读取日志目录下全部段的记录
+ * 读到段内长度为0或封口标记处进入下一个段；长度为负的记录是进程崩溃时仍在写入中的记录（其命令未执行），跳过；
+ * 最后一个段末尾写了一半（长度越界或校验和不符）的记录视为未写入，之前的段出现损坏时抛出异常。读完后 {@link #getSegmentIndex()}/{@link #getPosition()} 给出继续追加的位置
+ * 可从指定日志位置开始读取（检查点之后的日志尾部），之前的段可能已被截断删除
+ */
+public final class JournalReader implements AutoCloseable {
+
+    private final Path directory;
+    private final long[] segments;
+    private final long fromPosition;
+    private final CRC32C crc = new CRC32C();
+
+    private int segmentCursor = -1;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int position;
+    private long recordPosition = -1L;
+
+    public JournalReader(Path directory) throws IOException {
+        this(directory, 0L);
+    }
+
+    /**
+     * @param fromPosition 起始日志位置（段号&lt;&lt;32 | 段内位置）
+     */
+    public JournalReader(Path directory, long fromPosition) throws IOException {
+        this.directory = directory;
+        this.fromPosition = fromPosition;
+        long fromSegment = MappedJournal.segmentOf(fromPosition);
+        this.segments = Arrays.stream(MappedJournal.listSegments(directory))
+            .filter(index -> index >= fromSegment).toArray();
+    }
+
+    /**
+     * 读取下一条记录到record
+     *
+     * @return false表示已读完
+     */
+    public boolean next(JournalRecord record) throws IOException {
+        if (buffer == null && !openNext()) {
+            return false;
+        }
+        while (true) {
+            if (position + JournalRecord.HEADER_LENGTH <= buffer.capacity()) {
+                int length = buffer.getInt(position);
+                if (length < 0 && length != MappedJournal.SEALED && valid(-length)) {
+                    position += MappedJournal.align(-length);
+                    continue;
+                }
+                if (length != 0 && length != MappedJournal.SEALED) {
+                    if (decode(record, length)) {
+                        recordPosition = MappedJournal.position(segments[segmentCursor], position);
+                        position += MappedJournal.align(length);
+                        return true;
+                    }
+                    // 写了一半的记录只可能出现在最后写入的段，之后只允许有预先创建的空段
+                    if (!laterSegmentsEmpty()) {
+                        throw new IOException("Corrupted journal record in segment "
+                            + segments[segmentCursor] + " at " + position);
+                    }
+                    return false;
+                }
+            }
+            if (segmentCursor == segments.length - 1 || !openNext()) {
+                return false;
+            }
+        }
+    }
+
+    private boolean valid(int length) {
+        return length >= JournalRecord.HEADER_LENGTH + 1 && position + length <= buffer.capacity();
+    }
+
+    private boolean decode(JournalRecord record, int length) {
+        int start = position;
+        int end = start + length;
+        if (!valid(length)) {
+            return false;
+        }
+        if (MappedJournal.checksum(crc, buffer, start + JournalRecord.HEADER_LENGTH, end) != buffer.getInt(start + 4)) {
+            return false;
+        }
+        int p = start + JournalRecord.HEADER_LENGTH;
+        record.type = buffer.get(p);
+        record.timestampNanos = buffer.getLong(p + 1);
+        p += 9;
+        record.symbol = getString(p);
+        p += stringBytes(p);
+        record.orderId = getString(p);
+        p += stringBytes(p);
+        record.ownerId = getString(p);
+        p += stringBytes(p);
+        record.side = JournalRecord.decodeSide(buffer.get(p++));
+        int valueCount = JournalRecord.valueCount(record.type);
+        if (valueCount < 0 || p + 8 * valueCount != end) {
+            return false;
+        }
+        for (int i = 0; i < JournalRecord.MAX_VALUES; i++) {
+            record.values[i] = i < valueCount ? buffer.getLong(p + 8 * i) : 0L;
+        }
+        return true;
+    }
+
+    private String getString(int p) {
+        short n = buffer.getShort(p);
+        if (n == -1) {
+            return null;
+        }
+        p += 2;
+        if (n >= 0) {
+            char[] chars = new char[n];
+            for (int i = 0; i < n; i++) {
+                chars[i] = (char) (buffer.get(p + i) & 0xFF);
+            }
+            return new String(chars);
+        }
+        int count = -(n + 2);
+        char[] chars = new char[count];
+        for (int i = 0; i < count; i++) {
+            chars[i] = buffer.getChar(p + 2 * i);
+        }
+        return new String(chars);
+    }
+
+    private int stringBytes(int p) {
+        short n = buffer.getShort(p);
+        return n == -1 ? 2 : n >= 0 ? 2 + n : 2 + 2 * -(n + 2);
+    }
+
+    private boolean laterSegmentsEmpty() throws IOException {
+        for (int i = segmentCursor + 1; i < segments.length; i++) {
+            try (FileChannel later = FileChannel.open(MappedJournal.segmentPath(directory, segments[i]),
+                StandardOpenOption.READ)) {
+                if (later.size() >= 4) {
+                    MappedByteBuffer head = later.map(FileChannel.MapMode.READ_ONLY, 0, 4);
+                    if (head.getInt(0) != 0) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean openNext() throws IOException {
+        if (segmentCursor + 1 >= segments.length) {
+            return false;
+        }
+        closeSegment();
+        segmentCursor++;
+        channel = FileChannel.open(MappedJournal.segmentPath(directory, segments[segmentCursor]), StandardOpenOption.READ);
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        position = segments[segmentCursor] == MappedJournal.segmentOf(fromPosition)
+            ? MappedJournal.offsetOf(fromPosition) : 0;
+        return true;
+    }
+
+    /**
+     * 最近一次读出的记录的日志位置
+     */
+    public long getRecordPosition() {
+        return recordPosition;
+    }
+
+    /**
+     * 继续追加的段号：最后读到的段，没有任何段时为起始位置所在的段
+     */
+    public long getSegmentIndex() {
+        return segmentCursor >= 0 ? segments[segmentCursor] : MappedJournal.segmentOf(fromPosition);
+    }
+
+    /**
+     * 继续追加的段内位置
+     */
+    public int getPosition() {
+        return segmentCursor >= 0 ? position : MappedJournal.offsetOf(fromPosition);
+    }
+
+    private void closeSegment() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeSegment();
+    }
+}
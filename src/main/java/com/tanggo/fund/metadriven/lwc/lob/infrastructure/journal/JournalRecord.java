@@ -0,0 +1,120 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.journal;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+
+/**
+ * 日志记录 - 读取时复用的可变记录（享元），由 {@link JournalReader#next(JournalRecord)} 填充
+ *
+ * 二进制格式（小端序，记录起始位置按8字节对齐）：
+ * <pre>
+ * int    length      记录总长度（含本头部，不含对齐填充），最后写入；0表示段内尚无更多记录，
+ *                    负数表示已占位、仍在写入中，Integer.MIN_VALUE为段的封口标记
+ * int    crc         CRC32C，覆盖type起的全部字节
+ * byte   type        记录类型
+ * long   timestamp   命令时间（纪元纳秒），命令执行期间的订单时间戳都取该值
+ * str    symbol      交易对
+ * str    orderId     订单ID（可为null）
+ * str    ownerId     参与者ID（可为null）
+ * byte   side        0=无 1=BUY 2=SELL
+ * long*n values      按类型的数值字段（价格ticks/数量lots等），n见 {@link #valueCount(byte)}
+ * </pre>
+ * str为 short 长度 + 字符：长度-1表示null，>=0为Latin-1单字节字符，<-1为 -(长度+2) 个UTF-16字符
+ */
+public final class JournalRecord {
+
+    // 下单：values = [priceTicks, quantityLots]
+    public static final byte PLACE = 1;
+    // FOK下单：values = [priceTicks, quantityLots]
+    public static final byte PLACE_FOK = 2;
+    // 止损单：values = [triggerPriceTicks, limitPriceTicks, quantityLots]
+    public static final byte PLACE_STOP = 3;
+    // 撤单：无数值字段
+    public static final byte CANCEL = 4;
+    // 改单：values = [newPriceTicks, newQuantityLots]
+    public static final byte AMEND = 5;
+    // 批量撤单：side/ownerId可为空，无数值字段
+    public static final byte MASS_CANCEL = 6;
+    // 进入集合竞价：无数值字段
+    public static final byte BEGIN_AUCTION = 7;
+    // 集合竞价撮合：values = [continueAuction ? 1 : 0]
+    public static final byte UNCROSS = 8;
+    // 批量命令：同一交易对其后count条记录（全部为下单或全部为撤单）作为一次批量调用执行，values = [count]
+    public static final byte BATCH = 9;
+    // 拒绝：同一交易对的上一条命令（或批量命令）执行时被拒绝（参数校验失败、不支持的操作），无数值字段
+    public static final byte REJECT = 10;
+    // 携带订单键的下单：values = [priceTicks, quantityLots, orderKey]
+    public static final byte PLACE_KEYED = 11;
+    // 按订单键撤单：orderId为null，values = [orderKey]
+    public static final byte CANCEL_KEYED = 12;
+    // 按订单键改单：orderId为null，values = [newPriceTicks, newQuantityLots, orderKey]
+    public static final byte AMEND_KEYED = 13;
+
+    static final int HEADER_LENGTH = 4 + 4;
+    static final int MAX_VALUES = 3;
+
+    byte type;
+    long timestampNanos;
+    String symbol;
+    String orderId;
+    String ownerId;
+    OrderSide side;
+    final long[] values = new long[MAX_VALUES];
+
+    /**
+     * 各记录类型的数值字段个数，未知类型返回-1
+     */
+    static int valueCount(byte type) {
+        return switch (type) {
+            case PLACE, PLACE_FOK, AMEND -> 2;
+            case PLACE_STOP, PLACE_KEYED, AMEND_KEYED -> 3;
+            case UNCROSS, BATCH, CANCEL_KEYED -> 1;
+            case CANCEL, MASS_CANCEL, BEGIN_AUCTION, REJECT -> 0;
+            default -> -1;
+        };
+    }
+
+    static byte encodeSide(OrderSide side) {
+        return side == null ? 0 : side == OrderSide.BUY ? (byte) 1 : (byte) 2;
+    }
+
+    static OrderSide decodeSide(byte side) {
+        return side == 1 ? OrderSide.BUY : side == 2 ? OrderSide.SELL : null;
+    }
+
+    public byte getType() {
+        return type;
+    }
+
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public String getOwnerId() {
+        return ownerId;
+    }
+
+    public OrderSide getSide() {
+        return side;
+    }
+
+    /**
+     * 第index个数值字段
+     */
+    public long getValue(int index) {
+        return values[index];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("JournalRecord{type=%d, symbol=%s, orderId=%s, side=%s, values=[%d, %d, %d]}",
+                type, symbol, orderId, side, values[0], values[1], values[2]);
+    }
+}
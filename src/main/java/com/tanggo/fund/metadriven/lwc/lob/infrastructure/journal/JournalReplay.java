@@ -0,0 +1,376 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.journal;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.EpochClock;
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.LimitOrder;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.IInstrumentRepository;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.IOrderBookRepository;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookState;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * 日志重放 - 装载最新的检查点，再把其后的日志记录整理为待执行的命令，并核对执行结果与原始执行一致
+ * 启动恢复（{@link JournalingOrderBookRepository#recover()}）和离线回放共用同一套规则，二者得到相同的订单薄：
+ * <ul>
+ *   <li>检查点中的交易对只重放其日志位置之后的记录；没有检查点而日志不从第0段开始（检查点后被截断）时无法重建，抛出IOException</li>
+ *   <li>批量记录之后的下单/撤单记录收齐后作为一次批量命令执行（一个更新序号）；
+ *       被拒绝记录打断或位于日志末尾的未收齐批量命令在原始运行中未执行，丢弃</li>
+ *   <li>被拒绝的命令须紧跟同一交易对的拒绝记录，否则重放与原始执行不一致（抛出IllegalStateException）；
+ *       日志末尾的命令被拒绝而没有拒绝记录时（进程在写入拒绝记录前崩溃）无法区分，按一致处理</li>
+ * </ul>
+ * 调用方对 {@link #next()} 返回的每条命令以 {@link Command#getTimestampNanos()} 执行，再调用 {@link #executed} 报告是否被拒绝
+ */
+public final class JournalReplay implements AutoCloseable {
+
+    private final IInstrumentRepository instrumentRepository;
+    private final JournalReader reader;
+    private final JournalRecord record = new JournalRecord();
+
+    // 交易对 -> 从该日志位置起重放；检查点中没有的交易对从基准位置起重放
+    private final Map<String, Long> positions;
+    private final long basePosition;
+    private final Set<String> symbols;
+
+    // 交易对 -> 重放时被拒绝、等待拒绝记录确认的命令
+    private final Map<String, Rejection> rejected = new HashMap<>();
+    // 交易对 -> 尚未收齐的批量命令
+    private final Map<String, Batch> batches = new HashMap<>();
+    private final Command single = new Command();
+
+    private long records;
+    private long rejectedCommands;
+
+    private JournalReplay(IInstrumentRepository instrumentRepository, Path directory,
+                          Map<String, Long> positions, long basePosition) throws IOException {
+        this.instrumentRepository = instrumentRepository;
+        this.positions = positions;
+        this.basePosition = basePosition;
+        this.symbols = new HashSet<>(positions.keySet());
+        long from = basePosition;
+        for (long position : positions.values()) {
+            from = Math.min(from, position);
+        }
+        long[] segments = MappedJournal.listSegments(directory);
+        if (segments.length > 0 && segments[0] > MappedJournal.segmentOf(from)) {
+            throw new IOException("Journal " + directory + " starts at segment " + segments[0]
+                + " but replay must start at segment " + MappedJournal.segmentOf(from)
+                + ": truncated journal without a covering checkpoint");
+        }
+        this.reader = new JournalReader(directory, from);
+    }
+
+    /**
+     * 装载目录中最新的检查点到target（按交易对并行），返回从检查点之后开始的重放
+     *
+     * @param parallelism 并行装载检查点的线程数
+     */
+    public static JournalReplay open(Path directory, IInstrumentRepository instrumentRepository,
+                                     IOrderBookRepository target, int parallelism) throws IOException {
+        Map<String, Long> positions = new HashMap<>();
+        long basePosition = 0L;
+        Path checkpoint = CheckpointFile.latest(directory);
+        if (checkpoint != null) {
+            try (CheckpointReader reader = new CheckpointReader(checkpoint, instrumentRepository)) {
+                basePosition = reader.getBasePosition();
+                loadCheckpoint(reader, instrumentRepository, target, parallelism, positions);
+            }
+        }
+        return new JournalReplay(instrumentRepository, directory, positions, basePosition);
+    }
+
+    /**
+     * 按交易对拆分并行装载检查点：每个订单薄在ForkJoin池上独立读取、解码并批量装载（不撮合），
+     * 较大的订单薄先开始，恢复时间取决于最大的订单薄而不是交易对数量
+     */
+    private static void loadCheckpoint(CheckpointReader reader, IInstrumentRepository instrumentRepository,
+                                       IOrderBookRepository target, int parallelism,
+                                       Map<String, Long> positions) throws IOException {
+        int bookCount = reader.getBookCount();
+        if (bookCount == 0) {
+            return;
+        }
+        List<Integer> books = new ArrayList<>(bookCount);
+        for (int i = 0; i < bookCount; i++) {
+            books.add(i);
+        }
+        books.sort(Comparator.comparingLong(reader::getBookLength).reversed());
+
+        List<Callable<Long>> tasks = new ArrayList<>(bookCount);
+        for (int book : books) {
+            tasks.add(() -> loadBook(reader, book, instrumentRepository, target));
+        }
+        ForkJoinPool pool = new ForkJoinPool(Math.min(parallelism, bookCount));
+        try {
+            List<Future<Long>> results = pool.invokeAll(tasks);
+            for (int i = 0; i < bookCount; i++) {
+                positions.put(reader.getSymbol(books.get(i)), results.get(i).get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while loading checkpoint " + reader.getFile());
+        } catch (ExecutionException e) {
+            // ForkJoin任务把受检异常包装为RuntimeException（取结果时可能再包装一层），沿异常链取出读取失败的原因
+            Throwable cause = e.getCause();
+            for (Throwable t = cause; t != null; t = t.getCause()) {
+                if (t instanceof IOException io) {
+                    throw io;
+                }
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Failed to load checkpoint " + reader.getFile(), cause);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * 装载一个订单薄并校验
+     *
+     * @return 该交易对的日志位置
+     */
+    private static long loadBook(CheckpointReader reader, int book, IInstrumentRepository instrumentRepository,
+                                 IOrderBookRepository target) throws IOException {
+        CheckpointReader.BookReader bookReader = reader.openBook(book);
+        OrderBookState state = bookReader.getState();
+        if (!isEmpty(state)) {
+            target.loadOrderBook(instrumentRepository.getInstrument(state.getSymbol()), state, bookReader.orders());
+        }
+        bookReader.verify();
+        return state.getJournalPosition();
+    }
+
+    private static boolean isEmpty(OrderBookState state) {
+        return state.getOrderCount() == 0 && state.getStopOrders().isEmpty() && state.getSequence() == 0L
+            && state.getLastTradePriceTicks() == 0L && !state.isAuction();
+    }
+
+    /**
+     * 读出下一条待执行的命令（单条命令复用同一个对象，下一次调用前有效）
+     *
+     * @return null表示日志已读完
+     * @throws IllegalStateException 重放结果与原始执行不一致
+     */
+    public Command next() throws IOException {
+        while (reader.next(record)) {
+            long position = reader.getRecordPosition();
+            if (position < positions.getOrDefault(record.symbol, basePosition)) {
+                // 已包含在检查点中
+                continue;
+            }
+            records++;
+            symbols.add(record.symbol);
+            Command command = accept(position);
+            if (command != null) {
+                return command;
+            }
+        }
+        return null;
+    }
+
+    private Command accept(long position) {
+        String symbol = record.symbol;
+        if (record.type == JournalRecord.REJECT) {
+            // 未写完即被放弃的批量命令，或执行时被拒绝的命令
+            if (batches.remove(symbol) == null && rejected.remove(symbol) == null) {
+                throw new IllegalStateException("Journal replay diverged at " + position + ": command for "
+                    + symbol + " was rejected when journaled but accepted on replay");
+            }
+            rejectedCommands++;
+            return null;
+        }
+        Rejection rejection = rejected.get(symbol);
+        if (rejection != null) {
+            throw new IllegalStateException("Journal replay diverged at " + rejection.position()
+                + ": command for " + symbol + " was accepted when journaled but rejected on replay",
+                rejection.cause());
+        }
+        Batch batch = batches.get(symbol);
+        if (batch != null) {
+            batch.add(record);
+            if (batch.isComplete()) {
+                batches.remove(symbol);
+                return batch.toCommand(position);
+            }
+            return null;
+        }
+        if (record.type == JournalRecord.BATCH) {
+            batches.put(symbol, new Batch(instrumentRepository.getInstrument(symbol), record));
+            return null;
+        }
+        single.set(record.type, symbol, record.timestampNanos, position, record,
+            Collections.emptyList(), Collections.emptyList());
+        return single;
+    }
+
+    /**
+     * 报告命令的执行结果
+     *
+     * @param rejection 执行时被拒绝的原因（参数校验失败、不支持的操作），被接受时为null
+     */
+    public void executed(Command command, RuntimeException rejection) {
+        if (rejection != null) {
+            rejected.put(command.symbol, new Rejection(command.position, rejection));
+        }
+    }
+
+    /**
+     * 重放的记录数（不含检查点已覆盖的记录）
+     */
+    public long getRecords() {
+        return records;
+    }
+
+    /**
+     * 与原始执行一致地被拒绝的命令数
+     */
+    public long getRejectedCommands() {
+        return rejectedCommands;
+    }
+
+    /**
+     * 检查点和重放的日志中出现过的交易对
+     */
+    public Set<String> getSymbols() {
+        return symbols;
+    }
+
+    /**
+     * 继续追加的段号（读完之后有效）
+     */
+    public long getSegmentIndex() {
+        return reader.getSegmentIndex();
+    }
+
+    /**
+     * 继续追加的段内位置（读完之后有效）
+     */
+    public int getPosition() {
+        return reader.getPosition();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private record Rejection(long position, RuntimeException cause) {
+    }
+
+    /**
+     * 待执行的命令：单条命令（{@link #getRecord()}），或收齐的批量命令（类型为 {@link JournalRecord#BATCH}，
+     * 下单时 {@link #getOrders()} 为按各自记录时间创建的订单，撤单时 {@link #getCancelIds()} 为订单ID）
+     */
+    public static final class Command {
+        private byte type;
+        private String symbol;
+        private long timestampNanos;
+        private long position;
+        private JournalRecord record;
+        private List<LimitOrder> orders;
+        private List<String> cancelIds;
+
+        private void set(byte type, String symbol, long timestampNanos, long position, JournalRecord record,
+                         List<LimitOrder> orders, List<String> cancelIds) {
+            this.type = type;
+            this.symbol = symbol;
+            this.timestampNanos = timestampNanos;
+            this.position = position;
+            this.record = record;
+            this.orders = orders;
+            this.cancelIds = cancelIds;
+        }
+
+        public byte getType() {
+            return type;
+        }
+
+        public String getSymbol() {
+            return symbol;
+        }
+
+        /**
+         * 命令执行的时间
+         */
+        public long getTimestampNanos() {
+            return timestampNanos;
+        }
+
+        /**
+         * 单条命令的记录，批量命令时为null
+         */
+        public JournalRecord getRecord() {
+            return record;
+        }
+
+        public List<LimitOrder> getOrders() {
+            return orders;
+        }
+
+        public List<String> getCancelIds() {
+            return cancelIds;
+        }
+    }
+
+    /**
+     * 重放中收集的批量命令：全部为下单（按记录的时间创建订单）或全部为撤单
+     */
+    private static final class Batch {
+        private final Instrument instrument;
+        private final long timestampNanos;
+        private final int count;
+        private final List<LimitOrder> orders = new ArrayList<>();
+        private final List<String> cancelIds = new ArrayList<>();
+
+        Batch(Instrument instrument, JournalRecord record) {
+            this.instrument = instrument;
+            this.timestampNanos = record.timestampNanos;
+            this.count = (int) record.values[0];
+        }
+
+        void add(JournalRecord record) {
+            switch (record.type) {
+                case JournalRecord.PLACE -> {
+                    EpochClock.pin(record.timestampNanos);
+                    try {
+                        orders.add(new LimitOrder(record.orderId, record.ownerId, instrument, record.side,
+                            record.values[0], record.values[1]));
+                    } finally {
+                        EpochClock.unpin();
+                    }
+                }
+                case JournalRecord.CANCEL -> cancelIds.add(record.orderId);
+                default -> throw new IllegalStateException("Unexpected journal record type in batch: " + record.type);
+            }
+            if (!orders.isEmpty() && !cancelIds.isEmpty()) {
+                throw new IllegalStateException("Journal batch for " + instrument.getSymbol() + " mixes orders and cancels");
+            }
+        }
+
+        boolean isComplete() {
+            return orders.size() + cancelIds.size() == count;
+        }
+
+        Command toCommand(long position) {
+            Command command = new Command();
+            command.set(JournalRecord.BATCH, instrument.getSymbol(), timestampNanos, position, null, orders, cancelIds);
+            return command;
+        }
+    }
+}
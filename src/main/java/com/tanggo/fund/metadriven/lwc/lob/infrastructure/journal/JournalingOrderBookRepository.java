@@ -0,0 +1,697 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.journal;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.EpochClock;
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.LimitOrder;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import com.tanggo.fund.metadriven.lwc.lob.domain.StopOrder;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.AuctionResult;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.FillEstimate;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.IInstrumentRepository;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.IOrderBookRepository;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.LevelUpdateSubscription;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.MatchResult;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookCursor;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookEntry;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookPage;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookSnapshot;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookState;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.TopOfBook;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 写前日志的订单薄仓储装饰器
+ * 每个改变订单薄的命令（下单、FOK、止损单、撤单、改单、批量撤单、集合竞价）先追加到 {@link MappedJournal}，
+ * 再交给被装饰的仓储执行；启动时 {@link #recover()} 按顺序重放日志重建全部订单薄，之后从日志末尾继续追加
+ * 与分片撮合引擎配合时放在分片之内（由撮合线程调用），同一交易对的日志顺序即执行顺序
+ * 每条记录带命令时间，执行期间固定为当前线程的时间（{@link EpochClock#pin(long)}），重放时以记录的时间执行，
+ * 重建的订单时间戳与原始执行一致
+ * 执行时被拒绝的命令（参数校验失败、不支持的操作）之后追加一条拒绝记录；重放时被拒绝的命令必须恰好是这些命令，
+ * 否则说明重放与原始执行不一致，恢复失败
+ * 批量下单/撤单在每个交易对的命令前追加批量记录，重放时同样作为一次批量调用执行（一个更新序号）
+ * 配合 {@link OrderBookCheckpointer}：恢复时先按交易对并行装载最新的检查点，只重放各交易对检查点位置之后的日志，
+ * 检查点完成后删除已被覆盖的日志段
+ * 并行装载时被装饰的仓储须支持不同交易对的订单薄同时装载（各内存仓储均满足）
+ */
+public class JournalingOrderBookRepository implements IOrderBookRepository, AutoCloseable {
+
+    private final IOrderBookRepository delegate;
+    private final IInstrumentRepository instrumentRepository;
+
+    private Path directory = Path.of("data", "lob-journal");
+    private int segmentSize = 64 << 20;
+    private long flushIntervalMicros = 1_000L;
+    private int recoveryParallelism = Runtime.getRuntime().availableProcessors();
+
+    private volatile MappedJournal journal;
+    // 最近一次恢复时重放的、与原始执行一致地被拒绝的命令数
+    private long replayRejected;
+
+    public JournalingOrderBookRepository(IOrderBookRepository delegate, IInstrumentRepository instrumentRepository) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate不能为null");
+        this.instrumentRepository = Objects.requireNonNull(instrumentRepository, "instrumentRepository不能为null");
+    }
+
+    // Setters for Spring XML injection
+    public void setDirectory(String directory) {
+        this.directory = Path.of(directory);
+    }
+
+    public void setSegmentSize(int segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    // 组提交刷盘间隔(微秒)，0表示不主动刷盘
+    public void setFlushIntervalMicros(long flushIntervalMicros) {
+        if (flushIntervalMicros < 0) {
+            throw new IllegalArgumentException("flushIntervalMicros不能为负数");
+        }
+        this.flushIntervalMicros = flushIntervalMicros;
+    }
+
+    // 恢复时并行装载检查点的线程数
+    public void setRecoveryParallelism(int recoveryParallelism) {
+        if (recoveryParallelism <= 0) {
+            throw new IllegalArgumentException("recoveryParallelism必须大于0");
+        }
+        this.recoveryParallelism = recoveryParallelism;
+    }
+
+    Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * 最近一次恢复时重放的命令中，与原始执行一致地被拒绝的命令数
+     */
+    public long getReplayRejected() {
+        return replayRejected;
+    }
+
+    /**
+     * 装载最新的检查点并重放其后的日志重建订单薄，然后打开日志继续追加 - 必须在接收任何命令之前调用
+     *
+     * @return 重放的记录数
+     * @throws IOException 读取失败，或日志已被截断而没有覆盖它的检查点
+     * @throws IllegalStateException 重放结果与原始执行不一致（原始执行接受的命令在重放时被拒绝，或相反）
+     */
+    public synchronized long recover() throws IOException {
+        if (journal != null) {
+            throw new IllegalStateException("Journal already opened");
+        }
+        long records;
+        long segmentIndex;
+        int position;
+        Set<String> symbols;
+        try (JournalReplay replay = JournalReplay.open(directory, instrumentRepository, delegate, recoveryParallelism)) {
+            JournalReplay.Command command;
+            while ((command = replay.next()) != null) {
+                replay.executed(command, execute(command));
+            }
+            records = replay.getRecords();
+            replayRejected = replay.getRejectedCommands();
+            symbols = replay.getSymbols();
+            segmentIndex = replay.getSegmentIndex();
+            position = replay.getPosition();
+        }
+        journal = new MappedJournal(directory, segmentSize, segmentIndex, position);
+        journal.addSymbols(symbols);
+        journal.startFlusher(flushIntervalMicros);
+        return records;
+    }
+
+    /**
+     * 开始检查点：原子地取出写过日志的交易对和当前日志位置（基准位置）
+     */
+    long beginCheckpoint(Collection<String> symbols) {
+        return journal().symbolsAndPosition(symbols);
+    }
+
+    /**
+     * 删除日志位置之前的段（检查点已覆盖）
+     */
+    void truncate(long position) throws IOException {
+        journal().deleteSegmentsBefore(MappedJournal.segmentOf(position));
+    }
+
+    /**
+     * 把重放的命令重新应用到被装饰的仓储（不再写日志），以命令的时间执行
+     *
+     * @return 被拒绝的原因，被接受时为null
+     */
+    private RuntimeException execute(JournalReplay.Command command) {
+        EpochClock.pin(command.getTimestampNanos());
+        try {
+            if (command.getType() != JournalRecord.BATCH) {
+                execute(command.getRecord());
+            } else if (!command.getOrders().isEmpty()) {
+                delegate.addOrders(command.getOrders());
+            } else {
+                delegate.cancelOrders(command.getSymbol(), command.getCancelIds());
+            }
+            return null;
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            return e;
+        } finally {
+            EpochClock.unpin();
+        }
+    }
+
+    private void execute(JournalRecord record) {
+        Instrument instrument = instrumentRepository.getInstrument(record.symbol);
+        long[] v = record.values;
+        switch (record.type) {
+            case JournalRecord.PLACE ->
+                delegate.placeOrder(record.orderId, record.ownerId, instrument, record.side, v[0], v[1]);
+            case JournalRecord.PLACE_FOK ->
+                delegate.placeFillOrKill(record.orderId, record.ownerId, instrument, record.side, v[0], v[1]);
+            case JournalRecord.PLACE_STOP ->
+                delegate.placeStopOrder(record.orderId, record.ownerId, instrument, record.side, v[0], v[1], v[2]);
+            case JournalRecord.CANCEL -> delegate.cancelOrder(instrument, record.orderId);
+            case JournalRecord.AMEND -> delegate.amendOrder(instrument, record.orderId, v[0], v[1]);
+            case JournalRecord.MASS_CANCEL -> delegate.massCancel(record.symbol, record.side, record.ownerId);
+            case JournalRecord.BEGIN_AUCTION -> delegate.beginAuction(instrument);
+            case JournalRecord.UNCROSS -> delegate.uncrossAuction(record.symbol, v[0] != 0);
+            case JournalRecord.PLACE_KEYED ->
+                delegate.placeOrder(record.orderId, v[2], record.ownerId, instrument, record.side, v[0], v[1]);
+            case JournalRecord.CANCEL_KEYED -> delegate.cancelOrder(instrument, v[0]);
+            case JournalRecord.AMEND_KEYED -> delegate.amendOrder(instrument, v[2], v[0], v[1]);
+            default -> throw new IllegalStateException("Unexpected journal record type: " + record.type);
+        }
+    }
+
+    private MappedJournal journal() {
+        MappedJournal opened = journal;
+        if (opened == null) {
+            throw new IllegalStateException("Journal not recovered; call recover() first");
+        }
+        return opened;
+    }
+
+    /**
+     * 写日志并把当前线程的时间固定为命令时间，命令执行后须调用 {@link EpochClock#unpin()}
+     */
+    private void begin(byte type, long timeNanos, String symbol, String orderId, String ownerId, OrderSide side,
+                       long v0, long v1, long v2) {
+        journal().append(type, timeNanos, symbol, orderId, ownerId, side, v0, v1, v2);
+        EpochClock.pin(timeNanos);
+    }
+
+    private void begin(byte type, String symbol, String orderId, String ownerId, OrderSide side,
+                       long v0, long v1, long v2) {
+        begin(type, EpochClock.epochNanos(), symbol, orderId, ownerId, side, v0, v1, v2);
+    }
+
+    /**
+     * 命令执行时被拒绝：追加拒绝记录，重放时同一命令必须同样被拒绝
+     */
+    private RuntimeException rejected(String symbol, RuntimeException e) {
+        journal().append(JournalRecord.REJECT, EpochClock.epochNanos(), symbol, null, null, null, 0L, 0L, 0L);
+        return e;
+    }
+
+    /**
+     * 订单在入口处创建，以其创建时间作为命令时间
+     */
+    @Override
+    public MatchResult addOrder(LimitOrder order) {
+        begin(JournalRecord.PLACE, order.getCreateTimeNanos(), order.getSymbol(), order.getOrderId(),
+            order.getOwnerId(), order.getSide(), order.getPriceTicks(), order.getQuantityLots(), 0L);
+        try {
+            return delegate.addOrder(order);
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            throw rejected(order.getSymbol(), e);
+        } finally {
+            EpochClock.unpin();
+        }
+    }
+
+    /**
+     * 批量下单按交易对分组（与内存仓储相同的顺序），每组写一条批量记录和逐单的下单记录后整组执行；
+     * 被拒绝的订单以拒绝结果返回，不影响其他订单和之后的组
+     */
+    @Override
+    public MatchResult[] addOrders(List<LimitOrder> orders) {
+        Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < orders.size(); i++) {
+            groups.computeIfAbsent(orders.get(i).getSymbol(), k -> new ArrayList<>()).add(i);
+        }
+        if (groups.size() <= 1) {
+            return orders.isEmpty() ? delegate.addOrders(orders) : addBatch(orders.get(0).getSymbol(), orders);
+        }
+        MatchResult[] results = new MatchResult[orders.size()];
+        for (Map.Entry<String, List<Integer>> entry : groups.entrySet()) {
+            List<Integer> indexes = entry.getValue();
+            List<LimitOrder> group = new ArrayList<>(indexes.size());
+            for (int index : indexes) {
+                group.add(orders.get(index));
+            }
+            MatchResult[] groupResults = addBatch(entry.getKey(), group);
+            for (int j = 0; j < groupResults.length; j++) {
+                results[indexes.get(j)] = groupResults[j];
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 一个交易对的批量下单：先逐单校验能否写入日志（如字段过长），无法写入的订单不进入批量命令、直接拒绝；
+     * 订单薄对单个订单的拒绝在重放时同样发生，不需要拒绝记录；被装饰的仓储整组拒绝时追加拒绝记录，组内订单全部拒绝
+     */
+    private MatchResult[] addBatch(String symbol, List<LimitOrder> orders) {
+        MappedJournal journal = journal();
+        MatchResult[] results = new MatchResult[orders.size()];
+        List<LimitOrder> accepted = new ArrayList<>(orders.size());
+        for (int i = 0; i < orders.size(); i++) {
+            LimitOrder order = orders.get(i);
+            try {
+                journal.checkRecord(JournalRecord.PLACE, symbol, order.getOrderId(), order.getOwnerId(), order.getSide());
+                accepted.add(order);
+            } catch (IllegalArgumentException e) {
+                results[i] = MatchResult.rejected(order, e.getMessage());
+            }
+        }
+        if (accepted.isEmpty()) {
+            return results;
+        }
+
+        long time = EpochClock.epochNanos();
+        MatchResult[] acceptedResults;
+        journal.append(JournalRecord.BATCH, time, symbol, null, null, null, accepted.size(), 0L, 0L);
+        try {
+            for (int i = 0; i < accepted.size(); i++) {
+                LimitOrder order = accepted.get(i);
+                journal.append(JournalRecord.PLACE, order.getCreateTimeNanos(), symbol, order.getOrderId(),
+                    order.getOwnerId(), order.getSide(), order.getPriceTicks(), order.getQuantityLots(), 0L);
+            }
+        } catch (IllegalArgumentException e) {
+            // 已逐单校验，不应发生：放弃已写入一部分的批量命令
+            return merge(results, rejectAll(accepted, rejected(symbol, e)));
+        }
+        EpochClock.pin(time);
+        try {
+            acceptedResults = delegate.addOrders(accepted);
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            acceptedResults = rejectAll(accepted, rejected(symbol, e));
+        } finally {
+            EpochClock.unpin();
+        }
+        return merge(results, acceptedResults);
+    }
+
+    private static MatchResult[] rejectAll(List<LimitOrder> orders, RuntimeException cause) {
+        MatchResult[] results = new MatchResult[orders.size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = MatchResult.rejected(orders.get(i), cause.getMessage());
+        }
+        return results;
+    }
+
+    /**
+     * 按顺序把执行结果填入预先拒绝后留空的位置
+     */
+    private static MatchResult[] merge(MatchResult[] results, MatchResult[] executed) {
+        int k = 0;
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                results[i] = executed[k++];
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public MatchResult placeOrder(String orderId, String ownerId, Instrument instrument, OrderSide side,
+                                  long priceTicks, long quantityLots) {
+        begin(JournalRecord.PLACE, instrument.getSymbol(), orderId, ownerId, side, priceTicks, quantityLots, 0L);
+        try {
+            return delegate.placeOrder(orderId, ownerId, instrument, side, priceTicks, quantityLots);
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            throw rejected(instrument.getSymbol(), e);
+        } finally {
+            EpochClock.unpin();
+        }
+    }
+
+    /**
+     * 未携带订单键（0）时与普通下单写同样的记录
+     */
+    @Override
+    public MatchResult placeOrder(String orderId, long orderKey, String ownerId, Instrument instrument,
+                                  OrderSide side, long priceTicks, long quantityLots) {
+        if (orderKey == 0L) {
+            return placeOrder(orderId, ownerId, instrument, side, priceTicks, quantityLots);
+        }
+        begin(JournalRecord.PLACE_KEYED, instrument.getSymbol(), orderId, ownerId, side,
+            priceTicks, quantityLots, orderKey);
+        try {
+            return delegate.placeOrder(orderId, orderKey, ownerId, instrument, side, priceTicks, quantityLots);
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            throw rejected(instrument.getSymbol(), e);
+        } finally {
+            EpochClock.unpin();
+        }
+    }
+
+    @Override
+    public MatchResult placeFillOrKill(String orderId, String ownerId, Instrument instrument, OrderSide side,
+                                       long priceTicks, long quantityLots) {
+        begin(JournalRecord.PLACE_FOK, instrument.getSymbol(), orderId, ownerId, side, priceTicks, quantityLots, 0L);
+        try {
+            return delegate.placeFillOrKill(orderId, ownerId, instrument, side, priceTicks, quantityLots);
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            throw rejected(instrument.getSymbol(), e);
+        } finally {
+            EpochClock.unpin();
+        }
+    }
+
+    @Override
+    public StopOrder placeStopOrder(String orderId, String ownerId, Instrument instrument, OrderSide side,
+                                    long triggerPriceTicks, long limitPriceTicks, long quantityLots) {
+        begin(JournalRecord.PLACE_STOP, instrument.getSymbol(), orderId, ownerId, side,
+            triggerPriceTicks, limitPriceTicks, quantityLots);
+        try {
+            return delegate.placeStopOrder(orderId, ownerId, instrument, side, triggerPriceTicks, limitPriceTicks,
+                quantityLots);
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            throw rejected(instrument.getSymbol(), e);
+        } finally {
+            EpochClock.unpin();
+        }
+    }
+
+    @Override
+    public FillEstimate estimateFill(Instrument instrument, OrderSide side, long quantityLots, long limitPriceTicks) {
+        return delegate.estimateFill(instrument, side, quantityLots, limitPriceTicks);
+    }
+
+    @Override
+    public boolean cancelOrder(String symbol, String orderId) {
+        begin(JournalRecord.CANCEL, symbol, orderId, null, null, 0L, 0L, 0L);
+        try {
+            return delegate.cancelOrder(symbol, orderId);
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            throw rejected(symbol, e);
+        } finally {
+            EpochClock.unpin();
+        }
+    }
+
+    @Override
+    public boolean cancelOrder(Instrument instrument, String orderId) {
+        begin(JournalRecord.CANCEL, instrument.getSymbol(), orderId, null, null, 0L, 0L, 0L);
+        try {
+            return delegate.cancelOrder(instrument, orderId);
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            throw rejected(instrument.getSymbol(), e);
+        } finally {
+            EpochClock.unpin();
+        }
+    }
+
+    @Override
+    public boolean cancelOrder(Instrument instrument, long orderKey) {
+        begin(JournalRecord.CANCEL_KEYED, instrument.getSymbol(), null, null, null, orderKey, 0L, 0L);
+        try {
+            return delegate.cancelOrder(instrument, orderKey);
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            throw rejected(instrument.getSymbol(), e);
+        } finally {
+            EpochClock.unpin();
+        }
+    }
+
+    /**
+     * 批量撤单写一条批量记录和逐单的撤单记录后整批执行
+     */
+    @Override
+    public boolean[] cancelOrders(String symbol, List<String> orderIds) {
+        if (orderIds.isEmpty()) {
+            return delegate.cancelOrders(symbol, orderIds);
+        }
+        beginCancels(symbol, orderIds);
+        try {
+            return delegate.cancelOrders(symbol, orderIds);
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            throw rejected(symbol, e);
+        } finally {
+            EpochClock.unpin();
+        }
+    }
+
+    @Override
+    public boolean[] cancelOrders(Instrument instrument, List<String> orderIds) {
+        if (orderIds.isEmpty()) {
+            return delegate.cancelOrders(instrument, orderIds);
+        }
+        beginCancels(instrument.getSymbol(), orderIds);
+        try {
+            return delegate.cancelOrders(instrument, orderIds);
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            throw rejected(instrument.getSymbol(), e);
+        } finally {
+            EpochClock.unpin();
+        }
+    }
+
+    /**
+     * 写批量撤单的批量记录和逐单撤单记录，并把记录时间钉住为本次执行的时间（调用方负责unpin）
+     */
+    private void beginCancels(String symbol, List<String> orderIds) {
+        MappedJournal journal = journal();
+        long time = EpochClock.epochNanos();
+        journal.append(JournalRecord.BATCH, time, symbol, null, null, null, orderIds.size(), 0L, 0L);
+        try {
+            for (int i = 0; i < orderIds.size(); i++) {
+                journal.append(JournalRecord.CANCEL, time, symbol, orderIds.get(i), null, null, 0L, 0L, 0L);
+            }
+        } catch (IllegalArgumentException e) {
+            throw rejected(symbol, e);
+        }
+        EpochClock.pin(time);
+    }
+
+    @Override
+    public MatchResult amendOrder(Instrument instrument, String orderId, long newPriceTicks, long newQuantityLots) {
+        begin(JournalRecord.AMEND, instrument.getSymbol(), orderId, null, null, newPriceTicks, newQuantityLots, 0L);
+        try {
+            return delegate.amendOrder(instrument, orderId, newPriceTicks, newQuantityLots);
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            throw rejected(instrument.getSymbol(), e);
+        } finally {
+            EpochClock.unpin();
+        }
+    }
+
+    @Override
+    public MatchResult amendOrder(Instrument instrument, long orderKey, long newPriceTicks, long newQuantityLots) {
+        begin(JournalRecord.AMEND_KEYED, instrument.getSymbol(), null, null, null,
+            newPriceTicks, newQuantityLots, orderKey);
+        try {
+            return delegate.amendOrder(instrument, orderKey, newPriceTicks, newQuantityLots);
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            throw rejected(instrument.getSymbol(), e);
+        } finally {
+            EpochClock.unpin();
+        }
+    }
+
+    @Override
+    public List<String> massCancel(String symbol, OrderSide side, String ownerId) {
+        begin(JournalRecord.MASS_CANCEL, symbol, null, ownerId, side, 0L, 0L, 0L);
+        try {
+            return delegate.massCancel(symbol, side, ownerId);
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            throw rejected(symbol, e);
+        } finally {
+            EpochClock.unpin();
+        }
+    }
+
+    @Override
+    public List<String> massCancel(Instrument instrument, OrderSide side, String ownerId) {
+        begin(JournalRecord.MASS_CANCEL, instrument.getSymbol(), null, ownerId, side, 0L, 0L, 0L);
+        try {
+            return delegate.massCancel(instrument, side, ownerId);
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            throw rejected(instrument.getSymbol(), e);
+        } finally {
+            EpochClock.unpin();
+        }
+    }
+
+    @Override
+    public void beginAuction(Instrument instrument) {
+        begin(JournalRecord.BEGIN_AUCTION, instrument.getSymbol(), null, null, null, 0L, 0L, 0L);
+        try {
+            delegate.beginAuction(instrument);
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            throw rejected(instrument.getSymbol(), e);
+        } finally {
+            EpochClock.unpin();
+        }
+    }
+
+    @Override
+    public AuctionResult uncrossAuction(String symbol, boolean continueAuction) {
+        begin(JournalRecord.UNCROSS, symbol, null, null, null, continueAuction ? 1L : 0L, 0L, 0L);
+        try {
+            return delegate.uncrossAuction(symbol, continueAuction);
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            throw rejected(symbol, e);
+        } finally {
+            EpochClock.unpin();
+        }
+    }
+
+    @Override
+    public AuctionResult uncrossAuction(Instrument instrument, boolean continueAuction) {
+        begin(JournalRecord.UNCROSS, instrument.getSymbol(), null, null, null, continueAuction ? 1L : 0L, 0L, 0L);
+        try {
+            return delegate.uncrossAuction(instrument, continueAuction);
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            throw rejected(instrument.getSymbol(), e);
+        } finally {
+            EpochClock.unpin();
+        }
+    }
+
+    @Override
+    public Set<String> getSymbols() {
+        return delegate.getSymbols();
+    }
+
+    @Override
+    public OrderBookSnapshot getSnapshot(String symbol, int depth) {
+        return delegate.getSnapshot(symbol, depth);
+    }
+
+    @Override
+    public OrderBookSnapshot getSnapshot(Instrument instrument, int depth) {
+        return delegate.getSnapshot(instrument, depth);
+    }
+
+    @Override
+    public OrderBookSnapshot getPublishedSnapshot(String symbol, int depth) {
+        return delegate.getPublishedSnapshot(symbol, depth);
+    }
+
+    @Override
+    public OrderBookSnapshot getPublishedSnapshot(Instrument instrument, int depth) {
+        return delegate.getPublishedSnapshot(instrument, depth);
+    }
+
+    @Override
+    public TopOfBook getTopOfBook(String symbol) {
+        return delegate.getTopOfBook(symbol);
+    }
+
+    @Override
+    public TopOfBook getTopOfBook(Instrument instrument) {
+        return delegate.getTopOfBook(instrument);
+    }
+
+    @Override
+    public LevelUpdateSubscription subscribeLevelUpdates(Instrument instrument, int capacity) {
+        return delegate.subscribeLevelUpdates(instrument, capacity);
+    }
+
+    @Override
+    public OrderBookCursor openOrderCursor(String symbol) {
+        return delegate.openOrderCursor(symbol);
+    }
+
+    /**
+     * 在撮合线程上打开检查点游标，并附上当前日志位置：该交易对此前写入日志的命令都已生效，之后的尚未生效
+     * 没有订单薄的交易对返回空状态，重启时同样从该位置开始重放
+     */
+    @Override
+    public OrderBookCursor openCheckpointCursor(String symbol) {
+        long position = journal().position();
+        OrderBookCursor cursor = delegate.openCheckpointCursor(symbol);
+        OrderBookState opened = cursor.getState();
+        OrderBookState state = opened != null ? opened.withJournalPosition(position)
+            : new OrderBookState(symbol, 0L, 0L, 0L, false, 0, List.of(), position);
+        return new OrderBookCursor() {
+            @Override
+            public String getSymbol() {
+                return cursor.getSymbol();
+            }
+
+            @Override
+            public long getSequence() {
+                return cursor.getSequence();
+            }
+
+            @Override
+            public OrderBookState getState() {
+                return state;
+            }
+
+            @Override
+            public OrderBookPage nextPage(int maxOrders) {
+                return cursor.nextPage(maxOrders);
+            }
+
+            @Override
+            public void close() {
+                cursor.close();
+            }
+        };
+    }
+
+    /**
+     * 装载不写日志：被装载的状态须已由检查点保存
+     */
+    @Override
+    public void loadOrderBook(Instrument instrument, OrderBookState state, Iterator<OrderBookEntry> orders) {
+        delegate.loadOrderBook(instrument, state, orders);
+    }
+
+    @Override
+    public boolean existsOrder(String symbol, String orderId) {
+        return delegate.existsOrder(symbol, orderId);
+    }
+
+    @Override
+    public boolean existsOrder(Instrument instrument, String orderId) {
+        return delegate.existsOrder(instrument, orderId);
+    }
+
+    @Override
+    public boolean existsOrder(Instrument instrument, long orderKey) {
+        return delegate.existsOrder(instrument, orderKey);
+    }
+
+    @Override
+    public int getOrderCount(String symbol) {
+        return delegate.getOrderCount(symbol);
+    }
+
+    @Override
+    public int getOrderCount(Instrument instrument) {
+        return delegate.getOrderCount(instrument);
+    }
+
+    /**
+     * 刷盘并关闭日志
+     */
+    @Override
+    public synchronized void close() throws InterruptedException {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+    }
+}
@@ -0,0 +1,651 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.journal;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * 内存映射的分段追加日志 - 订单薄命令在生效前写入
+ * 每个段是预分配的定长文件（journal-&lt;段号&gt;.log），整段映射后以绝对地址写入，追加只是内存拷贝，
+ * 不经过系统调用；记录格式见 {@link JournalRecord}
+ * 多个撮合线程无锁并发追加：记录先在线程自己的缓冲区编码，再以CAS把段内下一个空闲位置的长度字
+ * 从0改为负的记录长度来占位（写入中），拷贝内容后以释放语义写入正的长度；同一交易对只由一个撮合线程追加，
+ * 其记录在日志中的顺序即执行顺序，不同交易对的记录按占位顺序交错
+ * 段内放不下时由抢到换段的线程在末尾写入封口标记并切换到下一个段，写满的段交给刷盘线程，
+ * 等段内写入中的记录完成、刷盘后关闭，追加线程不做msync
+ * 组提交刷盘：flushIntervalMicros大于0时由后台线程按间隔把已写完的连续区间force到磁盘，
+ * 同时以临时文件名预先创建并预热下一个段，换段时追加线程只需把它改名为正式段名，避免承担文件创建和缺页开销；
+ * 预备段在改名之前只属于刷盘线程，追加线程已自行创建同号的段时预备段作废删除；
+ * 为0时不主动刷盘，由操作系统回写（进程崩溃不丢数据，断电可能丢失最近的记录）
+ * 日志位置以一个long表示：段号&lt;&lt;32 | 段内位置，可直接比较先后
+ */
+public final class MappedJournal implements AutoCloseable {
+
+    static final String SEGMENT_PREFIX = "journal-";
+    static final String SEGMENT_SUFFIX = ".log";
+    // 预备段的临时文件后缀，不会被当作日志段读取
+    static final String PREPARING_SUFFIX = ".tmp";
+    // 记录起始位置按8字节对齐，长度字可原子地读写
+    static final int ALIGNMENT = 8;
+    // 段的封口标记：写在最后一条记录之后，其后不再有记录
+    static final int SEALED = Integer.MIN_VALUE;
+
+    private static final int PAGE_SIZE = 4096;
+
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final ThreadLocal<Encoder> ENCODER = ThreadLocal.withInitial(Encoder::new);
+
+    private final Path directory;
+    private final int segmentSize;
+    // 写过记录的交易对：追加时先登记再占位，读取写入位置后再读取本集合即可覆盖位置之前的全部记录
+    private final Set<String> symbols = ConcurrentHashMap.newKeySet();
+
+    // 当前写入的段
+    private volatile Segment current;
+    // 刷盘线程预先创建的下一个段（临时文件名），换段时由追加线程取走
+    private final AtomicReference<Segment> prepared = new AtomicReference<>();
+    // 已写满封口、等待刷盘线程刷盘并关闭的段（按段号顺序）
+    private final Queue<Segment> retired = new ConcurrentLinkedQueue<>();
+    // 刷盘线程预备过的最大段号：每个段号只预备一次，已被取走的预备段文件不会被再次截断
+    private long lastPrepared = -1L;
+
+    private Thread flusher;
+    private volatile boolean running;
+
+    /**
+     * 从指定段的指定位置继续追加（恢复时由 {@link JournalReader} 读到的末尾给出）
+     *
+     * @param segmentSize  段大小(字节)，须为 {@link #ALIGNMENT} 的倍数
+     * @param segmentIndex 继续写入的段号
+     * @param position     段内写入位置
+     */
+    public MappedJournal(Path directory, int segmentSize, long segmentIndex, int position) throws IOException {
+        if (segmentSize < PAGE_SIZE || segmentSize % ALIGNMENT != 0) {
+            throw new IllegalArgumentException("segmentSize必须不小于" + PAGE_SIZE + "且为" + ALIGNMENT + "的倍数");
+        }
+        if (position < 0 || position > segmentSize || position % ALIGNMENT != 0) {
+            throw new IllegalArgumentException("Invalid journal position: " + position);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+        // 上次运行遗留的预备段
+        Files.deleteIfExists(preparingPath(directory, segmentIndex + 1));
+        Segment segment = Segment.open(segmentPath(directory, segmentIndex), segmentIndex, segmentSize);
+        // 丢弃写了一半的尾部记录（以及上次换段时写入的封口标记）
+        if (position < segmentSize && segment.buffer.getInt(position) != 0) {
+            for (int i = position; i < segmentSize; i++) {
+                segment.buffer.put(i, (byte) 0);
+            }
+        }
+        segment.tail = position;
+        segment.flushed = position;
+        this.current = segment;
+    }
+
+    /**
+     * 启动组提交刷盘线程
+     *
+     * @param flushIntervalMicros 刷盘间隔(微秒)，0表示不启动
+     */
+    public synchronized void startFlusher(long flushIntervalMicros) {
+        if (flushIntervalMicros <= 0 || flusher != null) {
+            return;
+        }
+        long intervalNanos = flushIntervalMicros * 1_000L;
+        running = true;
+        flusher = new Thread(() -> {
+            while (running) {
+                LockSupport.parkNanos(intervalNanos);
+                try {
+                    flush();
+                    prepareNext();
+                } catch (IOException | UncheckedIOException e) {
+                    // 下一轮重试；追加线程在换段时会同步创建段
+                }
+            }
+        }, "lob-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * 追加一条记录 - 写入映射内存后返回，是否已落盘取决于刷盘策略
+     * 可由多个线程并发调用，不加锁
+     *
+     * @param type           记录类型（{@link JournalRecord} 常量）
+     * @param timestampNanos 命令时间（纪元纳秒），重放时作为命令执行的时间
+     * @param v0             数值字段，个数由类型决定，多余的忽略
+     */
+    public void append(byte type, long timestampNanos, String symbol, String orderId, String ownerId, OrderSide side,
+                       long v0, long v1, long v2) {
+        Encoder encoder = ENCODER.get();
+        int length = encoder.encode(type, timestampNanos, symbol, orderId, ownerId, side, v0, v1, v2);
+        if (length > segmentSize) {
+            throw new IllegalArgumentException("Journal record of " + length + " bytes exceeds segment size");
+        }
+        if (!symbols.contains(symbol)) {
+            symbols.add(symbol);
+        }
+        Segment segment = current;
+        int start;
+        while ((start = segment.claim(length)) < 0) {
+            segment = roll(segment);
+        }
+        MappedByteBuffer buffer = segment.buffer;
+        buffer.put(start + 4, encoder.bytes, 4, length - 4);
+        // 长度最后写入：读取方看到正的长度时记录内容已完整
+        INT.setRelease(buffer, start, length);
+    }
+
+    /**
+     * 校验一条记录能否写入（字符串长度、记录大小）而不写入 - 批量命令写入前逐条校验，避免写入一部分后放弃
+     */
+    public void checkRecord(byte type, String symbol, String orderId, String ownerId, OrderSide side) {
+        int length = ENCODER.get().encode(type, 0L, symbol, orderId, ownerId, side, 0L, 0L, 0L);
+        if (length > segmentSize) {
+            throw new IllegalArgumentException("Journal record of " + length + " bytes exceeds segment size");
+        }
+    }
+
+    /**
+     * 下一条记录的写入位置：此前占位的记录（包括其他线程写入中的）都在该位置之前
+     */
+    public long position() {
+        Segment segment = current;
+        return position(segment.index, segment.end());
+    }
+
+    /**
+     * 取出写过记录的交易对和当前写入位置：位置之前的每条记录，其交易对都在symbols中
+     */
+    public long symbolsAndPosition(Collection<String> out) {
+        // 先取位置：位置之前的记录在占位之前已登记交易对
+        long position = position();
+        out.addAll(symbols);
+        return position;
+    }
+
+    /**
+     * 登记已有状态的交易对（恢复时由检查点和重放的日志给出）
+     */
+    public void addSymbols(Collection<String> known) {
+        symbols.addAll(known);
+    }
+
+    /**
+     * 删除段号小于segmentIndex的段（不会删除当前段）
+     *
+     * @return 删除的段数
+     */
+    public int deleteSegmentsBefore(long segmentIndex) throws IOException {
+        long limit = Math.min(segmentIndex, current.index);
+        int deleted = 0;
+        for (long index : listSegments(directory)) {
+            if (index < limit && Files.deleteIfExists(segmentPath(directory, index))) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * 把已写完的区间刷到磁盘：先刷已封口的段，段内记录全部写完并刷盘后关闭；再刷当前段
+     */
+    public synchronized void flush() {
+        Segment segment;
+        while ((segment = retired.peek()) != null && segment.flush()) {
+            retired.poll();
+            segment.close();
+        }
+        current.flush();
+    }
+
+    /**
+     * 当前段放不下记录时换段：抢到换段的线程封口并切换到下一个段，其他线程等待切换完成
+     * 写满的段有刷盘线程时交给它刷盘关闭，否则直接关闭（映射在其他线程写完前保持有效）
+     *
+     * @return 切换后的当前段
+     */
+    private Segment roll(Segment full) {
+        if (!full.rolling.compareAndSet(false, true)) {
+            while (current == full && full.rolling.get()) {
+                Thread.onSpinWait();
+            }
+            return current;
+        }
+        Segment next;
+        try {
+            full.seal();
+            next = openNext(full.index + 1);
+        } catch (UncheckedIOException e) {
+            // 由下一个追加线程重试
+            full.rolling.set(false);
+            throw e;
+        }
+        current = next;
+        if (running) {
+            retired.add(full);
+        } else {
+            full.close();
+        }
+        return next;
+    }
+
+    private Segment openNext(long index) {
+        Path path = segmentPath(directory, index);
+        Segment next = prepared.getAndSet(null);
+        try {
+            if (next != null && (next.index != index || !next.moveTo(path))) {
+                next.discard();
+                next = null;
+            }
+            if (next == null) {
+                next = Segment.open(path, index, segmentSize);
+            }
+            return next;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to roll journal segment", e);
+        }
+    }
+
+    /**
+     * 刷盘线程预先创建下一个段：写满一半后以临时文件名创建并逐页预热，预热完成后才发布给追加线程
+     * 发布时追加线程已换到该段号（自行创建了正式段）则作废；每个段号只预备一次，预备段从不触碰追加线程正在写的文件
+     */
+    private void prepareNext() throws IOException {
+        Segment segment = current;
+        Segment next = prepared.get();
+        if (next != null) {
+            if (next.index <= segment.index && prepared.compareAndSet(next, null)) {
+                next.discard();
+            }
+            return;
+        }
+        if (segment.tail <= segmentSize / 2) {
+            return;
+        }
+        long index = segment.index + 1;
+        if (index <= lastPrepared) {
+            return;
+        }
+        lastPrepared = index;
+        next = Segment.prepare(preparingPath(directory, index), index, segmentSize);
+        if (!prepared.compareAndSet(null, next)
+            || current.index >= index && prepared.compareAndSet(next, null)) {
+            next.discard();
+        }
+    }
+
+    /**
+     * 停止刷盘线程，刷盘后关闭全部段 - 须在追加线程停止之后调用
+     */
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        if (flusher != null) {
+            LockSupport.unpark(flusher);
+            flusher.join();
+        }
+        synchronized (this) {
+            Segment segment;
+            while ((segment = retired.poll()) != null) {
+                segment.flush();
+                segment.close();
+            }
+            current.flush();
+            current.close();
+            Segment next = prepared.getAndSet(null);
+            if (next != null) {
+                next.discard();
+            }
+        }
+    }
+
+    static int align(int length) {
+        return (length + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+
+    static int checksum(CRC32C crc, MappedByteBuffer buffer, int from, int to) {
+        int limit = buffer.limit();
+        int position = buffer.position();
+        buffer.limit(to).position(from);
+        crc.reset();
+        crc.update(buffer);
+        buffer.limit(limit).position(position);
+        return (int) crc.getValue();
+    }
+
+    private static int stringLength(String value) {
+        if (value == null) {
+            return 2;
+        }
+        return 2 + (isLatin1(value) ? value.length() : value.length() * 2);
+    }
+
+    private static boolean isLatin1(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int putString(ByteBuffer buffer, int p, String value) {
+        if (value == null) {
+            buffer.putShort(p, (short) -1);
+            return p + 2;
+        }
+        int n = value.length();
+        if (n > Short.MAX_VALUE - 2) {
+            throw new IllegalArgumentException("Journal string too long: " + n);
+        }
+        if (isLatin1(value)) {
+            buffer.putShort(p, (short) n);
+            p += 2;
+            for (int i = 0; i < n; i++) {
+                buffer.put(p++, (byte) value.charAt(i));
+            }
+        } else {
+            buffer.putShort(p, (short) -(n + 2));
+            p += 2;
+            for (int i = 0; i < n; i++) {
+                buffer.putChar(p, value.charAt(i));
+                p += 2;
+            }
+        }
+        return p;
+    }
+
+    static long position(long segmentIndex, int offset) {
+        return segmentIndex << 32 | offset;
+    }
+
+    static long segmentOf(long position) {
+        return position >>> 32;
+    }
+
+    static int offsetOf(long position) {
+        return (int) position;
+    }
+
+    static Path segmentPath(Path directory, long index) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    static Path preparingPath(Path directory, long index) {
+        return directory.resolve(String.format("%s%020d%s%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX, PREPARING_SUFFIX));
+    }
+
+    /**
+     * 目录下已有的段号（升序）
+     */
+    static long[] listSegments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return new long[0];
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            long[] indexes = files.map(path -> path.getFileName().toString())
+                .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                .mapToLong(name -> Long.parseLong(
+                    name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                .toArray();
+            Arrays.sort(indexes);
+            return indexes;
+        }
+    }
+
+    /**
+     * 一个追加线程的编码缓冲区：记录先编码到堆内数组并计算校验和，占位后整体拷贝进映射内存
+     */
+    private static final class Encoder {
+        private final CRC32C crc = new CRC32C();
+        private byte[] bytes = new byte[256];
+        private ByteBuffer buffer = wrap(bytes);
+
+        /**
+         * 按 {@link JournalRecord} 格式编码（长度字留空）
+         *
+         * @return 记录长度
+         */
+        int encode(byte type, long timestampNanos, String symbol, String orderId, String ownerId, OrderSide side,
+                   long v0, long v1, long v2) {
+            int valueCount = JournalRecord.valueCount(type);
+            if (valueCount < 0) {
+                throw new IllegalArgumentException("Unknown journal record type: " + type);
+            }
+            int length = JournalRecord.HEADER_LENGTH + 1 + 8
+                + stringLength(symbol) + stringLength(orderId) + stringLength(ownerId) + 1 + 8 * valueCount;
+            if (length > bytes.length) {
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+                buffer = wrap(bytes);
+            }
+            ByteBuffer b = buffer;
+            int p = JournalRecord.HEADER_LENGTH;
+            b.put(p, type);
+            b.putLong(p + 1, timestampNanos);
+            p = putString(b, p + 9, symbol);
+            p = putString(b, p, orderId);
+            p = putString(b, p, ownerId);
+            b.put(p++, JournalRecord.encodeSide(side));
+            if (valueCount > 0) {
+                b.putLong(p, v0);
+            }
+            if (valueCount > 1) {
+                b.putLong(p + 8, v1);
+            }
+            if (valueCount > 2) {
+                b.putLong(p + 16, v2);
+            }
+            crc.reset();
+            crc.update(bytes, JournalRecord.HEADER_LENGTH, length - JournalRecord.HEADER_LENGTH);
+            b.putInt(4, (int) crc.getValue());
+            return length;
+        }
+
+        private static ByteBuffer wrap(byte[] bytes) {
+            return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * 一个映射的日志段
+     */
+    private static final class Segment {
+        final long index;
+        // 预备段的临时文件，发布为正式段后为null
+        Path preparingPath;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        final int capacity;
+        // 占位起点提示：某条已占位记录的末尾，追加时从这里向后跳过已占位的记录
+        volatile int tail;
+        // 换段选举：抢到的线程负责封口和切换
+        final AtomicBoolean rolling = new AtomicBoolean();
+        // 封口位置，-1表示尚未封口
+        volatile int limit = -1;
+        // 已刷盘位置（在段的监视器内访问）
+        int flushed;
+
+        private Segment(long index, FileChannel channel, MappedByteBuffer buffer) {
+            this.index = index;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.capacity = buffer.capacity();
+        }
+
+        /**
+         * 占用length字节：从提示位置起跳过已占位的记录，在第一个空闲位置以CAS写入负的长度
+         *
+         * @return 记录起始位置，段已封口或剩余空间不足时返回-1
+         */
+        int claim(int length) {
+            int p = tail;
+            while (p < capacity) {
+                int word = (int) INT.getAcquire(buffer, p);
+                if (word == 0) {
+                    if (p + length > capacity) {
+                        return -1;
+                    }
+                    word = (int) INT.compareAndExchange(buffer, p, 0, -length);
+                    if (word == 0) {
+                        int end = p + align(length);
+                        if (end > tail) {
+                            tail = end;
+                        }
+                        return p;
+                    }
+                }
+                if (word == SEALED) {
+                    return -1;
+                }
+                p += align(Math.abs(word));
+            }
+            return -1;
+        }
+
+        /**
+         * 已占位区间的末尾
+         */
+        int end() {
+            int p = tail;
+            while (p < capacity) {
+                int word = (int) INT.getAcquire(buffer, p);
+                if (word == 0 || word == SEALED) {
+                    break;
+                }
+                p += align(Math.abs(word));
+            }
+            return Math.min(p, capacity);
+        }
+
+        /**
+         * 在已占位区间之后写入封口标记，此后不再有记录占位
+         */
+        void seal() {
+            int p = tail;
+            while (p < capacity) {
+                int word = (int) INT.compareAndExchange(buffer, p, 0, SEALED);
+                if (word == 0 || word == SEALED) {
+                    break;
+                }
+                p += align(Math.abs(word));
+            }
+            limit = Math.min(p, capacity);
+        }
+
+        /**
+         * 把已写完的连续区间刷到磁盘，遇到写入中的记录为止
+         *
+         * @return 段已封口且封口之前的记录全部写完并刷盘
+         */
+        synchronized boolean flush() {
+            int to = flushed;
+            while (to < capacity) {
+                int word = (int) INT.getAcquire(buffer, to);
+                if (word <= 0) {
+                    break;
+                }
+                to += align(word);
+            }
+            to = Math.min(to, capacity);
+            if (to > flushed) {
+                buffer.force(flushed, to - flushed);
+                flushed = to;
+            }
+            int sealed = limit;
+            return sealed >= 0 && flushed >= sealed;
+        }
+
+        static Segment open(Path path, long index, int segmentSize) throws IOException {
+            FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return map(channel, index, segmentSize);
+        }
+
+        /**
+         * 以临时文件创建一个全新的段并逐页触碰，把缺页开销留在刷盘线程
+         */
+        static Segment prepare(Path preparingPath, long index, int segmentSize) throws IOException {
+            FileChannel channel = FileChannel.open(preparingPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            Segment segment = map(channel, index, segmentSize);
+            segment.preparingPath = preparingPath;
+            for (int i = 0; i < segmentSize; i += PAGE_SIZE) {
+                segment.buffer.put(i, (byte) 0);
+            }
+            return segment;
+        }
+
+        private static Segment map(FileChannel channel, long index, int segmentSize) throws IOException {
+            try {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                return new Segment(index, channel, buffer);
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        /**
+         * 预备段改名为正式段名（映射不受影响）
+         *
+         * @return false表示改名失败，预备段不可用
+         */
+        boolean moveTo(Path path) {
+            try {
+                Files.move(preparingPath, path, StandardCopyOption.ATOMIC_MOVE);
+                preparingPath = null;
+                return true;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        /**
+         * 关闭并删除作废的预备段
+         */
+        void discard() {
+            close();
+            if (preparingPath != null) {
+                try {
+                    Files.deleteIfExists(preparingPath);
+                } catch (IOException e) {
+                    // 下次启动时删除
+                }
+            }
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.journal;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.IOrderBookRepository;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookCursor;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookEntry;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookPage;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookState;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * 周期性订单薄检查点 - 把全部订单薄写入二进制检查点文件，之后截断检查点已覆盖的日志段
+ * 每个订单薄通过检查点游标（档位级写时复制）读取：打开游标和每取一页各占用撮合线程一次很短的任务，
+ * 编码和写盘在检查点线程上进行，撮合不会长时间停顿；游标打开时记录该交易对的日志位置，
+ * 重启时装载检查点后只需从各交易对的日志位置重放日志尾部
+ * 仓储必须支持从非撮合线程调用（如分片撮合引擎），其下层须包含 {@link JournalingOrderBookRepository}
+ */
+public class OrderBookCheckpointer implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final IOrderBookRepository repository;
+    private final JournalingOrderBookRepository journalingRepository;
+
+    private long intervalSeconds = 300L;
+    private int pageSize = 4096;
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param repository           对外的订单薄仓储（检查点游标在其撮合线程上执行）
+     * @param journalingRepository 同一仓储链中的日志装饰器
+     */
+    public OrderBookCheckpointer(IOrderBookRepository repository, JournalingOrderBookRepository journalingRepository) {
+        this.repository = Objects.requireNonNull(repository, "repository不能为null");
+        this.journalingRepository = Objects.requireNonNull(journalingRepository, "journalingRepository不能为null");
+    }
+
+    // Setters for Spring XML injection
+    // 检查点间隔(秒)，0表示不定期生成
+    public void setIntervalSeconds(long intervalSeconds) {
+        if (intervalSeconds < 0) {
+            throw new IllegalArgumentException("intervalSeconds不能为负数");
+        }
+        this.intervalSeconds = intervalSeconds;
+    }
+
+    // 每次撮合线程任务读取的挂单数
+    public void setPageSize(int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize必须大于0");
+        }
+        this.pageSize = pageSize;
+    }
+
+    public synchronized void start() {
+        if (scheduler != null || intervalSeconds == 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "lob-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::scheduledCheckpoint, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    private void scheduledCheckpoint() {
+        try {
+            checkpoint();
+        } catch (IOException | RuntimeException e) {
+            // 单次失败不影响日志，下一次检查点重试
+            System.err.printf("[WARN] 订单薄检查点失败: error=%s%n", e);
+        }
+    }
+
+    /**
+     * 生成一个检查点：写入临时文件并刷盘后原子改名，目录刷盘使改名持久化之后，再删除旧检查点和已被覆盖的日志段
+     *
+     * @return 检查点文件
+     */
+    public synchronized Path checkpoint() throws IOException {
+        Path directory = journalingRepository.getDirectory();
+        List<String> symbols = new ArrayList<>();
+        long basePosition = journalingRepository.beginCheckpoint(symbols);
+        Collections.sort(symbols);
+
+        Path target = CheckpointFile.path(directory, basePosition);
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        long truncateBefore = basePosition;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(CheckpointFile.HEADER_LENGTH);
+            header.putInt(CheckpointFile.MAGIC).putInt(CheckpointFile.VERSION).putInt(0).putLong(0L).flip();
+            channel.write(header);
+
+            // 每个订单薄单独计算CRC并在索引中记录位置和长度，恢复时可以并行读取
+            CRC32C crc = new CRC32C();
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new CheckedOutputStream(Channels.newOutputStream(channel), crc), BUFFER_SIZE));
+            long[] offsets = new long[symbols.size()];
+            long[] lengths = new long[symbols.size()];
+            int[] crcs = new int[symbols.size()];
+            for (int i = 0; i < symbols.size(); i++) {
+                out.flush();
+                offsets[i] = channel.position();
+                crc.reset();
+                truncateBefore = Math.min(truncateBefore, writeBook(out, symbols.get(i)));
+                out.flush();
+                lengths[i] = channel.position() - offsets[i];
+                crcs[i] = (int) crc.getValue();
+            }
+
+            long indexOffset = channel.position();
+            crc.reset();
+            out.writeLong(basePosition);
+            out.writeInt(symbols.size());
+            for (int i = 0; i < symbols.size(); i++) {
+                CheckpointFile.writeString(out, symbols.get(i));
+                out.writeLong(offsets[i]);
+                out.writeLong(lengths[i]);
+                out.writeInt(crcs[i]);
+            }
+            out.flush();
+
+            // 索引校验和及索引位置最后写入，随后刷盘
+            header.clear();
+            header.putInt((int) crc.getValue()).putLong(indexOffset).flip();
+            channel.write(header, CheckpointFile.CRC_OFFSET);
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        // 改名只在目录刷盘后才持久：否则掉电后可能旧检查点和日志段已删除而新检查点不存在
+        forceDirectory(directory);
+
+        for (Path older : CheckpointFile.list(directory)) {
+            if (older.compareTo(target) < 0) {
+                Files.deleteIfExists(older);
+            }
+        }
+        journalingRepository.truncate(truncateBefore);
+        return target;
+    }
+
+    private static void forceDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * 逐页写出一个订单薄
+     *
+     * @return 该交易对的日志位置
+     */
+    private long writeBook(DataOutputStream out, String symbol) throws IOException {
+        try (OrderBookCursor cursor = repository.openCheckpointCursor(symbol)) {
+            OrderBookState state = cursor.getState();
+            CheckpointFile.writeState(out, state);
+            int written = 0;
+            OrderBookPage page;
+            do {
+                page = cursor.nextPage(pageSize);
+                for (OrderBookEntry entry : page.getEntries()) {
+                    CheckpointFile.writeEntry(out, entry);
+                }
+                written += page.getEntries().size();
+            } while (!page.isLast());
+            if (written != state.getOrderCount()) {
+                throw new IllegalStateException("Checkpoint of " + symbol + " read " + written
+                    + " orders, expected " + state.getOrderCount());
+            }
+            return state.getJournalPosition();
+        }
+    }
+
+    /**
+     * 停止定期检查点（进行中的检查点会被中断）
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.marketdata;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.LevelUpdateListener;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.LevelUpdateSubscription;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 合并订阅 - 按(方向, 价格)合并待发送的档位变化，只保留每个档位的最新状态
+ * 订阅者调用poll时发送一批，两批之间至少间隔flushIntervalNanos；
+ * 每批应用完后订阅者本地订单薄与该批最大序号时的订单薄一致，待发送数据量以档位数为上限
+ */
+final class ConflatedSubscription implements LevelUpdateSubscription {
+
+    private final SymbolFeed feed;
+    private final long flushIntervalNanos;
+
+    // 合并线程私有：尚未完整的订单薄更新的档位变化，到更新序号边界才提交
+    private final Map<LevelKey, PendingLevel> staged = new LinkedHashMap<>();
+    // 已提交、等待订阅者取走，受this保护
+    private Map<LevelKey, PendingLevel> pending = new LinkedHashMap<>();
+    private long lastFlushNanos;
+    // 新订阅需要先收到一份完整档位状态，只由合并线程读写
+    boolean needsFullState = true;
+
+    // 订阅者线程私有：已取出尚未交给listener的一批
+    private final List<PendingLevel> draining = new ArrayList<>();
+    private int drainIndex;
+
+    ConflatedSubscription(SymbolFeed feed, long flushIntervalNanos) {
+        this.feed = feed;
+        this.flushIntervalNanos = flushIntervalNanos;
+        this.lastFlushNanos = System.nanoTime() - flushIntervalNanos;
+    }
+
+    /**
+     * 合并线程调用：暂存一个档位的最新状态，commit之前订阅者取不到
+     */
+    void merge(long sequence, boolean buy, long priceTicks, long quantityLots, int orderCount) {
+        // 尚未收到完整状态的订阅由完整状态覆盖
+        if (needsFullState) {
+            return;
+        }
+        merge(staged, sequence, buy, priceTicks, quantityLots, orderCount);
+    }
+
+    /**
+     * 合并线程调用：暂存的变化构成完整的订单薄更新，提交给订阅者
+     */
+    void commit() {
+        if (staged.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            for (PendingLevel level : staged.values()) {
+                merge(pending, level.sequence, level.buy, level.priceTicks, level.quantityLots, level.orderCount);
+            }
+        }
+        staged.clear();
+    }
+
+    private static void merge(Map<LevelKey, PendingLevel> levels, long sequence, boolean buy, long priceTicks,
+                              long quantityLots, int orderCount) {
+        LevelKey key = new LevelKey(buy, priceTicks);
+        PendingLevel level = levels.get(key);
+        if (level == null) {
+            levels.put(key, new PendingLevel(sequence, buy, priceTicks, quantityLots, orderCount));
+        } else {
+            level.sequence = sequence;
+            level.quantityLots = quantityLots;
+            level.orderCount = orderCount;
+        }
+    }
+
+    @Override
+    public String getSymbol() {
+        return feed.getSymbol();
+    }
+
+    @Override
+    public int poll(LevelUpdateListener listener, int maxUpdates) {
+        if (drainIndex == draining.size()) {
+            draining.clear();
+            drainIndex = 0;
+            Map<LevelKey, PendingLevel> batch;
+            synchronized (this) {
+                long now = System.nanoTime();
+                if (pending.isEmpty() || now - lastFlushNanos < flushIntervalNanos) {
+                    return 0;
+                }
+                batch = pending;
+                pending = new LinkedHashMap<>();
+                lastFlushNanos = now;
+            }
+            draining.addAll(batch.values());
+        }
+        int n = Math.min(maxUpdates, draining.size() - drainIndex);
+        for (int k = 0; k < n; k++) {
+            PendingLevel level = draining.get(drainIndex++);
+            listener.onLevelUpdate(level.sequence, level.buy ? OrderSide.BUY : OrderSide.SELL,
+                level.priceTicks, level.quantityLots, level.orderCount);
+        }
+        return n;
+    }
+
+    /**
+     * 合并流由发布器负责补齐缺口，订阅者不会看到缺口
+     */
+    @Override
+    public boolean hasGap() {
+        return false;
+    }
+
+    @Override
+    public void clearGap() {
+    }
+
+    @Override
+    public void close() {
+        feed.remove(this);
+    }
+
+    private record LevelKey(boolean buy, long priceTicks) {
+    }
+
+    private static final class PendingLevel {
+        long sequence;
+        final boolean buy;
+        final long priceTicks;
+        long quantityLots;
+        int orderCount;
+
+        PendingLevel(long sequence, boolean buy, long priceTicks, long quantityLots, int orderCount) {
+            this.sequence = sequence;
+            this.buy = buy;
+            this.priceTicks = priceTicks;
+            this.quantityLots = quantityLots;
+            this.orderCount = orderCount;
+        }
+    }
+}
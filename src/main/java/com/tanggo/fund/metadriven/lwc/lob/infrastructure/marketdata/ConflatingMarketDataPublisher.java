@@ -0,0 +1,105 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.marketdata;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.IMarketDataPublisher;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.IOrderBookRepository;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.LevelUpdateSubscription;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 合并限流的行情发布器 - 面向风控看板、内部定价等跟不上逐笔增量的慢消费者
+ * 每个交易对向订单薄登记一个原始L2增量订阅，由独立的合并线程消费并按(方向, 价格)合并到各订阅者：
+ * - 慢消费者的待发送数据以档位数为上限，取到的总是最新状态
+ * - 每个订阅者按自己的间隔限流，poll时距上次发送不足间隔则不发送
+ * - 撮合线程只写原始增量缓冲区，不感知合并订阅者
+ * 需要逐笔增量的快速消费者直接使用 {@link IOrderBookRepository#subscribeLevelUpdates}
+ * 补齐缺口时会调用仓储的全量getSnapshot，仓储必须支持从非撮合线程查询（如分片撮合引擎）
+ */
+public class ConflatingMarketDataPublisher implements IMarketDataPublisher, AutoCloseable {
+
+    private final IOrderBookRepository repository;
+    private final Map<String, SymbolFeed> feeds = new ConcurrentHashMap<>();
+
+    private int rawBufferSize = 1 << 16;
+    private long idleParkNanos = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public ConflatingMarketDataPublisher(IOrderBookRepository repository) {
+        this.repository = Objects.requireNonNull(repository, "repository不能为null");
+    }
+
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "lob-md-conflator");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * flushIntervalMicros为0表示每次poll都发送
+     */
+    @Override
+    public LevelUpdateSubscription subscribeConflated(Instrument instrument, long flushIntervalMicros) {
+        Objects.requireNonNull(instrument, "instrument不能为null");
+        if (flushIntervalMicros < 0) {
+            throw new IllegalArgumentException("flushIntervalMicros不能为负数");
+        }
+        SymbolFeed feed = feeds.computeIfAbsent(instrument.getSymbol(),
+            k -> new SymbolFeed(repository, instrument, rawBufferSize));
+        ConflatedSubscription subscription =
+            new ConflatedSubscription(feed, TimeUnit.MICROSECONDS.toNanos(flushIntervalMicros));
+        feed.add(subscription);
+        return subscription;
+    }
+
+    private void run() {
+        while (running) {
+            int processed = 0;
+            for (SymbolFeed feed : feeds.values()) {
+                if (feed.hasSubscriptions()) {
+                    processed += feed.pump(4096);
+                }
+            }
+            if (processed == 0) {
+                LockSupport.parkNanos(idleParkNanos);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+        for (SymbolFeed feed : feeds.values()) {
+            feed.close();
+        }
+        feeds.clear();
+    }
+
+    // Setters for Spring XML injection
+    public void setRawBufferSize(int rawBufferSize) {
+        this.rawBufferSize = rawBufferSize;
+    }
+
+    public void setIdleParkNanos(long idleParkNanos) {
+        this.idleParkNanos = idleParkNanos;
+    }
+}
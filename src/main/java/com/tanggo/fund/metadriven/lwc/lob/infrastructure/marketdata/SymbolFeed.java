@@ -0,0 +1,196 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.marketdata;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.IOrderBookRepository;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.LevelUpdateListener;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.LevelUpdateSubscription;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookSnapshot;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.PriceLevel;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 单个交易对的合并行情源 - 只由合并线程访问（订阅者列表除外）
+ * 按快照+增量协议维护完整的档位状态：序号跳号或原始订阅缺口时重新取快照，
+ * 与本地状态比较后把差异作为档位变化合并给所有订阅者，订阅者因此不会看到缺口；
+ * 档位变化只在更新序号边界提交给订阅者，订阅者取到的每批都对应某个完整的订单薄版本
+ */
+final class SymbolFeed implements LevelUpdateListener {
+
+    private static final ConflatedSubscription[] NO_SUBSCRIPTIONS = new ConflatedSubscription[0];
+
+    private final IOrderBookRepository repository;
+    private final Instrument instrument;
+    private final LevelUpdateSubscription raw;
+
+    private volatile ConflatedSubscription[] subscriptions = NO_SUBSCRIPTIONS;
+
+    // 本地档位状态：价格 -> {剩余总量, 订单数}
+    private final Map<Long, long[]> bids = new HashMap<>();
+    private final Map<Long, long[]> asks = new HashMap<>();
+    private long lastSequence;
+    // 最近一次快照的序号，序号不大于它的增量已包含在快照中
+    private long snapshotSequence;
+    private boolean resyncRequired = true;
+    // 已暂存到订阅者、尚未提交的更新序号
+    private long stagedSequence = -1;
+
+    SymbolFeed(IOrderBookRepository repository, Instrument instrument, int rawBufferSize) {
+        this.repository = repository;
+        this.instrument = instrument;
+        this.raw = repository.subscribeLevelUpdates(instrument, rawBufferSize);
+    }
+
+    String getSymbol() {
+        return instrument.getSymbol();
+    }
+
+    synchronized void add(ConflatedSubscription subscription) {
+        ConflatedSubscription[] current = subscriptions;
+        ConflatedSubscription[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = subscription;
+        subscriptions = updated;
+    }
+
+    synchronized void remove(ConflatedSubscription subscription) {
+        ConflatedSubscription[] current = subscriptions;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == subscription) {
+                ConflatedSubscription[] updated = new ConflatedSubscription[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                subscriptions = updated;
+                return;
+            }
+        }
+    }
+
+    boolean hasSubscriptions() {
+        return subscriptions.length != 0;
+    }
+
+    void close() {
+        raw.close();
+    }
+
+    /**
+     * 合并线程调用：处理原始增量并合并给订阅者
+     *
+     * @return 处理的原始增量条数
+     */
+    int pump(int maxUpdates) {
+        if (raw.hasGap()) {
+            resyncRequired = true;
+        }
+        if (resyncRequired) {
+            resync();
+        }
+        // 上次pump截断在一次更新中间时本地状态不完整，完整状态推迟到该更新提交之后
+        for (ConflatedSubscription subscription : subscriptions) {
+            if (subscription.needsFullState && stagedSequence < 0) {
+                subscription.needsFullState = false;
+                sendFullState(subscription);
+                subscription.commit();
+            }
+        }
+        int polled = raw.poll(this, maxUpdates);
+        // 原始缓冲区只发布完整的更新，未取满说明最后一次更新已全部取到；取满时它可能被截断，留到下次pump
+        if (polled < maxUpdates) {
+            commit();
+        }
+        return polled;
+    }
+
+    @Override
+    public void onLevelUpdate(long sequence, OrderSide side, long priceTicks, long quantityLots, int orderCount) {
+        // 快照已包含的变化直接跳过
+        if (resyncRequired || sequence <= snapshotSequence) {
+            return;
+        }
+        if (sequence != stagedSequence) {
+            commit();
+        }
+        if (sequence > lastSequence + 1) {
+            // 跳号：下次pump时重新取快照
+            resyncRequired = true;
+            return;
+        }
+        lastSequence = sequence;
+        stagedSequence = sequence;
+        apply(sequence, side == OrderSide.BUY, priceTicks, quantityLots, orderCount);
+    }
+
+    private void apply(long sequence, boolean buy, long priceTicks, long quantityLots, int orderCount) {
+        Map<Long, long[]> levels = buy ? bids : asks;
+        if (quantityLots == 0) {
+            levels.remove(priceTicks);
+        } else {
+            levels.put(priceTicks, new long[]{quantityLots, orderCount});
+        }
+        for (ConflatedSubscription subscription : subscriptions) {
+            subscription.merge(sequence, buy, priceTicks, quantityLots, orderCount);
+        }
+    }
+
+    /**
+     * 清除原始订阅缺口后取全量快照，把与本地状态的差异作为档位变化发出
+     */
+    private void resync() {
+        raw.clearGap();
+        OrderBookSnapshot snapshot = repository.getSnapshot(instrument, Integer.MAX_VALUE);
+        long sequence = snapshot.getSequence();
+        reconcile(sequence, true, snapshot.getBids());
+        reconcile(sequence, false, snapshot.getAsks());
+        lastSequence = sequence;
+        snapshotSequence = sequence;
+        resyncRequired = false;
+        commit();
+    }
+
+    private void commit() {
+        for (ConflatedSubscription subscription : subscriptions) {
+            subscription.commit();
+        }
+        stagedSequence = -1;
+    }
+
+    private void reconcile(long sequence, boolean buy, Iterable<PriceLevel> snapshotLevels) {
+        Map<Long, long[]> levels = buy ? bids : asks;
+        Map<Long, PriceLevel> latest = new TreeMap<>();
+        for (PriceLevel level : snapshotLevels) {
+            latest.put(level.getPriceTicks(), level);
+        }
+        for (Iterator<Long> it = levels.keySet().iterator(); it.hasNext(); ) {
+            long price = it.next();
+            if (!latest.containsKey(price)) {
+                it.remove();
+                for (ConflatedSubscription subscription : subscriptions) {
+                    subscription.merge(sequence, buy, price, 0L, 0);
+                }
+            }
+        }
+        for (PriceLevel level : latest.values()) {
+            long[] current = levels.get(level.getPriceTicks());
+            if (current == null || current[0] != level.getQuantityLots() || current[1] != level.getOrderCount()) {
+                apply(sequence, buy, level.getPriceTicks(), level.getQuantityLots(), level.getOrderCount());
+            }
+        }
+    }
+
+    private void sendFullState(ConflatedSubscription subscription) {
+        sendSide(subscription, true, bids);
+        sendSide(subscription, false, asks);
+    }
+
+    private void sendSide(ConflatedSubscription subscription, boolean buy, Map<Long, long[]> levels) {
+        for (Map.Entry<Long, long[]> entry : levels.entrySet()) {
+            long[] level = entry.getValue();
+            subscription.merge(lastSequence, buy, entry.getKey(), level[0], (int) level[1]);
+        }
+    }
+}
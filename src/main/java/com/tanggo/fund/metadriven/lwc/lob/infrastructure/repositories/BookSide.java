@@ -0,0 +1,125 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderQueue;
+
+
+/**
+ * 订单薄单边（买或卖）的价格档位结构
+ * 档位按价格优先级排列：买方价格降序，卖方价格升序
+ */
+interface BookSide {
+
+    /**
+     * 是否没有任何档位
+     */
+    boolean isEmpty();
+
+    /**
+     * 最优价格(ticks)，仅在非空时有效
+     */
+    long bestPrice();
+
+    /**
+     * 最优价格档位的订单队列，为空时返回null
+     */
+    OrderQueue bestLevel();
+
+    /**
+     * 按价格优先级排在priceTicks之后（价格更差）的第一个档位，没有时返回null
+     */
+    OrderQueue nextLevel(long priceTicks);
+
+    /**
+     * 获取指定价格档位，不存在时返回null
+     */
+    OrderQueue getLevel(long priceTicks);
+
+    /**
+     * 获取或创建指定价格档位
+     */
+    OrderQueue getOrCreateLevel(long priceTicks);
+
+    /**
+     * 移除（已空的）价格档位
+     */
+    void removeLevel(long priceTicks);
+
+    /**
+     * 校验该价格和数量能否在本次更新中挂入本侧，不能时抛出IllegalArgumentException
+     * 名义金额(ticks*lots)超出long范围的订单被拒绝；维护累计深度索引的实现还校验挂入后全侧累计金额不溢出，
+     * 并为该订单预留名义金额，直到 {@link #clearReserved()}
+     */
+    default void checkPrice(long priceTicks, long quantityLots) {
+        notional(priceTicks, quantityLots);
+    }
+
+    /**
+     * 同 {@link #checkPrice}，但不预留名义金额 - 用于本次更新中不会挂入的订单（如挂起的止损单）
+     */
+    default void validatePrice(long priceTicks, long quantityLots) {
+        notional(priceTicks, quantityLots);
+    }
+
+    /**
+     * 释放 {@link #checkPrice} 的全部预留 - 订单薄在每次更新开始和结束（同步深度之后）时调用
+     */
+    default void clearReserved() {
+    }
+
+    /**
+     * 名义金额 priceTicks * lots，溢出时抛出IllegalArgumentException
+     */
+    static long notional(long priceTicks, long lots) {
+        try {
+            return Math.multiplyExact(priceTicks, lots);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Notional overflows: " + priceTicks + " ticks x " + lots + " lots");
+        }
+    }
+
+    /**
+     * 名义金额累加，溢出时抛出IllegalArgumentException
+     */
+    static long addNotional(long total, long notional) {
+        try {
+            return Math.addExact(total, notional);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Notional overflows: " + total + " + " + notional);
+        }
+    }
+
+    /**
+     * 价格不差于limitPriceTicks（买方>=，卖方<=）的档位的累计挂单量(lots)，超过maxLots时返回maxLots
+     * 调用方只关心能否凑够maxLots，无索引的实现因此可以在凑够时停止遍历
+     */
+    long lotsWithin(long limitPriceTicks, long maxLots);
+
+    /**
+     * 按价格优先级吃掉quantityLots的名义金额(ticks*lots)，深度不足时为全部深度的名义金额
+     * 金额超出long范围时抛出IllegalArgumentException
+     */
+    long costToFill(long quantityLots);
+
+    /**
+     * 是否维护累计深度索引 - 为true时订单薄在每次操作结束时通过 {@link #syncDepth} 同步触及的档位
+     */
+    default boolean indexesDepth() {
+        return false;
+    }
+
+    /**
+     * 把档位的最新挂单量同步到累计深度索引（档位已移除时totalLots为0）
+     */
+    default void syncDepth(long priceTicks, long totalLots) {
+    }
+
+    /**
+     * 按价格优先级遍历前maxLevels个档位
+     */
+    void forEachLevel(int maxLevels, LevelVisitor visitor);
+
+    @FunctionalInterface
+    interface LevelVisitor {
+        void visit(long priceTicks, OrderQueue orders);
+    }
+}
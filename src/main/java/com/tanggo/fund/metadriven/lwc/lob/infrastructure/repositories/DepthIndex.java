@@ -0,0 +1,99 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories;
+
+import java.util.Arrays;
+
+/**
+ * 累计深度索引 - 按价格优先级排列的档位上的树状数组（Fenwick tree）
+ * 位置1为最优价，同时维护数量(lots)和名义金额(ticks*lots)两棵树：
+ * - 单档变化、"最优N个位置内的累计量/金额"、"累计量达到Q的位置"均为O(log n)
+ * 名义金额以long累加：全部位置的合计另行精确维护，溢出时抛出ArithmeticException且树不变；
+ * 各节点是合计的一部分（挂单量和价格均为正），合计不溢出时节点也不会溢出。
+ * 订单挂入前由 {@link PriceLadderBookSide#checkPrice} 按合计预先校验，同步时不会溢出
+ */
+final class DepthIndex {
+
+    private final long[] lots;
+    private final long[] notional;
+    private final int size;
+    private long totalNotional;
+    // 不超过size的最大2的幂，用于二分下降查找
+    private final int topBit;
+
+    /**
+     * @param size 位置数（1..size）
+     */
+    DepthIndex(int size) {
+        this.size = size;
+        this.lots = new long[size + 1];
+        this.notional = new long[size + 1];
+        this.topBit = Integer.highestOneBit(size);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 位置pos的挂单量变化deltaLots，该位置价格为priceTicks
+     */
+    void add(int pos, long priceTicks, long deltaLots) {
+        long deltaNotional = Math.multiplyExact(deltaLots, priceTicks);
+        totalNotional = Math.addExact(totalNotional, deltaNotional);
+        for (int i = pos; i <= size; i += i & -i) {
+            lots[i] += deltaLots;
+            notional[i] += deltaNotional;
+        }
+    }
+
+    /**
+     * 全部位置的累计名义金额
+     */
+    long totalNotional() {
+        return totalNotional;
+    }
+
+    /**
+     * 位置1..pos的累计挂单量
+     */
+    long lotsTo(int pos) {
+        long sum = 0L;
+        for (int i = Math.min(pos, size); i > 0; i -= i & -i) {
+            sum += lots[i];
+        }
+        return sum;
+    }
+
+    /**
+     * 位置1..pos的累计名义金额
+     */
+    long notionalTo(int pos) {
+        long sum = 0L;
+        for (int i = Math.min(pos, size); i > 0; i -= i & -i) {
+            sum += notional[i];
+        }
+        return sum;
+    }
+
+    /**
+     * 累计挂单量仍小于quantityLots的最大位置（0表示最优位置即可满足）；
+     * 返回size表示全部深度都不足quantityLots
+     */
+    int lastPositionBelow(long quantityLots) {
+        int pos = 0;
+        long remaining = quantityLots;
+        for (int step = topBit; step > 0; step >>= 1) {
+            int next = pos + step;
+            if (next <= size && lots[next] < remaining) {
+                pos = next;
+                remaining -= lots[next];
+            }
+        }
+        return pos;
+    }
+
+    void clear() {
+        Arrays.fill(lots, 0L);
+        Arrays.fill(notional, 0L);
+        totalNotional = 0L;
+    }
+}
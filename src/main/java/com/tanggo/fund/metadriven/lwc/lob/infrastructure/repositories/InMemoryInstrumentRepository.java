@@ -0,0 +1,70 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.IInstrumentRepository;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基于内存的交易品种仓储实现
+ * 品种通过Spring XML注入（或启动时调用 {@link #setInstruments}）显式配置，未配置的交易对被拒绝：
+ * 热路径上的查询只读，不会因为陌生的交易对进入注册锁或占用symbolId
+ * 注册时按顺序分配稠密的symbolId，按ID查询为数组下标访问
+ */
+public class InMemoryInstrumentRepository implements IInstrumentRepository {
+
+    private final Map<String, Instrument> instruments = new ConcurrentHashMap<>();
+
+    // symbolId -> 品种，注册时整体替换（写时复制）
+    private volatile Instrument[] instrumentsById = new Instrument[16];
+    private int nextSymbolId;
+
+    @Override
+    public Instrument getInstrument(String symbol) {
+        Instrument instrument = instruments.get(symbol);
+        if (instrument == null) {
+            throw new IllegalArgumentException("Unknown symbol: " + symbol);
+        }
+        return instrument;
+    }
+
+    @Override
+    public Instrument getInstrument(int symbolId) {
+        Instrument[] byId = instrumentsById;
+        Instrument instrument = symbolId >= 0 && symbolId < byId.length ? byId[symbolId] : null;
+        if (instrument == null) {
+            throw new IllegalArgumentException("Unknown symbol id: " + symbolId);
+        }
+        return instrument;
+    }
+
+    /**
+     * 注册品种并分配symbolId
+     */
+    private synchronized void register(Instrument instrument) {
+        if (instruments.containsKey(instrument.getSymbol())) {
+            throw new IllegalArgumentException("Duplicate instrument: " + instrument.getSymbol());
+        }
+        int symbolId = nextSymbolId++;
+        Instrument registered = instrument.withSymbolId(symbolId);
+        Instrument[] byId = instrumentsById;
+        if (symbolId >= byId.length) {
+            byId = Arrays.copyOf(byId, byId.length * 2);
+        } else {
+            byId = byId.clone();
+        }
+        byId[symbolId] = registered;
+        instrumentsById = byId;
+        instruments.put(registered.getSymbol(), registered);
+    }
+
+    // Setter for Spring XML injection：可多次调用追加品种，交易对重复时抛出IllegalArgumentException
+    public void setInstruments(List<Instrument> instruments) {
+        for (Instrument instrument : instruments) {
+            register(instrument);
+        }
+    }
+}
@@ -1,33 +1,174 @@
 package com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories;
 
 import com.tanggo.fund.metadriven.lwc.lob.domain.*;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.AuctionResult;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.FillEstimate;
 import com.tanggo.fund.metadriven.lwc.lob.domain.repo.MatchResult;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookCursor;
 import com.tanggo.fund.metadriven.lwc.lob.domain.repo.IOrderBookRepository;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.LevelUpdateSubscription;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookEntry;
 import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookSnapshot;
-import com.tanggo.fund.metadriven.lwc.lob.domain.repo.PriceLevel;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookState;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.TopOfBook;
 
 
-import java.math.BigDecimal;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 基于内存的订单薄仓储实现
  * 使用TreeMap实现价格优先、时间优先的撮合逻辑
+ * 价格/数量以 long ticks/lots 参与撮合，避免热路径上的 BigDecimal 运算与分配
  * 符合低时延要求：O(log n)插入/删除性能
+ * 已注册品种的订单薄按symbolId存放在数组中，按订单/品种定位订单薄无需哈希交易对字符串
  */
 public class InMemoryOrderBookRepository implements IOrderBookRepository {
 
-    // 每个交易对的订单薄
+    // 每个交易对的订单薄（按交易对字符串查询的入口使用）
     private final Map<String, OrderBook> orderBooks = new ConcurrentHashMap<>();
 
+    // symbolId -> 订单薄，创建订单薄时整体替换（写时复制）
+    private volatile OrderBook[] booksById = new OrderBook[64];
+
+    // 每个订单薄发布给读线程的深度档位数
+    private int publishedDepth = OrderBook.DEFAULT_PUBLISHED_DEPTH;
+
     @Override
     public MatchResult addOrder(LimitOrder order) {
-        OrderBook book = orderBooks.computeIfAbsent(
-            order.getSymbol(),
-            k -> new OrderBook()
-        );
-        return book.addOrder(order);
+        return getOrCreateBook(order.getInstrument()).addOrder(order);
+    }
+
+    /**
+     * 按交易对分组（组内保持提交顺序），每组只定位一次订单薄并整组撮合
+     * 校验失败的订单由订单薄以拒绝结果返回，不影响其他订单和其他组
+     */
+    @Override
+    public MatchResult[] addOrders(List<LimitOrder> orders) {
+        if (orders.isEmpty()) {
+            return new MatchResult[0];
+        }
+        String firstSymbol = orders.get(0).getSymbol();
+        boolean singleSymbol = true;
+        for (int i = 1; i < orders.size() && singleSymbol; i++) {
+            singleSymbol = orders.get(i).getSymbol().equals(firstSymbol);
+        }
+        if (singleSymbol) {
+            return getOrCreateBook(orders.get(0).getInstrument()).addOrders(orders);
+        }
+
+        Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < orders.size(); i++) {
+            groups.computeIfAbsent(orders.get(i).getSymbol(), k -> new ArrayList<>()).add(i);
+        }
+        MatchResult[] results = new MatchResult[orders.size()];
+        for (List<Integer> indexes : groups.values()) {
+            List<LimitOrder> group = new ArrayList<>(indexes.size());
+            for (int index : indexes) {
+                group.add(orders.get(index));
+            }
+            MatchResult[] groupResults = getOrCreateBook(group.get(0).getInstrument()).addOrders(group);
+            for (int j = 0; j < groupResults.length; j++) {
+                results[indexes.get(j)] = groupResults[j];
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public MatchResult placeOrder(String orderId, String ownerId, Instrument instrument, OrderSide side,
+                                  long priceTicks, long quantityLots) {
+        return getOrCreateBook(instrument).placeOrder(orderId, ownerId, side, priceTicks, quantityLots);
+    }
+
+    @Override
+    public MatchResult placeOrder(String orderId, long orderKey, String ownerId, Instrument instrument,
+                                  OrderSide side, long priceTicks, long quantityLots) {
+        return getOrCreateBook(instrument).placeOrder(orderId, orderKey, ownerId, side, priceTicks, quantityLots);
+    }
+
+    @Override
+    public MatchResult placeFillOrKill(String orderId, String ownerId, Instrument instrument, OrderSide side,
+                                       long priceTicks, long quantityLots) {
+        return getOrCreateBook(instrument).placeFillOrKill(orderId, ownerId, side, priceTicks, quantityLots);
+    }
+
+    @Override
+    public StopOrder placeStopOrder(String orderId, String ownerId, Instrument instrument, OrderSide side,
+                                    long triggerPriceTicks, long limitPriceTicks, long quantityLots) {
+        return getOrCreateBook(instrument).placeStopOrder(orderId, ownerId, side,
+            triggerPriceTicks, limitPriceTicks, quantityLots);
+    }
+
+    @Override
+    public FillEstimate estimateFill(Instrument instrument, OrderSide side, long quantityLots, long limitPriceTicks) {
+        OrderBook book = book(instrument);
+        return book != null ? book.estimateFill(side, quantityLots, limitPriceTicks)
+            : new FillEstimate(instrument, side, quantityLots, 0L, 0L);
+    }
+
+    /**
+     * 已注册品种按ID数组定位；未分配ID的品种（直接构造的Instrument）按交易对查无锁哈希表，
+     * 只有订单薄尚不存在时才进入加锁的创建路径
+     */
+    private OrderBook getOrCreateBook(Instrument instrument) {
+        int symbolId = instrument.getSymbolId();
+        OrderBook book = symbolId != Instrument.UNASSIGNED_ID ? bookById(symbolId) : orderBooks.get(instrument.getSymbol());
+        if (book != null) {
+            return book;
+        }
+        return createBook(instrument);
+    }
+
+    private OrderBook bookById(int symbolId) {
+        OrderBook[] books = booksById;
+        return symbolId >= 0 && symbolId < books.length ? books[symbolId] : null;
+    }
+
+    /**
+     * 已注册品种按symbolId定位订单薄，未注册的按交易对符号；不存在时返回null
+     */
+    private OrderBook book(Instrument instrument) {
+        OrderBook book = bookById(instrument.getSymbolId());
+        return book != null ? book : orderBooks.get(instrument.getSymbol());
+    }
+
+    /**
+     * 慢路径：首次访问时创建订单薄，已注册品种同时登记到ID数组
+     */
+    private synchronized OrderBook createBook(Instrument instrument) {
+        OrderBook book = orderBooks.get(instrument.getSymbol());
+        if (book == null) {
+            book = newOrderBook(instrument);
+            orderBooks.put(instrument.getSymbol(), book);
+        }
+        int symbolId = instrument.getSymbolId();
+        if (symbolId != Instrument.UNASSIGNED_ID) {
+            OrderBook[] books = booksById;
+            books = Arrays.copyOf(books, Math.max(books.length, Integer.highestOneBit(symbolId) << 1));
+            books[symbolId] = book;
+            booksById = books;
+        }
+        return book;
+    }
+
+    /**
+     * 创建订单薄 - 子类可替换买卖两侧的档位结构
+     */
+    OrderBook newOrderBook(Instrument instrument) {
+        return new OrderBook(instrument, new TreeBookSide(true), new TreeBookSide(false), publishedDepth);
+    }
+
+    int getPublishedDepth() {
+        return publishedDepth;
+    }
+
+    // Setter for Spring XML injection
+    public void setPublishedDepth(int publishedDepth) {
+        if (publishedDepth <= 0) {
+            throw new IllegalArgumentException("publishedDepth必须大于0");
+        }
+        this.publishedDepth = publishedDepth;
     }
 
     @Override
@@ -40,219 +181,187 @@ public class InMemoryOrderBookRepository implements IOrderBookRepository {
     }
 
     @Override
-    public OrderBookSnapshot getSnapshot(String symbol, int depth) {
+    public boolean cancelOrder(Instrument instrument, String orderId) {
+        OrderBook book = book(instrument);
+        return book != null && book.cancelOrder(orderId);
+    }
+
+    @Override
+    public boolean cancelOrder(Instrument instrument, long orderKey) {
+        OrderBook book = book(instrument);
+        return book != null && book.cancelOrder(orderKey);
+    }
+
+    @Override
+    public boolean[] cancelOrders(String symbol, List<String> orderIds) {
+        boolean[] results = new boolean[orderIds.size()];
         OrderBook book = orderBooks.get(symbol);
+        if (book != null) {
+            book.cancelOrders(orderIds, results);
+        }
+        return results;
+    }
+
+    @Override
+    public boolean[] cancelOrders(Instrument instrument, List<String> orderIds) {
+        boolean[] results = new boolean[orderIds.size()];
+        OrderBook book = book(instrument);
+        if (book != null) {
+            book.cancelOrders(orderIds, results);
+        }
+        return results;
+    }
+
+    @Override
+    public MatchResult amendOrder(Instrument instrument, String orderId, long newPriceTicks, long newQuantityLots) {
+        OrderBook book = book(instrument);
+        return book != null ? book.amendOrder(orderId, newPriceTicks, newQuantityLots) : null;
+    }
+
+    @Override
+    public MatchResult amendOrder(Instrument instrument, long orderKey, long newPriceTicks, long newQuantityLots) {
+        OrderBook book = book(instrument);
+        return book != null ? book.amendOrder(orderKey, newPriceTicks, newQuantityLots) : null;
+    }
+
+    @Override
+    public List<String> massCancel(String symbol, OrderSide side, String ownerId) {
+        return massCancel(orderBooks.get(symbol), side, ownerId);
+    }
+
+    @Override
+    public List<String> massCancel(Instrument instrument, OrderSide side, String ownerId) {
+        return massCancel(book(instrument), side, ownerId);
+    }
+
+    private static List<String> massCancel(OrderBook book, OrderSide side, String ownerId) {
         if (book == null) {
-            return new OrderBookSnapshot(symbol, Collections.emptyList(), Collections.emptyList());
+            return Collections.emptyList();
         }
-        return book.getSnapshot(symbol, depth);
+        List<String> cancelled = new ArrayList<>();
+        book.massCancel(side, ownerId, cancelled);
+        return cancelled;
     }
 
     @Override
-    public boolean existsOrder(String symbol, String orderId) {
-        OrderBook book = orderBooks.get(symbol);
-        return book != null && book.existsOrder(orderId);
+    public void beginAuction(Instrument instrument) {
+        getOrCreateBook(instrument).beginAuction();
     }
 
     @Override
-    public int getOrderCount(String symbol) {
+    public AuctionResult uncrossAuction(String symbol, boolean continueAuction) {
         OrderBook book = orderBooks.get(symbol);
-        return book != null ? book.getOrderCount() : 0;
+        return book != null ? book.uncross(continueAuction) : AuctionResult.empty(symbol);
     }
 
-    /**
-     * 内部订单薄类 - 封装撮合引擎核心逻辑
-     */
-    private static class OrderBook {
-        // 买单：价格降序（最高价优先）- 使用TreeMap保证O(log n)性能
-        private final TreeMap<BigDecimal, LinkedList<LimitOrder>> bids =
-            new TreeMap<>(Comparator.reverseOrder());
-
-        // 卖单：价格升序（最低价优先）
-        private final TreeMap<BigDecimal, LinkedList<LimitOrder>> asks =
-            new TreeMap<>();
-
-        // 订单ID -> 订单映射（快速查找）- 使用ConcurrentHashMap保证线程安全
-        private final Map<String, LimitOrder> orderIndex = new ConcurrentHashMap<>();
-
-        /**
-         * 添加订单并尝试撮合
-         */
-        public MatchResult addOrder(LimitOrder order) {
-            List<Trade> trades = new ArrayList<>();
-
-            // 尝试撮合
-            if (order.getSide() == OrderSide.BUY) {
-                matchBuyOrder(order, trades);
-            } else {
-                matchSellOrder(order, trades);
-            }
+    @Override
+    public AuctionResult uncrossAuction(Instrument instrument, boolean continueAuction) {
+        OrderBook book = book(instrument);
+        return book != null ? book.uncross(continueAuction) : AuctionResult.empty(instrument.getSymbol());
+    }
 
-            // 如果订单未完全成交，加入订单薄
-            if (order.isActive()) {
-                TreeMap<BigDecimal, LinkedList<LimitOrder>> side =
-                    order.getSide() == OrderSide.BUY ? bids : asks;
+    @Override
+    public Set<String> getSymbols() {
+        return Set.copyOf(orderBooks.keySet());
+    }
 
-                side.computeIfAbsent(order.getPrice(), k -> new LinkedList<>())
-                    .addLast(order);
-                orderIndex.put(order.getOrderId(), order);
-            }
+    @Override
+    public OrderBookSnapshot getSnapshot(String symbol, int depth) {
+        OrderBook book = orderBooks.get(symbol);
+        if (book == null) {
+            return new OrderBookSnapshot(symbol, Collections.emptyList(), Collections.emptyList());
+        }
+        return book.getSnapshot(symbol, depth);
+    }
 
-            return new MatchResult(order, trades);
+    @Override
+    public OrderBookSnapshot getSnapshot(Instrument instrument, int depth) {
+        OrderBook book = book(instrument);
+        if (book == null) {
+            return new OrderBookSnapshot(instrument.getSymbol(), Collections.emptyList(), Collections.emptyList());
         }
+        return book.getSnapshot(instrument.getSymbol(), depth);
+    }
 
-        /**
-         * 撮合买单
-         * 买单价格 >= 卖单价格时成交
-         */
-        private void matchBuyOrder(LimitOrder buyOrder, List<Trade> trades) {
-            while (buyOrder.isActive() && !asks.isEmpty()) {
-                Map.Entry<BigDecimal, LinkedList<LimitOrder>> bestAsk = asks.firstEntry();
-                BigDecimal askPrice = bestAsk.getKey();
-
-                // 价格不匹配，停止撮合
-                if (buyOrder.getPrice().compareTo(askPrice) < 0) {
-                    break;
-                }
-
-                LinkedList<LimitOrder> askOrders = bestAsk.getValue();
-                LimitOrder sellOrder = askOrders.getFirst();
-
-                // 执行成交
-                BigDecimal tradeQty = buyOrder.getRemainingQuantity()
-                    .min(sellOrder.getRemainingQuantity());
-
-                buyOrder.fill(tradeQty);
-                sellOrder.fill(tradeQty);
-
-                trades.add(new Trade(
-                    buyOrder.getOrderId(),
-                    sellOrder.getOrderId(),
-                    askPrice,
-                    tradeQty
-                ));
-
-                // 卖单完全成交，移除
-                if (!sellOrder.isActive()) {
-                    askOrders.removeFirst();
-                    orderIndex.remove(sellOrder.getOrderId());
-                    if (askOrders.isEmpty()) {
-                        asks.remove(askPrice);
-                    }
-                }
-            }
+    @Override
+    public OrderBookSnapshot getPublishedSnapshot(String symbol, int depth) {
+        OrderBook book = orderBooks.get(symbol);
+        if (book == null) {
+            return new OrderBookSnapshot(symbol, Collections.emptyList(), Collections.emptyList());
         }
+        return book.getPublishedSnapshot(depth);
+    }
 
-        /**
-         * 撮合卖单
-         * 卖单价格 <= 买单价格时成交
-         */
-        private void matchSellOrder(LimitOrder sellOrder, List<Trade> trades) {
-            while (sellOrder.isActive() && !bids.isEmpty()) {
-                Map.Entry<BigDecimal, LinkedList<LimitOrder>> bestBid = bids.firstEntry();
-                BigDecimal bidPrice = bestBid.getKey();
-
-                // 价格不匹配，停止撮合
-                if (sellOrder.getPrice().compareTo(bidPrice) > 0) {
-                    break;
-                }
-
-                LinkedList<LimitOrder> bidOrders = bestBid.getValue();
-                LimitOrder buyOrder = bidOrders.getFirst();
-
-                // 执行成交
-                BigDecimal tradeQty = sellOrder.getRemainingQuantity()
-                    .min(buyOrder.getRemainingQuantity());
-
-                sellOrder.fill(tradeQty);
-                buyOrder.fill(tradeQty);
-
-                trades.add(new Trade(
-                    buyOrder.getOrderId(),
-                    sellOrder.getOrderId(),
-                    bidPrice,
-                    tradeQty
-                ));
-
-                // 买单完全成交，移除
-                if (!buyOrder.isActive()) {
-                    bidOrders.removeFirst();
-                    orderIndex.remove(buyOrder.getOrderId());
-                    if (bidOrders.isEmpty()) {
-                        bids.remove(bidPrice);
-                    }
-                }
-            }
+    @Override
+    public OrderBookSnapshot getPublishedSnapshot(Instrument instrument, int depth) {
+        OrderBook book = book(instrument);
+        if (book == null) {
+            return new OrderBookSnapshot(instrument.getSymbol(), Collections.emptyList(), Collections.emptyList());
         }
+        return book.getPublishedSnapshot(depth);
+    }
 
-        /**
-         * 取消订单
-         */
-        public boolean cancelOrder(String orderId) {
-            LimitOrder order = orderIndex.remove(orderId);
-            if (order == null) {
-                return false;
-            }
+    @Override
+    public TopOfBook getTopOfBook(String symbol) {
+        OrderBook book = orderBooks.get(symbol);
+        return book != null ? book.getTopOfBook() : TopOfBook.empty(symbol);
+    }
 
-            TreeMap<BigDecimal, LinkedList<LimitOrder>> side =
-                order.getSide() == OrderSide.BUY ? bids : asks;
+    @Override
+    public TopOfBook getTopOfBook(Instrument instrument) {
+        OrderBook book = book(instrument);
+        return book != null ? book.getTopOfBook() : TopOfBook.empty(instrument.getSymbol());
+    }
 
-            LinkedList<LimitOrder> priceLevel = side.get(order.getPrice());
-            if (priceLevel != null) {
-                priceLevel.remove(order);
-                if (priceLevel.isEmpty()) {
-                    side.remove(order.getPrice());
-                }
-            }
+    @Override
+    public LevelUpdateSubscription subscribeLevelUpdates(Instrument instrument, int capacity) {
+        return getOrCreateBook(instrument).subscribe(capacity);
+    }
 
-            order.cancel();
-            return true;
-        }
+    @Override
+    public OrderBookCursor openOrderCursor(String symbol) {
+        OrderBook book = orderBooks.get(symbol);
+        return book != null ? book.openCursor() : OrderBookCursor.empty(symbol);
+    }
 
-        /**
-         * 获取订单薄快照
-         */
-        public OrderBookSnapshot getSnapshot(String symbol, int depth) {
-            List<PriceLevel> bidLevels = new ArrayList<>();
-            List<PriceLevel> askLevels = new ArrayList<>();
-
-            // 收集买单深度
-            int count = 0;
-            for (Map.Entry<BigDecimal, LinkedList<LimitOrder>> entry : bids.entrySet()) {
-                if (count >= depth) break;
-                BigDecimal totalQty = entry.getValue().stream()
-                    .map(LimitOrder::getRemainingQuantity)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-                bidLevels.add(new PriceLevel(entry.getKey(), totalQty, entry.getValue().size()));
-                count++;
-            }
+    @Override
+    public OrderBookCursor openCheckpointCursor(String symbol) {
+        OrderBook book = orderBooks.get(symbol);
+        return book != null ? book.openCheckpointCursor() : OrderBookCursor.empty(symbol);
+    }
 
-            // 收集卖单深度
-            count = 0;
-            for (Map.Entry<BigDecimal, LinkedList<LimitOrder>> entry : asks.entrySet()) {
-                if (count >= depth) break;
-                BigDecimal totalQty = entry.getValue().stream()
-                    .map(LimitOrder::getRemainingQuantity)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-                askLevels.add(new PriceLevel(entry.getKey(), totalQty, entry.getValue().size()));
-                count++;
-            }
+    @Override
+    public void loadOrderBook(Instrument instrument, OrderBookState state, Iterator<OrderBookEntry> orders) {
+        getOrCreateBook(instrument).load(state, orders);
+    }
 
-            return new OrderBookSnapshot(symbol, bidLevels, askLevels);
-        }
+    @Override
+    public boolean existsOrder(String symbol, String orderId) {
+        OrderBook book = orderBooks.get(symbol);
+        return book != null && book.existsOrder(orderId);
+    }
 
-        /**
-         * 检查订单是否存在
-         */
-        public boolean existsOrder(String orderId) {
-            return orderIndex.containsKey(orderId);
-        }
+    @Override
+    public boolean existsOrder(Instrument instrument, String orderId) {
+        OrderBook book = book(instrument);
+        return book != null && book.existsOrder(orderId);
+    }
 
-        /**
-         * 获取订单数量
-         */
-        public int getOrderCount() {
-            return orderIndex.size();
-        }
+    @Override
+    public boolean existsOrder(Instrument instrument, long orderKey) {
+        OrderBook book = book(instrument);
+        return book != null && book.existsOrder(orderKey);
+    }
+
+    @Override
+    public int getOrderCount(String symbol) {
+        OrderBook book = orderBooks.get(symbol);
+        return book != null ? book.getOrderCount() : 0;
+    }
+
+    @Override
+    public int getOrderCount(Instrument instrument) {
+        OrderBook book = book(instrument);
+        return book != null ? book.getOrderCount() : 0;
     }
 }
@@ -0,0 +1,182 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderQueue;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderStore;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookCursor;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookEntry;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookPage;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookState;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 逐笔(L3)游标 - 档位级写时复制
+ * 打开时记录订单薄版本；此后撮合线程第一次修改游标尚未读到的档位前，先把该档位的原始内容复制一份，
+ * 游标读到该价格时使用副本，未被修改的档位直接读取当前内容。
+ * 因此所有页都属于打开时的同一版本，额外内存只与遍历期间被修改的档位数有关。
+ * 检查点游标另外在打开时捕获订单薄状态（{@link #getState()}）。
+ * 与订单薄一样只能在所属撮合线程上使用
+ */
+final class L3Cursor implements OrderBookCursor {
+
+    private final OrderBook book;
+    private final Instrument instrument;
+    private final OrderStore store;
+    private final long sequence;
+    private final OrderBookState state;
+
+    // 写时复制的档位原始内容（空列表表示该档位在打开时不存在），按各侧价格优先级排序
+    private final TreeMap<Long, List<OrderBookEntry>> bidImages = new TreeMap<>(Comparator.reverseOrder());
+    private final TreeMap<Long, List<OrderBookEntry>> askImages = new TreeMap<>();
+
+    // 当前遍历到的一侧，以及该侧最后读到的档位价格
+    private boolean onBids = true;
+    private boolean started;
+    private long lastPrice;
+    private boolean done;
+
+    // 已读出但尚未返回的当前档位条目
+    private List<OrderBookEntry> current = Collections.emptyList();
+    private int currentIndex;
+
+    L3Cursor(OrderBook book, Instrument instrument, OrderStore store, long sequence, OrderBookState state) {
+        this.book = book;
+        this.instrument = instrument;
+        this.store = store;
+        this.sequence = sequence;
+        this.state = state;
+    }
+
+    /**
+     * 撮合线程在修改档位前回调：游标尚未读到该档位且未复制过时保存原始内容
+     */
+    void beforeLevelChange(boolean buy, long priceTicks, OrderQueue level) {
+        if (done) {
+            return;
+        }
+        if (buy && !onBids) {
+            // 买方已遍历完
+            return;
+        }
+        if (buy == onBids && started && !after(buy, priceTicks, lastPrice)) {
+            // 已读过的档位
+            return;
+        }
+        TreeMap<Long, List<OrderBookEntry>> images = buy ? bidImages : askImages;
+        if (!images.containsKey(priceTicks)) {
+            images.put(priceTicks, copyLevel(buy, priceTicks, level));
+        }
+    }
+
+    /**
+     * price是否按该侧价格优先级排在reference之后
+     */
+    private static boolean after(boolean buy, long price, long reference) {
+        return buy ? price < reference : price > reference;
+    }
+
+    private List<OrderBookEntry> copyLevel(boolean buy, long priceTicks, OrderQueue level) {
+        if (level == null || level.isEmpty()) {
+            return Collections.emptyList();
+        }
+        OrderSide side = buy ? OrderSide.BUY : OrderSide.SELL;
+        List<OrderBookEntry> entries = new ArrayList<>(level.size());
+        int position = 0;
+        for (int order = level.peekFirst(); order != OrderStore.NONE; order = store.next(order)) {
+            entries.add(new OrderBookEntry(instrument, store.getOrderId(order), store.getOwnerId(order), side,
+                priceTicks, position++, store.getOrderKey(order), store.getQuantityLots(order), store.getFilledLots(order),
+                store.getCreateTimeNanos(order), store.getUpdateTimeNanos(order)));
+        }
+        return entries;
+    }
+
+    @Override
+    public String getSymbol() {
+        return instrument.getSymbol();
+    }
+
+    @Override
+    public long getSequence() {
+        return sequence;
+    }
+
+    @Override
+    public OrderBookState getState() {
+        return state;
+    }
+
+    @Override
+    public OrderBookPage nextPage(int maxOrders) {
+        if (maxOrders <= 0) {
+            throw new IllegalArgumentException("maxOrders必须大于0");
+        }
+        List<OrderBookEntry> page = new ArrayList<>(Math.min(maxOrders, 1024));
+        while (page.size() < maxOrders && !done) {
+            if (currentIndex < current.size()) {
+                int n = Math.min(maxOrders - page.size(), current.size() - currentIndex);
+                page.addAll(current.subList(currentIndex, currentIndex + n));
+                currentIndex += n;
+            } else if (!advance()) {
+                if (onBids) {
+                    onBids = false;
+                    started = false;
+                } else {
+                    done = true;
+                    book.closeCursor(this);
+                }
+            }
+        }
+        return new OrderBookPage(instrument.getSymbol(), sequence, page, done);
+    }
+
+    /**
+     * 读出当前一侧的下一个档位（打开时的版本），该侧没有更多档位时返回false
+     */
+    private boolean advance() {
+        TreeMap<Long, List<OrderBookEntry>> images = onBids ? bidImages : askImages;
+        BookSide side = book.side(onBids);
+        while (true) {
+            OrderQueue live = started ? side.nextLevel(lastPrice) : side.bestLevel();
+            Map.Entry<Long, List<OrderBookEntry>> image = started ? images.higherEntry(lastPrice) : images.firstEntry();
+            if (live == null && image == null) {
+                return false;
+            }
+            long price;
+            List<OrderBookEntry> entries;
+            if (image != null && (live == null || !after(onBids, image.getKey(), live.getPriceTicks()))) {
+                // 副本价格不差于当前档位（相同价格时以副本为准）
+                price = image.getKey();
+                entries = image.getValue();
+                images.remove(price);
+            } else {
+                price = live.getPriceTicks();
+                entries = copyLevel(onBids, price, live);
+            }
+            started = true;
+            lastPrice = price;
+            if (!entries.isEmpty()) {
+                current = entries;
+                currentIndex = 0;
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!done) {
+            done = true;
+            book.closeCursor(this);
+        }
+        bidImages.clear();
+        askImages.clear();
+        current = Collections.emptyList();
+    }
+}
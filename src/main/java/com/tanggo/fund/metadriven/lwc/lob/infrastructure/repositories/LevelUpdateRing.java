@@ -0,0 +1,122 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.LevelUpdateListener;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.LevelUpdateSubscription;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单生产者单消费者的L2增量环形缓冲区
+ * 增量字段保存在预分配的原始类型数组中，撮合线程写入不分配对象；
+ * 满时丢弃并标记缺口，同一订单薄更新序号的增量要么整体投递要么整体丢弃；
+ * 整批写完才推进写入位置，消费者不会读到半次更新
+ */
+final class LevelUpdateRing implements LevelUpdateSubscription {
+
+    private final String symbol;
+    private final OrderBook book;
+    private final int mask;
+
+    private final long[] sequences;
+    private final long[] prices;
+    private final long[] lots;
+    private final int[] counts;
+    private final boolean[] buys;
+
+    // 生产者写入位置 / 消费者读取位置
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+    private volatile boolean gap;
+
+    // 撮合线程私有：当前订单薄更新的增量是否投递、下一条写入位置和尚未写入的条数
+    private boolean delivering;
+    private long writeTail;
+    private int remaining;
+
+    LevelUpdateRing(String symbol, OrderBook book, int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a positive power of two: " + capacity);
+        }
+        this.symbol = symbol;
+        this.book = book;
+        this.mask = capacity - 1;
+        this.sequences = new long[capacity];
+        this.prices = new long[capacity];
+        this.lots = new long[capacity];
+        this.counts = new int[capacity];
+        this.buys = new boolean[capacity];
+    }
+
+    /**
+     * 撮合线程调用：一次订单薄更新开始，其后有count条增量
+     * 缓冲区放不下整批时全部丢弃并标记缺口，缺口清除前持续丢弃；消费者只会腾出空间，放得下时后续写入不会失败
+     */
+    void begin(int count) {
+        if (gap) {
+            delivering = false;
+        } else if (tail.get() - head.get() + count > mask + 1) {
+            delivering = false;
+            gap = true;
+        } else {
+            delivering = count > 0;
+            writeTail = tail.get();
+            remaining = count;
+        }
+    }
+
+    /**
+     * 撮合线程调用：写入本次更新的一条增量，最后一条写入后整批发布给消费者
+     */
+    void offer(long sequence, boolean buy, long priceTicks, long quantityLots, int orderCount) {
+        if (!delivering) {
+            return;
+        }
+        int i = (int) writeTail & mask;
+        sequences[i] = sequence;
+        prices[i] = priceTicks;
+        lots[i] = quantityLots;
+        counts[i] = orderCount;
+        buys[i] = buy;
+        writeTail++;
+        if (--remaining == 0) {
+            delivering = false;
+            tail.setRelease(writeTail);
+        }
+    }
+
+    @Override
+    public String getSymbol() {
+        return symbol;
+    }
+
+    @Override
+    public int poll(LevelUpdateListener listener, int maxUpdates) {
+        long h = head.get();
+        long available = tail.getAcquire() - h;
+        int n = (int) Math.min(available, maxUpdates);
+        for (int k = 0; k < n; k++) {
+            int i = (int) (h + k) & mask;
+            listener.onLevelUpdate(sequences[i], buys[i] ? OrderSide.BUY : OrderSide.SELL,
+                prices[i], lots[i], counts[i]);
+        }
+        head.setRelease(h + n);
+        return n;
+    }
+
+    @Override
+    public boolean hasGap() {
+        return gap;
+    }
+
+    @Override
+    public void clearGap() {
+        head.setRelease(tail.getAcquire());
+        gap = false;
+    }
+
+    @Override
+    public void close() {
+        book.unsubscribe(this);
+    }
+}
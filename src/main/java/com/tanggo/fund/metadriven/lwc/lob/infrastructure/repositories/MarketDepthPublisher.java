@@ -0,0 +1,209 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderQueue;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookSnapshot;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.PriceLevel;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.TopOfBook;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 行情深度发布器 - 前N档深度 + 顺序锁(seqlock)
+ * 撮合线程是唯一写者：先把两侧前N档采集到私有暂存数组，在奇数序号下写入订单薄更新序号、
+ * 把有变化的一侧拷贝到发布数组，写完置为偶数；全程不加锁、不分配对象。
+ * 任意读线程无锁读取，读到奇数序号或前后序号不一致时重试，不会阻塞撮合线程。
+ * 读到的快照/BBO携带发布时的订单薄更新序号
+ */
+final class MarketDepthPublisher implements BookSide.LevelVisitor {
+
+    private static final VarHandle LOCK;
+
+    static {
+        try {
+            LOCK = MethodHandles.lookup().findVarHandle(MarketDepthPublisher.class, "lock", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final String symbol;
+    private final Instrument instrument;
+    private final int depth;
+
+    // 偶数：数据稳定；奇数：写入中
+    @SuppressWarnings("unused")
+    private volatile long lock;
+
+    // 已发布数据（读线程在seqlock保护下读取）
+    private long sequence;
+    private final long[] bidPrices;
+    private final long[] bidLots;
+    private final int[] bidCounts;
+    private int bidLevels;
+    private final long[] askPrices;
+    private final long[] askLots;
+    private final int[] askCounts;
+    private int askLevels;
+
+    // 撮合线程私有暂存：[0, depth)为买方，[depth, 2*depth)为卖方
+    private final long[] stagePrices;
+    private final long[] stageLots;
+    private final int[] stageCounts;
+    private int stageOffset;
+    private int stageLevels;
+
+    MarketDepthPublisher(Instrument instrument, int depth) {
+        if (depth <= 0) {
+            throw new IllegalArgumentException("Published depth must be positive: " + depth);
+        }
+        this.symbol = instrument.getSymbol();
+        this.instrument = instrument;
+        this.depth = depth;
+        this.bidPrices = new long[depth];
+        this.bidLots = new long[depth];
+        this.bidCounts = new int[depth];
+        this.askPrices = new long[depth];
+        this.askLots = new long[depth];
+        this.askCounts = new int[depth];
+        this.stagePrices = new long[depth * 2];
+        this.stageLots = new long[depth * 2];
+        this.stageCounts = new int[depth * 2];
+    }
+
+    int getDepth() {
+        return depth;
+    }
+
+    /**
+     * 撮合线程调用：以给定的订单薄更新序号发布，前N档只拷贝有变化的一侧
+     * 每次都发布序号，保证快照序号与增量行情序号对齐
+     */
+    void publish(BookSide bids, BookSide asks, long bookSequence) {
+        int newBidLevels = stage(bids, 0);
+        boolean bidChanged = changed(0, newBidLevels, bidPrices, bidLots, bidCounts, bidLevels);
+        int newAskLevels = stage(asks, depth);
+        boolean askChanged = changed(depth, newAskLevels, askPrices, askLots, askCounts, askLevels);
+
+        beginWrite();
+        sequence = bookSequence;
+        if (bidChanged) {
+            copyStage(0, newBidLevels, bidPrices, bidLots, bidCounts);
+            bidLevels = newBidLevels;
+        }
+        if (askChanged) {
+            copyStage(depth, newAskLevels, askPrices, askLots, askCounts);
+            askLevels = newAskLevels;
+        }
+        endWrite();
+    }
+
+    private int stage(BookSide side, int offset) {
+        stageOffset = offset;
+        stageLevels = 0;
+        side.forEachLevel(depth, this);
+        return stageLevels;
+    }
+
+    private boolean changed(int offset, int newLevels, long[] prices, long[] lots, int[] counts, int levels) {
+        if (newLevels != levels) {
+            return true;
+        }
+        for (int i = 0; i < levels; i++) {
+            if (stagePrices[offset + i] != prices[i] || stageLots[offset + i] != lots[i]
+                || stageCounts[offset + i] != counts[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void visit(long priceTicks, OrderQueue orders) {
+        int i = stageOffset + stageLevels;
+        stagePrices[i] = priceTicks;
+        stageLots[i] = orders.getTotalLots();
+        stageCounts[i] = orders.getOrderCount();
+        stageLevels++;
+    }
+
+    private void copyStage(int offset, int levels, long[] prices, long[] lots, int[] counts) {
+        System.arraycopy(stagePrices, offset, prices, 0, levels);
+        System.arraycopy(stageLots, offset, lots, 0, levels);
+        System.arraycopy(stageCounts, offset, counts, 0, levels);
+    }
+
+    private void beginWrite() {
+        LOCK.setOpaque(this, (long) LOCK.getOpaque(this) + 1);
+        VarHandle.storeStoreFence();
+    }
+
+    private void endWrite() {
+        LOCK.setRelease(this, (long) LOCK.getOpaque(this) + 1);
+    }
+
+    /**
+     * 任意线程调用：读取一致的BBO
+     */
+    TopOfBook readTopOfBook() {
+        while (true) {
+            long before = (long) LOCK.getAcquire(this);
+            if ((before & 1L) == 0) {
+                long seq = sequence;
+                boolean hasBid = bidLevels > 0;
+                long bp = bidPrices[0];
+                long bl = bidLots[0];
+                boolean hasAsk = askLevels > 0;
+                long ap = askPrices[0];
+                long al = askLots[0];
+                VarHandle.loadLoadFence();
+                if ((long) LOCK.getOpaque(this) == before) {
+                    return new TopOfBook(symbol, instrument, seq,
+                        hasBid ? bp : 0L, hasBid ? bl : 0L, hasAsk ? ap : 0L, hasAsk ? al : 0L);
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * 任意线程调用：读取一致的深度快照，depth不能超过发布深度
+     */
+    OrderBookSnapshot readSnapshot(int depth) {
+        int n = Math.min(depth, this.depth);
+        long[] prices = new long[n * 2];
+        long[] lots = new long[n * 2];
+        int[] counts = new int[n * 2];
+        while (true) {
+            long before = (long) LOCK.getAcquire(this);
+            if ((before & 1L) == 0) {
+                long seq = sequence;
+                int bids = Math.min(bidLevels, n);
+                int asks = Math.min(askLevels, n);
+                System.arraycopy(bidPrices, 0, prices, 0, bids);
+                System.arraycopy(bidLots, 0, lots, 0, bids);
+                System.arraycopy(bidCounts, 0, counts, 0, bids);
+                System.arraycopy(askPrices, 0, prices, n, asks);
+                System.arraycopy(askLots, 0, lots, n, asks);
+                System.arraycopy(askCounts, 0, counts, n, asks);
+                VarHandle.loadLoadFence();
+                if ((long) LOCK.getOpaque(this) == before) {
+                    return new OrderBookSnapshot(symbol, seq,
+                        toLevels(prices, lots, counts, 0, bids), toLevels(prices, lots, counts, n, asks));
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private List<PriceLevel> toLevels(long[] prices, long[] lots, int[] counts, int offset, int levels) {
+        List<PriceLevel> result = new ArrayList<>(levels);
+        for (int i = offset; i < offset + levels; i++) {
+            result.add(new PriceLevel(instrument, prices[i], lots[i], counts[i]));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,1031 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.LimitOrder;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderPool;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderQueue;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderStore;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OwnerOrderList;
+import com.tanggo.fund.metadriven.lwc.lob.domain.StopOrder;
+import com.tanggo.fund.metadriven.lwc.lob.domain.TradeBuffer;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.AuctionResult;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.FillEstimate;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.MatchResult;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookEntry;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookSnapshot;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookState;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.PriceLevel;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.TopOfBook;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 单个交易对的订单薄 - 封装撮合引擎核心逻辑
+ * 买卖两侧的档位结构由 {@link BookSide} 实现决定（TreeMap 或价格阶梯数组）
+ * 挂单不保留订单对象：剩余部分复制到 {@link OrderStore} 的紧凑记录，档位和索引只保存int句柄
+ * 单写者：只能由所属撮合线程访问，例外是发布的行情视图
+ * （{@link #getTopOfBook()}、{@link #getPublishedSnapshot(int)}）可由任意线程无锁读取，
+ * 以及L2增量订阅的登记/注销
+ */
+class OrderBook {
+    // 默认发布的深度档位数
+    static final int DEFAULT_PUBLISHED_DEPTH = 20;
+
+    private final Instrument instrument;
+
+    // 买单：价格(ticks)降序（最高价优先）
+    private final BookSide bids;
+
+    // 卖单：价格(ticks)升序（最低价优先）
+    private final BookSide asks;
+
+    // 挂单记录（含档位队列和参与者链表的句柄链接），撮合/成交路径只按句柄访问
+    private final OrderStore store = new OrderStore();
+
+    // 外部订单ID -> 挂单句柄，只在撤单/查询入口换算一次
+    private final OrderIdIndex orderIds = new OrderIdIndex(store, 1024);
+    // 网关分配的64位订单键 -> 挂单句柄，携带订单键的撤单/改单/查询不哈希订单ID字符串
+    private final OrderKeyIndex orderKeys = new OrderKeyIndex(store, 16);
+
+    // 零分配下单路径复用的对象：订单池、成交缓冲区和享元撮合结果
+    private final OrderPool orderPool = new OrderPool(1 << 16);
+    private final TradeBuffer tradeBuffer = new TradeBuffer(64);
+    private final MatchResult flyweightResult = new MatchResult(null, tradeBuffer);
+    // 上一次零分配调用中仍被享元结果引用的订单，下一次调用时归还
+    private LimitOrder pendingRelease;
+    // 零分配下单路径复用的被触发止损单列表
+    private final List<LimitOrder> triggeredBuffer = new ArrayList<>();
+
+    // 挂起的止损单（按触发价索引）和最新成交价(ticks)，0表示尚无成交
+    private final StopOrderIndex stopOrders = new StopOrderIndex();
+    private long lastTradePrice;
+
+    // 集合竞价模式：收集期内新订单只挂单不撮合，到撮合时点由 uncross 一次性按均衡价成交
+    private boolean auction;
+
+    // 均衡价计算的临时状态（只在撮合线程使用）
+    private long eqVolume;
+    private long eqImbalance;
+    private long eqLow;
+    private long eqHigh;
+    private boolean eqBuySurplus;
+    private boolean eqSellSurplus;
+
+    // 订单薄更新序号：每次改变挂单的操作递增
+    private long sequence;
+
+    // 前N档深度和BBO发布（seqlock），供其他线程无锁读取
+    private final MarketDepthPublisher depthPublisher;
+
+    // L2增量订阅者（写时复制）
+    private static final LevelUpdateRing[] NO_SUBSCRIBERS = new LevelUpdateRing[0];
+    private volatile LevelUpdateRing[] subscribers = NO_SUBSCRIBERS;
+
+    // 本次操作触及的档位，操作结束时按档位最终状态发出增量并同步累计深度索引；
+    // 无订阅者且两侧都不维护深度索引时不记录
+    private long[] touchedPrices = new long[16];
+    private boolean[] touchedBuys = new boolean[16];
+    private int touchedCount;
+    private boolean recording;
+    private final boolean depthIndexed;
+
+    // 打开中的L3游标（只在撮合线程上登记/注销）
+    private final List<L3Cursor> cursors = new ArrayList<>();
+
+    OrderBook(Instrument instrument, BookSide bids, BookSide asks) {
+        this(instrument, bids, asks, DEFAULT_PUBLISHED_DEPTH);
+    }
+
+    OrderBook(Instrument instrument, BookSide bids, BookSide asks, int publishedDepth) {
+        this.instrument = instrument;
+        this.bids = bids;
+        this.asks = asks;
+        this.depthPublisher = new MarketDepthPublisher(instrument, publishedDepth);
+        this.depthIndexed = bids.indexesDepth() || asks.indexesDepth();
+    }
+
+    /**
+     * 添加订单并尝试撮合
+     * 剩余部分挂单时复制到挂单记录，结果中的订单是本订单处理完时的快照，此后的成交不再反映到该对象
+     */
+    public MatchResult addOrder(LimitOrder order) {
+        BookSide side = order.getSide() == OrderSide.BUY ? bids : asks;
+        beginUpdate();
+        // 撮合前校验挂单价格，避免成交后剩余部分无法挂入
+        side.checkPrice(order.getPriceTicks(), order.getQuantityLots());
+
+        TradeBuffer trades = new TradeBuffer(4);
+        List<LimitOrder> triggered = new ArrayList<>(0);
+        match(order, 0L, side, trades);
+        triggerStops(trades, triggered);
+        publishMarketData();
+        return new MatchResult(order, trades, triggered);
+    }
+
+    /**
+     * 批量下单 - 同一订单薄的一组订单依次撮合，整批只发布一次行情（一个更新序号）
+     * 校验失败的订单不进入撮合，以拒绝结果返回，其余订单照常撮合；整批不会中途抛出校验异常
+     */
+    public MatchResult[] addOrders(List<LimitOrder> orders) {
+        MatchResult[] results = new MatchResult[orders.size()];
+        beginUpdate();
+        try {
+            for (int i = 0; i < results.length; i++) {
+                LimitOrder order = orders.get(i);
+                BookSide side = order.getSide() == OrderSide.BUY ? bids : asks;
+                try {
+                    side.checkPrice(order.getPriceTicks(), order.getQuantityLots());
+                } catch (IllegalArgumentException e) {
+                    results[i] = MatchResult.rejected(order, e.getMessage());
+                    continue;
+                }
+                TradeBuffer trades = new TradeBuffer(4);
+                List<LimitOrder> triggered = new ArrayList<>(0);
+                match(order, 0L, side, trades);
+                triggerStops(trades, triggered);
+                results[i] = new MatchResult(order, trades, triggered);
+            }
+        } finally {
+            publishMarketData();
+        }
+        return results;
+    }
+
+    /**
+     * 零分配下单：订单取自对象池，成交写入复用缓冲区，返回享元撮合结果
+     * 结果仅在本订单薄下一次 placeOrder 前有效，需要保留时调用 {@link MatchResult#copy()}
+     */
+    public MatchResult placeOrder(String orderId, String ownerId, OrderSide orderSide,
+                                  long priceTicks, long quantityLots) {
+        return placeOrder(orderId, 0L, ownerId, orderSide, priceTicks, quantityLots);
+    }
+
+    /**
+     * 零分配下单（携带订单键）- 剩余部分挂单时按orderKey登记，之后可按订单键撤单/改单/查询
+     *
+     * @param orderKey 网关分配的64位订单键，0表示未携带
+     */
+    public MatchResult placeOrder(String orderId, long orderKey, String ownerId, OrderSide orderSide,
+                                  long priceTicks, long quantityLots) {
+        if (pendingRelease != null) {
+            orderPool.release(pendingRelease);
+            pendingRelease = null;
+        }
+        BookSide side = orderSide == OrderSide.BUY ? bids : asks;
+        beginUpdate();
+        side.checkPrice(priceTicks, quantityLots);
+
+        LimitOrder order = orderPool.acquire(orderId, ownerId, instrument, orderSide, priceTicks, quantityLots);
+        tradeBuffer.clear();
+        triggeredBuffer.clear();
+        flyweightResult.reuse(order, tradeBuffer, triggeredBuffer);
+        match(order, orderKey, side, tradeBuffer);
+        // 剩余部分已复制到挂单记录，订单对象只被享元结果引用
+        pendingRelease = order;
+        triggerStops(tradeBuffer, triggeredBuffer);
+        publishMarketData();
+        return flyweightResult;
+    }
+
+    /**
+     * 全部成交否则撤销（FOK）- 撮合前先按累计深度判断限价内的对手方挂单是否足够，
+     * 不足时订单直接撤销、订单薄不变（不产生更新序号）；足够时整单成交，不会挂单
+     * 返回享元撮合结果（同 {@link #placeOrder}）
+     */
+    public MatchResult placeFillOrKill(String orderId, String ownerId, OrderSide orderSide,
+                                       long priceTicks, long quantityLots) {
+        if (pendingRelease != null) {
+            orderPool.release(pendingRelease);
+            pendingRelease = null;
+        }
+        boolean buy = orderSide == OrderSide.BUY;
+        LimitOrder order = orderPool.acquire(orderId, ownerId, instrument, orderSide, priceTicks, quantityLots);
+        tradeBuffer.clear();
+        triggeredBuffer.clear();
+        flyweightResult.reuse(order, tradeBuffer, triggeredBuffer);
+        // 集合竞价收集期内不会立即成交，FOK总是撤销
+        if (!auction && side(!buy).lotsWithin(priceTicks, quantityLots) >= quantityLots) {
+            beginUpdate();
+            if (buy) {
+                matchBuyOrder(order, tradeBuffer);
+            } else {
+                matchSellOrder(order, tradeBuffer);
+            }
+            triggerStops(tradeBuffer, triggeredBuffer);
+            publishMarketData();
+        }
+        if (order.isActive()) {
+            order.cancel();
+        }
+        pendingRelease = order;
+        return flyweightResult;
+    }
+
+    /**
+     * 成交预估 - 主动方向在限价内吃掉quantityLots可成交的数量和名义金额，不改变订单薄
+     *
+     * @param limitPriceTicks 限价(ticks)，0表示不限价
+     */
+    public FillEstimate estimateFill(OrderSide orderSide, long quantityLots, long limitPriceTicks) {
+        boolean buy = orderSide == OrderSide.BUY;
+        BookSide contra = side(!buy);
+        long limit = limitPriceTicks > 0 ? limitPriceTicks : (buy ? Long.MAX_VALUE : 0L);
+        long fillable = contra.lotsWithin(limit, quantityLots);
+        return new FillEstimate(instrument, orderSide, quantityLots, fillable, contra.costToFill(fillable));
+    }
+
+    private void match(LimitOrder order, long orderKey, BookSide side, TradeBuffer trades) {
+        // 尝试撮合（集合竞价收集期内只挂单）
+        if (!auction) {
+            if (order.getSide() == OrderSide.BUY) {
+                matchBuyOrder(order, trades);
+            } else {
+                matchSellOrder(order, trades);
+            }
+        }
+
+        // 如果订单未完全成交，剩余部分作为挂单记录加入订单薄
+        if (order.isActive()) {
+            touch(order.getSide() == OrderSide.BUY, order.getPriceTicks());
+            int handle = store.add(order.getOrderId(), orderKey, order.getOwnerId(), order.getQuantityLots(),
+                order.getFilledLots(), order.getCreateTimeNanos(), order.getUpdateTimeNanos());
+            store.addLast(side.getOrCreateLevel(order.getPriceTicks()), handle);
+            orderIds.put(handle);
+            if (orderKey != 0L) {
+                orderKeys.put(handle);
+            }
+        }
+    }
+
+    /**
+     * 撮合买单
+     * 买单价格 >= 卖单价格时成交
+     */
+    private void matchBuyOrder(LimitOrder buyOrder, TradeBuffer trades) {
+        while (buyOrder.isActive() && !asks.isEmpty()) {
+            long askPrice = asks.bestPrice();
+
+            // 价格不匹配，停止撮合
+            if (buyOrder.getPriceTicks() < askPrice) {
+                break;
+            }
+
+            OrderQueue askOrders = asks.bestLevel();
+            int sellOrder = askOrders.peekFirst();
+
+            // 执行成交
+            long tradeQty = Math.min(buyOrder.getRemainingLots(),
+                store.getRemainingLots(sellOrder));
+
+            touch(false, askPrice);
+            buyOrder.fill(tradeQty);
+            long sellRemaining = store.fill(sellOrder, tradeQty);
+            lastTradePrice = askPrice;
+
+            trades.add(
+                buyOrder.getOrderId(),
+                store.getOrderId(sellOrder),
+                instrument,
+                askPrice,
+                tradeQty
+            );
+
+            // 卖单完全成交，移除并释放挂单记录
+            if (sellRemaining == 0L) {
+                unindex(sellOrder);
+                if (askOrders.isEmpty()) {
+                    asks.removeLevel(askPrice);
+                }
+            }
+        }
+    }
+
+    /**
+     * 撮合卖单
+     * 卖单价格 <= 买单价格时成交
+     */
+    private void matchSellOrder(LimitOrder sellOrder, TradeBuffer trades) {
+        while (sellOrder.isActive() && !bids.isEmpty()) {
+            long bidPrice = bids.bestPrice();
+
+            // 价格不匹配，停止撮合
+            if (sellOrder.getPriceTicks() > bidPrice) {
+                break;
+            }
+
+            OrderQueue bidOrders = bids.bestLevel();
+            int buyOrder = bidOrders.peekFirst();
+
+            // 执行成交
+            long tradeQty = Math.min(sellOrder.getRemainingLots(),
+                store.getRemainingLots(buyOrder));
+
+            touch(true, bidPrice);
+            sellOrder.fill(tradeQty);
+            long buyRemaining = store.fill(buyOrder, tradeQty);
+            lastTradePrice = bidPrice;
+
+            trades.add(
+                store.getOrderId(buyOrder),
+                sellOrder.getOrderId(),
+                instrument,
+                bidPrice,
+                tradeQty
+            );
+
+            // 买单完全成交，移除并释放挂单记录
+            if (buyRemaining == 0L) {
+                unindex(buyOrder);
+                if (bidOrders.isEmpty()) {
+                    bids.removeLevel(bidPrice);
+                }
+            }
+        }
+    }
+
+    /**
+     * 挂起止损/止损限价单 - 不进入档位、不改变订单薄，最新成交价达到触发价时转为订单进入撮合
+     * 触发价已被当前最新价满足的止损单会立即触发，直接拒绝
+     *
+     * @param limitPriceTicks 限价(ticks)，0表示止损市价单
+     */
+    public StopOrder placeStopOrder(String orderId, String ownerId, OrderSide orderSide,
+                                    long triggerPriceTicks, long limitPriceTicks, long quantityLots) {
+        StopOrder stop = new StopOrder(orderId, ownerId, instrument, orderSide,
+            triggerPriceTicks, limitPriceTicks, quantityLots);
+        if (lastTradePrice != 0L && stop.isTriggeredBy(lastTradePrice)) {
+            throw new IllegalArgumentException("Stop order would trigger immediately: " + orderId);
+        }
+        if (!stop.isMarket()) {
+            // 挂起时不进入档位，只校验不预留；触发时重新校验并预留
+            side(orderSide == OrderSide.BUY).validatePrice(limitPriceTicks, quantityLots);
+        }
+        stopOrders.add(stop);
+        return stop;
+    }
+
+    /**
+     * 最新成交价变化后逐个弹出被触发的止损单送入撮合（在同一次订单薄更新内）；
+     * 其成交可能继续推动最新价，循环直到没有止损单被触发
+     * 止损市价单只吃对手方挂单，未成交部分撤销；止损限价单按普通限价单撮合，剩余部分挂单
+     * 集合竞价收集期内不触发，恢复连续撮合时按最新价补触发
+     */
+    private void triggerStops(TradeBuffer trades, List<LimitOrder> triggered) {
+        if (auction || lastTradePrice == 0L || stopOrders.isEmpty()) {
+            return;
+        }
+        for (StopOrder stop = stopOrders.pollTriggered(lastTradePrice); stop != null;
+             stop = stopOrders.pollTriggered(lastTradePrice)) {
+            LimitOrder order = stop.toLimitOrder();
+            triggered.add(order);
+            boolean buy = order.getSide() == OrderSide.BUY;
+            if (stop.isMarket()) {
+                if (buy) {
+                    matchBuyOrder(order, trades);
+                } else {
+                    matchSellOrder(order, trades);
+                }
+                if (order.isActive()) {
+                    order.cancel();
+                }
+                continue;
+            }
+            try {
+                // 挂单后档位窗口可能已变化，触发时重新校验限价
+                side(buy).checkPrice(order.getPriceTicks(), order.getQuantityLots());
+            } catch (IllegalArgumentException e) {
+                order.cancel();
+                continue;
+            }
+            match(order, 0L, side(buy), trades);
+        }
+    }
+
+    /**
+     * 取消订单 - 通过索引定位挂单句柄，O(1)从档位队列摘除
+     */
+    public boolean cancelOrder(String orderId) {
+        int order = orderIds.remove(orderId);
+        if (order == OrderStore.NONE) {
+            // 挂起的止损单不在档位中，撤销不改变订单薄
+            return stopOrders.remove(orderId) != null;
+        }
+
+        beginUpdate();
+        removeResting(order);
+        publishMarketData();
+        return true;
+    }
+
+    /**
+     * 按订单键取消订单 - 只查订单键索引，不哈希订单ID；止损单不按订单键登记
+     */
+    public boolean cancelOrder(long orderKey) {
+        int order = orderKeys.get(orderKey);
+        if (order == OrderStore.NONE) {
+            return false;
+        }
+        orderIds.remove(order);
+        beginUpdate();
+        removeResting(order);
+        publishMarketData();
+        return true;
+    }
+
+    /**
+     * 进入集合竞价收集期：此后的新订单只挂单，买卖价可以交叉
+     */
+    public void beginAuction() {
+        auction = true;
+    }
+
+    public boolean isAuction() {
+        return auction;
+    }
+
+    /**
+     * 集合竞价撮合 - 一次遍历交叉区间的累计深度求出均衡价，所有可成交订单按价格-时间优先以均衡价成交
+     * 整个撮合作为一次订单薄更新发布
+     *
+     * @param continueAuction true表示撮合后继续收集（周期性竞价），false表示恢复连续撮合
+     */
+    public AuctionResult uncross(boolean continueAuction) {
+        long price = equilibriumPrice();
+        TradeBuffer trades = new TradeBuffer(16);
+        List<LimitOrder> triggered = new ArrayList<>(0);
+        long volume = 0L;
+        beginUpdate();
+        if (price > 0) {
+            while (!bids.isEmpty() && !asks.isEmpty()
+                && bids.bestPrice() >= price && asks.bestPrice() <= price) {
+                long bidPrice = bids.bestPrice();
+                long askPrice = asks.bestPrice();
+                OrderQueue bidOrders = bids.bestLevel();
+                OrderQueue askOrders = asks.bestLevel();
+                int buyOrder = bidOrders.peekFirst();
+                int sellOrder = askOrders.peekFirst();
+                long tradeQty = Math.min(store.getRemainingLots(buyOrder), store.getRemainingLots(sellOrder));
+
+                touch(true, bidPrice);
+                touch(false, askPrice);
+                long buyRemaining = store.fill(buyOrder, tradeQty);
+                long sellRemaining = store.fill(sellOrder, tradeQty);
+                trades.add(store.getOrderId(buyOrder), store.getOrderId(sellOrder), instrument, price, tradeQty);
+                volume += tradeQty;
+                lastTradePrice = price;
+
+                if (buyRemaining == 0L) {
+                    unindex(buyOrder);
+                    if (bidOrders.isEmpty()) {
+                        bids.removeLevel(bidPrice);
+                    }
+                }
+                if (sellRemaining == 0L) {
+                    unindex(sellOrder);
+                    if (askOrders.isEmpty()) {
+                        asks.removeLevel(askPrice);
+                    }
+                }
+            }
+        }
+        auction = continueAuction;
+        // 恢复连续撮合时触发止损单，其连锁成交追加在竞价成交之后（不计入竞价成交量）
+        triggerStops(trades, triggered);
+        if (price > 0 || !triggered.isEmpty()) {
+            publishMarketData();
+        }
+        return new AuctionResult(instrument.getSymbol(), instrument, price, volume, trades);
+    }
+
+    /**
+     * 均衡价：交叉区间内各档价格中可成交量最大者；成交量相同时取未成交不平衡量最小者，
+     * 仍相同时买方剩余取最高价、卖方剩余取最低价，否则取中间价。订单薄未交叉时返回0
+     */
+    long equilibriumPrice() {
+        if (bids.isEmpty() || asks.isEmpty() || bids.bestPrice() < asks.bestPrice()) {
+            return 0L;
+        }
+        long bestBid = bids.bestPrice();
+        long bestAsk = asks.bestPrice();
+
+        // 收集交叉区间内的档位：买方价格降序，卖方价格升序
+        long[] bidPrices = new long[16];
+        long[] bidLots = new long[16];
+        int bidCount = 0;
+        long totalBuy = 0L;
+        for (OrderQueue level = bids.bestLevel(); level != null && level.getPriceTicks() >= bestAsk;
+             level = bids.nextLevel(level.getPriceTicks())) {
+            if (bidCount == bidPrices.length) {
+                bidPrices = Arrays.copyOf(bidPrices, bidCount * 2);
+                bidLots = Arrays.copyOf(bidLots, bidCount * 2);
+            }
+            bidPrices[bidCount] = level.getPriceTicks();
+            bidLots[bidCount++] = level.getTotalLots();
+            totalBuy += level.getTotalLots();
+        }
+        long[] askPrices = new long[16];
+        long[] askLots = new long[16];
+        int askCount = 0;
+        for (OrderQueue level = asks.bestLevel(); level != null && level.getPriceTicks() <= bestBid;
+             level = asks.nextLevel(level.getPriceTicks())) {
+            if (askCount == askPrices.length) {
+                askPrices = Arrays.copyOf(askPrices, askCount * 2);
+                askLots = Arrays.copyOf(askLots, askCount * 2);
+            }
+            askPrices[askCount] = level.getPriceTicks();
+            askLots[askCount++] = level.getTotalLots();
+        }
+
+        // 按价格升序合并两侧档位价格逐个累计：买量=价格>=p的买单，卖量=价格<=p的卖单；
+        // 相邻两档之间的价格区间累计量相同（买量取上一档、卖量取下一档），作为一个候选区间参与比较
+        eqVolume = -1L;
+        eqImbalance = Long.MAX_VALUE;
+        int bi = bidCount - 1;
+        int ai = 0;
+        long buyBelow = 0L;
+        long sellCum = 0L;
+        while (bi >= 0 || ai < askCount) {
+            long p = bi < 0 ? askPrices[ai]
+                : ai >= askCount ? bidPrices[bi] : Math.min(bidPrices[bi], askPrices[ai]);
+            while (ai < askCount && askPrices[ai] <= p) {
+                sellCum += askLots[ai++];
+            }
+            considerPrice(p, p, totalBuy - buyBelow, sellCum);
+            while (bi >= 0 && bidPrices[bi] <= p) {
+                buyBelow += bidLots[bi--];
+            }
+            long next = bi < 0 ? (ai < askCount ? askPrices[ai] : 0L)
+                : ai >= askCount ? bidPrices[bi] : Math.min(bidPrices[bi], askPrices[ai]);
+            if (next > p + 1) {
+                considerPrice(p + 1, next - 1, totalBuy - buyBelow, sellCum);
+            }
+        }
+        if (eqBuySurplus && !eqSellSurplus) {
+            return eqHigh;
+        }
+        if (eqSellSurplus && !eqBuySurplus) {
+            return eqLow;
+        }
+        return eqLow + (eqHigh - eqLow) / 2;
+    }
+
+    /**
+     * 比较候选价格区间[from, to]（区间内累计买卖量相同），记录最优区间
+     */
+    private void considerPrice(long from, long to, long buyCum, long sellCum) {
+        long volume = Math.min(buyCum, sellCum);
+        long imbalance = Math.abs(buyCum - sellCum);
+        if (volume > eqVolume || (volume == eqVolume && imbalance < eqImbalance)) {
+            eqVolume = volume;
+            eqImbalance = imbalance;
+            eqLow = from;
+            eqHigh = to;
+            eqBuySurplus = buyCum > sellCum;
+            eqSellSurplus = sellCum > buyCum;
+        } else if (volume == eqVolume && imbalance == eqImbalance) {
+            eqHigh = to;
+            eqBuySurplus |= buyCum > sellCum;
+            eqSellSurplus |= sellCum > buyCum;
+        }
+    }
+
+    /**
+     * 按ID批量撤单 - 整批只发布一次行情
+     *
+     * @param results 与cancelIds一一对应，true表示撤单成功
+     */
+    public void cancelOrders(List<String> cancelIds, boolean[] results) {
+        beginUpdate();
+        boolean changed = false;
+        for (int i = 0; i < results.length; i++) {
+            int order = orderIds.remove(cancelIds.get(i));
+            if (order != OrderStore.NONE) {
+                removeResting(order);
+                results[i] = true;
+                changed = true;
+            } else {
+                results[i] = stopOrders.remove(cancelIds.get(i)) != null;
+            }
+        }
+        if (changed) {
+            publishMarketData();
+        }
+    }
+
+    /**
+     * 批量撤单 - 指定参与者时只遍历该参与者的挂单链表，否则逐档清空指定方向（side为null时两侧），
+     * 耗时与撤销的订单数成正比，不扫描整个订单薄；全部撤单作为一次订单薄更新发布
+     *
+     * @param side              买卖方向，null表示两侧
+     * @param ownerId           参与者ID，null表示所有参与者
+     * @param cancelledOrderIds 追加被撤订单的ID
+     */
+    public void massCancel(OrderSide side, String ownerId, List<String> cancelledOrderIds) {
+        int before = cancelledOrderIds.size();
+        beginUpdate();
+        if (ownerId != null) {
+            OwnerOrderList owned = store.getOwnerList(ownerId);
+            int order = owned != null ? owned.peekFirst() : OrderStore.NONE;
+            while (order != OrderStore.NONE) {
+                int next = store.nextOwned(order);
+                if (side == null || store.getSide(order) == side) {
+                    cancelledOrderIds.add(store.getOrderId(order));
+                    orderIds.remove(order);
+                    removeResting(order);
+                }
+                order = next;
+            }
+        } else {
+            if (side != OrderSide.SELL) {
+                clearSide(true, cancelledOrderIds);
+            }
+            if (side != OrderSide.BUY) {
+                clearSide(false, cancelledOrderIds);
+            }
+        }
+        if (cancelledOrderIds.size() != before) {
+            publishMarketData();
+        }
+        // 挂起的止损单一并撤销（不在档位中，不产生行情）
+        if (!stopOrders.isEmpty()) {
+            List<StopOrder> removedStops = new ArrayList<>();
+            stopOrders.removeAll(side, ownerId, removedStops);
+            for (StopOrder stop : removedStops) {
+                cancelledOrderIds.add(stop.getOrderId());
+            }
+        }
+    }
+
+    /**
+     * 从最优档位开始逐档撤销一侧全部挂单
+     */
+    private void clearSide(boolean buy, List<String> cancelledOrderIds) {
+        BookSide side = side(buy);
+        while (!side.isEmpty()) {
+            OrderQueue level = side.bestLevel();
+            long price = level.getPriceTicks();
+            touch(buy, price);
+            for (int order = level.peekFirst(); order != OrderStore.NONE; order = level.peekFirst()) {
+                cancelledOrderIds.add(store.getOrderId(order));
+                unindex(order);
+            }
+            side.removeLevel(price);
+        }
+    }
+
+    /**
+     * 从所在档位摘除已解除索引的挂单并释放挂单记录
+     */
+    private void removeResting(int order) {
+        boolean buy = store.isBuy(order);
+        OrderQueue level = store.getLevel(order);
+        long priceTicks = level.getPriceTicks();
+        touch(buy, priceTicks);
+
+        if (store.getOrderKey(order) != 0L) {
+            orderKeys.remove(order);
+        }
+        store.release(order);
+        if (level.isEmpty()) {
+            side(buy).removeLevel(priceTicks);
+        }
+    }
+
+    /**
+     * 改单 - 只减少数量时原地修改并保持时间优先；改价或增量时订单从原档位摘除，
+     * 按新价格撮合后挂到新档位队尾，整个过程在一次订单薄更新内完成
+     * newPriceTicks/newQuantityLots为0表示不变，数量为订单总量（含已成交）
+     * 返回享元撮合结果（同 {@link #placeOrder}），其中的订单是改单后的快照，订单不存在时返回null
+     */
+    public MatchResult amendOrder(String orderId, long newPriceTicks, long newQuantityLots) {
+        int handle = orderIds.get(orderId);
+        return handle != OrderStore.NONE ? amend(handle, newPriceTicks, newQuantityLots) : null;
+    }
+
+    /**
+     * 按订单键改单 - 同 {@link #amendOrder(String, long, long)}，只查订单键索引
+     */
+    public MatchResult amendOrder(long orderKey, long newPriceTicks, long newQuantityLots) {
+        int handle = orderKeys.get(orderKey);
+        return handle != OrderStore.NONE ? amend(handle, newPriceTicks, newQuantityLots) : null;
+    }
+
+    private MatchResult amend(int handle, long newPriceTicks, long newQuantityLots) {
+        if (pendingRelease != null) {
+            orderPool.release(pendingRelease);
+            pendingRelease = null;
+        }
+        long oldPrice = store.getLevel(handle).getPriceTicks();
+        long oldQuantity = store.getQuantityLots(handle);
+        long priceTicks = newPriceTicks != 0 ? newPriceTicks : oldPrice;
+        long quantityLots = newQuantityLots != 0 ? newQuantityLots : oldQuantity;
+        boolean buy = store.isBuy(handle);
+        tradeBuffer.clear();
+        triggeredBuffer.clear();
+
+        if (priceTicks == oldPrice && quantityLots <= oldQuantity) {
+            if (quantityLots < oldQuantity) {
+                // 原地减量，保持队列位置
+                beginUpdate();
+                touch(buy, priceTicks);
+                store.reduceQuantity(handle, quantityLots);
+                publishMarketData();
+            }
+            pendingRelease = orderPool.acquire(store, handle, instrument, priceTicks);
+            return flyweightResult.reuse(pendingRelease, tradeBuffer, triggeredBuffer);
+        }
+
+        // 摘除前完成全部校验，失败时订单保持原状
+        BookSide side = buy ? bids : asks;
+        if (priceTicks <= 0) {
+            throw new IllegalArgumentException("Price must be positive");
+        }
+        if (quantityLots <= store.getFilledLots(handle)) {
+            throw new IllegalArgumentException("New quantity must exceed filled quantity");
+        }
+        beginUpdate();
+        side.checkPrice(priceTicks, quantityLots);
+
+        // 以订单快照参与撮合，挂单记录摘出档位但保留索引和参与者链表位置
+        LimitOrder order = orderPool.acquire(store, handle, instrument, oldPrice);
+        pendingRelease = order;
+        flyweightResult.reuse(order, tradeBuffer, triggeredBuffer);
+        touch(buy, oldPrice);
+        OrderQueue level = store.remove(handle);
+        if (level.isEmpty()) {
+            side.removeLevel(oldPrice);
+        }
+        order.replace(priceTicks, quantityLots);
+
+        if (!auction) {
+            if (buy) {
+                matchBuyOrder(order, tradeBuffer);
+            } else {
+                matchSellOrder(order, tradeBuffer);
+            }
+        }
+        if (order.isActive()) {
+            // 沿用原挂单记录，索引无需变动
+            store.update(handle, order.getQuantityLots(), order.getFilledLots(), order.getUpdateTimeNanos());
+            touch(buy, priceTicks);
+            store.addLast(side.getOrCreateLevel(priceTicks), handle);
+        } else {
+            unindex(handle);
+        }
+        triggerStops(tradeBuffer, triggeredBuffer);
+        publishMarketData();
+        return flyweightResult;
+    }
+
+    /**
+     * 开始一次更新 - 须在本次更新的 {@link BookSide#checkPrice} 之前调用，清除上一次未发布的更新（如校验失败）遗留的预留
+     */
+    private void beginUpdate() {
+        touchedCount = 0;
+        recording = depthIndexed || subscribers.length != 0;
+        bids.clearReserved();
+        asks.clearReserved();
+    }
+
+    /**
+     * 修改档位前调用：通知L3游标保存原始内容，并为增量行情记录该档位
+     */
+    private void touch(boolean buy, long priceTicks) {
+        if (!cursors.isEmpty()) {
+            OrderQueue level = side(buy).getLevel(priceTicks);
+            for (int i = 0; i < cursors.size(); i++) {
+                cursors.get(i).beforeLevelChange(buy, priceTicks, level);
+            }
+        }
+        if (!recording) {
+            return;
+        }
+        int last = touchedCount - 1;
+        if (last >= 0 && touchedPrices[last] == priceTicks && touchedBuys[last] == buy) {
+            return;
+        }
+        if (touchedCount == touchedPrices.length) {
+            touchedPrices = Arrays.copyOf(touchedPrices, touchedCount * 2);
+            touchedBuys = Arrays.copyOf(touchedBuys, touchedCount * 2);
+        }
+        touchedPrices[touchedCount] = priceTicks;
+        touchedBuys[touchedCount] = buy;
+        touchedCount++;
+    }
+
+    /**
+     * 每次变更后递增更新序号，同步触及档位的累计深度并向订阅者发出增量，再发布前N档和BBO
+     */
+    private void publishMarketData() {
+        publishMarketData(++sequence);
+    }
+
+    private void publishMarketData(long seq) {
+        if (recording) {
+            LevelUpdateRing[] rings = subscribers;
+            for (LevelUpdateRing ring : rings) {
+                ring.begin(touchedCount);
+            }
+            for (int i = 0; i < touchedCount; i++) {
+                boolean buy = touchedBuys[i];
+                BookSide side = buy ? bids : asks;
+                OrderQueue level = side.getLevel(touchedPrices[i]);
+                long lots = level != null ? level.getTotalLots() : 0L;
+                int count = level != null ? level.getOrderCount() : 0;
+                side.syncDepth(touchedPrices[i], lots);
+                for (LevelUpdateRing ring : rings) {
+                    ring.offer(seq, buy, touchedPrices[i], lots, count);
+                }
+            }
+        }
+        // 本次更新校验过的挂单已全部同步（完全成交的主动单和被撤销的止损单不会挂入），两侧预留一并释放
+        bids.clearReserved();
+        asks.clearReserved();
+        depthPublisher.publish(bids, asks, seq);
+    }
+
+    BookSide side(boolean buy) {
+        return buy ? bids : asks;
+    }
+
+    /**
+     * 打开L3游标 - 在撮合线程调用，游标对应当前版本
+     */
+    L3Cursor openCursor() {
+        L3Cursor cursor = new L3Cursor(this, instrument, store, sequence, null);
+        cursors.add(cursor);
+        return cursor;
+    }
+
+    /**
+     * 打开检查点游标 - 在撮合线程调用，同时捕获当前版本的最大挂单句柄、最新成交价、竞价状态和止损单
+     */
+    L3Cursor openCheckpointCursor() {
+        List<StopOrder> stops = new ArrayList<>(stopOrders.size());
+        stopOrders.collect(stops);
+        OrderBookState state = new OrderBookState(instrument.getSymbol(), sequence, store.getMaxHandle(),
+            lastTradePrice, auction, store.size(), stops);
+        L3Cursor cursor = new L3Cursor(this, instrument, store, sequence, state);
+        cursors.add(cursor);
+        return cursor;
+    }
+
+    /**
+     * 从检查点装载 - 条目已按价格优先级和排队顺序排列，逐个追加到档位队尾，不撮合；
+     * 订单索引按检查点的挂单数一次性扩容，同一档位的连续条目直接追加到上一个档位，不再逐单定位档位；
+     * 挂单句柄重新分配，携带订单键的挂单重新登记订单键索引，更新序号、最新成交价、竞价状态和止损单按检查点恢复，
+     * 装载完成后发布一次行情
+     */
+    void load(OrderBookState state, Iterator<OrderBookEntry> orders) {
+        if (store.size() != 0 || !stopOrders.isEmpty()) {
+            throw new IllegalStateException("Order book is not empty: " + instrument.getSymbol());
+        }
+        orderIds.ensureCapacity(state.getOrderCount());
+        boolean keyed = false;
+        beginUpdate();
+        OrderQueue level = null;
+        boolean levelBuy = false;
+        while (orders.hasNext()) {
+            OrderBookEntry entry = orders.next();
+            boolean buy = entry.getSide() == OrderSide.BUY;
+            long priceTicks = entry.getPriceTicks();
+            side(buy).checkPrice(priceTicks, entry.getQuantityLots() - entry.getFilledLots());
+            if (level == null || levelBuy != buy || level.getPriceTicks() != priceTicks) {
+                BookSide side = side(buy);
+                touch(buy, priceTicks);
+                level = side.getOrCreateLevel(priceTicks);
+                levelBuy = buy;
+            }
+            if (entry.getOrderId() == null || entry.getOrderId().isEmpty()) {
+                throw new IllegalArgumentException("OrderId cannot be null or empty");
+            }
+            if (entry.getFilledLots() < 0 || entry.getFilledLots() >= entry.getQuantityLots()) {
+                throw new IllegalArgumentException("Resting order must have remaining quantity: " + entry.getOrderId());
+            }
+            int order = store.add(entry.getOrderId(), entry.getOrderKey(), entry.getOwnerId(), entry.getQuantityLots(),
+                entry.getFilledLots(), entry.getCreateTimeNanos(), entry.getUpdateTimeNanos());
+            store.addLast(level, order);
+            orderIds.put(order);
+            if (entry.getOrderKey() != 0L) {
+                if (!keyed) {
+                    orderKeys.ensureCapacity(state.getOrderCount());
+                    keyed = true;
+                }
+                orderKeys.put(order);
+            }
+        }
+        lastTradePrice = state.getLastTradePriceTicks();
+        auction = state.isAuction();
+        for (StopOrder stop : state.getStopOrders()) {
+            stopOrders.add(stop);
+        }
+        sequence = state.getSequence();
+        publishMarketData(sequence);
+    }
+
+    void closeCursor(L3Cursor cursor) {
+        cursors.remove(cursor);
+    }
+
+    /**
+     * 登记L2增量订阅 - 可由任意线程调用，从下一次订单薄更新开始投递
+     */
+    synchronized LevelUpdateRing subscribe(int capacity) {
+        LevelUpdateRing ring = new LevelUpdateRing(instrument.getSymbol(), this, capacity);
+        LevelUpdateRing[] current = subscribers;
+        LevelUpdateRing[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = ring;
+        subscribers = updated;
+        return ring;
+    }
+
+    synchronized void unsubscribe(LevelUpdateRing ring) {
+        LevelUpdateRing[] current = subscribers;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == ring) {
+                LevelUpdateRing[] updated = new LevelUpdateRing[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                subscribers = updated.length == 0 ? NO_SUBSCRIBERS : updated;
+                return;
+            }
+        }
+    }
+
+    /**
+     * 最优买卖价 - 线程安全，不阻塞撮合线程
+     */
+    public TopOfBook getTopOfBook() {
+        return depthPublisher.readTopOfBook();
+    }
+
+    /**
+     * 已发布的深度快照 - 线程安全，不阻塞撮合线程；depth超过发布深度时返回null
+     */
+    public OrderBookSnapshot getPublishedSnapshot(int depth) {
+        return depth <= depthPublisher.getDepth() ? depthPublisher.readSnapshot(depth) : null;
+    }
+
+    /**
+     * 解除索引并释放挂单记录（同时从档位和参与者链表摘除）
+     */
+    private void unindex(int order) {
+        orderIds.remove(order);
+        if (store.getOrderKey(order) != 0L) {
+            orderKeys.remove(order);
+        }
+        store.release(order);
+    }
+
+    /**
+     * 获取订单薄快照 - 直接读取档位聚合值，深度N的快照为O(N)，只能在撮合线程调用
+     */
+    public OrderBookSnapshot getSnapshot(String symbol, int depth) {
+        List<PriceLevel> bidLevels = new ArrayList<>();
+        List<PriceLevel> askLevels = new ArrayList<>();
+
+        // 收集买单深度
+        bids.forEachLevel(depth, (price, orders) -> bidLevels.add(toPriceLevel(price, orders)));
+
+        // 收集卖单深度
+        asks.forEachLevel(depth, (price, orders) -> askLevels.add(toPriceLevel(price, orders)));
+
+        return new OrderBookSnapshot(symbol, sequence, bidLevels, askLevels);
+    }
+
+    private PriceLevel toPriceLevel(long price, OrderQueue orders) {
+        return new PriceLevel(instrument, price, orders.getTotalLots(), orders.getOrderCount());
+    }
+
+    /**
+     * 检查订单是否存在
+     */
+    public boolean existsOrder(String orderId) {
+        return orderIds.get(orderId) != OrderStore.NONE || stopOrders.contains(orderId);
+    }
+
+    /**
+     * 按订单键检查挂单是否存在
+     */
+    public boolean existsOrder(long orderKey) {
+        return orderKeys.get(orderKey) != OrderStore.NONE;
+    }
+
+    /**
+     * 获取订单数量
+     */
+    public int getOrderCount() {
+        return store.size();
+    }
+
+    /**
+     * ID索引和订单键索引哈希表占用的字节数
+     */
+    long indexBytes() {
+        return orderIds.tableBytes() + orderKeys.tableBytes();
+    }
+}
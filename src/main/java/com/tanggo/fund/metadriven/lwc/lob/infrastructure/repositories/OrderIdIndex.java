@@ -0,0 +1,158 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderStore;
+
+/**
+ * 外部订单ID(String) -> 挂单句柄的开放寻址哈希表（线性探测）
+ * 表中只存int句柄，键（订单ID）从 {@link OrderStore} 的挂单记录读取，不重复保存；
+ * 负载因子0.75：每笔挂单平均约占 4 / 装载率 字节（5.3~10.7字节）
+ * 0（{@link OrderStore#NONE}）作为空槽标记；删除采用后移回填，不留墓碑
+ * 单写者使用，扩容之外的put/remove不分配对象
+ */
+final class OrderIdIndex {
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final OrderStore store;
+    private int[] handles;
+    private int mask;
+    private int shift;
+    private int size;
+    private int resizeThreshold;
+
+    OrderIdIndex(OrderStore store, int expectedSize) {
+        this.store = store;
+        allocate(capacityFor(expectedSize));
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Expected size too large: " + expectedSize);
+        }
+        return capacity;
+    }
+
+    private void allocate(int capacity) {
+        handles = new int[capacity];
+        mask = capacity - 1;
+        shift = Integer.numberOfLeadingZeros(mask);
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private int slot(String key) {
+        // String缓存了hashCode，重复查找同一ID对象不会重新计算；乘以黄金分割常数后取高位，打散相近的ID
+        return (key.hashCode() * 0x9E3779B9) >>> shift;
+    }
+
+    private boolean matches(int handle, String key) {
+        String id = store.getOrderId(handle);
+        return id == key || id.equals(key);
+    }
+
+    /**
+     * @return 挂单句柄，不存在时返回NONE
+     */
+    int get(String key) {
+        for (int i = slot(key); handles[i] != OrderStore.NONE; i = (i + 1) & mask) {
+            if (matches(handles[i], key)) {
+                return handles[i];
+            }
+        }
+        return OrderStore.NONE;
+    }
+
+    /**
+     * 登记挂单，ID已存在时指向新的挂单
+     */
+    void put(int handle) {
+        String key = store.getOrderId(handle);
+        int i = slot(key);
+        for (; handles[i] != OrderStore.NONE; i = (i + 1) & mask) {
+            if (matches(handles[i], key)) {
+                handles[i] = handle;
+                return;
+            }
+        }
+        handles[i] = handle;
+        if (++size > resizeThreshold) {
+            rehash(handles.length << 1);
+        }
+    }
+
+    /**
+     * @return 被删除的挂单句柄，不存在时返回NONE
+     */
+    int remove(String key) {
+        for (int i = slot(key); handles[i] != OrderStore.NONE; i = (i + 1) & mask) {
+            if (matches(handles[i], key)) {
+                int removed = handles[i];
+                delete(i);
+                return removed;
+            }
+        }
+        return OrderStore.NONE;
+    }
+
+    /**
+     * 删除指定挂单的登记；同一ID已指向另一笔挂单时不删除
+     */
+    void remove(int handle) {
+        for (int i = slot(store.getOrderId(handle)); handles[i] != OrderStore.NONE; i = (i + 1) & mask) {
+            if (handles[i] == handle) {
+                delete(i);
+                return;
+            }
+        }
+    }
+
+    private void delete(int hole) {
+        handles[hole] = OrderStore.NONE;
+        size--;
+        // 把同一探测链上后续的记录前移，保持查找链连续
+        for (int i = (hole + 1) & mask; handles[i] != OrderStore.NONE; i = (i + 1) & mask) {
+            int home = slot(store.getOrderId(handles[i]));
+            // home不在(hole, i]区间内时，该记录可以前移到hole
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                handles[hole] = handles[i];
+                handles[i] = OrderStore.NONE;
+                hole = i;
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        int[] old = handles;
+        allocate(capacity);
+        for (int handle : old) {
+            if (handle != OrderStore.NONE) {
+                int i = slot(store.getOrderId(handle));
+                while (handles[i] != OrderStore.NONE) {
+                    i = (i + 1) & mask;
+                }
+                handles[i] = handle;
+            }
+        }
+    }
+
+    /**
+     * 预先扩容到可容纳expectedSize条记录而不再扩容（批量装载前调用）
+     */
+    void ensureCapacity(int expectedSize) {
+        int capacity = capacityFor(expectedSize);
+        if (capacity > handles.length) {
+            rehash(capacity);
+        }
+    }
+
+    /**
+     * 哈希表占用的字节数（不含数组对象头）
+     */
+    long tableBytes() {
+        return (long) handles.length * Integer.BYTES;
+    }
+
+    int size() {
+        return size;
+    }
+}
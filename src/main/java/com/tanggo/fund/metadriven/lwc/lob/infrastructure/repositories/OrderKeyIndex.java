@@ -0,0 +1,150 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderStore;
+
+/**
+ * 网关分配的64位订单键 -> 挂单句柄的开放寻址哈希表（线性探测）
+ * 键和句柄内联在两个原始数组中（每槽12字节），查找只比较long，不读取挂单记录、不哈希字符串；
+ * 负载因子0.75：每笔挂单平均约占 12 / 装载率 字节（16~32字节）
+ * 0作为空槽标记（未携带订单键的挂单不登记）；删除采用后移回填，不留墓碑
+ * 单写者使用，扩容之外的put/remove不分配对象
+ */
+final class OrderKeyIndex {
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final OrderStore store;
+    private long[] keys;
+    private int[] handles;
+    private int mask;
+    private int shift;
+    private int size;
+    private int resizeThreshold;
+
+    OrderKeyIndex(OrderStore store, int expectedSize) {
+        this.store = store;
+        allocate(capacityFor(expectedSize));
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Expected size too large: " + expectedSize);
+        }
+        return capacity;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        handles = new int[capacity];
+        mask = capacity - 1;
+        shift = Integer.numberOfLeadingZeros(mask) + Integer.SIZE;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private int slot(long key) {
+        // 乘以黄金分割常数后取高位，连续分配的订单键均匀分散
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    /**
+     * @return 挂单句柄，不存在时返回NONE
+     */
+    int get(long key) {
+        for (int i = slot(key); keys[i] != 0L; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return handles[i];
+            }
+        }
+        return OrderStore.NONE;
+    }
+
+    /**
+     * 登记挂单（订单键取自挂单记录，不能为0），键已存在时指向新的挂单
+     */
+    void put(int handle) {
+        long key = store.getOrderKey(handle);
+        int i = slot(key);
+        for (; keys[i] != 0L; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                handles[i] = handle;
+                return;
+            }
+        }
+        keys[i] = key;
+        handles[i] = handle;
+        if (++size > resizeThreshold) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    /**
+     * 删除指定挂单的登记；同一订单键已指向另一笔挂单时不删除
+     */
+    void remove(int handle) {
+        long key = store.getOrderKey(handle);
+        for (int i = slot(key); keys[i] != 0L; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                if (handles[i] == handle) {
+                    delete(i);
+                }
+                return;
+            }
+        }
+    }
+
+    private void delete(int hole) {
+        keys[hole] = 0L;
+        handles[hole] = OrderStore.NONE;
+        size--;
+        // 把同一探测链上后续的记录前移，保持查找链连续
+        for (int i = (hole + 1) & mask; keys[i] != 0L; i = (i + 1) & mask) {
+            int home = slot(keys[i]);
+            // home不在(hole, i]区间内时，该记录可以前移到hole
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                handles[hole] = handles[i];
+                keys[i] = 0L;
+                handles[i] = OrderStore.NONE;
+                hole = i;
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldHandles = handles;
+        allocate(capacity);
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != 0L) {
+                int i = slot(oldKeys[j]);
+                while (keys[i] != 0L) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                handles[i] = oldHandles[j];
+            }
+        }
+    }
+
+    /**
+     * 预先扩容到可容纳expectedSize条记录而不再扩容（批量装载前调用）
+     */
+    void ensureCapacity(int expectedSize) {
+        int capacity = capacityFor(expectedSize);
+        if (capacity > keys.length) {
+            rehash(capacity);
+        }
+    }
+
+    /**
+     * 哈希表占用的字节数（不含数组对象头）
+     */
+    long tableBytes() {
+        return (long) keys.length * (Long.BYTES + Integer.BYTES);
+    }
+
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,364 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderQueue;
+
+import java.util.Arrays;
+
+/**
+ * 基于价格阶梯数组的单边档位结构
+ * 档位按 (priceTicks - basePrice) 直接寻址，最优价由游标维护：
+ * - 取最优价、定位档位均为O(1)，档位扫描为连续数组访问（缓存友好）
+ * - 价格超出窗口时重新居中，跨度超过容量一半时扩容
+ * - 清空的档位对象放入备用栈复用，稳态挂单/撤单不分配对象
+ * - 档位上维护按价格优先级排列的累计深度索引（树状数组），限价内累计量和吃单金额查询为O(log n)
+ * 适用于价格在较窄区间内波动的高流动性交易对
+ */
+class PriceLadderBookSide implements BookSide {
+
+    private static final int SPARE_LEVELS = 256;
+
+    private final boolean bid;
+    private final int maxLevels;
+
+    private OrderQueue[] levels;
+    // levels[0] 对应的价格(ticks)
+    private long basePrice;
+    // 非空档位的最低/最高下标，为空时为-1
+    private int lowIndex = -1;
+    private int highIndex = -1;
+    private int levelCount;
+
+    // 累计深度索引及其中记录的各档位挂单量（按档位下标），由订单薄在操作结束时同步
+    private DepthIndex depth;
+    private long[] depthLots;
+    // depthLots中非0的档位数
+    private int depthLevels;
+    // 本次更新中已通过校验、尚未同步到深度索引的名义金额（批量下单整批结束才同步），保证同步时合计不溢出；
+    // 订单薄在每次更新开始和结束时清零，不会跨更新累积
+    private long pendingNotional;
+
+    // 空档位备用栈
+    private final OrderQueue[] spareLevels = new OrderQueue[SPARE_LEVELS];
+    private int spareCount;
+
+    /**
+     * @param bid           true为买方（价格降序），false为卖方（价格升序）
+     * @param initialLevels 初始窗口档位数
+     * @param maxLevels     窗口允许的最大档位数（最高价与最低价的跨度上限）
+     */
+    PriceLadderBookSide(boolean bid, int initialLevels, int maxLevels) {
+        if (initialLevels <= 0 || maxLevels < initialLevels) {
+            throw new IllegalArgumentException("Invalid ladder size: initial=" + initialLevels + ", max=" + maxLevels);
+        }
+        this.bid = bid;
+        this.maxLevels = maxLevels;
+        this.levels = newLevels(initialLevels);
+        this.depth = new DepthIndex(initialLevels);
+        this.depthLots = new long[initialLevels];
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return levelCount == 0;
+    }
+
+    @Override
+    public long bestPrice() {
+        return basePrice + bestIndex();
+    }
+
+    @Override
+    public OrderQueue bestLevel() {
+        return levelCount == 0 ? null : levels[bestIndex()];
+    }
+
+    @Override
+    public OrderQueue nextLevel(long priceTicks) {
+        if (levelCount == 0) {
+            return null;
+        }
+        long offset = priceTicks - basePrice;
+        if (bid) {
+            for (long i = Math.min(offset - 1, highIndex); i >= lowIndex; i--) {
+                if (levels[(int) i] != null) {
+                    return levels[(int) i];
+                }
+            }
+        } else {
+            for (long i = Math.max(offset + 1, lowIndex); i <= highIndex; i++) {
+                if (levels[(int) i] != null) {
+                    return levels[(int) i];
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public OrderQueue getLevel(long priceTicks) {
+        long index = priceTicks - basePrice;
+        if (index < 0 || index >= levels.length) {
+            return null;
+        }
+        return levels[(int) index];
+    }
+
+    @Override
+    public OrderQueue getOrCreateLevel(long priceTicks) {
+        if (levelCount == 0) {
+            // 空侧直接以新价格为中心；索引中尚未同步的已移除档位此时实际都为0，直接清空
+            basePrice = priceTicks - levels.length / 2;
+            if (depthLevels != 0) {
+                depth.clear();
+                Arrays.fill(depthLots, 0L);
+                depthLevels = 0;
+            }
+        } else if (priceTicks - basePrice < 0 || priceTicks - basePrice >= levels.length) {
+            recentre(priceTicks);
+        }
+
+        int index = (int) (priceTicks - basePrice);
+        OrderQueue level = levels[index];
+        if (level == null) {
+            level = newLevel(priceTicks);
+            levels[index] = level;
+            if (levelCount == 0) {
+                lowIndex = index;
+                highIndex = index;
+            } else if (index < lowIndex) {
+                lowIndex = index;
+            } else if (index > highIndex) {
+                highIndex = index;
+            }
+            levelCount++;
+        }
+        return level;
+    }
+
+    @Override
+    public void removeLevel(long priceTicks) {
+        long offset = priceTicks - basePrice;
+        if (offset < 0 || offset >= levels.length || levels[(int) offset] == null) {
+            return;
+        }
+        int index = (int) offset;
+        OrderQueue removed = levels[index];
+        levels[index] = null;
+        if (removed.isEmpty() && spareCount < SPARE_LEVELS) {
+            spareLevels[spareCount++] = removed;
+        }
+        levelCount--;
+
+        if (levelCount == 0) {
+            lowIndex = -1;
+            highIndex = -1;
+            return;
+        }
+        // 移除的是边界档位时，向内扫描下一个非空档位
+        if (index == lowIndex) {
+            do {
+                lowIndex++;
+            } while (levels[lowIndex] == null);
+        } else if (index == highIndex) {
+            do {
+                highIndex--;
+            } while (levels[highIndex] == null);
+        }
+    }
+
+    @Override
+    public void checkPrice(long priceTicks, long quantityLots) {
+        pendingNotional = checkedPending(priceTicks, quantityLots);
+    }
+
+    @Override
+    public void validatePrice(long priceTicks, long quantityLots) {
+        checkedPending(priceTicks, quantityLots);
+    }
+
+    @Override
+    public void clearReserved() {
+        pendingNotional = 0L;
+    }
+
+    /**
+     * @return 计入该订单后的预留金额
+     */
+    private long checkedPending(long priceTicks, long quantityLots) {
+        if (levelCount != 0) {
+            long low = Math.min(basePrice + lowIndex, priceTicks);
+            long high = Math.max(basePrice + highIndex, priceTicks);
+            if (high - low + 1 > maxLevels) {
+                throw new IllegalArgumentException("Price " + priceTicks
+                        + " ticks is outside the ladder window of " + maxLevels + " levels");
+            }
+        }
+        // 挂入后全侧累计名义金额（含已校验未同步的部分）不得溢出，否则同步深度索引时才发现已无法回退
+        long pending = BookSide.addNotional(pendingNotional, BookSide.notional(priceTicks, quantityLots));
+        BookSide.addNotional(depth.totalNotional(), pending);
+        return pending;
+    }
+
+    @Override
+    public void forEachLevel(int maxLevels, LevelVisitor visitor) {
+        if (levelCount == 0) {
+            return;
+        }
+        int count = 0;
+        if (bid) {
+            for (int i = highIndex; i >= lowIndex && count < maxLevels; i--) {
+                if (levels[i] != null) {
+                    visitor.visit(basePrice + i, levels[i]);
+                    count++;
+                }
+            }
+        } else {
+            for (int i = lowIndex; i <= highIndex && count < maxLevels; i++) {
+                if (levels[i] != null) {
+                    visitor.visit(basePrice + i, levels[i]);
+                    count++;
+                }
+            }
+        }
+    }
+
+    @Override
+    public long lotsWithin(long limitPriceTicks, long maxLots) {
+        int size = levels.length;
+        long lots;
+        if (bid) {
+            if (limitPriceTicks >= basePrice + size) {
+                return 0L;
+            }
+            lots = depth.lotsTo(limitPriceTicks < basePrice ? size : depthPosition((int) (limitPriceTicks - basePrice)));
+        } else {
+            if (limitPriceTicks < basePrice) {
+                return 0L;
+            }
+            lots = depth.lotsTo(limitPriceTicks >= basePrice + size ? size : depthPosition((int) (limitPriceTicks - basePrice)));
+        }
+        return Math.min(lots, maxLots);
+    }
+
+    @Override
+    public long costToFill(long quantityLots) {
+        if (quantityLots <= 0) {
+            return 0L;
+        }
+        int pos = depth.lastPositionBelow(quantityLots);
+        if (pos >= depth.size()) {
+            return depth.notionalTo(pos);
+        }
+        // 前pos个位置全部吃掉，剩余部分落在第pos+1个位置
+        long rest = quantityLots - depth.lotsTo(pos);
+        return BookSide.addNotional(depth.notionalTo(pos), BookSide.notional(basePrice + depthIndexOf(pos + 1), rest));
+    }
+
+    @Override
+    public boolean indexesDepth() {
+        return true;
+    }
+
+    @Override
+    public void syncDepth(long priceTicks, long totalLots) {
+        long offset = priceTicks - basePrice;
+        if (offset < 0 || offset >= depthLots.length) {
+            // 窗口外只可能是已移除的档位，重新居中时已丢弃
+            return;
+        }
+        int index = (int) offset;
+        long delta = totalLots - depthLots[index];
+        if (delta == 0) {
+            return;
+        }
+        if (depthLots[index] == 0) {
+            depthLevels++;
+        } else if (totalLots == 0) {
+            depthLevels--;
+        }
+        depthLots[index] = totalLots;
+        depth.add(depthPosition(index), priceTicks, delta);
+    }
+
+    /**
+     * 档位下标 -> 深度索引位置（1为最优价）
+     */
+    private int depthPosition(int index) {
+        return bid ? levels.length - index : index + 1;
+    }
+
+    private int depthIndexOf(int position) {
+        return bid ? levels.length - position : position - 1;
+    }
+
+    private OrderQueue newLevel(long priceTicks) {
+        if (spareCount == 0) {
+            return new OrderQueue(bid, priceTicks);
+        }
+        OrderQueue level = spareLevels[--spareCount];
+        spareLevels[spareCount] = null;
+        level.reset(priceTicks);
+        return level;
+    }
+
+    private int bestIndex() {
+        return bid ? highIndex : lowIndex;
+    }
+
+    /**
+     * 价格超出窗口：以新的价格区间为中心重建窗口，必要时扩容
+     */
+    private void recentre(long priceTicks) {
+        long low = Math.min(basePrice + lowIndex, priceTicks);
+        long high = Math.max(basePrice + highIndex, priceTicks);
+        long span = high - low + 1;
+        if (span > maxLevels) {
+            throw new IllegalArgumentException("Price " + priceTicks
+                    + " ticks is outside the ladder window of " + maxLevels + " levels");
+        }
+
+        // 跨度超过容量一半时按2倍扩容，保证重新居中后两侧都留有余量
+        int capacity = levels.length;
+        while (span > capacity / 2 && capacity < maxLevels) {
+            capacity = (int) Math.min((long) capacity * 2, maxLevels);
+        }
+
+        long newBase = low - (capacity - span) / 2;
+        OrderQueue[] newLevels = newLevels(capacity);
+        for (int i = lowIndex; i <= highIndex; i++) {
+            if (levels[i] != null) {
+                newLevels[(int) (basePrice + i - newBase)] = levels[i];
+            }
+        }
+        lowIndex = (int) (basePrice + lowIndex - newBase);
+        highIndex = (int) (basePrice + highIndex - newBase);
+
+        // 深度索引的位置随窗口变化，按已记录的档位量重建；落到新窗口外的只可能是已移除的档位
+        long[] newDepthLots = new long[capacity];
+        DepthIndex newDepth = new DepthIndex(capacity);
+        int newDepthLevels = 0;
+        for (int i = 0; i < depthLots.length; i++) {
+            if (depthLots[i] != 0) {
+                long offset = basePrice + i - newBase;
+                if (offset >= 0 && offset < capacity) {
+                    newDepthLots[(int) offset] = depthLots[i];
+                    newDepthLevels++;
+                }
+            }
+        }
+        basePrice = newBase;
+        levels = newLevels;
+        depthLots = newDepthLots;
+        depth = newDepth;
+        depthLevels = newDepthLevels;
+        for (int i = 0; i < capacity; i++) {
+            if (newDepthLots[i] != 0) {
+                newDepth.add(depthPosition(i), basePrice + i, newDepthLots[i]);
+            }
+        }
+    }
+
+    private static OrderQueue[] newLevels(int size) {
+        return new OrderQueue[size];
+    }
+}
@@ -0,0 +1,33 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+
+/**
+ * 基于价格阶梯数组的订单薄仓储实现
+ * 每侧档位保存在以 (price - basePrice) / tickSize 为下标的数组中，并维护最优买/卖价游标：
+ * - 取最优价O(1)，替代TreeMap的红黑树遍历
+ * - 价格超出窗口时自动重新居中或扩容
+ * 适用于价格在较窄区间内波动的高流动性交易对，挂单价格跨度不得超过maxLevels
+ */
+public class PriceLadderOrderBookRepository extends InMemoryOrderBookRepository {
+
+    private int initialLevels = 4096;
+    private int maxLevels = 1 << 20;
+
+    @Override
+    OrderBook newOrderBook(Instrument instrument) {
+        return new OrderBook(instrument,
+            new PriceLadderBookSide(true, initialLevels, maxLevels),
+            new PriceLadderBookSide(false, initialLevels, maxLevels),
+            getPublishedDepth());
+    }
+
+    // Setters for Spring XML injection
+    public void setInitialLevels(int initialLevels) {
+        this.initialLevels = initialLevels;
+    }
+
+    public void setMaxLevels(int maxLevels) {
+        this.maxLevels = maxLevels;
+    }
+}
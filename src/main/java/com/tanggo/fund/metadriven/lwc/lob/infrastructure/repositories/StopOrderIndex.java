@@ -0,0 +1,155 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import com.tanggo.fund.metadriven.lwc.lob.domain.StopOrder;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 单个交易对挂起的止损单 - 按触发价排序的触发价索引（单写者，只在撮合线程访问）
+ * 买入止损按触发价升序、卖出止损按触发价降序，同一触发价内按提交顺序；
+ * 最新价变化时只弹出已触发的k个订单，O(k log n)，不扫描全部止损单
+ */
+class StopOrderIndex {
+
+    // 买入止损：最新价 >= 触发价时触发，触发价最低者最先触发
+    private final TreeMap<Long, LinkedHashMap<String, StopOrder>> buyStops = new TreeMap<>();
+
+    // 卖出止损：最新价 <= 触发价时触发，触发价最高者最先触发
+    private final TreeMap<Long, LinkedHashMap<String, StopOrder>> sellStops = new TreeMap<>(Comparator.reverseOrder());
+
+    // 订单ID -> 止损单，撤单时定位所在触发价
+    private final Map<String, StopOrder> byId = new HashMap<>();
+
+    boolean isEmpty() {
+        return byId.isEmpty();
+    }
+
+    int size() {
+        return byId.size();
+    }
+
+    boolean contains(String orderId) {
+        return byId.containsKey(orderId);
+    }
+
+    void add(StopOrder stop) {
+        if (byId.putIfAbsent(stop.getOrderId(), stop) != null) {
+            throw new IllegalArgumentException("Duplicate stop order: " + stop.getOrderId());
+        }
+        stops(stop.getSide()).computeIfAbsent(stop.getTriggerPriceTicks(), k -> new LinkedHashMap<>())
+            .put(stop.getOrderId(), stop);
+    }
+
+    /**
+     * 撤销挂起的止损单，不存在时返回null
+     */
+    StopOrder remove(String orderId) {
+        StopOrder stop = byId.remove(orderId);
+        if (stop != null) {
+            unlink(stop);
+        }
+        return stop;
+    }
+
+    /**
+     * 弹出一个被最新价触发的止损单（买方优先），没有时返回null
+     */
+    StopOrder pollTriggered(long lastPriceTicks) {
+        StopOrder stop = pollFirst(buyStops, lastPriceTicks);
+        if (stop == null) {
+            stop = pollFirst(sellStops, lastPriceTicks);
+        }
+        if (stop != null) {
+            byId.remove(stop.getOrderId());
+        }
+        return stop;
+    }
+
+    private static StopOrder pollFirst(TreeMap<Long, LinkedHashMap<String, StopOrder>> stops, long lastPriceTicks) {
+        Map.Entry<Long, LinkedHashMap<String, StopOrder>> first = stops.firstEntry();
+        if (first == null) {
+            return null;
+        }
+        Iterator<StopOrder> level = first.getValue().values().iterator();
+        StopOrder stop = level.next();
+        if (!stop.isTriggeredBy(lastPriceTicks)) {
+            return null;
+        }
+        level.remove();
+        if (first.getValue().isEmpty()) {
+            stops.remove(first.getKey());
+        }
+        return stop;
+    }
+
+    /**
+     * 按触发优先级（先买方后卖方）追加全部止损单，按同样顺序重新加入可恢复同一触发价内的提交顺序
+     */
+    void collect(List<StopOrder> stops) {
+        for (LinkedHashMap<String, StopOrder> level : buyStops.values()) {
+            stops.addAll(level.values());
+        }
+        for (LinkedHashMap<String, StopOrder> level : sellStops.values()) {
+            stops.addAll(level.values());
+        }
+    }
+
+    /**
+     * 撤销指定方向和/或参与者的全部止损单，追加到removed
+     *
+     * @param side    买卖方向，null表示两侧
+     * @param ownerId 参与者ID，null表示所有参与者
+     */
+    void removeAll(OrderSide side, String ownerId, List<StopOrder> removed) {
+        if (ownerId == null) {
+            if (side != OrderSide.SELL) {
+                drain(buyStops, removed);
+            }
+            if (side != OrderSide.BUY) {
+                drain(sellStops, removed);
+            }
+            return;
+        }
+        Iterator<StopOrder> it = byId.values().iterator();
+        while (it.hasNext()) {
+            StopOrder stop = it.next();
+            if (ownerId.equals(stop.getOwnerId()) && (side == null || stop.getSide() == side)) {
+                it.remove();
+                unlink(stop);
+                removed.add(stop);
+            }
+        }
+    }
+
+    private void drain(TreeMap<Long, LinkedHashMap<String, StopOrder>> stops, List<StopOrder> removed) {
+        for (LinkedHashMap<String, StopOrder> level : stops.values()) {
+            for (StopOrder stop : level.values()) {
+                byId.remove(stop.getOrderId());
+                removed.add(stop);
+            }
+        }
+        stops.clear();
+    }
+
+    private void unlink(StopOrder stop) {
+        TreeMap<Long, LinkedHashMap<String, StopOrder>> stops = stops(stop.getSide());
+        LinkedHashMap<String, StopOrder> level = stops.get(stop.getTriggerPriceTicks());
+        if (level != null) {
+            level.remove(stop.getOrderId());
+            if (level.isEmpty()) {
+                stops.remove(stop.getTriggerPriceTicks());
+            }
+        }
+    }
+
+    private TreeMap<Long, LinkedHashMap<String, StopOrder>> stops(OrderSide side) {
+        return side == OrderSide.BUY ? buyStops : sellStops;
+    }
+}
@@ -0,0 +1,286 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.LimitOrder;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import com.tanggo.fund.metadriven.lwc.lob.domain.StopOrder;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.AuctionResult;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.FillEstimate;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.IOrderBookRepository;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.LevelUpdateSubscription;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.MatchResult;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookCursor;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookEntry;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookSnapshot;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookState;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.TopOfBook;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Objects;
+
+/**
+ * 按交易对路由的订单薄仓储
+ * 允许在 lob-context.xml 中为每个交易对选择订单薄实现（如高流动性品种使用价格阶梯数组），
+ * 未配置的交易对使用默认实现
+ * 已注册品种的路由结果按symbolId缓存在数组中
+ */
+public class SymbolRoutingOrderBookRepository implements IOrderBookRepository {
+
+    private final IOrderBookRepository defaultRepository;
+    private final Map<String, IOrderBookRepository> routes = new HashMap<>();
+
+    // symbolId -> 路由结果缓存（写时复制）
+    private volatile IOrderBookRepository[] routesById = new IOrderBookRepository[64];
+
+    public SymbolRoutingOrderBookRepository(IOrderBookRepository defaultRepository) {
+        this.defaultRepository = Objects.requireNonNull(defaultRepository, "defaultRepository不能为null");
+    }
+
+    // Setter for Spring XML injection
+    public synchronized void setRoutes(Map<String, IOrderBookRepository> routes) {
+        this.routes.putAll(routes);
+        this.routesById = new IOrderBookRepository[routesById.length];
+    }
+
+    private IOrderBookRepository route(String symbol) {
+        return routes.getOrDefault(symbol, defaultRepository);
+    }
+
+    private IOrderBookRepository route(Instrument instrument) {
+        int symbolId = instrument.getSymbolId();
+        IOrderBookRepository[] cached = routesById;
+        if (symbolId >= 0 && symbolId < cached.length && cached[symbolId] != null) {
+            return cached[symbolId];
+        }
+        return cacheRoute(instrument);
+    }
+
+    private synchronized IOrderBookRepository cacheRoute(Instrument instrument) {
+        IOrderBookRepository repository = route(instrument.getSymbol());
+        int symbolId = instrument.getSymbolId();
+        if (symbolId != Instrument.UNASSIGNED_ID) {
+            IOrderBookRepository[] cached = routesById;
+            cached = Arrays.copyOf(cached, Math.max(cached.length, Integer.highestOneBit(symbolId) << 1));
+            cached[symbolId] = repository;
+            routesById = cached;
+        }
+        return repository;
+    }
+
+    @Override
+    public MatchResult addOrder(LimitOrder order) {
+        return route(order.getInstrument()).addOrder(order);
+    }
+
+    /**
+     * 按目标实现分组后整组转发，结果按原顺序合并
+     */
+    @Override
+    public MatchResult[] addOrders(List<LimitOrder> orders) {
+        Map<IOrderBookRepository, List<Integer>> groups = new IdentityHashMap<>();
+        for (int i = 0; i < orders.size(); i++) {
+            groups.computeIfAbsent(route(orders.get(i).getInstrument()), k -> new ArrayList<>()).add(i);
+        }
+        if (groups.size() == 1) {
+            return groups.keySet().iterator().next().addOrders(orders);
+        }
+        MatchResult[] results = new MatchResult[orders.size()];
+        for (Map.Entry<IOrderBookRepository, List<Integer>> entry : groups.entrySet()) {
+            List<Integer> indexes = entry.getValue();
+            List<LimitOrder> group = new ArrayList<>(indexes.size());
+            for (int index : indexes) {
+                group.add(orders.get(index));
+            }
+            MatchResult[] groupResults = entry.getKey().addOrders(group);
+            for (int j = 0; j < groupResults.length; j++) {
+                results[indexes.get(j)] = groupResults[j];
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public MatchResult placeOrder(String orderId, String ownerId, Instrument instrument, OrderSide side,
+                                  long priceTicks, long quantityLots) {
+        return route(instrument).placeOrder(orderId, ownerId, instrument, side, priceTicks, quantityLots);
+    }
+
+    @Override
+    public MatchResult placeOrder(String orderId, long orderKey, String ownerId, Instrument instrument,
+                                  OrderSide side, long priceTicks, long quantityLots) {
+        return route(instrument).placeOrder(orderId, orderKey, ownerId, instrument, side, priceTicks, quantityLots);
+    }
+
+    @Override
+    public MatchResult placeFillOrKill(String orderId, String ownerId, Instrument instrument, OrderSide side,
+                                       long priceTicks, long quantityLots) {
+        return route(instrument).placeFillOrKill(orderId, ownerId, instrument, side, priceTicks, quantityLots);
+    }
+
+    @Override
+    public StopOrder placeStopOrder(String orderId, String ownerId, Instrument instrument, OrderSide side,
+                                    long triggerPriceTicks, long limitPriceTicks, long quantityLots) {
+        return route(instrument).placeStopOrder(orderId, ownerId, instrument, side,
+            triggerPriceTicks, limitPriceTicks, quantityLots);
+    }
+
+    @Override
+    public FillEstimate estimateFill(Instrument instrument, OrderSide side, long quantityLots, long limitPriceTicks) {
+        return route(instrument).estimateFill(instrument, side, quantityLots, limitPriceTicks);
+    }
+
+    @Override
+    public boolean cancelOrder(String symbol, String orderId) {
+        return route(symbol).cancelOrder(symbol, orderId);
+    }
+
+    @Override
+    public boolean cancelOrder(Instrument instrument, String orderId) {
+        return route(instrument).cancelOrder(instrument, orderId);
+    }
+
+    @Override
+    public boolean cancelOrder(Instrument instrument, long orderKey) {
+        return route(instrument).cancelOrder(instrument, orderKey);
+    }
+
+    @Override
+    public boolean[] cancelOrders(String symbol, List<String> orderIds) {
+        return route(symbol).cancelOrders(symbol, orderIds);
+    }
+
+    @Override
+    public boolean[] cancelOrders(Instrument instrument, List<String> orderIds) {
+        return route(instrument).cancelOrders(instrument, orderIds);
+    }
+
+    @Override
+    public MatchResult amendOrder(Instrument instrument, String orderId, long newPriceTicks, long newQuantityLots) {
+        return route(instrument).amendOrder(instrument, orderId, newPriceTicks, newQuantityLots);
+    }
+
+    @Override
+    public MatchResult amendOrder(Instrument instrument, long orderKey, long newPriceTicks, long newQuantityLots) {
+        return route(instrument).amendOrder(instrument, orderKey, newPriceTicks, newQuantityLots);
+    }
+
+    @Override
+    public List<String> massCancel(String symbol, OrderSide side, String ownerId) {
+        return route(symbol).massCancel(symbol, side, ownerId);
+    }
+
+    @Override
+    public List<String> massCancel(Instrument instrument, OrderSide side, String ownerId) {
+        return route(instrument).massCancel(instrument, side, ownerId);
+    }
+
+    @Override
+    public void beginAuction(Instrument instrument) {
+        route(instrument).beginAuction(instrument);
+    }
+
+    @Override
+    public AuctionResult uncrossAuction(String symbol, boolean continueAuction) {
+        return route(symbol).uncrossAuction(symbol, continueAuction);
+    }
+
+    @Override
+    public AuctionResult uncrossAuction(Instrument instrument, boolean continueAuction) {
+        return route(instrument).uncrossAuction(instrument, continueAuction);
+    }
+
+    /**
+     * 各实现中已有订单薄的交易对的并集
+     */
+    @Override
+    public Set<String> getSymbols() {
+        Set<String> symbols = new HashSet<>(defaultRepository.getSymbols());
+        for (IOrderBookRepository repository : routes.values()) {
+            symbols.addAll(repository.getSymbols());
+        }
+        return symbols;
+    }
+
+    @Override
+    public OrderBookSnapshot getSnapshot(String symbol, int depth) {
+        return route(symbol).getSnapshot(symbol, depth);
+    }
+
+    @Override
+    public OrderBookSnapshot getSnapshot(Instrument instrument, int depth) {
+        return route(instrument).getSnapshot(instrument, depth);
+    }
+
+    @Override
+    public OrderBookSnapshot getPublishedSnapshot(String symbol, int depth) {
+        return route(symbol).getPublishedSnapshot(symbol, depth);
+    }
+
+    @Override
+    public OrderBookSnapshot getPublishedSnapshot(Instrument instrument, int depth) {
+        return route(instrument).getPublishedSnapshot(instrument, depth);
+    }
+
+    @Override
+    public TopOfBook getTopOfBook(String symbol) {
+        return route(symbol).getTopOfBook(symbol);
+    }
+
+    @Override
+    public TopOfBook getTopOfBook(Instrument instrument) {
+        return route(instrument).getTopOfBook(instrument);
+    }
+
+    @Override
+    public LevelUpdateSubscription subscribeLevelUpdates(Instrument instrument, int capacity) {
+        return route(instrument).subscribeLevelUpdates(instrument, capacity);
+    }
+
+    @Override
+    public OrderBookCursor openOrderCursor(String symbol) {
+        return route(symbol).openOrderCursor(symbol);
+    }
+
+    @Override
+    public OrderBookCursor openCheckpointCursor(String symbol) {
+        return route(symbol).openCheckpointCursor(symbol);
+    }
+
+    @Override
+    public void loadOrderBook(Instrument instrument, OrderBookState state, Iterator<OrderBookEntry> orders) {
+        route(instrument).loadOrderBook(instrument, state, orders);
+    }
+
+    @Override
+    public boolean existsOrder(String symbol, String orderId) {
+        return route(symbol).existsOrder(symbol, orderId);
+    }
+
+    @Override
+    public boolean existsOrder(Instrument instrument, String orderId) {
+        return route(instrument).existsOrder(instrument, orderId);
+    }
+
+    @Override
+    public boolean existsOrder(Instrument instrument, long orderKey) {
+        return route(instrument).existsOrder(instrument, orderKey);
+    }
+
+    @Override
+    public int getOrderCount(String symbol) {
+        return route(symbol).getOrderCount(symbol);
+    }
+
+    @Override
+    public int getOrderCount(Instrument instrument) {
+        return route(instrument).getOrderCount(instrument);
+    }
+}
@@ -0,0 +1,103 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderQueue;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 基于TreeMap(红黑树)的单边档位结构 - O(log n)插入/删除
+ * 适用于价格分布不确定、跨度较大的交易对；档位稀疏，不维护累计深度索引：
+ * 限价内累计量和吃单金额按优先级遍历档位，凑够所需数量即停止，代价与同等数量实际撮合经过的档位数相同；
+ * 需要对深档位做大量预估的交易对应使用 {@link PriceLadderBookSide}
+ */
+class TreeBookSide implements BookSide {
+
+    private final boolean bid;
+    private final TreeMap<Long, OrderQueue> levels;
+
+    /**
+     * @param bid true为买方（价格降序），false为卖方（价格升序）
+     */
+    TreeBookSide(boolean bid) {
+        this.bid = bid;
+        this.levels = bid ? new TreeMap<>(Comparator.reverseOrder()) : new TreeMap<>();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return levels.isEmpty();
+    }
+
+    @Override
+    public long bestPrice() {
+        return levels.firstKey();
+    }
+
+    @Override
+    public OrderQueue bestLevel() {
+        Map.Entry<Long, OrderQueue> best = levels.firstEntry();
+        return best != null ? best.getValue() : null;
+    }
+
+    @Override
+    public OrderQueue nextLevel(long priceTicks) {
+        // 比较器已按优先级排序，higherEntry即优先级更低的下一个档位
+        Map.Entry<Long, OrderQueue> next = levels.higherEntry(priceTicks);
+        return next != null ? next.getValue() : null;
+    }
+
+    @Override
+    public OrderQueue getLevel(long priceTicks) {
+        return levels.get(priceTicks);
+    }
+
+    @Override
+    public OrderQueue getOrCreateLevel(long priceTicks) {
+        return levels.computeIfAbsent(priceTicks, k -> new OrderQueue(bid, k));
+    }
+
+    @Override
+    public void removeLevel(long priceTicks) {
+        levels.remove(priceTicks);
+    }
+
+    /**
+     * 比较器已按优先级排序，headMap即不差于限价的档位；按优先级遍历，凑够maxLots即停止
+     */
+    @Override
+    public long lotsWithin(long limitPriceTicks, long maxLots) {
+        long total = 0L;
+        for (OrderQueue level : levels.headMap(limitPriceTicks, true).values()) {
+            if (total >= maxLots) {
+                return maxLots;
+            }
+            total += Math.min(level.getTotalLots(), maxLots - total);
+        }
+        return total;
+    }
+
+    @Override
+    public long costToFill(long quantityLots) {
+        long remaining = quantityLots;
+        long notional = 0L;
+        for (Map.Entry<Long, OrderQueue> entry : levels.entrySet()) {
+            if (remaining <= 0) break;
+            long lots = Math.min(remaining, entry.getValue().getTotalLots());
+            notional = BookSide.addNotional(notional, BookSide.notional(entry.getKey(), lots));
+            remaining -= lots;
+        }
+        return notional;
+    }
+
+    @Override
+    public void forEachLevel(int maxLevels, LevelVisitor visitor) {
+        int count = 0;
+        for (Map.Entry<Long, OrderQueue> entry : levels.entrySet()) {
+            if (count >= maxLevels) break;
+            visitor.visit(entry.getKey(), entry.getValue());
+            count++;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.tanggo.fund.metadriven.lwc.lob.replay;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import com.tanggo.fund.metadriven.lwc.lob.infrastructure.journal.JournalRecord;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * CSV命令流，每行一条命令（无引号转义，字段中不能含逗号）：
+ * <pre>
+ * timestampNanos,type,symbol,orderId,ownerId,side,price,quantity,triggerPrice
+ * </pre>
+ * type为 PLACE / PLACE_FOK / PLACE_STOP / CANCEL / AMEND / MASS_CANCEL / BEGIN_AUCTION / UNCROSS / UNCROSS_CONTINUE，
+ * side为 BUY / SELL；不适用的字段留空，timestampNanos留空时为0（不能按原始节奏回放）
+ * 空行、以#开头的行和以timestamp开头的表头行被忽略
+ */
+public final class CsvReplaySource implements ReplaySource {
+
+    private static final int FIELDS = 9;
+
+    private final Path file;
+    private final BufferedReader reader;
+    private long lineNumber;
+
+    public CsvReplaySource(Path file) throws IOException {
+        this.file = file;
+        this.reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean next(ReplayCommand command) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#") || trimmed.startsWith("timestamp")) {
+                continue;
+            }
+            try {
+                parse(trimmed, command);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid command at " + file + ":" + lineNumber + ": " + e.getMessage(), e);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static void parse(String line, ReplayCommand command) {
+        String[] fields = line.split(",", -1);
+        if (fields.length < FIELDS - 1 || fields.length > FIELDS) {
+            throw new IllegalArgumentException("expected " + FIELDS + " fields, got " + fields.length);
+        }
+        command.clear();
+        String timestamp = field(fields, 0);
+        command.timestampNanos = timestamp != null ? Long.parseLong(timestamp) : 0L;
+        String type = field(fields, 1);
+        if (type == null) {
+            throw new IllegalArgumentException("missing type");
+        }
+        switch (type) {
+            case "PLACE" -> command.type = JournalRecord.PLACE;
+            case "PLACE_FOK" -> command.type = JournalRecord.PLACE_FOK;
+            case "PLACE_STOP" -> command.type = JournalRecord.PLACE_STOP;
+            case "CANCEL" -> command.type = JournalRecord.CANCEL;
+            case "AMEND" -> command.type = JournalRecord.AMEND;
+            case "MASS_CANCEL" -> command.type = JournalRecord.MASS_CANCEL;
+            case "BEGIN_AUCTION" -> command.type = JournalRecord.BEGIN_AUCTION;
+            case "UNCROSS" -> command.type = JournalRecord.UNCROSS;
+            case "UNCROSS_CONTINUE" -> {
+                command.type = JournalRecord.UNCROSS;
+                command.continueAuction = true;
+            }
+            default -> throw new IllegalArgumentException("unknown type " + type);
+        }
+        command.symbol = field(fields, 2);
+        if (command.symbol == null) {
+            throw new IllegalArgumentException("missing symbol");
+        }
+        command.orderId = field(fields, 3);
+        command.ownerId = field(fields, 4);
+        String side = field(fields, 5);
+        command.side = side != null ? OrderSide.valueOf(side) : null;
+        command.price = decimal(field(fields, 6));
+        command.quantity = decimal(field(fields, 7));
+        command.triggerPrice = decimal(field(fields, 8));
+    }
+
+    private static String field(String[] fields, int index) {
+        if (index >= fields.length) {
+            return null;
+        }
+        String value = fields[index].trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static BigDecimal decimal(String value) {
+        return value != null ? new BigDecimal(value) : null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,101 @@
+package com.tanggo.fund.metadriven.lwc.lob.replay;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.IInstrumentRepository;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.IOrderBookRepository;
+import com.tanggo.fund.metadriven.lwc.lob.infrastructure.journal.JournalReplay;
+import com.tanggo.fund.metadriven.lwc.lob.infrastructure.journal.JournalRecord;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * 二进制命令日志命令流 - 与启动恢复使用同一套重放规则（{@link JournalReplay}），回放得到与生产恢复相同的订单薄：
+ * <ul>
+ *   <li>打开时把最新的检查点装载到回放的仓储，只读出其后的记录；日志已被截断而没有检查点时抛出IOException</li>
+ *   <li>批量下单/撤单作为一条 {@link JournalRecord#BATCH} 命令（一次更新），未写完的批量命令和拒绝记录不是命令</li>
+ *   <li>回放中被拒绝的命令须与日志中的拒绝记录一致，否则 {@link #next} 抛出IllegalStateException</li>
+ * </ul>
+ * 日志中的ticks/lots按品种定义换算回十进制价格/数量，品种精度须与生产配置一致
+ */
+public final class JournalReplaySource implements ReplaySource {
+
+    private final JournalReplay replay;
+    private final IInstrumentRepository instrumentRepository;
+    private JournalReplay.Command current;
+
+    /**
+     * @param repository 回放的仓储，检查点装载到其中，须与传给 {@link OrderBookReplayer} 的仓储相同且为空
+     */
+    public JournalReplaySource(Path directory, IInstrumentRepository instrumentRepository,
+                               IOrderBookRepository repository) throws IOException {
+        this.replay = JournalReplay.open(directory, instrumentRepository, repository, 1);
+        this.instrumentRepository = instrumentRepository;
+    }
+
+    @Override
+    public boolean next(ReplayCommand command) throws IOException {
+        current = replay.next();
+        if (current == null) {
+            return false;
+        }
+        command.clear();
+        command.type = current.getType();
+        command.timestampNanos = current.getTimestampNanos();
+        command.symbol = current.getSymbol();
+        if (current.getType() == JournalRecord.BATCH) {
+            if (!current.getOrders().isEmpty()) {
+                command.orders = current.getOrders();
+            } else {
+                command.orderIds = current.getCancelIds();
+            }
+            return true;
+        }
+        JournalRecord record = current.getRecord();
+        command.orderId = record.getOrderId();
+        command.ownerId = record.getOwnerId();
+        command.side = record.getSide();
+        Instrument instrument = instrumentRepository.getInstrument(record.getSymbol());
+        switch (record.getType()) {
+            case JournalRecord.PLACE, JournalRecord.PLACE_FOK -> {
+                command.price = instrument.toPrice(record.getValue(0));
+                command.quantity = instrument.toQuantity(record.getValue(1));
+            }
+            case JournalRecord.PLACE_STOP -> {
+                command.triggerPrice = instrument.toPrice(record.getValue(0));
+                // 限价0表示止损市价单
+                command.price = record.getValue(1) != 0L ? instrument.toPrice(record.getValue(1)) : null;
+                command.quantity = instrument.toQuantity(record.getValue(2));
+            }
+            case JournalRecord.PLACE_KEYED -> {
+                command.price = instrument.toPrice(record.getValue(0));
+                command.quantity = instrument.toQuantity(record.getValue(1));
+                command.orderKey = record.getValue(2);
+            }
+            case JournalRecord.AMEND, JournalRecord.AMEND_KEYED -> {
+                // 0表示不变
+                command.price = record.getValue(0) != 0L ? instrument.toPrice(record.getValue(0)) : null;
+                command.quantity = record.getValue(1) != 0L ? instrument.toQuantity(record.getValue(1)) : null;
+                if (record.getType() == JournalRecord.AMEND_KEYED) {
+                    command.orderKey = record.getValue(2);
+                }
+            }
+            case JournalRecord.CANCEL_KEYED -> command.orderKey = record.getValue(0);
+            case JournalRecord.UNCROSS -> command.continueAuction = record.getValue(0) != 0L;
+            default -> {
+                // 撤单、批量撤单、进入集合竞价无数值字段
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void completed(ReplayCommand command, RuntimeException rejection) {
+        replay.executed(current, rejection);
+    }
+
+    @Override
+    public void close() throws IOException {
+        replay.close();
+    }
+}
@@ -0,0 +1,83 @@
+package com.tanggo.fund.metadriven.lwc.lob.replay;
+
+/**
+ * 延迟直方图(纳秒) - 对数分段、段内线性的固定桶，相对误差小于1%（每段128个子桶）
+ * 记录为数组下标自增，不分配对象；单线程使用
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final long[] counts = new long[(64 - SUB_BUCKET_BITS) * SUB_BUCKETS + SUB_BUCKETS];
+    private long count;
+    private long total;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    public void record(long nanos) {
+        long value = Math.max(0L, nanos);
+        counts[index(value)]++;
+        count++;
+        total += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    private static int index(long value) {
+        int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    /**
+     * 桶内最大值，百分位按此报告（不低估）
+     */
+    private static long highestValue(int index) {
+        int shift = Math.max(0, index / SUB_BUCKETS - 1);
+        long mantissa = index - (long) shift * SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMin() {
+        return count == 0 ? 0L : min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0.0 : (double) total / count;
+    }
+
+    /**
+     * @param percentile 0-100
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (count == 0) {
+            return 0L;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0L;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValue(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * 单行摘要(纳秒)：count mean p50 p90 p99 p99.9 p99.99 max
+     */
+    public String summary() {
+        return String.format("count=%d mean=%.0f p50=%d p90=%d p99=%d p99.9=%d p99.99=%d max=%d",
+            count, getMean(), getValueAtPercentile(50), getValueAtPercentile(90), getValueAtPercentile(99),
+            getValueAtPercentile(99.9), getValueAtPercentile(99.99), max);
+    }
+}
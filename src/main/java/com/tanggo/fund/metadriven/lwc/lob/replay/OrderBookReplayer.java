@@ -0,0 +1,394 @@
+package com.tanggo.fund.metadriven.lwc.lob.replay;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.EpochClock;
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.IInstrumentRepository;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.IOrderBookRepository;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.MatchResult;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookEntry;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookPage;
+import com.tanggo.fund.metadriven.lwc.lob.infrastructure.journal.JournalRecord;
+import com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories.InMemoryInstrumentRepository;
+import com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories.InMemoryOrderBookRepository;
+import com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories.PriceLadderOrderBookRepository;
+import com.tanggo.fund.metadriven.lwc.lob.service.OrderBookService;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 确定性回放/回测工具 - 在单个进程内把捕获的命令流（CSV或二进制命令日志）经 {@link OrderBookService}
+ * 驱动订单薄仓储，报告吞吐量、按命令类型的单条命令延迟直方图和最终订单薄哈希
+ * 每条命令以其时间戳执行（{@link EpochClock#pin(long)}，没有时间戳的命令为0），订单时间戳与原始执行一致，
+ * 同一命令流在同一撮合实现上回放得到相同的哈希；用于比较撮合实现、离线复现生产问题
+ * 默认尽可能快地回放，也可按命令时间戳以N倍速回放
+ * 仓储须在调用线程上同步执行（如 {@link InMemoryOrderBookRepository}），否则延迟包含线程切换
+ * 命令流中的每个交易对都须在品种仓储中配置（命令行用 --instrument），遇到未配置的交易对时回放失败
+ *
+ * <pre>
+ * java ... OrderBookReplayer (--csv &lt;file&gt; | --journal &lt;dir&gt;) [--book tree|ladder]
+ *     [--instrument SYMBOL:tickSize:lotSize]... [--speed N] [--warmup N]
+ * </pre>
+ */
+public class OrderBookReplayer {
+
+    private static final int PAGE_SIZE = 4096;
+
+    // FNV-1a 64位
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    // 回放后的停顿在此之内自旋等待，更长时先park
+    private static final long SPIN_NANOS = 50_000L;
+
+    private final IOrderBookRepository repository;
+    private final OrderBookService service;
+
+    // 相对原始节奏的倍速，0表示尽可能快
+    private double speed;
+    // 前N条命令不计入延迟直方图（JIT预热）
+    private long warmupCommands;
+
+    public OrderBookReplayer(IOrderBookRepository repository, IInstrumentRepository instrumentRepository) {
+        this.repository = Objects.requireNonNull(repository, "repository不能为null");
+        this.service = new OrderBookService(repository, instrumentRepository);
+    }
+
+    public void setSpeed(double speed) {
+        if (speed < 0) {
+            throw new IllegalArgumentException("speed不能为负数");
+        }
+        this.speed = speed;
+    }
+
+    public void setWarmupCommands(long warmupCommands) {
+        if (warmupCommands < 0) {
+            throw new IllegalArgumentException("warmupCommands不能为负数");
+        }
+        this.warmupCommands = warmupCommands;
+    }
+
+    /**
+     * 回放整个命令流；执行时被拒绝的命令（参数校验失败、不支持的操作）计入rejected，与原始执行一致
+     *
+     * @throws IllegalStateException 命令流核对出回放结果与原始执行不一致（见 {@link JournalReplaySource}）
+     */
+    public Report replay(ReplaySource source) throws IOException {
+        Report report = new Report();
+        ReplayCommand command = new ReplayCommand();
+        long firstTimestamp = 0L;
+        long start = System.nanoTime();
+        while (source.next(command)) {
+            if (report.commands == 0) {
+                firstTimestamp = command.timestampNanos;
+            }
+            if (speed > 0 && command.timestampNanos > 0) {
+                pace(start + (long) ((command.timestampNanos - firstTimestamp) / speed));
+            }
+            report.lastTimestamp = command.timestampNanos;
+
+            Instrument instrument = service.getInstrument(command.symbol);
+            EpochClock.pin(command.timestampNanos);
+            RuntimeException rejection = null;
+            long t0 = System.nanoTime();
+            try {
+                report.trades += apply(command, instrument);
+            } catch (IllegalArgumentException | UnsupportedOperationException e) {
+                rejection = e;
+                report.rejected++;
+            } finally {
+                EpochClock.unpin();
+            }
+            long latency = System.nanoTime() - t0;
+            source.completed(command, rejection);
+
+            if (report.commands >= warmupCommands) {
+                report.all.record(latency);
+                report.histogram(command.type).record(latency);
+            }
+            report.commands++;
+        }
+        report.elapsedNanos = System.nanoTime() - start;
+        report.firstTimestamp = firstTimestamp;
+        report.bookHash = bookHash();
+        for (String symbol : repository.getSymbols()) {
+            report.restingOrders += service.getOrderCount(symbol);
+        }
+        return report;
+    }
+
+    private static void pace(long target) {
+        long wait;
+        while ((wait = target - System.nanoTime()) > 0) {
+            if (wait > SPIN_NANOS) {
+                LockSupport.parkNanos(wait - SPIN_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * 经订单薄服务执行一条命令
+     *
+     * @return 产生的成交笔数
+     */
+    private int apply(ReplayCommand c, Instrument instrument) {
+        return switch (c.type) {
+            case JournalRecord.PLACE ->
+                trades(service.placeOrder(c.orderId, c.ownerId, instrument, c.side, c.price, c.quantity));
+            case JournalRecord.PLACE_FOK ->
+                trades(service.placeFillOrKill(c.orderId, c.ownerId, instrument, c.side, c.price, c.quantity));
+            case JournalRecord.PLACE_STOP -> {
+                service.placeStopOrder(c.orderId, c.ownerId, instrument, c.side, c.triggerPrice, c.price, c.quantity);
+                yield 0;
+            }
+            case JournalRecord.CANCEL -> {
+                service.cancelOrder(instrument, c.orderId);
+                yield 0;
+            }
+            case JournalRecord.AMEND -> trades(service.amendOrder(instrument, c.orderId, c.price, c.quantity));
+            case JournalRecord.PLACE_KEYED -> trades(service.placeOrder(c.orderId, c.orderKey, c.ownerId, instrument,
+                c.side, c.price, c.quantity));
+            case JournalRecord.CANCEL_KEYED -> {
+                service.cancelOrder(instrument, c.orderKey);
+                yield 0;
+            }
+            case JournalRecord.AMEND_KEYED -> trades(service.amendOrder(instrument, c.orderKey, c.price, c.quantity));
+            case JournalRecord.MASS_CANCEL -> {
+                service.massCancel(c.symbol, c.side, c.ownerId);
+                yield 0;
+            }
+            case JournalRecord.BEGIN_AUCTION -> {
+                service.beginAuction(c.symbol);
+                yield 0;
+            }
+            case JournalRecord.UNCROSS -> service.uncrossAuction(c.symbol, c.continueAuction).getTrades().size();
+            case JournalRecord.BATCH -> {
+                if (c.orders == null) {
+                    service.cancelOrders(c.symbol, c.orderIds);
+                    yield 0;
+                }
+                int trades = 0;
+                for (MatchResult result : service.placeOrders(c.orders)) {
+                    trades += trades(result);
+                }
+                yield trades;
+            }
+            default -> throw new IllegalStateException("Unknown replay command type: " + c.type);
+        };
+    }
+
+    private static int trades(MatchResult result) {
+        return result != null ? result.getTrades().size() : 0;
+    }
+
+    /**
+     * 最终订单薄哈希 - 按交易对排序，逐笔(L3)遍历每个订单薄，覆盖更新序号和每个挂单的
+     * 方向、价格、排队顺序、订单ID、参与者ID、数量、已成交数量和创建/更新时间
+     */
+    public long bookHash() {
+        long hash = FNV_OFFSET;
+        List<String> symbols = new ArrayList<>(repository.getSymbols());
+        symbols.sort(null);
+        for (String symbol : symbols) {
+            hash = hash(hash, symbol);
+            String cursorId = service.openOrderBookCursor(symbol);
+            OrderBookPage page;
+            boolean first = true;
+            do {
+                page = service.nextOrderBookPage(cursorId, PAGE_SIZE);
+                if (first) {
+                    hash = hash(hash, page.getSequence());
+                    first = false;
+                }
+                for (OrderBookEntry entry : page.getEntries()) {
+                    hash = hash(hash, entry.getSide().ordinal());
+                    hash = hash(hash, entry.getPriceTicks());
+                    hash = hash(hash, entry.getQueuePosition());
+                    hash = hash(hash, entry.getOrderId());
+                    hash = hash(hash, entry.getOwnerId());
+                    hash = hash(hash, entry.getQuantityLots());
+                    hash = hash(hash, entry.getFilledLots());
+                    hash = hash(hash, entry.getCreateTimeNanos());
+                    hash = hash(hash, entry.getUpdateTimeNanos());
+                }
+            } while (!page.isLast());
+        }
+        return hash;
+    }
+
+    private static long hash(long hash, long value) {
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash ^= (value >>> (i * 8)) & 0xFF;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static long hash(long hash, String value) {
+        if (value == null) {
+            return hash(hash, -1L);
+        }
+        hash = hash(hash, value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            hash ^= c & 0xFF;
+            hash *= FNV_PRIME;
+            hash ^= c >>> 8;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * 回放结果
+     */
+    public static final class Report {
+
+        private final LatencyHistogram all = new LatencyHistogram();
+        // 按命令类型（下标为类型值）
+        private final LatencyHistogram[] byType = new LatencyHistogram[JournalRecord.AMEND_KEYED + 1];
+
+        private long commands;
+        private long rejected;
+        private long trades;
+        private long restingOrders;
+        private long elapsedNanos;
+        private long firstTimestamp;
+        private long lastTimestamp;
+        private long bookHash;
+
+        private LatencyHistogram histogram(byte type) {
+            LatencyHistogram histogram = byType[type];
+            if (histogram == null) {
+                histogram = new LatencyHistogram();
+                byType[type] = histogram;
+            }
+            return histogram;
+        }
+
+        public long getCommands() {
+            return commands;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        public long getTrades() {
+            return trades;
+        }
+
+        public long getRestingOrders() {
+            return restingOrders;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public long getBookHash() {
+            return bookHash;
+        }
+
+        public LatencyHistogram getLatency() {
+            return all;
+        }
+
+        /**
+         * 某类命令的延迟直方图，没有该类命令时返回null
+         */
+        public LatencyHistogram getLatency(byte type) {
+            return type >= 0 && type < byType.length ? byType[type] : null;
+        }
+
+        public double getThroughput() {
+            return elapsedNanos == 0 ? 0.0 : commands * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * 相对命令流原始时长的倍速，命令不带时间戳时为0
+         */
+        public double getSpeedup() {
+            long span = lastTimestamp - firstTimestamp;
+            return firstTimestamp == 0 || span <= 0 || elapsedNanos == 0 ? 0.0 : (double) span / elapsedNanos;
+        }
+
+        public void print(PrintStream out) {
+            out.printf("commands=%d rejected=%d trades=%d restingOrders=%d%n", commands, rejected, trades, restingOrders);
+            out.printf("elapsed=%.3fs throughput=%.0f cmd/s speedup=%.1fx%n",
+                elapsedNanos / 1e9, getThroughput(), getSpeedup());
+            out.printf("latency(ns) ALL %s%n", all.summary());
+            for (byte type = 0; type < byType.length; type++) {
+                if (byType[type] != null) {
+                    out.printf("latency(ns) %s %s%n", ReplayCommand.typeName(type), byType[type].summary());
+                }
+            }
+            out.printf("bookHash=%016x%n", bookHash);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path csv = null;
+        Path journal = null;
+        String book = "tree";
+        double speed = 0.0;
+        long warmup = 0L;
+        List<Instrument> instruments = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (i + 1 >= args.length) {
+                usage("Missing value for " + arg);
+            }
+            String value = args[++i];
+            switch (arg) {
+                case "--csv" -> csv = Path.of(value);
+                case "--journal" -> journal = Path.of(value);
+                case "--book" -> book = value;
+                case "--speed" -> speed = Double.parseDouble(value);
+                case "--warmup" -> warmup = Long.parseLong(value);
+                case "--instrument" -> {
+                    String[] parts = value.split(":");
+                    if (parts.length != 3) {
+                        usage("Invalid instrument " + value);
+                    }
+                    instruments.add(new Instrument(parts[0], new BigDecimal(parts[1]), new BigDecimal(parts[2])));
+                }
+                default -> usage("Unknown option " + arg);
+            }
+        }
+        if ((csv == null) == (journal == null)) {
+            usage("Exactly one of --csv and --journal is required");
+        }
+
+        InMemoryInstrumentRepository instrumentRepository = new InMemoryInstrumentRepository();
+        instrumentRepository.setInstruments(instruments);
+        InMemoryOrderBookRepository repository = switch (book) {
+            case "tree" -> new InMemoryOrderBookRepository();
+            case "ladder" -> new PriceLadderOrderBookRepository();
+            default -> throw new IllegalArgumentException("Unknown book implementation: " + book);
+        };
+        OrderBookReplayer replayer = new OrderBookReplayer(repository, instrumentRepository);
+        replayer.setSpeed(speed);
+        replayer.setWarmupCommands(warmup);
+        // 命令日志从最新的检查点开始回放，检查点直接装载到仓储
+        try (ReplaySource source = csv != null ? new CsvReplaySource(csv)
+            : new JournalReplaySource(journal, instrumentRepository, repository)) {
+            replayer.replay(source).print(System.out);
+        }
+    }
+
+    private static void usage(String message) {
+        System.err.println(message);
+        System.err.println("Usage: OrderBookReplayer (--csv <file> | --journal <dir>) [--book tree|ladder]"
+            + " [--instrument SYMBOL:tickSize:lotSize]... [--speed N] [--warmup N]");
+        System.exit(2);
+    }
+}
@@ -0,0 +1,132 @@
+package com.tanggo.fund.metadriven.lwc.lob.replay;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.LimitOrder;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import com.tanggo.fund.metadriven.lwc.lob.infrastructure.journal.JournalRecord;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 回放命令 - 读取时复用的可变命令（享元），由 {@link ReplaySource#next(ReplayCommand)} 填充
+ * 命令类型沿用日志记录类型（{@link JournalRecord#PLACE} 等），价格/数量为API边界的十进制值；
+ * 批量命令（{@link JournalRecord#BATCH}）为同一交易对的一组订单或一组撤单，作为一次更新执行
+ */
+public final class ReplayCommand {
+
+    byte type;
+    long timestampNanos;
+    String symbol;
+    String orderId;
+    // 携带订单键的下单/撤单/改单（*_KEYED）的订单键，其他命令为0
+    long orderKey;
+    String ownerId;
+    OrderSide side;
+    // 下单/改单/止损单的限价，改单时null表示不变，止损单时null表示止损市价
+    BigDecimal price;
+    // 下单/止损单的数量，改单时为新的订单总量，null表示不变
+    BigDecimal quantity;
+    // 止损单的触发价
+    BigDecimal triggerPrice;
+    // 集合竞价撮合后是否继续收集
+    boolean continueAuction;
+    // 批量下单的订单（已按原始时间创建），批量撤单时为null
+    List<LimitOrder> orders;
+    // 批量撤单的订单ID，批量下单时为null
+    List<String> orderIds;
+
+    void clear() {
+        type = 0;
+        timestampNanos = 0L;
+        symbol = null;
+        orderId = null;
+        orderKey = 0L;
+        ownerId = null;
+        side = null;
+        price = null;
+        quantity = null;
+        triggerPrice = null;
+        continueAuction = false;
+        orders = null;
+        orderIds = null;
+    }
+
+    /**
+     * 命令类型名称，用于报告
+     */
+    static String typeName(byte type) {
+        return switch (type) {
+            case JournalRecord.PLACE -> "PLACE";
+            case JournalRecord.PLACE_FOK -> "PLACE_FOK";
+            case JournalRecord.PLACE_STOP -> "PLACE_STOP";
+            case JournalRecord.CANCEL -> "CANCEL";
+            case JournalRecord.AMEND -> "AMEND";
+            case JournalRecord.MASS_CANCEL -> "MASS_CANCEL";
+            case JournalRecord.BEGIN_AUCTION -> "BEGIN_AUCTION";
+            case JournalRecord.UNCROSS -> "UNCROSS";
+            case JournalRecord.BATCH -> "BATCH";
+            case JournalRecord.PLACE_KEYED -> "PLACE_KEYED";
+            case JournalRecord.CANCEL_KEYED -> "CANCEL_KEYED";
+            case JournalRecord.AMEND_KEYED -> "AMEND_KEYED";
+            default -> "UNKNOWN(" + type + ")";
+        };
+    }
+
+    public byte getType() {
+        return type;
+    }
+
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public long getOrderKey() {
+        return orderKey;
+    }
+
+    public String getOwnerId() {
+        return ownerId;
+    }
+
+    public OrderSide getSide() {
+        return side;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public BigDecimal getQuantity() {
+        return quantity;
+    }
+
+    public BigDecimal getTriggerPrice() {
+        return triggerPrice;
+    }
+
+    public boolean isContinueAuction() {
+        return continueAuction;
+    }
+
+    public List<LimitOrder> getOrders() {
+        return orders;
+    }
+
+    public List<String> getOrderIds() {
+        return orderIds;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ReplayCommand{type=%s, symbol=%s, orderId=%s, side=%s, price=%s, quantity=%s}",
+            typeName(type), symbol, orderId, side, price, quantity);
+    }
+}
@@ -0,0 +1,27 @@
+package com.tanggo.fund.metadriven.lwc.lob.replay;
+
+import java.io.IOException;
+
+/**
+ * 回放命令流 - 按原始顺序逐条读出命令
+ */
+public interface ReplaySource extends AutoCloseable {
+
+    /**
+     * 读取下一条命令到command
+     *
+     * @return false表示命令流结束
+     */
+    boolean next(ReplayCommand command) throws IOException;
+
+    /**
+     * 报告上一条命令的执行结果，在读取下一条命令之前调用；需要核对执行结果的命令流（如命令日志）覆盖此方法
+     *
+     * @param rejection 执行时被拒绝的原因，被接受时为null
+     */
+    default void completed(ReplayCommand command, RuntimeException rejection) {
+    }
+
+    @Override
+    void close() throws IOException;
+}
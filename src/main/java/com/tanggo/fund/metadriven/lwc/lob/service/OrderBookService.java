@@ -1,11 +1,28 @@
 package com.tanggo.fund.metadriven.lwc.lob.service;
 
 import com.tanggo.fund.metadriven.lwc.lob.domain.*;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.AuctionResult;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.FillEstimate;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.IInstrumentRepository;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.IMarketDataPublisher;
 import com.tanggo.fund.metadriven.lwc.lob.domain.repo.MatchResult;
 import com.tanggo.fund.metadriven.lwc.lob.domain.repo.IOrderBookRepository;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.LevelUpdateSubscription;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookCursor;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookPage;
 import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookSnapshot;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.TopOfBook;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 订单薄服务 - 应用层服务
@@ -14,12 +31,65 @@ import java.util.Objects;
 public class OrderBookService {
 
     private final IOrderBookRepository repository;
+    private final IInstrumentRepository instrumentRepository;
+    private IMarketDataPublisher marketDataPublisher;
+    // 未读完的逐笔(L3)游标，及每个交易对打开中的游标数
+    private final Map<String, CursorSession> orderBookCursors = new ConcurrentHashMap<>();
+    private final Map<String, Integer> openCursorCounts = new ConcurrentHashMap<>();
+    // 游标空闲超时与每个订单薄的游标上限：打开中的游标会让撮合线程为被修改的档位保留副本
+    private long cursorIdleTimeoutNanos = TimeUnit.SECONDS.toNanos(60);
+    private int maxCursorsPerBook = 16;
+    private volatile long nextCursorSweepNanos = System.nanoTime();
 
     /**
      * 构造器注入，符合依赖倒置原则
      */
-    public OrderBookService(IOrderBookRepository repository) {
+    public OrderBookService(IOrderBookRepository repository, IInstrumentRepository instrumentRepository) {
         this.repository = Objects.requireNonNull(repository, "repository不能为null");
+        this.instrumentRepository = Objects.requireNonNull(instrumentRepository, "instrumentRepository不能为null");
+    }
+
+    // Setter for Spring XML injection（可选）
+    public void setMarketDataPublisher(IMarketDataPublisher marketDataPublisher) {
+        this.marketDataPublisher = marketDataPublisher;
+    }
+
+    // Setter for Spring XML injection（可选）：游标超过该时长未读取即被关闭
+    public void setCursorIdleTimeoutMillis(long cursorIdleTimeoutMillis) {
+        if (cursorIdleTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("cursorIdleTimeoutMillis必须大于0");
+        }
+        this.cursorIdleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(cursorIdleTimeoutMillis);
+    }
+
+    // Setter for Spring XML injection（可选）：每个订单薄同时打开的游标上限
+    public void setMaxCursorsPerBook(int maxCursorsPerBook) {
+        if (maxCursorsPerBook <= 0) {
+            throw new IllegalArgumentException("maxCursorsPerBook必须大于0");
+        }
+        this.maxCursorsPerBook = maxCursorsPerBook;
+    }
+
+    /**
+     * 获取交易品种定义（tickSize/lotSize），用于API边界的BigDecimal换算
+     */
+    public Instrument getInstrument(String symbol) {
+        Objects.requireNonNull(symbol, "symbol不能为null");
+        return instrumentRepository.getInstrument(symbol);
+    }
+
+    /**
+     * 按symbolId获取交易品种定义 - 数组下标访问，无需哈希交易对字符串
+     */
+    public Instrument getInstrument(int symbolId) {
+        return instrumentRepository.getInstrument(symbolId);
+    }
+
+    /**
+     * 命令携带symbolId时按ID解析品种，否则按交易对符号解析
+     */
+    public Instrument resolveInstrument(Integer symbolId, String symbol) {
+        return symbolId != null ? getInstrument(symbolId) : getInstrument(symbol);
     }
 
     /**
@@ -30,6 +100,182 @@ public class OrderBookService {
         return repository.addOrder(order);
     }
 
+    /**
+     * 批量下单 - 按交易对只路由一次，同一订单薄的订单整组撮合，结果与orders一一对应
+     */
+    public MatchResult[] placeOrders(List<LimitOrder> orders) {
+        Objects.requireNonNull(orders, "orders不能为null");
+        return await(repository.addOrdersAsync(orders));
+    }
+
+    /**
+     * 异步下单 - 撮合完成后回调，不阻塞调用线程
+     */
+    public CompletableFuture<MatchResult> placeOrderAsync(LimitOrder order) {
+        Objects.requireNonNull(order, "order不能为null");
+        return repository.addOrderAsync(order);
+    }
+
+    /**
+     * 异步下单（命令字段形式）- 在API边界换算为ticks/lots，订单由撮合线程创建
+     */
+    public CompletableFuture<MatchResult> placeOrderAsync(String orderId, String symbol, OrderSide side,
+                                                          BigDecimal price, BigDecimal quantity) {
+        return placeOrderAsync(orderId, getInstrument(symbol), side, price, quantity);
+    }
+
+    /**
+     * 异步下单（已解析的品种）
+     */
+    public CompletableFuture<MatchResult> placeOrderAsync(String orderId, Instrument instrument, OrderSide side,
+                                                          BigDecimal price, BigDecimal quantity) {
+        return placeOrderAsync(orderId, null, instrument, side, price, quantity);
+    }
+
+    /**
+     * 异步下单（已解析的品种，携带参与者ID以支持按参与者批量撤单）
+     */
+    public CompletableFuture<MatchResult> placeOrderAsync(String orderId, String ownerId, Instrument instrument,
+                                                          OrderSide side, BigDecimal price, BigDecimal quantity) {
+        Objects.requireNonNull(instrument, "instrument不能为null");
+        if (price == null || price.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Price must be positive");
+        }
+        if (quantity == null || quantity.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        return repository.addOrderAsync(orderId, ownerId, instrument, side,
+            instrument.toTicks(price), instrument.toLots(quantity));
+    }
+
+    /**
+     * 异步下单（携带网关分配的订单键）- 挂单按订单键登记，之后可按订单键撤单/改单/查询
+     */
+    public CompletableFuture<MatchResult> placeOrderAsync(String orderId, long orderKey, String ownerId,
+                                                          Instrument instrument, OrderSide side,
+                                                          BigDecimal price, BigDecimal quantity) {
+        Objects.requireNonNull(instrument, "instrument不能为null");
+        requireOrderKey(orderKey);
+        if (price == null || price.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Price must be positive");
+        }
+        if (quantity == null || quantity.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        return repository.addOrderAsync(orderId, orderKey, ownerId, instrument, side,
+            instrument.toTicks(price), instrument.toLots(quantity));
+    }
+
+    /**
+     * 下单（携带订单键），等待撮合完成
+     */
+    public MatchResult placeOrder(String orderId, long orderKey, String ownerId, Instrument instrument,
+                                  OrderSide side, BigDecimal price, BigDecimal quantity) {
+        return await(placeOrderAsync(orderId, orderKey, ownerId, instrument, side, price, quantity));
+    }
+
+    private static void requireOrderKey(long orderKey) {
+        if (orderKey == 0L) {
+            throw new IllegalArgumentException("Order key must be non-zero");
+        }
+    }
+
+    /**
+     * 下单（命令字段形式），等待撮合完成
+     */
+    public MatchResult placeOrder(String orderId, String symbol, OrderSide side,
+                                  BigDecimal price, BigDecimal quantity) {
+        return await(placeOrderAsync(orderId, symbol, side, price, quantity));
+    }
+
+    /**
+     * 下单（已解析的品种），等待撮合完成
+     */
+    public MatchResult placeOrder(String orderId, Instrument instrument, OrderSide side,
+                                  BigDecimal price, BigDecimal quantity) {
+        return await(placeOrderAsync(orderId, instrument, side, price, quantity));
+    }
+
+    /**
+     * 下单（已解析的品种，携带参与者ID），等待撮合完成
+     */
+    public MatchResult placeOrder(String orderId, String ownerId, Instrument instrument, OrderSide side,
+                                  BigDecimal price, BigDecimal quantity) {
+        return await(placeOrderAsync(orderId, ownerId, instrument, side, price, quantity));
+    }
+
+    /**
+     * 全部成交否则撤销（FOK）- 撮合前按累计深度判断能否全部成交，不能时订单直接撤销且订单薄不变
+     *
+     * @return 撮合结果，订单状态为FILLED或CANCELLED
+     */
+    public MatchResult placeFillOrKill(String orderId, String ownerId, Instrument instrument, OrderSide side,
+                                       BigDecimal price, BigDecimal quantity) {
+        Objects.requireNonNull(instrument, "instrument不能为null");
+        if (price == null || price.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Price must be positive");
+        }
+        if (quantity == null || quantity.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        return repository.placeFillOrKill(orderId, ownerId, instrument, side,
+            instrument.toTicks(price), instrument.toLots(quantity)).copy();
+    }
+
+    /**
+     * 止损/止损限价单 - 挂起到最新成交价达到触发价，之后作为订单进入撮合
+     * 触发价已被当前最新价满足时抛出IllegalArgumentException
+     *
+     * @param triggerPrice 触发价
+     * @param limitPrice 触发后的限价，null表示止损市价单（触发后立即成交，未成交部分撤销）
+     */
+    public StopOrder placeStopOrder(String orderId, String ownerId, Instrument instrument, OrderSide side,
+                                    BigDecimal triggerPrice, BigDecimal limitPrice, BigDecimal quantity) {
+        Objects.requireNonNull(instrument, "instrument不能为null");
+        if (triggerPrice == null || triggerPrice.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Trigger price must be positive");
+        }
+        if (limitPrice != null && limitPrice.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Price must be positive");
+        }
+        if (quantity == null || quantity.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        return repository.placeStopOrder(orderId, ownerId, instrument, side, instrument.toTicks(triggerPrice),
+            limitPrice != null ? instrument.toTicks(limitPrice) : 0L, instrument.toLots(quantity));
+    }
+
+    /**
+     * 成交预估（风控前置检查、价格冲击查询）- 按当前挂单吃掉指定数量时的可成交量和均价，
+     * 由累计深度索引以O(log n)得出，不改变订单薄
+     *
+     * @param side 主动方向（BUY吃卖盘，SELL吃买盘）
+     * @param limitPrice 限价，null表示不限价
+     */
+    public FillEstimate estimateFill(Instrument instrument, OrderSide side, BigDecimal quantity, BigDecimal limitPrice) {
+        Objects.requireNonNull(instrument, "instrument不能为null");
+        Objects.requireNonNull(side, "side不能为null");
+        if (quantity == null || quantity.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        if (limitPrice != null && limitPrice.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Price must be positive");
+        }
+        return repository.estimateFill(instrument, side, instrument.toLots(quantity),
+            limitPrice != null ? instrument.toTicks(limitPrice) : 0L);
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
     /**
      * 撤单
      */
@@ -39,6 +285,158 @@ public class OrderBookService {
         return repository.cancelOrder(symbol, orderId);
     }
 
+    /**
+     * 撤单（已解析的品种）- 按symbolId定位订单薄
+     */
+    public boolean cancelOrder(Instrument instrument, String orderId) {
+        Objects.requireNonNull(instrument, "instrument不能为null");
+        Objects.requireNonNull(orderId, "orderId不能为null");
+        return repository.cancelOrder(instrument, orderId);
+    }
+
+    /**
+     * 按订单键撤单 - 只查订单键索引，不哈希订单ID
+     */
+    public boolean cancelOrder(Instrument instrument, long orderKey) {
+        Objects.requireNonNull(instrument, "instrument不能为null");
+        requireOrderKey(orderKey);
+        return repository.cancelOrder(instrument, orderKey);
+    }
+
+    /**
+     * 按ID批量撤单（同一交易对），结果与orderIds一一对应
+     */
+    public boolean[] cancelOrders(String symbol, List<String> orderIds) {
+        Objects.requireNonNull(symbol, "symbol不能为null");
+        Objects.requireNonNull(orderIds, "orderIds不能为null");
+        return await(repository.cancelOrdersAsync(symbol, orderIds));
+    }
+
+    /**
+     * 按品种批量撤单 - 已注册品种按symbolId定位分片和订单薄，结果与orderIds一一对应
+     */
+    public boolean[] cancelOrders(Instrument instrument, List<String> orderIds) {
+        Objects.requireNonNull(instrument, "instrument不能为null");
+        Objects.requireNonNull(orderIds, "orderIds不能为null");
+        return await(repository.cancelOrdersAsync(instrument, orderIds));
+    }
+
+    /**
+     * 批量撤单（kill switch）- 撤销某参与者的全部挂单，或某交易对一侧/两侧的全部挂单
+     * symbol为null时对所有交易对执行（须指定参与者），各交易对在所属撮合线程上并行撤单
+     *
+     * @param symbol 交易对符号，null表示所有交易对
+     * @param side 买卖方向，null表示两侧
+     * @param ownerId 参与者ID，null表示所有参与者
+     * @return 被撤订单的ID
+     */
+    public List<String> massCancel(String symbol, OrderSide side, String ownerId) {
+        if (symbol == null && ownerId == null) {
+            throw new IllegalArgumentException("symbol和ownerId不能同时为null");
+        }
+        if (symbol != null) {
+            return await(repository.massCancelAsync(symbol, side, ownerId));
+        }
+        List<CompletableFuture<List<String>>> futures = new ArrayList<>();
+        for (String bookSymbol : repository.getSymbols()) {
+            futures.add(repository.massCancelAsync(bookSymbol, side, ownerId));
+        }
+        List<String> cancelled = new ArrayList<>();
+        for (CompletableFuture<List<String>> future : futures) {
+            cancelled.addAll(await(future));
+        }
+        return cancelled;
+    }
+
+    /**
+     * 按品种批量撤单 - 同 {@link #massCancel(String, OrderSide, String)}，只撤该交易对
+     */
+    public List<String> massCancel(Instrument instrument, OrderSide side, String ownerId) {
+        Objects.requireNonNull(instrument, "instrument不能为null");
+        return await(repository.massCancelAsync(instrument, side, ownerId));
+    }
+
+    /**
+     * 进入集合竞价收集期（开盘/收盘竞价，或低流动性品种的周期性竞价）
+     */
+    public void beginAuction(String symbol) {
+        repository.beginAuction(getInstrument(symbol));
+    }
+
+    /**
+     * 按品种进入集合竞价收集期
+     */
+    public void beginAuction(Instrument instrument) {
+        Objects.requireNonNull(instrument, "instrument不能为null");
+        repository.beginAuction(instrument);
+    }
+
+    /**
+     * 集合竞价撮合 - 以成交量最大的均衡价一次性成交所有可成交订单
+     *
+     * @param continueAuction true表示撮合后继续收集，false表示恢复连续撮合
+     */
+    public AuctionResult uncrossAuction(String symbol, boolean continueAuction) {
+        Objects.requireNonNull(symbol, "symbol不能为null");
+        return repository.uncrossAuction(symbol, continueAuction);
+    }
+
+    /**
+     * 按品种集合竞价撮合 - 已注册品种按symbolId定位分片和订单薄
+     */
+    public AuctionResult uncrossAuction(Instrument instrument, boolean continueAuction) {
+        Objects.requireNonNull(instrument, "instrument不能为null");
+        return repository.uncrossAuction(instrument, continueAuction);
+    }
+
+    /**
+     * 改单 - price/quantity为null表示不变，quantity为新的订单总量（含已成交）
+     * 只减少数量时保持时间优先；改价或增量时移到新价格队尾，可能立即成交
+     *
+     * @return 撮合结果，订单不存在时返回null
+     */
+    public MatchResult amendOrder(Instrument instrument, String orderId, BigDecimal price, BigDecimal quantity) {
+        Objects.requireNonNull(instrument, "instrument不能为null");
+        Objects.requireNonNull(orderId, "orderId不能为null");
+        if (price != null && price.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Price must be positive");
+        }
+        if (quantity != null && quantity.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        return await(repository.amendOrderAsync(instrument, orderId,
+            price != null ? instrument.toTicks(price) : 0L,
+            quantity != null ? instrument.toLots(quantity) : 0L));
+    }
+
+    /**
+     * 按订单键改单 - 同 {@link #amendOrder(Instrument, String, BigDecimal, BigDecimal)}
+     *
+     * @return 撮合结果，订单不存在时返回null
+     */
+    public MatchResult amendOrder(Instrument instrument, long orderKey, BigDecimal price, BigDecimal quantity) {
+        Objects.requireNonNull(instrument, "instrument不能为null");
+        requireOrderKey(orderKey);
+        if (price != null && price.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Price must be positive");
+        }
+        if (quantity != null && quantity.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        return await(repository.amendOrderAsync(instrument, orderKey,
+            price != null ? instrument.toTicks(price) : 0L,
+            quantity != null ? instrument.toLots(quantity) : 0L));
+    }
+
+    /**
+     * 异步撤单
+     */
+    public CompletableFuture<Boolean> cancelOrderAsync(String symbol, String orderId) {
+        Objects.requireNonNull(symbol, "symbol不能为null");
+        Objects.requireNonNull(orderId, "orderId不能为null");
+        return repository.cancelOrderAsync(symbol, orderId);
+    }
+
     /**
      * 查询订单薄快照
      */
@@ -50,6 +448,144 @@ public class OrderBookService {
         return repository.getSnapshot(symbol, depth);
     }
 
+    /**
+     * 按品种查询订单薄快照 - 已注册品种按symbolId定位订单薄
+     */
+    public OrderBookSnapshot getOrderBookSnapshot(Instrument instrument, int depth) {
+        Objects.requireNonNull(instrument, "instrument不能为null");
+        if (depth <= 0) {
+            throw new IllegalArgumentException("depth必须大于0");
+        }
+        return repository.getSnapshot(instrument, depth);
+    }
+
+    /**
+     * 查询最优买卖价(BBO) - 无锁读取，不经过撮合线程
+     */
+    public TopOfBook getTopOfBook(String symbol) {
+        Objects.requireNonNull(symbol, "symbol不能为null");
+        return repository.getTopOfBook(symbol);
+    }
+
+    /**
+     * 按品种查询最优买卖价(BBO)
+     */
+    public TopOfBook getTopOfBook(Instrument instrument) {
+        Objects.requireNonNull(instrument, "instrument不能为null");
+        return repository.getTopOfBook(instrument);
+    }
+
+    /**
+     * 订阅L2增量行情 - 配合 {@link #getOrderBookSnapshot} 的快照序号使用，慢消费者只会丢增量、不会拖慢撮合
+     */
+    public LevelUpdateSubscription subscribeLevelUpdates(String symbol, int capacity) {
+        return repository.subscribeLevelUpdates(getInstrument(symbol), capacity);
+    }
+
+    /**
+     * 订阅合并限流的L2行情 - 慢消费者按间隔取得每个档位的最新状态
+     */
+    public LevelUpdateSubscription subscribeConflatedLevelUpdates(String symbol, long flushIntervalMicros) {
+        if (marketDataPublisher == null) {
+            throw new IllegalStateException("marketDataPublisher未配置");
+        }
+        return marketDataPublisher.subscribeConflated(getInstrument(symbol), flushIntervalMicros);
+    }
+
+    /**
+     * 打开逐笔(L3)订单薄游标，返回游标ID；之后用 {@link #nextOrderBookPage} 分页读取同一版本
+     * 该订单薄打开中的游标已达上限时抛出IllegalStateException；空闲超时的游标先被关闭
+     */
+    public String openOrderBookCursor(String symbol) {
+        Objects.requireNonNull(symbol, "symbol不能为null");
+        evictIdleOrderBookCursors();
+        openCursorCounts.compute(symbol, (key, open) -> {
+            int count = open != null ? open : 0;
+            if (count >= maxCursorsPerBook) {
+                throw new IllegalStateException("Too many open cursors for " + symbol + ": " + count);
+            }
+            return count + 1;
+        });
+        OrderBookCursor cursor;
+        try {
+            cursor = repository.openOrderCursor(symbol);
+        } catch (RuntimeException e) {
+            releaseCursorCount(symbol);
+            throw e;
+        }
+        String cursorId = UUID.randomUUID().toString();
+        orderBookCursors.put(cursorId, new CursorSession(symbol, cursor, System.nanoTime()));
+        return cursorId;
+    }
+
+    /**
+     * 读取游标的下一页，读到最后一页时自动关闭游标
+     */
+    public OrderBookPage nextOrderBookPage(String cursorId, int pageSize) {
+        Objects.requireNonNull(cursorId, "cursorId不能为null");
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize必须大于0");
+        }
+        long now = System.nanoTime();
+        if (now - nextCursorSweepNanos >= 0) {
+            evictIdleOrderBookCursors();
+        }
+        CursorSession session = orderBookCursors.get(cursorId);
+        OrderBookPage page = session != null ? session.nextPage(pageSize, now) : null;
+        if (page == null) {
+            throw new IllegalArgumentException("Unknown or closed cursor: " + cursorId);
+        }
+        if (page.isLast()) {
+            closeOrderBookCursor(cursorId);
+        }
+        return page;
+    }
+
+    /**
+     * 提前关闭游标，释放写时复制的档位副本
+     */
+    public void closeOrderBookCursor(String cursorId) {
+        Objects.requireNonNull(cursorId, "cursorId不能为null");
+        CursorSession session = orderBookCursors.get(cursorId);
+        if (session != null) {
+            release(cursorId, session);
+        }
+    }
+
+    /**
+     * 关闭空闲超时的游标 - 打开和读取游标时按超时的四分之一间隔顺带执行，也可由调度任务定期调用
+     */
+    public void evictIdleOrderBookCursors() {
+        long now = System.nanoTime();
+        nextCursorSweepNanos = now + cursorIdleTimeoutNanos / 4;
+        for (Map.Entry<String, CursorSession> entry : orderBookCursors.entrySet()) {
+            if (entry.getValue().isIdle(now, cursorIdleTimeoutNanos)) {
+                release(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * 指定交易对打开中的游标数
+     */
+    public int getOpenOrderBookCursorCount(String symbol) {
+        return openCursorCounts.getOrDefault(symbol, 0);
+    }
+
+    /**
+     * 移除并关闭游标 - 只有移除成功的一方关闭游标并归还计数
+     */
+    private void release(String cursorId, CursorSession session) {
+        if (orderBookCursors.remove(cursorId, session)) {
+            session.close();
+            releaseCursorCount(session.symbol);
+        }
+    }
+
+    private void releaseCursorCount(String symbol) {
+        openCursorCounts.computeIfPresent(symbol, (key, open) -> open > 1 ? open - 1 : null);
+    }
+
     /**
      * 检查订单是否存在
      */
@@ -59,6 +595,24 @@ public class OrderBookService {
         return repository.existsOrder(symbol, orderId);
     }
 
+    /**
+     * 按品种检查订单是否存在
+     */
+    public boolean orderExists(Instrument instrument, String orderId) {
+        Objects.requireNonNull(instrument, "instrument不能为null");
+        Objects.requireNonNull(orderId, "orderId不能为null");
+        return repository.existsOrder(instrument, orderId);
+    }
+
+    /**
+     * 按订单键检查挂单是否存在
+     */
+    public boolean orderExists(Instrument instrument, long orderKey) {
+        Objects.requireNonNull(instrument, "instrument不能为null");
+        requireOrderKey(orderKey);
+        return repository.existsOrder(instrument, orderKey);
+    }
+
     /**
      * 获取指定交易对的订单数量
      */
@@ -67,6 +621,50 @@ public class OrderBookService {
         return repository.getOrderCount(symbol);
     }
 
+    /**
+     * 按品种获取订单数量
+     */
+    public int getOrderCount(Instrument instrument) {
+        Objects.requireNonNull(instrument, "instrument不能为null");
+        return repository.getOrderCount(instrument);
+    }
+
+    /**
+     * 打开中的游标及其最近访问时间；读取与关闭互斥，已关闭的游标不再读取
+     */
+    private static final class CursorSession {
 
+        private final String symbol;
+        private final OrderBookCursor cursor;
+        private long lastAccessNanos;
+        private boolean closed;
 
+        CursorSession(String symbol, OrderBookCursor cursor, long openNanos) {
+            this.symbol = symbol;
+            this.cursor = cursor;
+            this.lastAccessNanos = openNanos;
+        }
+
+        /**
+         * 已关闭时返回null
+         */
+        synchronized OrderBookPage nextPage(int pageSize, long now) {
+            if (closed) {
+                return null;
+            }
+            lastAccessNanos = now;
+            return cursor.nextPage(pageSize);
+        }
+
+        synchronized boolean isIdle(long now, long timeoutNanos) {
+            return now - lastAccessNanos >= timeoutNanos;
+        }
+
+        synchronized void close() {
+            if (!closed) {
+                closed = true;
+                cursor.close();
+            }
+        }
+    }
 }
@@ -0,0 +1,64 @@
+package com.tanggo.fund.metadriven.lwc.lob.domain;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * 挂单存储测试：参与者随最后一笔挂单注销，参与者句柄和链表复用，参与者表不随历史参与者数增长
+ */
+class OrderStoreTest {
+
+    private final OrderStore store = new OrderStore();
+
+    @Test
+    void ownerIsReleasedWithItsLastOrder() {
+        int first = store.add("o-1", 0L, "mm-1", 5, 0, 0L, 0L);
+        int second = store.add("o-2", 0L, "mm-1", 5, 0, 0L, 0L);
+        OwnerOrderList list = store.getOwnerList("mm-1");
+        assertNotNull(list);
+        assertEquals(2, list.size());
+        assertEquals(1, store.getOwnerCount());
+
+        store.release(first);
+        assertSame(list, store.getOwnerList("mm-1"));
+        assertEquals(second, list.peekFirst());
+        store.release(second);
+        assertNull(store.getOwnerList("mm-1"));
+        assertEquals(0, store.getOwnerCount());
+
+        // 下一个参与者复用已注销的句柄和链表对象
+        int next = store.add("o-3", 0L, "mm-2", 5, 0, 0L, 0L);
+        assertSame(list, store.getOwnerList("mm-2"));
+        assertEquals("mm-2", store.getOwnerId(next));
+        assertEquals(next, list.peekFirst());
+    }
+
+    @Test
+    void churnOfDistinctOwnersKeepsOwnerTableBounded() {
+        int[] resting = new int[8];
+        for (int i = 0; i < 100_000; i++) {
+            int slot = i % resting.length;
+            if (resting[slot] != OrderStore.NONE) {
+                store.release(resting[slot]);
+            }
+            // 每个参与者只挂一笔，挂单撤销后不再出现
+            resting[slot] = store.add("o-" + i, 0L, "owner-" + i, 1, 0, 0L, 0L);
+            assertEquals(Math.min(i + 1, resting.length), store.getOwnerCount());
+        }
+        for (int i = 100_000 - resting.length; i < 100_000; i++) {
+            OwnerOrderList list = store.getOwnerList("owner-" + i);
+            assertNotNull(list);
+            assertEquals("owner-" + i, store.getOwnerId(list.peekFirst()));
+        }
+        assertNull(store.getOwnerList("owner-0"));
+        for (int order : resting) {
+            store.release(order);
+        }
+        assertEquals(0, store.getOwnerCount());
+        assertEquals(0, store.size());
+    }
+}
@@ -0,0 +1,174 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * 环形缓冲区测试：多生产者在远小于命令数的缓冲区上反复回绕，每个生产者的命令按发布顺序消费；
+ * 关闭后认领被拒绝，停止分片时缓冲区满而等待的生产者被释放，每个future都会完成
+ */
+class OrderCommandRingBufferTest {
+
+    @Test
+    void wrapsAroundKeepingEachProducersOrder() throws Exception {
+        int producers = 4;
+        int perProducer = 20_000;
+        OrderCommandRingBuffer ringBuffer = new OrderCommandRingBuffer(8);
+        long[] lastSeen = new long[producers];
+        Arrays.fill(lastSeen, -1L);
+        AtomicLong consumed = new AtomicLong();
+        AtomicInteger outOfOrder = new AtomicInteger();
+        int[] maxBatch = new int[1];
+        OrderCommandProcessor processor = new OrderCommandProcessor(ringBuffer, new YieldingWaitStrategy(),
+                new OrderCommandProcessor.Handler() {
+                    private int batch;
+
+                    @Override
+                    public void onCommand(OrderCommandSlot slot, long sequence, boolean endOfBatch) {
+                        int producer = (int) slot.priceTicks;
+                        if (slot.quantityLots != lastSeen[producer] + 1) {
+                            outOfOrder.incrementAndGet();
+                        }
+                        lastSeen[producer] = slot.quantityLots;
+                        batch++;
+                        if (endOfBatch) {
+                            maxBatch[0] = Math.max(maxBatch[0], batch);
+                            batch = 0;
+                        }
+                        consumed.incrementAndGet();
+                    }
+
+                    @Override
+                    public void onRejected(OrderCommandSlot slot, long sequence) {
+                        fail("rejected " + sequence);
+                    }
+                });
+        Thread consumer = new Thread(processor, "ring-consumer");
+        consumer.start();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    long sequence = ringBuffer.next();
+                    OrderCommandSlot slot = ringBuffer.get(sequence);
+                    slot.priceTicks = producer;
+                    slot.quantityLots = i;
+                    ringBuffer.publish(sequence);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join(10_000);
+            assertFalse(thread.isAlive(), "producer stuck");
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (consumed.get() < (long) producers * perProducer && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        processor.halt();
+        consumer.join(10_000);
+        assertFalse(consumer.isAlive());
+
+        assertEquals((long) producers * perProducer, consumed.get());
+        assertEquals(0, outOfOrder.get());
+        for (int p = 0; p < producers; p++) {
+            assertEquals(perProducer - 1, lastSeen[p]);
+        }
+        assertTrue(maxBatch[0] <= 8, "batch larger than the buffer: " + maxBatch[0]);
+        assertEquals(ringBuffer.cursor(), ringBuffer.consumed());
+    }
+
+    @Test
+    void claimsAfterCloseAreRejected() {
+        OrderCommandRingBuffer ringBuffer = new OrderCommandRingBuffer(4);
+        assertEquals(0, ringBuffer.next());
+        assertEquals(1, ringBuffer.next());
+        ringBuffer.publish(0);
+        ringBuffer.publish(1);
+
+        assertEquals(1, ringBuffer.close());
+        assertEquals(OrderCommandRingBuffer.CLOSED, ringBuffer.next());
+        assertEquals(OrderCommandRingBuffer.CLOSED, ringBuffer.next());
+        // 关闭前认领的序号照常可读
+        assertEquals(1, ringBuffer.highestPublished(0, 1));
+    }
+
+    @Test
+    void stoppingShardCompletesEveryFuture() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            MatchingShard shard = new MatchingShard("test-shard", null, 8, new YieldingWaitStrategy());
+            shard.start();
+            int producers = 4;
+            List<List<CompletableFuture<Object>>> futures = new ArrayList<>();
+            AtomicInteger ran = new AtomicInteger();
+            CountDownLatch go = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                List<CompletableFuture<Object>> own = new ArrayList<>();
+                futures.add(own);
+                Thread thread = new Thread(() -> {
+                    try {
+                        go.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < 2_000; i++) {
+                        CompletableFuture<Object> future = new CompletableFuture<>();
+                        own.add(future);
+                        shard.execute(() -> {
+                            ran.incrementAndGet();
+                            future.complete(null);
+                        }, future);
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            go.countDown();
+            Thread.sleep(round % 3);
+            shard.stop();
+
+            // 缓冲区满而等待的生产者在停止后不会卡住
+            for (Thread thread : threads) {
+                thread.join(10_000);
+                assertFalse(thread.isAlive(), "producer stuck in round " + round);
+            }
+            int completed = 0;
+            int rejected = 0;
+            for (List<CompletableFuture<Object>> own : futures) {
+                for (CompletableFuture<Object> future : own) {
+                    try {
+                        future.get(5, TimeUnit.SECONDS);
+                        completed++;
+                    } catch (ExecutionException e) {
+                        assertTrue(e.getCause() instanceof IllegalStateException);
+                        rejected++;
+                    } catch (TimeoutException e) {
+                        fail("future never completed in round " + round);
+                    }
+                }
+            }
+            assertEquals(producers * 2_000, completed + rejected);
+            assertEquals(ran.get(), completed);
+        }
+    }
+}
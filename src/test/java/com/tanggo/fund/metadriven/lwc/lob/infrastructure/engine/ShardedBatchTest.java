@@ -0,0 +1,94 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.engine;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.LimitOrder;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.MatchResult;
+import com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories.InMemoryOrderBookRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 分片批量下单测试：批中间被拒绝的订单和整组失败的分片都以拒绝结果返回，其他分片已执行的结果不丢失
+ */
+class ShardedBatchTest {
+
+    private static final int SHARDS = 4;
+
+    @Test
+    void rejectedOrderAndFailedShardKeepOtherShardsResults() throws Exception {
+        // 整组撮合时对某个交易对失败的仓储，模拟分片内的整组故障
+        InMemoryOrderBookRepository delegate = new InMemoryOrderBookRepository() {
+            @Override
+            public MatchResult[] addOrders(List<LimitOrder> orders) {
+                if (orders.stream().anyMatch(order -> order.getSymbol().startsWith("BAD"))) {
+                    throw new IllegalStateException("book unavailable");
+                }
+                return super.addOrders(orders);
+            }
+        };
+        ShardedOrderBookRepository repository = new ShardedOrderBookRepository(delegate, SHARDS);
+        try {
+            Instrument good = instrument("GOODUSDT");
+            Instrument bad = instrumentOnOtherShard(repository, good);
+            repository.placeOrder("ask", "mm", good, OrderSide.SELL, 100, 5);
+
+            MatchResult[] results = repository.addOrders(List.of(
+                    new LimitOrder("take", "t", good, OrderSide.BUY, 100, 2),
+                    new LimitOrder("huge", "t", good, OrderSide.SELL, 1L << 40, 1L << 30),
+                    new LimitOrder("lost", "t", bad, OrderSide.BUY, 100, 1),
+                    new LimitOrder("rest", "t", good, OrderSide.BUY, 99, 1)));
+
+            assertEquals(1, results[0].getTrades().size());
+            assertTrue(results[1].isRejected());
+            assertTrue(results[2].isRejected());
+            assertEquals("book unavailable", results[2].getRejectReason());
+            assertFalse(results[3].isRejected());
+            assertEquals(2, repository.getOrderCount("GOODUSDT"));
+        } finally {
+            repository.close();
+        }
+    }
+
+    @Test
+    void batchAfterStopIsRejectedInsteadOfThrowing() throws Exception {
+        ShardedOrderBookRepository repository = new ShardedOrderBookRepository(new InMemoryOrderBookRepository(), SHARDS);
+        Instrument btc = instrument("BTCUSDT");
+        repository.close();
+
+        MatchResult[] results = repository.addOrders(List.of(
+                new LimitOrder("b1", "t", btc, OrderSide.BUY, 100, 1),
+                new LimitOrder("b2", "t", btc, OrderSide.BUY, 99, 1)));
+        assertEquals(2, results.length);
+        for (MatchResult result : results) {
+            assertTrue(result.isRejected());
+        }
+    }
+
+    private static Instrument instrument(String symbol) {
+        return new Instrument(symbol, new BigDecimal("0.01"), new BigDecimal("0.001"));
+    }
+
+    /**
+     * 取一个与给定品种不在同一分片、以BAD开头的交易对
+     */
+    private static Instrument instrumentOnOtherShard(ShardedOrderBookRepository repository, Instrument other) {
+        List<String> candidates = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            candidates.add("BAD" + i + "USDT");
+        }
+        String symbol = candidates.stream()
+                .filter(s -> repository.shardIndex(s) != repository.shardIndex(other.getSymbol()))
+                .findFirst().orElseThrow();
+        assertNotEquals(repository.shardIndex(symbol), repository.shardIndex(other.getSymbol()));
+        return instrument(symbol);
+    }
+}
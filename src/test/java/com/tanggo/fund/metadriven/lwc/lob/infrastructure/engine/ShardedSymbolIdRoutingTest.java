@@ -0,0 +1,145 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.engine;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.AuctionResult;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookSnapshot;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.TopOfBook;
+import com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories.InMemoryInstrumentRepository;
+import com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories.InMemoryOrderBookRepository;
+import com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories.SymbolRoutingOrderBookRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 按symbolId路由测试：已注册品种的撤单、批量撤单、竞价、快照、BBO和查询按品种定位分片和订单薄，
+ * 不经过按交易对字符串的入口；按符号和按品种的调用落到同一分片
+ */
+class ShardedSymbolIdRoutingTest {
+
+    private static final int SHARDS = 4;
+
+    @Test
+    void instrumentOverloadsNeverTakeSymbolPath() throws Exception {
+        InMemoryInstrumentRepository instruments = new InMemoryInstrumentRepository();
+        instruments.setInstruments(List.of(instrument("BTCUSDT"), instrument("ETHUSDT")));
+        Instrument btc = instruments.getInstrument("BTCUSDT");
+        // 按交易对字符串查找订单薄的入口一律失败，按品种的调用只能走symbolId
+        InMemoryOrderBookRepository books = new SymbolPathFailingRepository();
+        SymbolRoutingOrderBookRepository routing = new SymbolRoutingOrderBookRepository(books);
+        routing.setRoutes(Map.of("ETHUSDT", new SymbolPathFailingRepository()));
+        ShardedOrderBookRepository repository = new ShardedOrderBookRepository(routing, SHARDS);
+        try {
+            repository.placeOrder("b1", "mm-1", btc, OrderSide.BUY, 100, 2);
+            repository.placeOrder("b2", "mm-2", btc, OrderSide.BUY, 99, 3);
+            repository.placeOrder("a1", "mm-1", btc, OrderSide.SELL, 101, 4);
+
+            assertEquals(3, repository.getOrderCount(btc));
+            assertTrue(repository.existsOrder(btc, "b1"));
+            TopOfBook top = repository.getTopOfBook(btc);
+            assertEquals(100, top.getBidPriceTicks());
+            assertEquals(101, top.getAskPriceTicks());
+            OrderBookSnapshot snapshot = repository.getSnapshot(btc, 5);
+            assertEquals(2, snapshot.getBids().size());
+            // 超过发布深度的快照投递到撮合线程生成
+            assertEquals(2, repository.getSnapshot(btc, 10_000).getBids().size());
+
+            assertArrayEquals(new boolean[]{true, false}, repository.cancelOrders(btc, List.of("b1", "missing")));
+            assertEquals(List.of("a1"), repository.massCancel(btc, null, "mm-1"));
+
+            repository.beginAuction(btc);
+            repository.placeOrder("s1", "mm-3", btc, OrderSide.SELL, 98, 3);
+            AuctionResult result = repository.uncrossAuction(btc, false);
+            assertTrue(result.hasUncrossed());
+            assertEquals(0, repository.getOrderCount(btc));
+            assertFalse(repository.existsOrder(btc, "b2"));
+        } finally {
+            repository.close();
+        }
+    }
+
+    @Test
+    void symbolAndInstrumentCallsShareShard() throws Exception {
+        InMemoryInstrumentRepository instruments = new InMemoryInstrumentRepository();
+        List<Instrument> defined = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            defined.add(instrument("SYM" + i + "USDT"));
+        }
+        instruments.setInstruments(defined);
+        ShardedOrderBookRepository repository = new ShardedOrderBookRepository(new InMemoryOrderBookRepository(), SHARDS);
+        try {
+            for (int i = 0; i < 100; i++) {
+                Instrument registered = instruments.getInstrument("SYM" + i + "USDT");
+                assertEquals(repository.shardIndex(registered.getSymbol()), repository.shardIndex(registered));
+                // 缓存命中后结果不变
+                assertEquals(repository.shardIndex(registered.getSymbol()), repository.shardIndex(registered));
+            }
+            Instrument btc = instruments.getInstrument("SYM7USDT");
+            repository.placeOrder("b1", "mm-1", btc, OrderSide.BUY, 100, 2);
+            assertTrue(repository.existsOrder("SYM7USDT", "b1"));
+            assertTrue(repository.cancelOrder("SYM7USDT", "b1"));
+            assertEquals(0, repository.getOrderCount(btc));
+        } finally {
+            repository.close();
+        }
+    }
+
+    private static Instrument instrument(String symbol) {
+        return new Instrument(symbol, new BigDecimal("0.01"), new BigDecimal("0.001"));
+    }
+
+    /**
+     * 按交易对字符串定位订单薄的入口抛出异常的仓储
+     */
+    private static final class SymbolPathFailingRepository extends InMemoryOrderBookRepository {
+
+        @Override
+        public boolean[] cancelOrders(String symbol, List<String> orderIds) {
+            throw new AssertionError("cancelOrders by symbol");
+        }
+
+        @Override
+        public List<String> massCancel(String symbol, OrderSide side, String ownerId) {
+            throw new AssertionError("massCancel by symbol");
+        }
+
+        @Override
+        public AuctionResult uncrossAuction(String symbol, boolean continueAuction) {
+            throw new AssertionError("uncrossAuction by symbol");
+        }
+
+        @Override
+        public OrderBookSnapshot getSnapshot(String symbol, int depth) {
+            throw new AssertionError("getSnapshot by symbol");
+        }
+
+        @Override
+        public OrderBookSnapshot getPublishedSnapshot(String symbol, int depth) {
+            throw new AssertionError("getPublishedSnapshot by symbol");
+        }
+
+        @Override
+        public TopOfBook getTopOfBook(String symbol) {
+            throw new AssertionError("getTopOfBook by symbol");
+        }
+
+        @Override
+        public boolean existsOrder(String symbol, String orderId) {
+            throw new AssertionError("existsOrder by symbol");
+        }
+
+        @Override
+        public int getOrderCount(String symbol) {
+            throw new AssertionError("getOrderCount by symbol");
+        }
+    }
+}
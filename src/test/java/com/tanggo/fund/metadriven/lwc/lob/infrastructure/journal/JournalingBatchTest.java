@@ -0,0 +1,95 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.journal;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.LimitOrder;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.MatchResult;
+import com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories.InMemoryInstrumentRepository;
+import com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories.PriceLadderOrderBookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 写日志的批量下单测试：批中间被订单薄拒绝或无法写入日志的订单以拒绝结果返回，之后的订单和交易对照常执行，
+ * 重启重放得到同样的订单薄而不需要拒绝记录
+ */
+class JournalingBatchTest {
+
+    private final Path directory;
+    private final InMemoryInstrumentRepository instruments = new InMemoryInstrumentRepository();
+    private JournalingOrderBookRepository repository;
+
+    JournalingBatchTest() throws IOException {
+        directory = Files.createTempDirectory("lob-batch-test");
+        instruments.setInstruments(List.of(
+                new Instrument("BTCUSDT", new BigDecimal("0.01"), new BigDecimal("0.00001")),
+                new Instrument("ETHUSDT", new BigDecimal("0.01"), new BigDecimal("0.0001"))));
+    }
+
+    @AfterEach
+    void deleteDirectory() throws Exception {
+        if (repository != null) {
+            repository.close();
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void rejectedOrdersDoNotAbortLaterGroups() throws Exception {
+        open();
+        Instrument btc = instruments.getInstrument("BTCUSDT");
+        Instrument eth = instruments.getInstrument("ETHUSDT");
+        repository.placeOrder("ask", "mm", btc, OrderSide.SELL, 1_000, 5);
+
+        List<LimitOrder> orders = List.of(
+                new LimitOrder("take", "t", btc, OrderSide.BUY, 1_000, 2),
+                new LimitOrder("huge", "t", btc, OrderSide.SELL, 1L << 40, 1L << 30),
+                new LimitOrder("x".repeat(Short.MAX_VALUE), "t", btc, OrderSide.BUY, 990, 1),
+                new LimitOrder("rest", "t", btc, OrderSide.BUY, 990, 4),
+                new LimitOrder("eth", "t", eth, OrderSide.BUY, 2_000, 1));
+        MatchResult[] results = repository.addOrders(orders);
+
+        assertEquals(5, results.length);
+        assertEquals(1, results[0].getTrades().size());
+        assertTrue(results[1].isRejected());
+        assertTrue(results[2].isRejected());
+        assertFalse(results[3].isRejected());
+        assertFalse(results[4].isRejected());
+        assertTrue(repository.existsOrder("BTCUSDT", "rest"));
+        assertTrue(repository.existsOrder("ETHUSDT", "eth"));
+        String before = dump();
+
+        repository.close();
+        open();
+        assertEquals(before, dump());
+        assertEquals(0, repository.getReplayRejected());
+        assertFalse(repository.existsOrder("BTCUSDT", "huge"));
+    }
+
+    private void open() throws IOException {
+        repository = new JournalingOrderBookRepository(new PriceLadderOrderBookRepository(), instruments);
+        repository.setDirectory(directory.toString());
+        repository.setSegmentSize(1 << 16);
+        repository.setFlushIntervalMicros(0);
+        repository.recover();
+    }
+
+    private String dump() {
+        return repository.getSnapshot("BTCUSDT", 10) + " " + repository.getOrderCount("BTCUSDT") + " "
+                + repository.getSnapshot("ETHUSDT", 10) + " " + repository.getOrderCount("ETHUSDT");
+    }
+}
@@ -0,0 +1,173 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.journal;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 内存映射日志测试：跨段追加后按顺序读回，写了一半的尾部记录被丢弃并从其位置继续追加，
+ * 写入中（长度为负）的记录被跳过
+ */
+class MappedJournalTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    private final Path directory;
+
+    MappedJournalTest() throws IOException {
+        directory = Files.createTempDirectory("lob-journal-test");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void readsBackRecordsAcrossSegments() throws Exception {
+        int count = 500;
+        MappedJournal journal = new MappedJournal(directory, SEGMENT_SIZE, 0, 0);
+        for (int i = 0; i < count; i++) {
+            journal.append(JournalRecord.PLACE, 1_000L + i, "BTCUSDT", "order-" + i, i % 2 == 0 ? null : "做市商-" + i,
+                    i % 3 == 0 ? OrderSide.SELL : OrderSide.BUY, 10_000 + i, i + 1, 0);
+        }
+        journal.append(JournalRecord.MASS_CANCEL, 9_999L, "ETHUSDT", null, null, null, 0, 0, 0);
+        journal.close();
+        assertTrue(MappedJournal.listSegments(directory).length > 1);
+
+        List<JournalRecord> records = readAll(0L);
+        assertEquals(count + 1, records.size());
+        for (int i = 0; i < count; i++) {
+            JournalRecord record = records.get(i);
+            assertEquals(JournalRecord.PLACE, record.getType());
+            assertEquals(1_000L + i, record.getTimestampNanos());
+            assertEquals("BTCUSDT", record.getSymbol());
+            assertEquals("order-" + i, record.getOrderId());
+            assertEquals(i % 2 == 0 ? null : "做市商-" + i, record.getOwnerId());
+            assertEquals(i % 3 == 0 ? OrderSide.SELL : OrderSide.BUY, record.getSide());
+            assertEquals(10_000 + i, record.getValue(0));
+            assertEquals(i + 1, record.getValue(1));
+        }
+        JournalRecord last = records.get(count);
+        assertEquals(JournalRecord.MASS_CANCEL, last.getType());
+        assertNull(last.getOrderId());
+        assertNull(last.getSide());
+    }
+
+    @Test
+    void discardsTornTailAndAppendsFromIt() throws Exception {
+        MappedJournal journal = new MappedJournal(directory, SEGMENT_SIZE, 0, 0);
+        for (int i = 0; i < 10; i++) {
+            journal.append(JournalRecord.CANCEL, i, "BTCUSDT", "order-" + i, null, null, 0, 0, 0);
+        }
+        journal.close();
+
+        long lastPosition;
+        try (JournalReader reader = new JournalReader(directory)) {
+            JournalRecord record = new JournalRecord();
+            while (reader.next(record)) {
+                // 读到最后
+            }
+            lastPosition = reader.getRecordPosition();
+        }
+        // 模拟崩溃时只写了一半：最后一条记录的内容与校验和不符
+        int offset = MappedJournal.offsetOf(lastPosition);
+        writeByte(MappedJournal.segmentPath(directory, 0), offset + JournalRecord.HEADER_LENGTH + 2, (byte) 0x5A);
+
+        long segmentIndex;
+        int position;
+        try (JournalReader reader = new JournalReader(directory)) {
+            JournalRecord record = new JournalRecord();
+            int read = 0;
+            while (reader.next(record)) {
+                read++;
+            }
+            assertEquals(9, read);
+            segmentIndex = reader.getSegmentIndex();
+            position = reader.getPosition();
+        }
+        assertEquals(0, segmentIndex);
+        assertEquals(offset, position);
+
+        // 从断点继续追加：残留的尾部被清零，新记录接在第9条之后
+        journal = new MappedJournal(directory, SEGMENT_SIZE, segmentIndex, position);
+        journal.append(JournalRecord.CANCEL, 100, "BTCUSDT", "after-restart", null, null, 0, 0, 0);
+        journal.close();
+
+        List<JournalRecord> records = readAll(0L);
+        assertEquals(10, records.size());
+        assertEquals("order-8", records.get(8).getOrderId());
+        assertEquals("after-restart", records.get(9).getOrderId());
+    }
+
+    @Test
+    void skipsRecordStillBeingWritten() throws Exception {
+        MappedJournal journal = new MappedJournal(directory, SEGMENT_SIZE, 0, 0);
+        journal.append(JournalRecord.CANCEL, 1, "BTCUSDT", "first", null, null, 0, 0, 0);
+        long second = journal.position();
+        journal.append(JournalRecord.CANCEL, 2, "BTCUSDT", "second", null, null, 0, 0, 0);
+        journal.append(JournalRecord.CANCEL, 3, "BTCUSDT", "third", null, null, 0, 0, 0);
+        journal.close();
+
+        // 第二条记录的长度字改回负数：占位后进程崩溃，命令未执行
+        Path segment = MappedJournal.segmentPath(directory, 0);
+        int offset = MappedJournal.offsetOf(second);
+        writeInt(segment, offset, -readInt(segment, offset));
+
+        List<JournalRecord> records = readAll(0L);
+        assertEquals(List.of("first", "third"), records.stream().map(JournalRecord::getOrderId).toList());
+        // 从第三条记录的位置开始读
+        assertFalse(readAll(second).stream().anyMatch(record -> "first".equals(record.getOrderId())));
+    }
+
+    private List<JournalRecord> readAll(long from) throws IOException {
+        List<JournalRecord> records = new ArrayList<>();
+        try (JournalReader reader = new JournalReader(directory, from)) {
+            JournalRecord record = new JournalRecord();
+            while (reader.next(record)) {
+                records.add(record);
+                record = new JournalRecord();
+            }
+        }
+        return records;
+    }
+
+    private static void writeByte(Path file, int offset, byte value) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {value}), offset);
+        }
+    }
+
+    private static void writeInt(Path file, int offset, int value) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0, value), offset);
+        }
+    }
+
+    private static int readInt(Path file, int offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(buffer, offset);
+            return buffer.getInt(0);
+        }
+    }
+}
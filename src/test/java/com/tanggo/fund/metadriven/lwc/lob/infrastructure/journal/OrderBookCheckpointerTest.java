@@ -0,0 +1,160 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.journal;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import com.tanggo.fund.metadriven.lwc.lob.domain.StopOrder;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookCursor;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookEntry;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookPage;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookState;
+import com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories.InMemoryInstrumentRepository;
+import com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories.InMemoryOrderBookRepository;
+import com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories.PriceLadderOrderBookRepository;
+import com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories.SymbolRoutingOrderBookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 检查点测试：检查点写出全部订单薄并截断已覆盖的日志段，重启时装载检查点、只重放其后的日志，
+ * 恢复出的订单薄（挂单、队列位置、时间戳、止损单、最新价）与重启前一致
+ */
+class OrderBookCheckpointerTest {
+
+    private static final List<String> SYMBOLS = List.of("BTCUSDT", "ETHUSDT", "SOLUSDT");
+
+    private final Path directory;
+    private final InMemoryInstrumentRepository instruments = new InMemoryInstrumentRepository();
+    private JournalingOrderBookRepository repository;
+
+    OrderBookCheckpointerTest() throws IOException {
+        directory = Files.createTempDirectory("lob-checkpoint-test");
+        instruments.setInstruments(SYMBOLS.stream()
+                .map(symbol -> new Instrument(symbol, new BigDecimal("0.01"), new BigDecimal("0.001"))).toList());
+    }
+
+    @AfterEach
+    void deleteDirectory() throws Exception {
+        if (repository != null) {
+            repository.close();
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void restartFromCheckpointRestoresBooks() throws Exception {
+        assertEquals(0, open());
+        Random random = new Random(17);
+        apply(random, 0, 2_000);
+        long segmentsBefore = MappedJournal.listSegments(directory).length;
+        assertTrue(segmentsBefore > 2);
+
+        Path checkpoint = new OrderBookCheckpointer(repository, repository).checkpoint();
+        assertTrue(Files.exists(checkpoint));
+        // 检查点之前的段已删除，只剩当前段
+        assertEquals(1, MappedJournal.listSegments(directory).length);
+
+        apply(random, 2_000, 300);
+        String expected = dump();
+        assertTrue(expected.contains(" o-"), expected);
+        repository.close();
+
+        long replayed = open();
+        // 只重放检查点之后的命令（含拒绝记录）
+        assertTrue(replayed > 0 && replayed <= 2 * 300, "replayed " + replayed);
+        assertEquals(expected, dump());
+
+        // 再次生成检查点后立即重启：无需重放
+        new OrderBookCheckpointer(repository, repository).checkpoint();
+        repository.close();
+        assertEquals(0, open());
+        assertEquals(expected, dump());
+        assertEquals(1, CheckpointFile.list(directory).size());
+    }
+
+    /**
+     * 以新的内存仓储恢复（ETHUSDT使用价格阶梯）
+     *
+     * @return 重放的记录数
+     */
+    private long open() throws IOException {
+        SymbolRoutingOrderBookRepository routing = new SymbolRoutingOrderBookRepository(new InMemoryOrderBookRepository());
+        routing.setRoutes(Map.of("ETHUSDT", new PriceLadderOrderBookRepository()));
+        repository = new JournalingOrderBookRepository(routing, instruments);
+        repository.setDirectory(directory.toString());
+        repository.setSegmentSize(4096);
+        repository.setFlushIntervalMicros(0);
+        return repository.recover();
+    }
+
+    private void apply(Random random, int from, int count) {
+        for (int i = from; i < from + count; i++) {
+            Instrument instrument = instruments.getInstrument(SYMBOLS.get(random.nextInt(SYMBOLS.size())));
+            OrderSide side = random.nextBoolean() ? OrderSide.BUY : OrderSide.SELL;
+            int kind = random.nextInt(100);
+            try {
+                if (kind < 60) {
+                    repository.placeOrder("o-" + i, "mm-" + random.nextInt(3), instrument, side,
+                            1_000 + random.nextInt(30), 1 + random.nextInt(20));
+                } else if (kind < 80) {
+                    repository.cancelOrder(instrument, "o-" + (from + random.nextInt(i - from + 1)));
+                } else if (kind < 90) {
+                    repository.amendOrder(instrument, "o-" + (from + random.nextInt(i - from + 1)),
+                            1_000 + random.nextInt(30), 1 + random.nextInt(25));
+                } else if (kind < 97) {
+                    boolean buy = side == OrderSide.BUY;
+                    repository.placeStopOrder("o-" + i, "mm-1", instrument, side,
+                            buy ? 1_040 + random.nextInt(5) : 990 - random.nextInt(5), 0, 1 + random.nextInt(5));
+                } else {
+                    repository.massCancel(instrument.getSymbol(), null, "mm-" + random.nextInt(3));
+                }
+            } catch (IllegalArgumentException e) {
+                // 被拒绝的命令同样写入日志，重放时须同样被拒绝
+            }
+        }
+    }
+
+    private String dump() {
+        StringBuilder out = new StringBuilder();
+        for (String symbol : SYMBOLS) {
+            try (OrderBookCursor cursor = repository.openCheckpointCursor(symbol)) {
+                OrderBookState state = cursor.getState();
+                out.append(symbol).append(" seq=").append(state.getSequence())
+                        .append(" last=").append(state.getLastTradePriceTicks())
+                        .append(" orders=").append(state.getOrderCount()).append('\n');
+                for (StopOrder stop : state.getStopOrders()) {
+                    out.append(" stop ").append(stop.getOrderId()).append(' ').append(stop.getSide())
+                            .append(' ').append(stop.getTriggerPriceTicks()).append(' ').append(stop.getQuantityLots())
+                            .append(' ').append(stop.getCreateTimeNanos()).append('\n');
+                }
+                OrderBookPage page;
+                do {
+                    page = cursor.nextPage(64);
+                    for (OrderBookEntry entry : page.getEntries()) {
+                        out.append(' ').append(entry.getOrderId()).append(' ').append(entry.getOwnerId())
+                                .append(' ').append(entry.getSide()).append(' ').append(entry.getPriceTicks())
+                                .append(' ').append(entry.getQuantityLots()).append('/').append(entry.getFilledLots())
+                                .append(" #").append(entry.getQueuePosition())
+                                .append(' ').append(entry.getCreateTimeNanos()).append('/').append(entry.getUpdateTimeNanos())
+                                .append('\n');
+                    }
+                } while (!page.isLast());
+            }
+        }
+        return out.toString();
+    }
+}
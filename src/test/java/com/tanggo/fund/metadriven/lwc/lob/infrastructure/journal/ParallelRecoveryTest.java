@@ -0,0 +1,169 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.journal;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookCursor;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookEntry;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookPage;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookState;
+import com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories.InMemoryInstrumentRepository;
+import com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories.PriceLadderOrderBookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 并行恢复测试：多个交易对的检查点并行装载后重放日志尾部，结果与重启前一致；
+ * 日志末尾写了一半的命令被丢弃，检查点中损坏的订单薄使恢复失败
+ */
+class ParallelRecoveryTest {
+
+    private static final int SYMBOL_COUNT = 12;
+
+    private final Path directory;
+    private final InMemoryInstrumentRepository instruments = new InMemoryInstrumentRepository();
+    private final List<String> symbols = new ArrayList<>();
+    private JournalingOrderBookRepository repository;
+
+    ParallelRecoveryTest() throws IOException {
+        directory = Files.createTempDirectory("lob-recovery-test");
+        List<Instrument> list = new ArrayList<>();
+        for (int i = 0; i < SYMBOL_COUNT; i++) {
+            symbols.add("SYM" + i + "USDT");
+            list.add(new Instrument("SYM" + i + "USDT", new BigDecimal("0.01"), new BigDecimal("0.001")));
+        }
+        instruments.setInstruments(list);
+    }
+
+    @AfterEach
+    void deleteDirectory() throws Exception {
+        if (repository != null) {
+            repository.close();
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void recoversCheckpointInParallelAndDropsTornTail() throws Exception {
+        open();
+        Random random = new Random(23);
+        // 订单薄大小不同：较大的先装载
+        for (int i = 0; i < 6_000; i++) {
+            place(random, "c-" + i, symbols.get(Math.min(random.nextInt(SYMBOL_COUNT), random.nextInt(SYMBOL_COUNT))));
+        }
+        new OrderBookCheckpointer(repository, repository).checkpoint();
+        for (int i = 0; i < 200; i++) {
+            place(random, "t-" + i, symbols.get(random.nextInt(SYMBOL_COUNT)));
+        }
+        String expected = dump();
+
+        // 最后一条命令执行后进程崩溃，其日志记录只写了一半
+        long tail = repository.beginCheckpoint(new ArrayList<>());
+        repository.placeOrder("torn", "mm-0", instruments.getInstrument(symbols.get(0)), OrderSide.BUY, 900, 1);
+        assertFalse(expected.equals(dump()));
+        repository.close();
+        flipByte(MappedJournal.segmentPath(directory, MappedJournal.segmentOf(tail)),
+                MappedJournal.offsetOf(tail) + JournalRecord.HEADER_LENGTH + 2);
+
+        assertEquals(200, open());
+        assertEquals(expected, dump());
+        assertFalse(repository.existsOrder(symbols.get(0), "torn"));
+
+        // 从被丢弃的位置继续追加，之后的重启能读到新命令
+        repository.placeOrder("after", "mm-0", instruments.getInstrument(symbols.get(0)), OrderSide.BUY, 900, 1);
+        repository.close();
+        assertEquals(201, open());
+        assertTrue(repository.existsOrder(symbols.get(0), "after"));
+    }
+
+    @Test
+    void corruptedCheckpointBookFailsRecovery() throws Exception {
+        open();
+        Random random = new Random(29);
+        for (int i = 0; i < 500; i++) {
+            place(random, "c-" + i, symbols.get(random.nextInt(SYMBOL_COUNT)));
+        }
+        Path checkpoint = new OrderBookCheckpointer(repository, repository).checkpoint();
+        repository.close();
+
+        long firstBookLength;
+        try (CheckpointReader reader = new CheckpointReader(checkpoint, instruments)) {
+            assertEquals(SYMBOL_COUNT, reader.getBookCount());
+            firstBookLength = reader.getBookLength(0);
+        }
+        // 第一个订单薄紧跟文件头，改动其最后一个字节
+        flipByte(checkpoint, CheckpointFile.HEADER_LENGTH + firstBookLength - 1);
+
+        assertThrows(IOException.class, this::open);
+    }
+
+    /**
+     * 以新的内存仓储恢复，4个线程并行装载检查点
+     *
+     * @return 重放的记录数
+     */
+    private long open() throws IOException {
+        repository = new JournalingOrderBookRepository(new PriceLadderOrderBookRepository(), instruments);
+        repository.setDirectory(directory.toString());
+        repository.setSegmentSize(1 << 16);
+        repository.setFlushIntervalMicros(0);
+        repository.setRecoveryParallelism(4);
+        return repository.recover();
+    }
+
+    private void place(Random random, String orderId, String symbol) {
+        repository.placeOrder(orderId, "mm-" + random.nextInt(4), instruments.getInstrument(symbol),
+                random.nextBoolean() ? OrderSide.BUY : OrderSide.SELL, 1_000 + random.nextInt(40), 1 + random.nextInt(10));
+    }
+
+    private String dump() {
+        StringBuilder out = new StringBuilder();
+        for (String symbol : symbols) {
+            try (OrderBookCursor cursor = repository.openCheckpointCursor(symbol)) {
+                OrderBookState state = cursor.getState();
+                out.append(symbol).append(" seq=").append(state.getSequence())
+                        .append(" last=").append(state.getLastTradePriceTicks())
+                        .append(" orders=").append(state.getOrderCount()).append('\n');
+                OrderBookPage page;
+                do {
+                    page = cursor.nextPage(256);
+                    for (OrderBookEntry entry : page.getEntries()) {
+                        out.append(' ').append(entry.getOrderId()).append(' ').append(entry.getOwnerId())
+                                .append(' ').append(entry.getPriceTicks()).append(' ').append(entry.getQuantityLots())
+                                .append('/').append(entry.getFilledLots()).append(" #").append(entry.getQueuePosition())
+                                .append(' ').append(entry.getCreateTimeNanos()).append('\n');
+                    }
+                } while (!page.isLast());
+            }
+        }
+        return out.toString();
+    }
+
+    private static void flipByte(Path file, long offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1);
+            channel.read(buffer, offset);
+            buffer.put(0, (byte) (buffer.get(0) ^ 0x40)).rewind();
+            channel.write(buffer, offset);
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.marketdata;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.LimitOrder;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.IOrderBookRepository;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.LevelUpdateListener;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.LevelUpdateSubscription;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.MatchResult;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookSnapshot;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.PriceLevel;
+import com.tanggo.fund.metadriven.lwc.lob.infrastructure.engine.ShardedOrderBookRepository;
+import com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories.InMemoryOrderBookRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 合并行情测试：原始订阅缺口和序号跳号后重新取快照，订阅者本地订单薄与快照一致；
+ * 新订阅先收到完整档位状态；flushIntervalMicros限制发送频率并合并同一档位；
+ * 撮合线程持续写入时每批应用完后的本地订单薄都对应某个完整版本，停止写入后与getSnapshot一致
+ */
+class ConflatingMarketDataPublisherTest {
+
+    private final Instrument instrument = new Instrument("BTCUSDT", new BigDecimal("0.01"), new BigDecimal("0.00001"));
+
+    @Test
+    void rawGapResyncsFromSnapshot() {
+        ScriptedRepository repository = new ScriptedRepository();
+        repository.snapshot = snapshot(5, List.of(level(100, 3, 1)), List.of(level(101, 2, 1)));
+        SymbolFeed feed = new SymbolFeed(repository, instrument, 16);
+        ConflatedSubscription subscription = new ConflatedSubscription(feed, 0);
+        feed.add(subscription);
+        LocalBook local = new LocalBook();
+
+        feed.pump(100);
+        subscription.poll(local, Integer.MAX_VALUE);
+        local.assertMatches(repository.snapshot);
+
+        repository.raw.updates.add(new Update(6, OrderSide.BUY, 100, 5, 2));
+        feed.pump(100);
+        subscription.poll(local, Integer.MAX_VALUE);
+        assertEquals(5, local.bids.get(100L)[0]);
+
+        // 缺口：缓冲区里残留的增量随缺口一起清掉，以新快照为准
+        repository.raw.gap = true;
+        repository.raw.updates.add(new Update(8, OrderSide.BUY, 98, 9, 1));
+        repository.snapshot = snapshot(10, List.of(level(99, 4, 1)), List.of(level(101, 2, 1)));
+        feed.pump(100);
+        assertEquals(2, repository.raw.clearGapCalls);
+        assertEquals(2, repository.snapshotCalls);
+        // 只发出差异：删除100、新增99，未变化的卖档不重发
+        assertEquals(2, subscription.poll(local, Integer.MAX_VALUE));
+        local.assertMatches(repository.snapshot);
+
+        // 快照已包含的增量跳过，后续增量照常应用
+        repository.raw.updates.add(new Update(10, OrderSide.BUY, 99, 7, 2));
+        repository.raw.updates.add(new Update(11, OrderSide.SELL, 102, 1, 1));
+        feed.pump(100);
+        assertEquals(1, subscription.poll(local, Integer.MAX_VALUE));
+        assertEquals(4, local.bids.get(99L)[0]);
+        assertEquals(1, local.asks.get(102L)[0]);
+        assertEquals(11, local.lastSequence);
+    }
+
+    @Test
+    void sequenceJumpResyncsOnNextPump() {
+        ScriptedRepository repository = new ScriptedRepository();
+        repository.snapshot = snapshot(1, List.of(), List.of());
+        SymbolFeed feed = new SymbolFeed(repository, instrument, 16);
+        ConflatedSubscription subscription = new ConflatedSubscription(feed, 0);
+        feed.add(subscription);
+        LocalBook local = new LocalBook();
+        feed.pump(100);
+
+        repository.raw.updates.add(new Update(2, OrderSide.BUY, 100, 1, 1));
+        // 缺少序号3
+        repository.raw.updates.add(new Update(4, OrderSide.BUY, 101, 1, 1));
+        repository.raw.updates.add(new Update(5, OrderSide.SELL, 103, 1, 1));
+        feed.pump(100);
+        assertEquals(1, repository.snapshotCalls);
+        subscription.poll(local, Integer.MAX_VALUE);
+        assertEquals(1, local.bids.size());
+        assertTrue(local.asks.isEmpty());
+
+        repository.snapshot = snapshot(5,
+                List.of(level(101, 1, 1), level(100, 1, 1)), List.of(level(103, 1, 1)));
+        feed.pump(100);
+        assertEquals(2, repository.snapshotCalls);
+        // 跳号后重新取快照前清空原始缓冲区
+        assertEquals(2, repository.raw.clearGapCalls);
+        subscription.poll(local, Integer.MAX_VALUE);
+        local.assertMatches(repository.snapshot);
+    }
+
+    @Test
+    void lateSubscriberReceivesFullState() {
+        ScriptedRepository repository = new ScriptedRepository();
+        repository.snapshot = snapshot(3, List.of(level(100, 3, 1), level(99, 1, 1)), List.of(level(101, 2, 1)));
+        SymbolFeed feed = new SymbolFeed(repository, instrument, 16);
+        ConflatedSubscription early = new ConflatedSubscription(feed, 0);
+        feed.add(early);
+        LocalBook earlyBook = new LocalBook();
+        feed.pump(100);
+        repository.raw.updates.add(new Update(4, OrderSide.SELL, 102, 6, 2));
+        feed.pump(100);
+        early.poll(earlyBook, Integer.MAX_VALUE);
+
+        ConflatedSubscription late = new ConflatedSubscription(feed, 0);
+        feed.add(late);
+        LocalBook lateBook = new LocalBook();
+        assertEquals(0, late.poll(lateBook, Integer.MAX_VALUE));
+        feed.pump(100);
+        assertEquals(4, late.poll(lateBook, Integer.MAX_VALUE));
+        assertEquals(earlyBook.bids.keySet(), lateBook.bids.keySet());
+        assertEquals(earlyBook.asks.keySet(), lateBook.asks.keySet());
+        assertEquals(6, lateBook.asks.get(102L)[0]);
+        assertEquals(4, lateBook.lastSequence);
+        // 完整状态只发给新订阅，也不重复取快照
+        assertEquals(0, early.poll(earlyBook, Integer.MAX_VALUE));
+        assertEquals(1, repository.snapshotCalls);
+    }
+
+    @Test
+    void flushIntervalThrottlesAndConflates() throws Exception {
+        ScriptedRepository repository = new ScriptedRepository();
+        repository.snapshot = snapshot(1, List.of(level(100, 1, 1)), List.of());
+        SymbolFeed feed = new SymbolFeed(repository, instrument, 16);
+        long interval = TimeUnit.MILLISECONDS.toNanos(300);
+        ConflatedSubscription throttled = new ConflatedSubscription(feed, interval);
+        ConflatedSubscription eager = new ConflatedSubscription(feed, 0);
+        feed.add(throttled);
+        feed.add(eager);
+        LocalBook throttledBook = new LocalBook();
+        LocalBook eagerBook = new LocalBook();
+
+        feed.pump(100);
+        // 第一批不等待
+        assertEquals(1, throttled.poll(throttledBook, Integer.MAX_VALUE));
+        assertEquals(1, eager.poll(eagerBook, Integer.MAX_VALUE));
+
+        long start = System.nanoTime();
+        for (int seq = 2; seq <= 4; seq++) {
+            repository.raw.updates.add(new Update(seq, OrderSide.BUY, 100, seq, seq));
+            feed.pump(100);
+            // 间隔为0时每次poll都发送
+            assertEquals(1, eager.poll(eagerBook, Integer.MAX_VALUE));
+            assertEquals(seq, eagerBook.lastSequence);
+            // 留出余量，避免检查之后、poll之前恰好到期
+            if (System.nanoTime() - start < interval / 2) {
+                assertEquals(0, throttled.poll(throttledBook, Integer.MAX_VALUE));
+            }
+        }
+
+        TimeUnit.NANOSECONDS.sleep(interval);
+        List<Update> batch = new ArrayList<>();
+        assertEquals(1, throttled.poll((sequence, side, priceTicks, quantityLots, orderCount) ->
+                batch.add(new Update(sequence, side, priceTicks, quantityLots, orderCount)), Integer.MAX_VALUE));
+        // 同一档位的三次变化合并为最新状态
+        assertEquals(List.of(new Update(4, OrderSide.BUY, 100, 4, 4)), batch);
+    }
+
+    @Test
+    void batchesStayConsistentWithLiveWriter() throws Exception {
+        ShardedOrderBookRepository repository = new ShardedOrderBookRepository(new InMemoryOrderBookRepository(), 2);
+        ConflatingMarketDataPublisher publisher = new ConflatingMarketDataPublisher(repository);
+        // 缓冲区很小，写入期间反复出现缺口和重新取快照
+        publisher.setRawBufferSize(8);
+        publisher.setIdleParkNanos(TimeUnit.MICROSECONDS.toNanos(200));
+        publisher.start();
+        try {
+            int ordersPerSide = 40;
+            for (int i = 0; i < ordersPerSide; i++) {
+                repository.placeOrder("b-" + i, "mm", instrument, OrderSide.BUY, 1_000 + i % 50, 1);
+                repository.placeOrder("a-" + i, "mm", instrument, OrderSide.SELL, 1_200 + i % 50, 1);
+            }
+            LevelUpdateSubscription subscription = publisher.subscribeConflated(instrument, 0);
+            LocalBook local = new LocalBook();
+
+            // 写入线程只改价：每次更新移走一档的1手并加到另一档，任何完整版本两侧都各有ordersPerSide手、ordersPerSide笔
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            Thread writer = new Thread(() -> {
+                Random random = new Random(13);
+                try {
+                    for (int k = 0; k < 20_000; k++) {
+                        int i = random.nextInt(ordersPerSide);
+                        if (random.nextBoolean()) {
+                            repository.amendOrder(instrument, "b-" + i, 1_000 + random.nextInt(100), 1);
+                        } else {
+                            repository.amendOrder(instrument, "a-" + i, 1_150 + random.nextInt(100), 1);
+                        }
+                    }
+                } catch (Throwable t) {
+                    failure.set(t);
+                }
+            }, "md-test-writer");
+            writer.start();
+
+            int batches = 0;
+            while (writer.isAlive()) {
+                if (subscription.poll(local, Integer.MAX_VALUE) > 0) {
+                    batches++;
+                    local.assertComplete(ordersPerSide);
+                }
+            }
+            writer.join();
+            assertNull(failure.get());
+            assertTrue(batches > 0);
+
+            OrderBookSnapshot expected = repository.getSnapshot(instrument, Integer.MAX_VALUE);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (!local.matches(expected) && System.nanoTime() < deadline) {
+                if (subscription.poll(local, Integer.MAX_VALUE) > 0) {
+                    local.assertComplete(ordersPerSide);
+                } else {
+                    Thread.onSpinWait();
+                }
+            }
+            local.assertMatches(expected);
+            subscription.close();
+        } finally {
+            publisher.close();
+            repository.close();
+        }
+    }
+
+    private OrderBookSnapshot snapshot(long sequence, List<PriceLevel> bids, List<PriceLevel> asks) {
+        return new OrderBookSnapshot("BTCUSDT", sequence, bids, asks);
+    }
+
+    private PriceLevel level(long priceTicks, long quantityLots, int orderCount) {
+        return new PriceLevel(instrument, priceTicks, quantityLots, orderCount);
+    }
+
+    /**
+     * 一条增量
+     */
+    private record Update(long sequence, OrderSide side, long priceTicks, long quantityLots, int orderCount) {
+    }
+
+    /**
+     * 订阅者本地订单薄：价格 -> {剩余总量, 订单数}
+     */
+    private static final class LocalBook implements LevelUpdateListener {
+
+        final TreeMap<Long, long[]> bids = new TreeMap<>();
+        final TreeMap<Long, long[]> asks = new TreeMap<>();
+        long lastSequence;
+
+        @Override
+        public void onLevelUpdate(long sequence, OrderSide side, long priceTicks, long quantityLots, int orderCount) {
+            Map<Long, long[]> levels = side == OrderSide.BUY ? bids : asks;
+            if (quantityLots == 0) {
+                levels.remove(priceTicks);
+            } else {
+                levels.put(priceTicks, new long[]{quantityLots, orderCount});
+            }
+            lastSequence = Math.max(lastSequence, sequence);
+        }
+
+        boolean matches(OrderBookSnapshot snapshot) {
+            return sideMatches(bids, snapshot.getBids()) && sideMatches(asks, snapshot.getAsks());
+        }
+
+        void assertMatches(OrderBookSnapshot snapshot) {
+            assertTrue(matches(snapshot), "本地订单薄与快照不一致: " + snapshot);
+        }
+
+        /**
+         * 每批应用完后对应某个完整版本：两侧总量和笔数守恒且不交叉
+         */
+        void assertComplete(int ordersPerSide) {
+            assertEquals(ordersPerSide, total(bids, 0), "买方总量");
+            assertEquals(ordersPerSide, total(bids, 1), "买方笔数");
+            assertEquals(ordersPerSide, total(asks, 0), "卖方总量");
+            assertEquals(ordersPerSide, total(asks, 1), "卖方笔数");
+            assertTrue(bids.lastKey() < asks.firstKey(), "订单薄交叉");
+        }
+
+        private static long total(Map<Long, long[]> levels, int field) {
+            long sum = 0;
+            for (long[] level : levels.values()) {
+                sum += level[field];
+            }
+            return sum;
+        }
+
+        private static boolean sideMatches(Map<Long, long[]> levels, List<PriceLevel> expected) {
+            if (levels.size() != expected.size()) {
+                return false;
+            }
+            for (PriceLevel level : expected) {
+                long[] actual = levels.get(level.getPriceTicks());
+                if (actual == null || actual[0] != level.getQuantityLots() || actual[1] != level.getOrderCount()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 原始订阅：按脚本投递增量，缺口和清除缺口由测试控制
+     */
+    private static final class ScriptedSubscription implements LevelUpdateSubscription {
+
+        final Queue<Update> updates = new ArrayDeque<>();
+        boolean gap;
+        int clearGapCalls;
+
+        @Override
+        public String getSymbol() {
+            return "BTCUSDT";
+        }
+
+        @Override
+        public int poll(LevelUpdateListener listener, int maxUpdates) {
+            int n = 0;
+            while (n < maxUpdates && !updates.isEmpty()) {
+                Update update = updates.poll();
+                listener.onLevelUpdate(update.sequence(), update.side(), update.priceTicks(),
+                        update.quantityLots(), update.orderCount());
+                n++;
+            }
+            return n;
+        }
+
+        @Override
+        public boolean hasGap() {
+            return gap;
+        }
+
+        @Override
+        public void clearGap() {
+            updates.clear();
+            gap = false;
+            clearGapCalls++;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * 只提供原始订阅和快照的仓储
+     */
+    private static final class ScriptedRepository implements IOrderBookRepository {
+
+        final ScriptedSubscription raw = new ScriptedSubscription();
+        OrderBookSnapshot snapshot;
+        int snapshotCalls;
+
+        @Override
+        public LevelUpdateSubscription subscribeLevelUpdates(Instrument instrument, int capacity) {
+            return raw;
+        }
+
+        @Override
+        public OrderBookSnapshot getSnapshot(String symbol, int depth) {
+            snapshotCalls++;
+            return snapshot;
+        }
+
+        @Override
+        public MatchResult addOrder(LimitOrder order) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean cancelOrder(String symbol, String orderId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean existsOrder(String symbol, String orderId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int getOrderCount(String symbol) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
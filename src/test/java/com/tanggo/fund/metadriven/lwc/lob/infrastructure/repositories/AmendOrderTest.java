@@ -0,0 +1,113 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import com.tanggo.fund.metadriven.lwc.lob.domain.Trade;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.MatchResult;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 改单测试：同价减量保持队列位置，改价或增量排到新档位队尾，改价后可交叉的部分立即成交
+ */
+class AmendOrderTest {
+
+    private final Instrument instrument = new Instrument("BTCUSDT", new BigDecimal("0.01"), new BigDecimal("0.00001"));
+
+    private OrderBook ladderBook() {
+        return new OrderBook(instrument,
+                new PriceLadderBookSide(true, 64, 1 << 10), new PriceLadderBookSide(false, 64, 1 << 10));
+    }
+
+    private OrderBook treeBook() {
+        return new OrderBook(instrument, new TreeBookSide(true), new TreeBookSide(false));
+    }
+
+    @Test
+    void quantityReduceKeepsPriority() {
+        for (OrderBook book : List.of(ladderBook(), treeBook())) {
+            book.placeOrder("first", null, OrderSide.BUY, 100, 5);
+            book.placeOrder("second", null, OrderSide.BUY, 100, 5);
+
+            MatchResult amended = book.amendOrder("first", 0, 3);
+            assertEquals(3, amended.getOrder().getQuantityLots());
+            assertFalse(amended.hasMatched());
+            assertEquals(8, book.getSnapshot("BTCUSDT", 1).getBids().get(0).getQuantityLots());
+
+            // 仍排在队首：3手全部与first成交
+            MatchResult result = book.placeOrder("taker", null, OrderSide.SELL, 100, 3);
+            assertEquals(1, result.getTrades().size());
+            assertEquals("first", result.getTrades().get(0).getBuyOrderId());
+            assertFalse(book.existsOrder("first"));
+            assertTrue(book.existsOrder("second"));
+        }
+    }
+
+    @Test
+    void priceChangeOrIncreaseLosesPriority() {
+        for (OrderBook book : List.of(ladderBook(), treeBook())) {
+            book.placeOrder("first", null, OrderSide.BUY, 100, 5);
+            book.placeOrder("second", null, OrderSide.BUY, 100, 5);
+            book.placeOrder("third", null, OrderSide.BUY, 100, 5);
+
+            // 改价再改回：排到second、third之后
+            book.amendOrder("first", 101, 0);
+            assertEquals(101, book.getSnapshot("BTCUSDT", 1).getBids().get(0).getPriceTicks());
+            book.amendOrder("first", 100, 0);
+            // 同价增量：second排到队尾
+            book.amendOrder("second", 0, 6);
+
+            MatchResult result = book.placeOrder("taker", null, OrderSide.SELL, 100, 16);
+            assertEquals(List.of("third", "first", "second"),
+                    result.getTrades().stream().map(Trade::getBuyOrderId).toList());
+            assertEquals(6, result.getTrades().get(2).getQuantityLots());
+            assertEquals(0, book.getOrderCount());
+        }
+    }
+
+    @Test
+    void crossingAmendMatchesAndRestsRemainder() {
+        for (OrderBook book : List.of(ladderBook(), treeBook())) {
+            book.placeOrder("ask", null, OrderSide.SELL, 102, 2);
+            book.placeOrder("bid", null, OrderSide.BUY, 100, 5);
+
+            MatchResult result = book.amendOrder("bid", 102, 0);
+            assertEquals(1, result.getTrades().size());
+            assertEquals(2, result.getTrades().get(0).getQuantityLots());
+            assertEquals(102, result.getTrades().get(0).getPriceTicks());
+
+            OrderBookSnapshot snapshot = book.getSnapshot("BTCUSDT", 5);
+            assertTrue(snapshot.getAsks().isEmpty());
+            assertEquals(102, snapshot.getBids().get(0).getPriceTicks());
+            assertEquals(3, snapshot.getBids().get(0).getQuantityLots());
+            assertTrue(book.existsOrder("bid"));
+        }
+    }
+
+    @Test
+    void rejectsInvalidAmendWithoutChangingOrder() {
+        OrderBook book = ladderBook();
+        assertNull(book.amendOrder("missing", 100, 1));
+
+        book.placeOrder("bid", null, OrderSide.BUY, 100, 5);
+        book.placeOrder("ask", null, OrderSide.SELL, 100, 2);
+        // 已成交2手，新总量不得小于等于已成交量
+        assertThrows(IllegalArgumentException.class, () -> book.amendOrder("bid", 99, 2));
+        // 买方跨度超出1024档窗口
+        assertThrows(IllegalArgumentException.class, () -> book.amendOrder("bid", 100 + (1 << 10), 0));
+
+        OrderBookSnapshot snapshot = book.getSnapshot("BTCUSDT", 5);
+        assertEquals(100, snapshot.getBids().get(0).getPriceTicks());
+        assertEquals(3, snapshot.getBids().get(0).getQuantityLots());
+        assertEquals(1, book.getOrderCount());
+    }
+}
@@ -0,0 +1,73 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.LimitOrder;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderStatus;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.MatchResult;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 批量下单测试：批中间被拒绝的订单不影响之前和之后的订单，已执行订单的成交都在结果中
+ */
+class BatchOrderTest {
+
+    private final Instrument btc = new Instrument("BTCUSDT", new BigDecimal("0.01"), new BigDecimal("0.00001"));
+    private final Instrument eth = new Instrument("ETHUSDT", new BigDecimal("0.01"), new BigDecimal("0.0001"));
+
+    @Test
+    void rejectedOrderInMiddleOfBatchKeepsOtherResults() {
+        InMemoryOrderBookRepository repository = new InMemoryOrderBookRepository();
+        repository.placeOrder("ask", "mm", btc, OrderSide.SELL, 100, 5);
+
+        // 名义金额溢出的订单夹在同一交易对的成交单和挂单之间，另一交易对的订单在其后
+        List<LimitOrder> orders = List.of(
+                new LimitOrder("take", "t", btc, OrderSide.BUY, 100, 3),
+                new LimitOrder("huge", "t", btc, OrderSide.SELL, 1L << 40, 1L << 30),
+                new LimitOrder("rest", "t", btc, OrderSide.BUY, 99, 4),
+                new LimitOrder("eth", "t", eth, OrderSide.BUY, 2_000, 1));
+        MatchResult[] results = repository.addOrders(orders);
+
+        assertEquals(4, results.length);
+        assertFalse(results[0].isRejected());
+        assertEquals(1, results[0].getTrades().size());
+        assertEquals(OrderStatus.FILLED, results[0].getOrder().getStatus());
+
+        assertTrue(results[1].isRejected());
+        assertEquals(OrderStatus.REJECTED, results[1].getOrder().getStatus());
+        assertTrue(results[1].getTrades().isEmpty());
+        assertFalse(repository.existsOrder("BTCUSDT", "huge"));
+
+        assertFalse(results[2].isRejected());
+        assertTrue(repository.existsOrder("BTCUSDT", "rest"));
+        assertFalse(results[3].isRejected());
+        assertTrue(repository.existsOrder("ETHUSDT", "eth"));
+        assertEquals(2, repository.getOrderCount("BTCUSDT"));
+    }
+
+    @Test
+    void batchOnLadderBookPublishesOnceAndRejectsOnlyBadOrder() {
+        OrderBook book = new OrderBook(btc,
+                new PriceLadderBookSide(true, 64, 1 << 10), new PriceLadderBookSide(false, 64, 1 << 10));
+        book.placeOrder("ask", "mm", OrderSide.SELL, 100, 5);
+        long sequence = book.getTopOfBook().getSequence();
+
+        MatchResult[] results = book.addOrders(List.of(
+                new LimitOrder("b1", "t", btc, OrderSide.BUY, 99, 1),
+                new LimitOrder("huge", "t", btc, OrderSide.BUY, 1L << 40, 1L << 30),
+                new LimitOrder("b2", "t", btc, OrderSide.BUY, 98, 1)));
+
+        assertFalse(results[0].isRejected());
+        assertTrue(results[1].isRejected());
+        assertFalse(results[2].isRejected());
+        assertEquals(3, book.getOrderCount());
+        assertEquals(sequence + 1, book.getTopOfBook().getSequence());
+    }
+}
@@ -0,0 +1,111 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import com.tanggo.fund.metadriven.lwc.lob.domain.Trade;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.AuctionResult;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.MatchResult;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 集合竞价测试：收集期只挂单，撮合时取成交量最大、不平衡量最小的均衡价，全部成交以均衡价成交
+ */
+class CallAuctionTest {
+
+    private final Instrument instrument = new Instrument("BTCUSDT", new BigDecimal("0.01"), new BigDecimal("0.00001"));
+
+    private OrderBook ladderBook() {
+        return new OrderBook(instrument,
+                new PriceLadderBookSide(true, 64, 1 << 10), new PriceLadderBookSide(false, 64, 1 << 10));
+    }
+
+    private OrderBook treeBook() {
+        return new OrderBook(instrument, new TreeBookSide(true), new TreeBookSide(false));
+    }
+
+    @Test
+    void uncrossesAtEquilibriumPrice() {
+        for (OrderBook book : List.of(ladderBook(), treeBook())) {
+            book.beginAuction();
+            // 买方 102x5, 101x5, 100x10；卖方 99x4, 100x6, 101x8
+            book.placeOrder("b1", null, OrderSide.BUY, 102, 5);
+            book.placeOrder("b2", null, OrderSide.BUY, 101, 5);
+            book.placeOrder("b3", null, OrderSide.BUY, 100, 10);
+            book.placeOrder("s1", null, OrderSide.SELL, 99, 4);
+            book.placeOrder("s2", null, OrderSide.SELL, 100, 6);
+            MatchResult last = book.placeOrder("s3", null, OrderSide.SELL, 101, 8);
+            // 收集期内交叉也不成交
+            assertFalse(last.hasMatched());
+            assertEquals(6, book.getOrderCount());
+
+            // 100：可成交10，不平衡10；101：可成交10，不平衡8
+            assertEquals(101, book.equilibriumPrice());
+            AuctionResult result = book.uncross(false);
+            assertTrue(result.hasUncrossed());
+            assertEquals(101, result.getPriceTicks());
+            assertEquals(10, result.getVolumeLots());
+            long traded = 0;
+            for (Trade trade : result.getTrades()) {
+                assertEquals(101, trade.getPriceTicks());
+                traded += trade.getQuantityLots();
+            }
+            assertEquals(10, traded);
+            assertEquals(List.of("b1", "b1", "b2"), result.getTrades().stream().map(Trade::getBuyOrderId).toList());
+            assertEquals(List.of("s1", "s2", "s2"), result.getTrades().stream().map(Trade::getSellOrderId).toList());
+
+            OrderBookSnapshot snapshot = book.getSnapshot("BTCUSDT", 5);
+            assertEquals(1, snapshot.getBids().size());
+            assertEquals(100, snapshot.getBids().get(0).getPriceTicks());
+            assertEquals(10, snapshot.getBids().get(0).getQuantityLots());
+            assertEquals(1, snapshot.getAsks().size());
+            assertEquals(101, snapshot.getAsks().get(0).getPriceTicks());
+            assertEquals(8, snapshot.getAsks().get(0).getQuantityLots());
+
+            // 恢复连续撮合后交叉订单立即成交
+            assertFalse(book.isAuction());
+            assertTrue(book.placeOrder("b4", null, OrderSide.BUY, 101, 3).hasMatched());
+            assertEquals(5, book.getSnapshot("BTCUSDT", 5).getAsks().get(0).getQuantityLots());
+        }
+    }
+
+    @Test
+    void uncrossWithoutCrossLeavesBookUnchanged() {
+        OrderBook book = ladderBook();
+        book.beginAuction();
+        book.placeOrder("b1", null, OrderSide.BUY, 99, 5);
+        book.placeOrder("s1", null, OrderSide.SELL, 100, 5);
+
+        AuctionResult result = book.uncross(true);
+        assertFalse(result.hasUncrossed());
+        assertEquals(0, result.getVolumeLots());
+        assertTrue(result.getTrades().isEmpty());
+        assertEquals(2, book.getOrderCount());
+        // 周期性竞价：撮合后继续收集
+        assertTrue(book.isAuction());
+        assertFalse(book.placeOrder("b2", null, OrderSide.BUY, 100, 5).hasMatched());
+        assertEquals(3, book.getOrderCount());
+    }
+
+    @Test
+    void buySurplusTakesHighestPriceOfEquilibriumRange() {
+        OrderBook book = treeBook();
+        book.beginAuction();
+        // 100..104之间可成交量都是5，买方剩余，取区间最高价
+        book.placeOrder("b1", null, OrderSide.BUY, 104, 8);
+        book.placeOrder("s1", null, OrderSide.SELL, 100, 5);
+
+        AuctionResult result = book.uncross(false);
+        assertEquals(104, result.getPriceTicks());
+        assertEquals(5, result.getVolumeLots());
+        assertEquals(3, book.getSnapshot("BTCUSDT", 5).getBids().get(0).getQuantityLots());
+        assertTrue(book.getSnapshot("BTCUSDT", 5).getAsks().isEmpty());
+    }
+}
@@ -0,0 +1,134 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.LimitOrder;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.FillEstimate;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.MatchResult;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 累计深度查询测试：两种档位结构的限价内累计量、吃单金额和FOK判断一致，名义金额溢出的订单被拒绝（批量下单中以拒绝结果返回）
+ */
+class DepthQueryTest {
+
+    private final Instrument instrument = new Instrument("BTCUSDT", new BigDecimal("0.01"), new BigDecimal("0.00001"));
+
+    private OrderBook ladderBook() {
+        return new OrderBook(instrument,
+                new PriceLadderBookSide(true, 64, 1 << 16), new PriceLadderBookSide(false, 64, 1 << 16));
+    }
+
+    private OrderBook treeBook() {
+        return new OrderBook(instrument, new TreeBookSide(true), new TreeBookSide(false));
+    }
+
+    @Test
+    void ladderAndTreeAgreeOnEstimates() {
+        for (OrderBook book : List.of(ladderBook(), treeBook())) {
+            // 卖方 100x3, 101x4, 103x5
+            book.placeOrder("a1", null, OrderSide.SELL, 100, 3);
+            book.placeOrder("a2", null, OrderSide.SELL, 101, 4);
+            book.placeOrder("a3", null, OrderSide.SELL, 103, 5);
+
+            FillEstimate within = book.estimateFill(OrderSide.BUY, 10, 101);
+            assertEquals(7, within.getFillableLots());
+            assertEquals(3 * 100 + 4 * 101, within.getNotional());
+
+            FillEstimate partialLevel = book.estimateFill(OrderSide.BUY, 5, 0);
+            assertEquals(5, partialLevel.getFillableLots());
+            assertEquals(3 * 100 + 2 * 101, partialLevel.getNotional());
+
+            FillEstimate beyondDepth = book.estimateFill(OrderSide.BUY, 100, 0);
+            assertEquals(12, beyondDepth.getFillableLots());
+            assertEquals(3 * 100 + 4 * 101 + 5 * 103, beyondDepth.getNotional());
+
+            // FOK：限价内只有7手，8手整单撤销且订单薄不变
+            book.placeFillOrKill("fok", null, OrderSide.BUY, 101, 8);
+            assertEquals(3, book.getOrderCount());
+            book.placeFillOrKill("fok", null, OrderSide.BUY, 101, 7);
+            assertEquals(1, book.getOrderCount());
+        }
+    }
+
+    @Test
+    void rejectsOrderWhoseNotionalOverflows() {
+        for (OrderBook book : List.of(ladderBook(), treeBook())) {
+            long price = 1L << 40;
+            assertThrows(IllegalArgumentException.class,
+                    () -> book.placeOrder("big", null, OrderSide.SELL, price, 1L << 30));
+            assertEquals(0, book.getOrderCount());
+            assertFalse(book.existsOrder("big"));
+        }
+    }
+
+    @Test
+    void ladderRejectsOrderThatWouldOverflowSideTotal() {
+        OrderBook book = ladderBook();
+        long price = 1L << 40;
+        // 单笔金额 2^61，两笔合计 2^62，第四笔使合计超出long
+        book.placeOrder("s1", null, OrderSide.SELL, price, 1L << 21);
+        book.placeOrder("s2", null, OrderSide.SELL, price + 1, 1L << 21);
+        book.placeOrder("s3", null, OrderSide.SELL, price + 2, 1L << 21);
+        assertThrows(IllegalArgumentException.class,
+                () -> book.placeOrder("s4", null, OrderSide.SELL, price + 3, 1L << 21));
+        assertEquals(3, book.getOrderCount());
+
+        // 同一批内已校验未同步的订单也计入合计
+        OrderBook batchBook = ladderBook();
+        List<LimitOrder> orders = List.of(
+                new LimitOrder("b1", instrument, OrderSide.SELL, price, 1L << 21),
+                new LimitOrder("b2", instrument, OrderSide.SELL, price, 1L << 21),
+                new LimitOrder("b3", instrument, OrderSide.SELL, price, 1L << 21),
+                new LimitOrder("b4", instrument, OrderSide.SELL, price, 1L << 21));
+        MatchResult[] results = batchBook.addOrders(orders);
+        assertTrue(results[3].isRejected());
+        assertEquals(3, batchBook.getOrderCount());
+        assertTrue(batchBook.estimateFill(OrderSide.BUY, 3L << 21, 0).isFullyFillable());
+    }
+
+    @Test
+    void ladderReservationsDoNotOutliveTheUpdate() {
+        long price = 1L << 40;
+        // 完全成交的主动单不挂入，其预留在更新结束时释放：四笔合计 2^63 的买单依次成交都不被拒绝
+        OrderBook book = ladderBook();
+        for (int i = 0; i < 4; i++) {
+            book.placeOrder("s" + i, null, OrderSide.SELL, price, 1L << 21);
+            MatchResult result = book.placeOrder("b" + i, null, OrderSide.BUY, price, 1L << 21);
+            assertEquals(1, result.getTrades().size());
+        }
+        assertEquals(0, book.getOrderCount());
+
+        // 挂起的止损限价单只校验不预留，之后买方仍可挂入三笔 2^61
+        OrderBook stopBook = ladderBook();
+        for (int i = 0; i < 4; i++) {
+            stopBook.placeStopOrder("stop" + i, null, OrderSide.BUY, price + 10, price, 1L << 21);
+        }
+        for (int i = 0; i < 3; i++) {
+            stopBook.placeOrder("r" + i, null, OrderSide.BUY, price + i, 1L << 21);
+        }
+        assertEquals(3, stopBook.getOrderCount());
+        assertTrue(stopBook.estimateFill(OrderSide.SELL, 3L << 21, 0).isFullyFillable());
+        // 真正的全侧溢出照常拒绝
+        assertThrows(IllegalArgumentException.class,
+                () -> stopBook.placeOrder("r3", null, OrderSide.BUY, price + 3, 1L << 21));
+    }
+
+    @Test
+    void treeEstimateRejectsNotionalOverflow() {
+        OrderBook book = treeBook();
+        long price = 1L << 40;
+        book.placeOrder("s1", null, OrderSide.SELL, price, 1L << 22);
+        book.placeOrder("s2", null, OrderSide.SELL, price + 1, 1L << 22);
+        assertThrows(IllegalArgumentException.class, () -> book.estimateFill(OrderSide.BUY, 1L << 23, 0));
+        assertEquals(1L << 22, book.estimateFill(OrderSide.BUY, 1L << 22, 0).getFillableLots());
+    }
+}
@@ -0,0 +1,49 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 交易品种仓储测试：只解析已配置的交易对，symbolId稠密且稳定
+ */
+class InMemoryInstrumentRepositoryTest {
+
+    private final InMemoryInstrumentRepository repository = new InMemoryInstrumentRepository();
+
+    @Test
+    void resolvesConfiguredInstrumentsBySymbolAndId() {
+        repository.setInstruments(List.of(
+                new Instrument("BTCUSDT", new BigDecimal("0.01"), new BigDecimal("0.00001")),
+                new Instrument("ETHUSDT", new BigDecimal("0.01"), new BigDecimal("0.0001"))));
+
+        Instrument eth = repository.getInstrument("ETHUSDT");
+        assertEquals(1, eth.getSymbolId());
+        assertSame(eth, repository.getInstrument(1));
+        assertSame(repository.getInstrument("BTCUSDT"), repository.getInstrument(0));
+    }
+
+    @Test
+    void rejectsUnconfiguredSymbolWithoutRegisteringIt() {
+        repository.setInstruments(List.of(new Instrument("BTCUSDT", new BigDecimal("0.01"), new BigDecimal("0.00001"))));
+
+        assertThrows(IllegalArgumentException.class, () -> repository.getInstrument("DOGEUSDT"));
+        assertThrows(IllegalArgumentException.class, () -> repository.getInstrument(1));
+        // 之后配置的品种取得下一个ID，被拒绝的交易对没有占用ID
+        repository.setInstruments(List.of(new Instrument("ETHUSDT", new BigDecimal("0.01"), new BigDecimal("0.0001"))));
+        assertEquals(1, repository.getInstrument("ETHUSDT").getSymbolId());
+    }
+
+    @Test
+    void rejectsDuplicateInstrument() {
+        repository.setInstruments(List.of(new Instrument("BTCUSDT", new BigDecimal("0.01"), new BigDecimal("0.00001"))));
+        assertThrows(IllegalArgumentException.class, () -> repository.setInstruments(
+                List.of(new Instrument("BTCUSDT", new BigDecimal("0.1"), new BigDecimal("0.001")))));
+    }
+}
@@ -0,0 +1,168 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookCursor;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookEntry;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookPage;
+import com.tanggo.fund.metadriven.lwc.lob.infrastructure.engine.ShardedOrderBookRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 逐笔游标测试：分页之间撤单、成交、改单和挂单都不改变游标看到的版本；
+ * 经分片仓储与撮合并发遍历时，每一遍都恰好包含全部挂单各一次
+ */
+class L3CursorTest {
+
+    private final Instrument instrument = new Instrument("BTCUSDT", new BigDecimal("0.01"), new BigDecimal("0.00001"));
+
+    @Test
+    void pagesStayOnOpeningVersionAcrossMutations() {
+        for (boolean ladder : new boolean[]{true, false}) {
+            OrderBook book = ladder
+                    ? new OrderBook(instrument,
+                            new PriceLadderBookSide(true, 64, 1 << 10), new PriceLadderBookSide(false, 64, 1 << 10))
+                    : new OrderBook(instrument, new TreeBookSide(true), new TreeBookSide(false));
+            // 买方 100..91，卖方 101..110，各档一笔，最优两档再各加一笔
+            for (int i = 0; i < 10; i++) {
+                book.placeOrder("b" + i, "mm", OrderSide.BUY, 100 - i, 5);
+                book.placeOrder("a" + i, "mm", OrderSide.SELL, 101 + i, 5);
+            }
+            book.placeOrder("b10", "mm", OrderSide.BUY, 100, 3);
+            book.placeOrder("a10", "mm", OrderSide.SELL, 101, 3);
+            List<String> expected = drain(book.openCursor(), 1000);
+            assertEquals(22, expected.size());
+
+            OrderBookCursor cursor = book.openCursor();
+            long sequence = cursor.getSequence();
+            List<String> seen = new ArrayList<>();
+            for (OrderBookEntry entry : cursor.nextPage(4).getEntries()) {
+                seen.add(describe(entry));
+            }
+            // 已读档位和未读档位各改一遍
+            assertTrue(book.cancelOrder("b0"));
+            assertTrue(book.cancelOrder("b5"));
+            book.placeOrder("taker", "t", OrderSide.BUY, 101, 4);
+            book.amendOrder("b8", 96, 0);
+            book.amendOrder("a3", 0, 2);
+            book.placeOrder("late-bid", "mm", OrderSide.BUY, 93, 7);
+            book.placeOrder("late-ask", "mm", OrderSide.SELL, 120, 7);
+            OrderBookPage page;
+            do {
+                page = cursor.nextPage(3);
+                assertEquals(sequence, page.getSequence());
+                for (OrderBookEntry entry : page.getEntries()) {
+                    seen.add(describe(entry));
+                }
+            } while (!page.isLast());
+            assertEquals(expected, seen, ladder ? "ladder" : "tree");
+
+            // 新游标看到修改后的版本
+            List<String> after = drain(book.openCursor(), 1000);
+            assertTrue(after.contains("late-bid@93x7"));
+            assertFalse(after.stream().anyMatch(s -> s.startsWith("b5@")));
+            assertTrue(after.contains("b8@96x5"));
+            assertTrue(after.contains("a3@104x2"));
+        }
+    }
+
+    @Test
+    void closedCursorStopsCopyingLevels() {
+        OrderBook book = new OrderBook(instrument, new TreeBookSide(true), new TreeBookSide(false));
+        book.placeOrder("b0", "mm", OrderSide.BUY, 100, 5);
+        book.placeOrder("b1", "mm", OrderSide.BUY, 99, 5);
+        OrderBookCursor cursor = book.openCursor();
+        cursor.nextPage(1);
+        cursor.close();
+        // 关闭后修改订单薄不再回调游标，且游标不再返回条目
+        assertTrue(book.cancelOrder("b1"));
+        assertTrue(cursor.nextPage(10).getEntries().isEmpty());
+        assertEquals(List.of("b0@100x5"), drain(book.openCursor(), 10));
+    }
+
+    @Test
+    void concurrentPassesSeeEveryOrderExactlyOnce() throws Exception {
+        int orders = 200;
+        ShardedOrderBookRepository repository = new ShardedOrderBookRepository(new InMemoryOrderBookRepository(), 1);
+        try {
+            for (int i = 0; i < orders; i++) {
+                repository.placeOrder("o-" + i, "mm", instrument, OrderSide.BUY, 1_000 + i % 50, 1 + i % 3);
+            }
+            // 改单是单条命令：挂单数始终为orders，订单在各档之间移动
+            AtomicBoolean running = new AtomicBoolean(true);
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            Thread mutator = new Thread(() -> {
+                Random random = new Random(42);
+                try {
+                    while (running.get()) {
+                        String id = "o-" + random.nextInt(orders);
+                        long price = 1_000 + random.nextInt(50);
+                        repository.amendOrder(instrument, id, price, 1 + random.nextInt(5));
+                    }
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            }, "l3-mutator");
+            mutator.start();
+            try {
+                for (int pass = 0; pass < 200; pass++) {
+                    List<OrderBookEntry> entries = new ArrayList<>();
+                    try (OrderBookCursor cursor = repository.openOrderCursor("BTCUSDT")) {
+                        OrderBookPage page;
+                        do {
+                            page = cursor.nextPage(7);
+                            assertEquals(cursor.getSequence(), page.getSequence());
+                            entries.addAll(page.getEntries());
+                        } while (!page.isLast());
+                    }
+                    Set<String> ids = new HashSet<>();
+                    long previous = Long.MAX_VALUE;
+                    for (OrderBookEntry entry : entries) {
+                        assertTrue(ids.add(entry.getOrderId()), "pass " + pass + " repeats " + entry.getOrderId());
+                        assertTrue(entry.getPriceTicks() <= previous, "pass " + pass + " out of price order");
+                        previous = entry.getPriceTicks();
+                    }
+                    assertEquals(orders, ids.size(), "pass " + pass);
+                }
+            } finally {
+                running.set(false);
+                mutator.join();
+            }
+            assertNull(failure.get());
+        } finally {
+            repository.close();
+        }
+    }
+
+    private static List<String> drain(OrderBookCursor cursor, int pageSize) {
+        List<String> result = new ArrayList<>();
+        try (cursor) {
+            OrderBookPage page;
+            do {
+                page = cursor.nextPage(pageSize);
+                for (OrderBookEntry entry : page.getEntries()) {
+                    result.add(describe(entry));
+                }
+            } while (!page.isLast());
+        }
+        return result;
+    }
+
+    private static String describe(OrderBookEntry entry) {
+        return entry.getOrderId() + "@" + entry.getPriceTicks() + "x" + entry.getRemainingLots();
+    }
+}
@@ -0,0 +1,181 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookSnapshot;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.PriceLevel;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * L2增量测试：每次订单薄更新按触及的档位发出增量；缓冲区满时整次更新丢弃并标记缺口，
+ * 订阅者按快照+增量协议在缺口后重新取快照，最终与订单薄一致
+ */
+class LevelUpdateRingTest {
+
+    private final Instrument instrument = new Instrument("BTCUSDT", new BigDecimal("0.01"), new BigDecimal("0.00001"));
+
+    private OrderBook newBook() {
+        return new OrderBook(instrument,
+                new PriceLadderBookSide(true, 64, 1 << 10), new PriceLadderBookSide(false, 64, 1 << 10));
+    }
+
+    /**
+     * 一条增量
+     */
+    private record Update(long sequence, OrderSide side, long priceTicks, long quantityLots, int orderCount) {
+    }
+
+    private static List<Update> drain(LevelUpdateRing ring) {
+        List<Update> updates = new ArrayList<>();
+        ring.poll((sequence, side, priceTicks, quantityLots, orderCount) ->
+                updates.add(new Update(sequence, side, priceTicks, quantityLots, orderCount)), Integer.MAX_VALUE);
+        return updates;
+    }
+
+    @Test
+    void emitsLevelDeltasPerUpdate() {
+        OrderBook book = newBook();
+        LevelUpdateRing ring = book.subscribe(16);
+
+        book.placeOrder("b1", null, OrderSide.BUY, 100, 5);
+        book.placeOrder("a1", null, OrderSide.SELL, 102, 1);
+        book.placeOrder("a2", null, OrderSide.SELL, 103, 1);
+        // 吃掉两档卖单：同一序号的两条增量
+        book.placeOrder("taker", null, OrderSide.BUY, 103, 2);
+        book.cancelOrder("b1");
+
+        assertEquals(List.of(
+                new Update(1, OrderSide.BUY, 100, 5, 1),
+                new Update(2, OrderSide.SELL, 102, 1, 1),
+                new Update(3, OrderSide.SELL, 103, 1, 1),
+                new Update(4, OrderSide.SELL, 102, 0, 0),
+                new Update(4, OrderSide.SELL, 103, 0, 0),
+                new Update(5, OrderSide.BUY, 100, 0, 0)), drain(ring));
+        assertFalse(ring.hasGap());
+
+        ring.close();
+        book.placeOrder("b2", null, OrderSide.BUY, 100, 1);
+        assertTrue(drain(ring).isEmpty());
+    }
+
+    @Test
+    void dropsWholeUpdateWhenFullAndFlagsGap() {
+        OrderBook book = newBook();
+        LevelUpdateRing ring = book.subscribe(4);
+        book.placeOrder("a1", null, OrderSide.SELL, 101, 1);
+        book.placeOrder("a2", null, OrderSide.SELL, 102, 1);
+        book.placeOrder("a3", null, OrderSide.SELL, 103, 1);
+        // 只剩1个空位，吃掉三档的更新整体丢弃
+        book.placeOrder("taker", null, OrderSide.BUY, 103, 3);
+        assertTrue(ring.hasGap());
+        // 缺口清除前后续更新继续丢弃，即使缓冲区有空位
+        book.placeOrder("b1", null, OrderSide.BUY, 99, 1);
+
+        List<Update> updates = drain(ring);
+        assertEquals(List.of(1L, 2L, 3L), updates.stream().map(Update::sequence).toList());
+        assertTrue(ring.hasGap());
+        book.placeOrder("b2", null, OrderSide.BUY, 98, 1);
+        assertTrue(drain(ring).isEmpty());
+
+        // 清除缺口后从下一次更新开始完整投递
+        ring.clearGap();
+        assertFalse(ring.hasGap());
+        book.placeOrder("b3", null, OrderSide.BUY, 97, 1);
+        assertEquals(List.of(new Update(7, OrderSide.BUY, 97, 1, 1)), drain(ring));
+    }
+
+    @Test
+    void subscriberResyncsAfterGap() {
+        OrderBook book = newBook();
+        LevelUpdateRing ring = book.subscribe(8);
+        Random random = new Random(5);
+
+        // 订阅者本地订单薄：快照序号之后的增量按序应用
+        Map<Long, Long> bids = new TreeMap<>();
+        Map<Long, Long> asks = new TreeMap<>();
+        long[] applied = {resync(book, ring, bids, asks)};
+        int resyncs = 0;
+        for (int i = 0; i < 5_000; i++) {
+            OrderSide side = random.nextBoolean() ? OrderSide.BUY : OrderSide.SELL;
+            book.placeOrder("o-" + i, null, side, 100 + random.nextInt(20), 1 + random.nextInt(5));
+            if (random.nextInt(3) == 0) {
+                book.cancelOrder("o-" + random.nextInt(i + 1));
+            }
+            // 消费者偶尔落后，缓冲区满时出现缺口
+            if (random.nextInt(4) != 0) {
+                continue;
+            }
+            boolean[] skipped = {false};
+            ring.poll((sequence, s, priceTicks, quantityLots, orderCount) -> {
+                if (sequence <= applied[0] - 1 || skipped[0]) {
+                    return;
+                }
+                if (sequence > applied[0] + 1) {
+                    skipped[0] = true;
+                    return;
+                }
+                applied[0] = sequence;
+                Map<Long, Long> levels = s == OrderSide.BUY ? bids : asks;
+                if (quantityLots == 0) {
+                    levels.remove(priceTicks);
+                } else {
+                    levels.put(priceTicks, quantityLots);
+                }
+            }, Integer.MAX_VALUE);
+            if (ring.hasGap() || skipped[0]) {
+                applied[0] = resync(book, ring, bids, asks);
+                resyncs++;
+            }
+        }
+        ring.poll((sequence, s, priceTicks, quantityLots, orderCount) -> {
+            Map<Long, Long> levels = s == OrderSide.BUY ? bids : asks;
+            if (sequence > applied[0] - 1) {
+                if (quantityLots == 0) {
+                    levels.remove(priceTicks);
+                } else {
+                    levels.put(priceTicks, quantityLots);
+                }
+            }
+        }, Integer.MAX_VALUE);
+        if (ring.hasGap()) {
+            resync(book, ring, bids, asks);
+        }
+
+        assertTrue(resyncs > 0);
+        OrderBookSnapshot snapshot = book.getSnapshot("BTCUSDT", 100);
+        assertEquals(toMap(snapshot.getBids()), bids);
+        assertEquals(toMap(snapshot.getAsks()), asks);
+    }
+
+    /**
+     * 清除缺口后重新取快照，返回快照序号
+     */
+    private static long resync(OrderBook book, LevelUpdateRing ring, Map<Long, Long> bids, Map<Long, Long> asks) {
+        ring.clearGap();
+        OrderBookSnapshot snapshot = book.getSnapshot("BTCUSDT", 100);
+        bids.clear();
+        bids.putAll(toMap(snapshot.getBids()));
+        asks.clear();
+        asks.putAll(toMap(snapshot.getAsks()));
+        return snapshot.getSequence();
+    }
+
+    private static Map<Long, Long> toMap(List<PriceLevel> levels) {
+        Map<Long, Long> map = new TreeMap<>();
+        for (PriceLevel level : levels) {
+            map.put(level.getPriceTicks(), level.getQuantityLots());
+        }
+        return map;
+    }
+}
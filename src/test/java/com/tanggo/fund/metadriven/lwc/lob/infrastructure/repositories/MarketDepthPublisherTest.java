@@ -0,0 +1,202 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookSnapshot;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.PriceLevel;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.TopOfBook;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 行情发布测试：撮合线程持续改变订单薄时，读线程无锁读到的BBO和深度快照总是某一个已发布版本的完整内容
+ * 撮合线程按固定节奏挂单/撤单，每个更新序号对应的订单薄内容可以由序号推算，读到的内容与序号不符即为撕裂
+ */
+class MarketDepthPublisherTest {
+
+    private static final int ROUNDS = 100_000;
+
+    private final Instrument instrument = new Instrument("BTCUSDT", new BigDecimal("0.01"), new BigDecimal("0.00001"));
+
+    @Test
+    void topOfBookReadsAreNeverTorn() throws Exception {
+        OrderBook book = new OrderBook(instrument,
+                new PriceLadderBookSide(true, 64, 1 << 10), new PriceLadderBookSide(false, 64, 1 << 10));
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> failure = new AtomicReference<>();
+        AtomicLong reads = new AtomicLong();
+
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 2; r++) {
+            Thread reader = new Thread(() -> {
+                long lastSequence = -1;
+                while (running.get() && failure.get() == null) {
+                    TopOfBook top = book.getTopOfBook();
+                    long seq = top.getSequence();
+                    if (seq < lastSequence) {
+                        failure.set("sequence went back from " + lastSequence + " to " + seq);
+                    }
+                    lastSequence = seq;
+                    if (seq >= 2) {
+                        long bid = bestBid(seq);
+                        long ask = bestAsk(seq);
+                        if (top.getBidPriceTicks() != bid || top.getBidLots() != bid - 900
+                                || top.getAskPriceTicks() != ask || top.getAskLots() != ask - 1_900) {
+                            failure.set("torn read at " + seq + ": " + top);
+                        }
+                    }
+                    reads.incrementAndGet();
+                }
+            });
+            readers.add(reader);
+            reader.start();
+        }
+
+        write(book);
+        running.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertNull(failure.get());
+        assertTrue(reads.get() > 0);
+        assertEquals(4L * ROUNDS + 2, book.getTopOfBook().getSequence());
+    }
+
+    @Test
+    void depthSnapshotReadsAreNeverTorn() throws Exception {
+        OrderBook book = new OrderBook(instrument, new TreeBookSide(true), new TreeBookSide(false), 5);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> failure = new AtomicReference<>();
+        AtomicLong reads = new AtomicLong();
+
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 2; r++) {
+            Thread reader = new Thread(() -> {
+                long lastSequence = -1;
+                while (running.get() && failure.get() == null) {
+                    OrderBookSnapshot snapshot = book.getPublishedSnapshot(5);
+                    long seq = snapshot.getSequence();
+                    if (seq < lastSequence) {
+                        failure.set("sequence went back from " + lastSequence + " to " + seq);
+                    }
+                    lastSequence = seq;
+                    if (seq >= 2 && !(matches(snapshot.getBids(), bids(seq), 900)
+                            && matches(snapshot.getAsks(), asks(seq), 1_900))) {
+                        failure.set("torn snapshot at " + seq + ": " + snapshot);
+                    }
+                    reads.incrementAndGet();
+                }
+            });
+            readers.add(reader);
+            reader.start();
+        }
+
+        write(book);
+        running.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertNull(failure.get());
+        assertTrue(reads.get() > 0);
+        // 超过发布深度的请求不读取
+        assertNull(book.getPublishedSnapshot(6));
+    }
+
+    /**
+     * 档位价格与推算一致，每档只有一笔挂单且数量为价格减去偏移
+     */
+    private static boolean matches(List<PriceLevel> levels, long[] prices, long lotsOffset) {
+        if (levels.size() != prices.length) {
+            return false;
+        }
+        for (int i = 0; i < prices.length; i++) {
+            PriceLevel level = levels.get(i);
+            if (level.getPriceTicks() != prices[i] || level.getQuantityLots() != prices[i] - lotsOffset
+                    || level.getOrderCount() != 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 撮合线程：序号1、2挂入b-0/a-0；第i轮(i>=1)依次挂入b-i(4i-1)、撤销b-(i-1)(4i)、挂入a-i(4i+1)、撤销a-(i-1)(4i+2)
+     * 买单数量=价格-900，卖单数量=价格-1900；前几轮逐次核对序号推算的内容与订单薄一致
+     */
+    private static void write(OrderBook book) {
+        book.placeOrder("b-0", null, OrderSide.BUY, bidPrice(0), bidPrice(0) - 900);
+        book.placeOrder("a-0", null, OrderSide.SELL, askPrice(0), askPrice(0) - 1_900);
+        for (int i = 1; i <= ROUNDS; i++) {
+            book.placeOrder("b-" + i, null, OrderSide.BUY, bidPrice(i), bidPrice(i) - 900);
+            verify(book, i);
+            book.cancelOrder("b-" + (i - 1));
+            verify(book, i);
+            book.placeOrder("a-" + i, null, OrderSide.SELL, askPrice(i), askPrice(i) - 1_900);
+            verify(book, i);
+            book.cancelOrder("a-" + (i - 1));
+            verify(book, i);
+        }
+    }
+
+    private static void verify(OrderBook book, int round) {
+        if (round <= 10) {
+            OrderBookSnapshot snapshot = book.getSnapshot("BTCUSDT", 5);
+            long seq = book.getTopOfBook().getSequence();
+            assertArrayEquals(bids(seq), snapshot.getBids().stream().mapToLong(PriceLevel::getPriceTicks).toArray());
+            assertArrayEquals(asks(seq), snapshot.getAsks().stream().mapToLong(PriceLevel::getPriceTicks).toArray());
+        }
+    }
+
+    static long bidPrice(long i) {
+        return 1_000 + i * 7 % 50;
+    }
+
+    static long askPrice(long i) {
+        return 2_000 + i * 11 % 50;
+    }
+
+    /**
+     * 更新序号seq(>=2)时买方的档位价格（按价格降序）：第i轮挂入b-i后、撤销b-(i-1)前有两档
+     */
+    static long[] bids(long seq) {
+        long i = (seq + 1) / 4;
+        if (seq - 4 * i == -1) {
+            return new long[] {Math.max(bidPrice(i - 1), bidPrice(i)), Math.min(bidPrice(i - 1), bidPrice(i))};
+        }
+        return new long[] {bidPrice(i)};
+    }
+
+    /**
+     * 更新序号seq(>=2)时卖方的档位价格（按价格升序）：第i轮挂入a-i前为a-(i-1)，挂入后、撤销前有两档
+     */
+    static long[] asks(long seq) {
+        long i = (seq + 1) / 4;
+        long phase = seq - 4 * i;
+        if (phase <= 0) {
+            return new long[] {askPrice(i - 1)};
+        }
+        if (phase == 1) {
+            return new long[] {Math.min(askPrice(i - 1), askPrice(i)), Math.max(askPrice(i - 1), askPrice(i))};
+        }
+        return new long[] {askPrice(i)};
+    }
+
+    private static long bestBid(long seq) {
+        return bids(seq)[0];
+    }
+
+    private static long bestAsk(long seq) {
+        return asks(seq)[0];
+    }
+}
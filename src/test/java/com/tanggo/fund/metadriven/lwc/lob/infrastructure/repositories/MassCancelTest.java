@@ -0,0 +1,98 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 批量撤单测试：按参与者、方向、交易对撤单只影响匹配的挂单（含挂起的止损单），其余挂单和档位不变
+ */
+class MassCancelTest {
+
+    private final Instrument btc = new Instrument("BTCUSDT", new BigDecimal("0.01"), new BigDecimal("0.00001"));
+    private final Instrument eth = new Instrument("ETHUSDT", new BigDecimal("0.01"), new BigDecimal("0.0001"));
+
+    private void populate(InMemoryOrderBookRepository repository) {
+        for (Instrument instrument : List.of(btc, eth)) {
+            String p = instrument.getSymbol() + "-";
+            repository.placeOrder(p + "mm1-b1", "mm-1", instrument, OrderSide.BUY, 100, 1);
+            repository.placeOrder(p + "mm2-b1", "mm-2", instrument, OrderSide.BUY, 100, 2);
+            repository.placeOrder(p + "mm1-b2", "mm-1", instrument, OrderSide.BUY, 99, 3);
+            repository.placeOrder(p + "mm1-s1", "mm-1", instrument, OrderSide.SELL, 101, 4);
+            repository.placeOrder(p + "mm2-s1", "mm-2", instrument, OrderSide.SELL, 102, 5);
+            repository.placeStopOrder(p + "mm1-stop", "mm-1", instrument, OrderSide.SELL, 90, 0, 1);
+        }
+    }
+
+    @Test
+    void cancelsByOwnerAcrossBothSides() {
+        for (InMemoryOrderBookRepository repository : List.of(new InMemoryOrderBookRepository(), new PriceLadderOrderBookRepository())) {
+            populate(repository);
+
+            List<String> cancelled = repository.massCancel("BTCUSDT", null, "mm-1");
+            assertEquals(Set.of("BTCUSDT-mm1-b1", "BTCUSDT-mm1-b2", "BTCUSDT-mm1-s1", "BTCUSDT-mm1-stop"),
+                    Set.copyOf(cancelled));
+            assertEquals(4, cancelled.size());
+            assertEquals(2, repository.getOrderCount("BTCUSDT"));
+            assertTrue(repository.existsOrder("BTCUSDT", "BTCUSDT-mm2-b1"));
+            assertFalse(repository.cancelOrder("BTCUSDT", "BTCUSDT-mm1-stop"));
+
+            // 档位只剩mm-2的挂单：99档随最后一笔挂单移除
+            OrderBookSnapshot snapshot = repository.getSnapshot("BTCUSDT", 5);
+            assertEquals(1, snapshot.getBids().size());
+            assertEquals(2, snapshot.getBids().get(0).getQuantityLots());
+            assertEquals(1, snapshot.getBids().get(0).getOrderCount());
+            assertEquals(102, snapshot.getAsks().get(0).getPriceTicks());
+
+            // 其他交易对不受影响
+            assertEquals(5, repository.getOrderCount("ETHUSDT"));
+            assertTrue(repository.cancelOrder("ETHUSDT", "ETHUSDT-mm1-stop"));
+        }
+    }
+
+    @Test
+    void cancelsByOwnerAndSide() {
+        InMemoryOrderBookRepository repository = new PriceLadderOrderBookRepository();
+        populate(repository);
+
+        List<String> cancelled = repository.massCancel("BTCUSDT", OrderSide.BUY, "mm-1");
+        assertEquals(Set.of("BTCUSDT-mm1-b1", "BTCUSDT-mm1-b2"), Set.copyOf(cancelled));
+        assertTrue(repository.existsOrder("BTCUSDT", "BTCUSDT-mm1-s1"));
+        // 卖出止损单不在撤销方向内
+        assertTrue(repository.cancelOrder("BTCUSDT", "BTCUSDT-mm1-stop"));
+        assertEquals(3, repository.getOrderCount("BTCUSDT"));
+    }
+
+    @Test
+    void cancelsWholeSideOrSymbol() {
+        for (InMemoryOrderBookRepository repository : List.of(new InMemoryOrderBookRepository(), new PriceLadderOrderBookRepository())) {
+            populate(repository);
+
+            List<String> sells = repository.massCancel("BTCUSDT", OrderSide.SELL, null);
+            assertEquals(Set.of("BTCUSDT-mm1-s1", "BTCUSDT-mm2-s1", "BTCUSDT-mm1-stop"), Set.copyOf(sells));
+            assertTrue(repository.getSnapshot("BTCUSDT", 5).getAsks().isEmpty());
+            assertEquals(2, repository.getSnapshot("BTCUSDT", 5).getBids().size());
+
+            List<String> all = repository.massCancel("ETHUSDT", null, null);
+            assertEquals(6, all.size());
+            assertEquals(0, repository.getOrderCount("ETHUSDT"));
+            OrderBookSnapshot ethSnapshot = repository.getSnapshot("ETHUSDT", 5);
+            assertTrue(ethSnapshot.getBids().isEmpty() && ethSnapshot.getAsks().isEmpty());
+
+            // 撤空后可以继续挂单，未知交易对返回空结果
+            repository.placeOrder("again", "mm-1", eth, OrderSide.BUY, 100, 1);
+            assertEquals(1, repository.getOrderCount("ETHUSDT"));
+            assertTrue(repository.massCancel("DOGEUSDT", null, null).isEmpty());
+            assertTrue(repository.massCancel("BTCUSDT", null, "nobody").isEmpty());
+        }
+    }
+}
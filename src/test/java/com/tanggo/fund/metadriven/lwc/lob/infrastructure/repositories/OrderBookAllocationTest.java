@@ -0,0 +1,75 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.MatchResult;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 零分配撮合路径测试：预热后稳态的挂单、吃单、撤单不应在撮合线程上分配对象
+ */
+class OrderBookAllocationTest {
+
+    private static final int LEVELS = 8;
+    // 挂单归属同一参与者，覆盖参与者链表的维护
+    private static final String OWNER = "mm-1";
+
+    private final Instrument instrument = new Instrument("BTCUSDT", new BigDecimal("0.01"), new BigDecimal("0.00001"));
+    private final OrderBook book = new OrderBook(instrument,
+            new PriceLadderBookSide(true, 1024, 1 << 16), new PriceLadderBookSide(false, 1024, 1 << 16));
+
+    private final String[] bidIds = new String[LEVELS];
+    private final String[] askIds = new String[LEVELS];
+
+    @Test
+    void steadyStateMatchingDoesNotAllocate() {
+        for (int i = 0; i < LEVELS; i++) {
+            bidIds[i] = "bid-" + i;
+            askIds[i] = "ask-" + i;
+        }
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        // 预热：填充订单池、档位备用栈、成交缓冲区和索引
+        for (int i = 0; i < 20_000; i++) {
+            round();
+        }
+
+        long overhead = threads.getCurrentThreadAllocatedBytes();
+        overhead = threads.getCurrentThreadAllocatedBytes() - overhead;
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 10_000; i++) {
+            round();
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before - overhead;
+
+        assertEquals(0, book.getOrderCount());
+        assertTrue(allocated <= 0, "steady-state matching allocated " + allocated + " bytes");
+    }
+
+    /**
+     * 一轮：挂8档买单和8档卖单，卖单吃掉最优3档买单，撤掉其余挂单
+     */
+    private void round() {
+        for (int i = 0; i < LEVELS; i++) {
+            book.placeOrder(bidIds[i], OWNER, OrderSide.BUY, 10_000 + i, 10);
+            book.placeOrder(askIds[i], OWNER, OrderSide.SELL, 10_100 + i, 10);
+        }
+        MatchResult result = book.placeOrder("taker", null, OrderSide.SELL, 10_000 + LEVELS - 3, 30);
+        if (result.getTrades().size() != 3 || result.getOrder().isActive()) {
+            throw new AssertionError("unexpected match result " + result);
+        }
+        for (int i = 0; i < LEVELS - 3; i++) {
+            book.cancelOrder(bidIds[i]);
+        }
+        for (int i = 0; i < LEVELS; i++) {
+            book.cancelOrder(askIds[i]);
+        }
+    }
+}
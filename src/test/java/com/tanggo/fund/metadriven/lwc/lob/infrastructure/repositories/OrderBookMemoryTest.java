@@ -0,0 +1,84 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 挂单内存占用测试：分两段挂入大量订单，按两次GC后堆占用之差计算每笔挂单记录的字节数
+ * 两次测量之间ID索引不扩容，差值只含挂单记录；ID索引按哈希表大小另计
+ * 订单ID字符串属于调用方，在测量之前创建，不计入（挂单会保留它们，容量规划须另计，见 OrderStore）
+ * 结果依赖System.gc()确实完成回收，不在默认测试集中运行：mvn test -Pmemory-tests
+ */
+@Tag("memory")
+class OrderBookMemoryTest {
+
+    // 第二段结束时ID索引（2^20槽，扩容阈值786432）仍不扩容
+    private static final int FIRST = 400_000;
+    private static final int TOTAL = 780_000;
+    private static final int LEVELS = 500;
+    private static final int OWNERS = 16;
+
+    // 挂单记录（不含ID索引）的上限
+    private static final double MAX_RECORD_BYTES = 64.0;
+    // ID索引每单的上限：int槽位，装载率不低于0.375
+    private static final double MAX_INDEX_BYTES = 4 / 0.375;
+
+    private final Instrument instrument = new Instrument("BTCUSDT", new BigDecimal("0.01"), new BigDecimal("0.00001"));
+
+    private final String[] ids = new String[TOTAL];
+    private final String[] owners = new String[OWNERS];
+
+    @Test
+    void restingOrderRecordFitsInSixtyFourBytes() {
+        for (int i = 0; i < TOTAL; i++) {
+            ids[i] = "order-" + i;
+        }
+        for (int i = 0; i < OWNERS; i++) {
+            owners[i] = "mm-" + i;
+        }
+        OrderBook book = new OrderBook(instrument,
+                new PriceLadderBookSide(true, 1024, 1 << 16), new PriceLadderBookSide(false, 1024, 1 << 16));
+
+        place(book, 0, FIRST);
+        long before = usedHeapAfterGc();
+        long indexBefore = book.indexBytes();
+        place(book, FIRST, TOTAL);
+        long after = usedHeapAfterGc();
+
+        assertEquals(TOTAL, book.getOrderCount());
+        assertEquals(indexBefore, book.indexBytes(), "order id index resized between measurements");
+        double record = (double) (after - before) / (TOTAL - FIRST);
+        double index = (double) book.indexBytes() / TOTAL;
+        assertTrue(record < MAX_RECORD_BYTES, "resting order record uses " + record + " bytes");
+        assertTrue(index <= MAX_INDEX_BYTES, "order id index uses " + index + " bytes per order");
+        assertTrue(book.existsOrder(ids[TOTAL - 1]));
+    }
+
+    /**
+     * 挂入[from, to)的订单：买卖两侧各LEVELS档，价格不交叉，全部挂单
+     */
+    private void place(OrderBook book, int from, int to) {
+        for (int i = from; i < to; i++) {
+            boolean buy = (i & 1) == 0;
+            long priceTicks = buy ? 10_000 - i % LEVELS : 10_001 + i % LEVELS;
+            book.placeOrder(ids[i], owners[i % OWNERS], buy ? OrderSide.BUY : OrderSide.SELL, priceTicks, 1 + i % 7);
+        }
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
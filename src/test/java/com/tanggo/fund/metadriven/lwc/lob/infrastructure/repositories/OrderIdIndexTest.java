@@ -0,0 +1,77 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 订单ID索引测试：同一订单ID被新挂单复用时，旧挂单成交或撤销不能删除新挂单的登记
+ */
+class OrderIdIndexTest {
+
+    private final Instrument instrument = new Instrument("BTCUSDT", new BigDecimal("0.01"), new BigDecimal("0.00001"));
+
+    @Test
+    void filledOrderDoesNotUnindexNewerOrderWithSameId() {
+        OrderBook book = new OrderBook(instrument, new TreeBookSide(true), new TreeBookSide(false));
+        book.placeOrder("dup", "mm-1", OrderSide.SELL, 10_000, 5);
+        // 同一ID再次挂单，索引指向新挂单
+        book.placeOrder("dup", "mm-1", OrderSide.SELL, 10_100, 7);
+
+        // 吃掉第一笔挂单：按句柄解除索引，ID仍指向第二笔
+        book.placeOrder("taker", "t-1", OrderSide.BUY, 10_000, 5);
+        assertEquals(1, book.getOrderCount());
+        assertTrue(book.existsOrder("dup"));
+
+        assertTrue(book.cancelOrder("dup"));
+        assertEquals(0, book.getOrderCount());
+        assertFalse(book.existsOrder("dup"));
+        OrderBookSnapshot snapshot = book.getSnapshot("BTCUSDT", 5);
+        assertTrue(snapshot.getAsks().isEmpty());
+    }
+
+    @Test
+    void massCancelOfOlderOrderKeepsNewerRegistration() {
+        OrderBook book = new OrderBook(instrument,
+                new PriceLadderBookSide(true, 64, 1 << 10), new PriceLadderBookSide(false, 64, 1 << 10));
+        book.placeOrder("dup", "mm-1", OrderSide.BUY, 9_900, 3);
+        book.placeOrder("dup", "mm-2", OrderSide.BUY, 9_800, 4);
+
+        List<String> cancelled = new ArrayList<>();
+        book.massCancel(null, "mm-1", cancelled);
+        assertEquals(List.of("dup"), cancelled);
+        assertTrue(book.existsOrder("dup"));
+
+        // 剩下的是mm-2的挂单
+        book.placeOrder("taker", "t-1", OrderSide.SELL, 9_800, 4);
+        assertEquals(0, book.getOrderCount());
+        assertFalse(book.existsOrder("dup"));
+    }
+
+    @Test
+    void indexSurvivesChurnAcrossResize() {
+        OrderBook book = new OrderBook(instrument,
+                new PriceLadderBookSide(true, 64, 1 << 10), new PriceLadderBookSide(false, 64, 1 << 10));
+        int n = 5_000;
+        for (int i = 0; i < n; i++) {
+            book.placeOrder("o-" + i, null, OrderSide.BUY, 9_000 + i % 50, 1);
+        }
+        // 撤掉偶数ID，后移回填后奇数ID都还能找到
+        for (int i = 0; i < n; i += 2) {
+            assertTrue(book.cancelOrder("o-" + i));
+        }
+        for (int i = 0; i < n; i++) {
+            assertEquals(i % 2 == 1, book.existsOrder("o-" + i), "o-" + i);
+        }
+        assertEquals(n / 2, book.getOrderCount());
+    }
+}
@@ -0,0 +1,114 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.MatchResult;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 订单键索引测试：携带订单键的挂单可按订单键撤单/改单/查询，成交、撤单和改单后登记随挂单更新，
+ * 同一订单键被新挂单复用时旧挂单的释放不删除新挂单的登记
+ */
+class OrderKeyIndexTest {
+
+    private final Instrument instrument = new Instrument("BTCUSDT", new BigDecimal("0.01"), new BigDecimal("0.00001"));
+
+    @Test
+    void cancelAmendAndExistsByKeyOnTreeAndLadder() {
+        for (OrderBook book : books()) {
+            book.placeOrder("a-1", 101L, "mm-1", OrderSide.SELL, 10_000, 5);
+            book.placeOrder("a-2", 102L, "mm-1", OrderSide.SELL, 10_100, 5);
+            // 未携带订单键的挂单不登记
+            book.placeOrder("a-3", "mm-1", OrderSide.SELL, 10_200, 5);
+            assertTrue(book.existsOrder(101L));
+            assertFalse(book.existsOrder(103L));
+
+            // 改价后仍按订单键定位
+            MatchResult amended = book.amendOrder(102L, 10_050, 4);
+            assertNotNull(amended);
+            assertTrue(book.existsOrder(102L));
+            assertTrue(book.existsOrder("a-2"));
+
+            assertTrue(book.cancelOrder(101L));
+            assertFalse(book.cancelOrder(101L));
+            assertFalse(book.existsOrder(101L));
+            assertFalse(book.existsOrder("a-1"));
+            assertNull(book.amendOrder(101L, 10_000, 1));
+
+            OrderBookSnapshot snapshot = book.getSnapshot("BTCUSDT", 5);
+            assertEquals(2, snapshot.getAsks().size());
+            assertEquals(2, book.getOrderCount());
+        }
+    }
+
+    @Test
+    void fillUnindexesKeyAndReusedKeyPointsToNewerOrder() {
+        for (OrderBook book : books()) {
+            book.placeOrder("b-1", 7L, "mm-1", OrderSide.BUY, 9_900, 3);
+            book.placeOrder("b-2", 7L, "mm-2", OrderSide.BUY, 9_800, 4);
+
+            // 吃掉第一笔挂单：按句柄解除登记，订单键仍指向第二笔
+            book.placeOrder("t-1", "t", OrderSide.SELL, 9_900, 3);
+            assertTrue(book.existsOrder(7L));
+            assertTrue(book.cancelOrder(7L));
+            assertFalse(book.existsOrder("b-2"));
+            assertEquals(0, book.getOrderCount());
+
+            // 完全成交的主动单不登记
+            book.placeOrder("b-3", "mm-1", OrderSide.BUY, 9_900, 2);
+            book.placeOrder("t-2", 8L, "t", OrderSide.SELL, 9_900, 2);
+            assertFalse(book.existsOrder(8L));
+            // 部分成交后剩余挂单登记
+            book.placeOrder("t-3", 9L, "t", OrderSide.SELL, 9_900, 2);
+            assertTrue(book.existsOrder(9L));
+        }
+    }
+
+    @Test
+    void indexSurvivesChurnAcrossResize() {
+        OrderBook book = new OrderBook(instrument,
+                new PriceLadderBookSide(true, 64, 1 << 10), new PriceLadderBookSide(false, 64, 1 << 10));
+        Random random = new Random(5);
+        List<Long> live = new ArrayList<>();
+        Set<Long> cancelled = new HashSet<>();
+        for (int i = 1; i <= 20_000; i++) {
+            // 不交叉：买单只挂在9_000以下
+            long key = i * 4_096L;
+            book.placeOrder("c-" + i, key, "mm", OrderSide.BUY, 8_000 + random.nextInt(500), 1 + random.nextInt(5));
+            live.add(key);
+            if (random.nextInt(3) == 0) {
+                Long victim = live.remove(random.nextInt(live.size()));
+                assertTrue(book.cancelOrder(victim));
+                cancelled.add(victim);
+            }
+        }
+        assertEquals(live.size(), book.getOrderCount());
+        for (long key : live) {
+            assertTrue(book.existsOrder(key));
+        }
+        for (long key : cancelled) {
+            assertFalse(book.existsOrder(key));
+        }
+    }
+
+    private List<OrderBook> books() {
+        return List.of(
+                new OrderBook(instrument, new TreeBookSide(true), new TreeBookSide(false)),
+                new OrderBook(instrument,
+                        new PriceLadderBookSide(true, 64, 1 << 10), new PriceLadderBookSide(false, 64, 1 << 10)));
+    }
+}
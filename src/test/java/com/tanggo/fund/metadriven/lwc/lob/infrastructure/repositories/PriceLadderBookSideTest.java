@@ -0,0 +1,129 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderQueue;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.FillEstimate;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookSnapshot;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.PriceLevel;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 价格阶梯测试：价格超出窗口时重新居中、跨度超过容量一半时扩容，已有档位对象和累计深度保持不变；
+ * 跨度超过上限的价格被拒绝；随机挂单/撤单/成交下与红黑树档位结构结果一致
+ */
+class PriceLadderBookSideTest {
+
+    private final Instrument instrument = new Instrument("BTCUSDT", new BigDecimal("0.01"), new BigDecimal("0.00001"));
+
+    @Test
+    void recentresAndGrowsKeepingLevels() {
+        PriceLadderBookSide asks = new PriceLadderBookSide(false, 8, 64);
+        OrderQueue first = asks.getOrCreateLevel(1000);
+        OrderQueue second = asks.getOrCreateLevel(1003);
+
+        // 初始窗口8档，1010超出窗口：跨度11超过容量一半，扩容后重新居中
+        OrderQueue far = asks.getOrCreateLevel(1010);
+        assertSame(first, asks.getLevel(1000));
+        assertSame(second, asks.getLevel(1003));
+        assertEquals(1000, asks.bestPrice());
+        assertSame(second, asks.nextLevel(1000));
+        assertSame(far, asks.nextLevel(1003));
+        assertNull(asks.nextLevel(1010));
+
+        // 向下越出窗口同样重新居中
+        OrderQueue low = asks.getOrCreateLevel(980);
+        assertEquals(980, asks.bestPrice());
+        assertSame(first, asks.nextLevel(980));
+        assertSame(far, asks.getLevel(1010));
+
+        // 跨度上限64档：980..1043可以，1044被拒绝且档位不变
+        asks.checkPrice(1043, 1);
+        assertThrows(IllegalArgumentException.class, () -> asks.checkPrice(1044, 1));
+        assertThrows(IllegalArgumentException.class, () -> asks.getOrCreateLevel(1044));
+        assertSame(low, asks.bestLevel());
+        assertSame(far, asks.getLevel(1010));
+
+        // 清空后以新价格为中心，不受原窗口限制
+        for (long price : new long[] {980, 1000, 1003, 1010}) {
+            asks.removeLevel(price);
+        }
+        assertTrue(asks.isEmpty());
+        asks.getOrCreateLevel(5_000);
+        assertEquals(5_000, asks.bestPrice());
+    }
+
+    @Test
+    void bidSideBestIsHighestAcrossRecentre() {
+        PriceLadderBookSide bids = new PriceLadderBookSide(true, 4, 1 << 10);
+        bids.getOrCreateLevel(100);
+        bids.getOrCreateLevel(90);
+        bids.getOrCreateLevel(150);
+        assertEquals(150, bids.bestPrice());
+        assertEquals(100, bids.nextLevel(150).getPriceTicks());
+        assertEquals(90, bids.nextLevel(100).getPriceTicks());
+        bids.removeLevel(150);
+        assertEquals(100, bids.bestPrice());
+    }
+
+    @Test
+    void matchesTreeBookUnderDriftingPrices() {
+        OrderBook ladder = new OrderBook(instrument,
+                new PriceLadderBookSide(true, 8, 4096), new PriceLadderBookSide(false, 8, 4096));
+        OrderBook tree = new OrderBook(instrument, new TreeBookSide(true), new TreeBookSide(false));
+        Random random = new Random(41);
+        long mid = 10_000;
+        for (int i = 0; i < 20_000; i++) {
+            // 中间价随机游走，挂单价格在中间价附近，窗口反复重新居中和扩容
+            mid = Math.max(9_000, Math.min(11_000, mid + random.nextInt(41) - 20));
+            int kind = random.nextInt(10);
+            if (kind < 7) {
+                OrderSide side = random.nextBoolean() ? OrderSide.BUY : OrderSide.SELL;
+                long price = side == OrderSide.BUY ? mid - random.nextInt(60) : mid + random.nextInt(60);
+                long quantity = 1 + random.nextInt(9);
+                assertEquals(ladder.placeOrder("o-" + i, null, side, price, quantity).getTrades().size(),
+                        tree.placeOrder("o-" + i, null, side, price, quantity).getTrades().size());
+            } else {
+                String id = "o-" + random.nextInt(i + 1);
+                assertEquals(tree.cancelOrder(id), ladder.cancelOrder(id));
+            }
+            if (i % 100 == 0) {
+                assertSameBook(tree, ladder);
+            }
+        }
+        assertSameBook(tree, ladder);
+    }
+
+    private static void assertSameBook(OrderBook expected, OrderBook actual) {
+        assertEquals(expected.getOrderCount(), actual.getOrderCount());
+        OrderBookSnapshot e = expected.getSnapshot("BTCUSDT", 1_000);
+        OrderBookSnapshot a = actual.getSnapshot("BTCUSDT", 1_000);
+        assertLevels(e.getBids(), a.getBids());
+        assertLevels(e.getAsks(), a.getAsks());
+        for (OrderSide side : OrderSide.values()) {
+            FillEstimate fe = expected.estimateFill(side, 500, 0);
+            FillEstimate fa = actual.estimateFill(side, 500, 0);
+            assertEquals(fe.getFillableLots(), fa.getFillableLots());
+            assertEquals(fe.getNotional(), fa.getNotional());
+        }
+    }
+
+    private static void assertLevels(List<PriceLevel> expected, List<PriceLevel> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getPriceTicks(), actual.get(i).getPriceTicks());
+            assertEquals(expected.get(i).getQuantityLots(), actual.get(i).getQuantityLots());
+            assertEquals(expected.get(i).getOrderCount(), actual.get(i).getOrderCount());
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.LimitOrder;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderStatus;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.MatchResult;
+import com.tanggo.fund.metadriven.lwc.lob.domain.repo.OrderBookSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 止损单测试：最新成交价达到触发价时转为订单撮合；止损市价单剩余撤销，止损限价单剩余挂单，
+ * 触发时限价已落到档位窗口外的止损限价单撤销
+ */
+class StopOrderTest {
+
+    private final Instrument instrument = new Instrument("BTCUSDT", new BigDecimal("0.01"), new BigDecimal("0.00001"));
+
+    private OrderBook ladderBook() {
+        return new OrderBook(instrument,
+                new PriceLadderBookSide(true, 16, 64), new PriceLadderBookSide(false, 16, 64));
+    }
+
+    private OrderBook treeBook() {
+        return new OrderBook(instrument, new TreeBookSide(true), new TreeBookSide(false));
+    }
+
+    @Test
+    void marketStopTakesLiquidityAndCancelsRemainder() {
+        for (OrderBook book : List.of(ladderBook(), treeBook())) {
+            book.placeOrder("a1", null, OrderSide.SELL, 100, 2);
+            book.placeOrder("a2", null, OrderSide.SELL, 101, 2);
+            book.placeStopOrder("stop", "mm-1", OrderSide.BUY, 101, 0, 10);
+            assertEquals(2, book.getOrderCount());
+
+            // 吃到101时最新价达到触发价，止损市价单吃掉101剩下的1手，其余9手撤销
+            MatchResult result = book.placeOrder("taker", null, OrderSide.BUY, 101, 3);
+            assertEquals(1, result.getTriggeredOrders().size());
+            LimitOrder stop = result.getTriggeredOrders().get(0);
+            assertEquals("stop", stop.getOrderId());
+            assertEquals(1, stop.getFilledLots());
+            assertEquals(OrderStatus.CANCELLED, stop.getStatus());
+            assertEquals(3, result.getTrades().size());
+            assertEquals("stop", result.getTrades().get(2).getBuyOrderId());
+
+            assertEquals(0, book.getOrderCount());
+            assertFalse(book.existsOrder("stop"));
+            assertFalse(book.cancelOrder("stop"));
+        }
+    }
+
+    @Test
+    void limitStopRestsRemainderAtLimitPrice() {
+        for (OrderBook book : List.of(ladderBook(), treeBook())) {
+            book.placeOrder("b1", null, OrderSide.BUY, 100, 1);
+            book.placeOrder("b2", null, OrderSide.BUY, 99, 2);
+            book.placeStopOrder("stop", null, OrderSide.SELL, 99, 98, 5);
+
+            // 成交到99触发止损卖单：吃掉99剩下的1手，剩余4手挂在98
+            MatchResult result = book.placeOrder("taker", null, OrderSide.SELL, 99, 2);
+            LimitOrder stop = result.getTriggeredOrders().get(0);
+            assertEquals(OrderStatus.PARTIALLY_FILLED, stop.getStatus());
+            assertEquals(1, stop.getFilledLots());
+            assertTrue(book.existsOrder("stop"));
+
+            OrderBookSnapshot snapshot = book.getSnapshot("BTCUSDT", 5);
+            assertTrue(snapshot.getBids().isEmpty());
+            assertEquals(98, snapshot.getAsks().get(0).getPriceTicks());
+            assertEquals(4, snapshot.getAsks().get(0).getQuantityLots());
+        }
+    }
+
+    @Test
+    void limitStopOutsideLadderWindowIsCancelledOnTrigger() {
+        OrderBook book = ladderBook();
+        book.placeOrder("a1", null, OrderSide.SELL, 1050, 1);
+        book.placeOrder("a2", null, OrderSide.SELL, 1100, 1);
+        // 挂起时卖方跨度1049..1100共52档，在64档窗口内
+        book.placeStopOrder("stop", null, OrderSide.SELL, 1050, 1049, 5);
+        book.placeOrder("a3", null, OrderSide.SELL, 1113, 1);
+
+        // 吃掉1050后触发，此时卖方跨度1049..1113共65档，超出窗口，止损单撤销
+        MatchResult result = book.placeOrder("taker", null, OrderSide.BUY, 1050, 1);
+        assertEquals(1, result.getTriggeredOrders().size());
+        LimitOrder stop = result.getTriggeredOrders().get(0);
+        assertEquals(OrderStatus.CANCELLED, stop.getStatus());
+        assertEquals(0, stop.getFilledLots());
+        assertFalse(book.existsOrder("stop"));
+        assertEquals(2, book.getOrderCount());
+    }
+
+    @Test
+    void pendingStopCanBeCancelledAndImmediateTriggerIsRejected() {
+        OrderBook book = treeBook();
+        book.placeOrder("a1", null, OrderSide.SELL, 100, 1);
+        book.placeOrder("taker", null, OrderSide.BUY, 100, 1);
+
+        // 最新价100已满足触发价，直接拒绝
+        assertThrows(IllegalArgumentException.class,
+                () -> book.placeStopOrder("late", null, OrderSide.BUY, 100, 0, 1));
+
+        book.placeStopOrder("stop", null, OrderSide.BUY, 105, 106, 1);
+        assertTrue(book.cancelOrder("stop"));
+        assertFalse(book.cancelOrder("stop"));
+
+        // 已撤销的止损单不再触发
+        book.placeOrder("a2", null, OrderSide.SELL, 105, 1);
+        assertTrue(book.placeOrder("t2", null, OrderSide.BUY, 105, 1).getTriggeredOrders().isEmpty());
+    }
+}
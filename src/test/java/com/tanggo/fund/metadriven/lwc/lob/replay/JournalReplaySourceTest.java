@@ -0,0 +1,171 @@
+package com.tanggo.fund.metadriven.lwc.lob.replay;
+
+import com.tanggo.fund.metadriven.lwc.lob.domain.Instrument;
+import com.tanggo.fund.metadriven.lwc.lob.domain.LimitOrder;
+import com.tanggo.fund.metadriven.lwc.lob.domain.OrderSide;
+import com.tanggo.fund.metadriven.lwc.lob.infrastructure.journal.JournalingOrderBookRepository;
+import com.tanggo.fund.metadriven.lwc.lob.infrastructure.journal.OrderBookCheckpointer;
+import com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories.InMemoryInstrumentRepository;
+import com.tanggo.fund.metadriven.lwc.lob.infrastructure.repositories.InMemoryOrderBookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 命令日志回放确定性测试：回放生产捕获的日志（含批量命令、被拒绝的命令、检查点和截断）
+ * 得到的订单薄哈希（含更新序号）与生产订单薄相同；日志被截断而没有检查点时回放失败而不是从空订单薄开始
+ */
+class JournalReplaySourceTest {
+
+    private static final List<String> SYMBOLS = List.of("BTCUSDT", "ETHUSDT");
+
+    private final Path directory;
+    private final InMemoryInstrumentRepository instruments = new InMemoryInstrumentRepository();
+    private JournalingOrderBookRepository live;
+
+    JournalReplaySourceTest() throws IOException {
+        directory = Files.createTempDirectory("lob-replay-test");
+        instruments.setInstruments(SYMBOLS.stream()
+                .map(symbol -> new Instrument(symbol, new BigDecimal("0.01"), new BigDecimal("0.001"))).toList());
+    }
+
+    @AfterEach
+    void deleteDirectory() throws Exception {
+        if (live != null) {
+            live.close();
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void replayedJournalMatchesLiveBook() throws Exception {
+        open();
+        apply(new Random(7), 0, 3_000);
+        long expected = new OrderBookReplayer(live, instruments).bookHash();
+        live.close();
+
+        OrderBookReplayer.Report report = replay();
+        assertEquals(expected, report.getBookHash());
+        assertTrue(report.getRejected() > 0, "no rejected commands in workload");
+    }
+
+    @Test
+    void replayStartsFromLatestCheckpoint() throws Exception {
+        open();
+        Random random = new Random(11);
+        apply(random, 0, 3_000);
+        new OrderBookCheckpointer(live, live).checkpoint();
+        apply(random, 3_000, 500);
+        long expected = new OrderBookReplayer(live, instruments).bookHash();
+        live.close();
+
+        OrderBookReplayer.Report report = replay();
+        assertEquals(expected, report.getBookHash());
+        assertTrue(report.getCommands() <= 500, "replayed " + report.getCommands());
+    }
+
+    @Test
+    void truncatedJournalWithoutCheckpointFails() throws Exception {
+        open();
+        apply(new Random(13), 0, 3_000);
+        new OrderBookCheckpointer(live, live).checkpoint();
+        live.close();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().startsWith("checkpoint-")).toList()) {
+                Files.delete(file);
+            }
+        }
+        assertThrows(IOException.class,
+                () -> new JournalReplaySource(directory, instruments, new InMemoryOrderBookRepository()));
+    }
+
+    private void open() throws IOException {
+        live = new JournalingOrderBookRepository(new InMemoryOrderBookRepository(), instruments);
+        live.setDirectory(directory.toString());
+        live.setSegmentSize(4096);
+        live.setFlushIntervalMicros(0);
+        live.recover();
+    }
+
+    private OrderBookReplayer.Report replay() throws IOException {
+        InMemoryOrderBookRepository repository = new InMemoryOrderBookRepository();
+        OrderBookReplayer replayer = new OrderBookReplayer(repository, instruments);
+        try (JournalReplaySource source = new JournalReplaySource(directory, instruments, repository)) {
+            return replayer.replay(source);
+        }
+    }
+
+    /**
+     * 随机命令流：单笔下单/撤单/改单（含按订单键）、批量下单（含被拒绝的订单）、批量撤单、止损单（含被拒绝的）、FOK和批量撤单
+     */
+    private void apply(Random random, int from, int count) {
+        for (int i = from; i < from + count; i++) {
+            Instrument instrument = instruments.getInstrument(SYMBOLS.get(random.nextInt(SYMBOLS.size())));
+            OrderSide side = random.nextBoolean() ? OrderSide.BUY : OrderSide.SELL;
+            int kind = random.nextInt(100);
+            try {
+                if (kind < 30) {
+                    live.placeOrder("o-" + i, "mm-" + random.nextInt(3), instrument, side,
+                            1_000 + random.nextInt(30), 1 + random.nextInt(20));
+                } else if (kind < 45) {
+                    // 携带订单键的挂单，订单键i + 1
+                    live.placeOrder("o-" + i, i + 1L, "mm-" + random.nextInt(3), instrument, side,
+                            1_000 + random.nextInt(30), 1 + random.nextInt(20));
+                } else if (kind < 55) {
+                    List<LimitOrder> orders = new ArrayList<>();
+                    for (int j = 0; j < 4; j++) {
+                        OrderSide orderSide = random.nextBoolean() ? OrderSide.BUY : OrderSide.SELL;
+                        // 名义金额溢出的订单在批中被单独拒绝
+                        long price = random.nextInt(8) == 0 ? 1L << 40 : 1_000 + random.nextInt(30);
+                        long quantity = price == 1L << 40 ? 1L << 30 : 1 + random.nextInt(20);
+                        orders.add(new LimitOrder("o-" + i + "-" + j, "mm-" + random.nextInt(3), instrument,
+                                orderSide, price, quantity));
+                    }
+                    live.addOrders(orders);
+                } else if (kind < 62) {
+                    live.cancelOrder(instrument, "o-" + (from + random.nextInt(i - from + 1)));
+                } else if (kind < 70) {
+                    live.cancelOrder(instrument, 1L + random.nextInt(i + 1));
+                } else if (kind < 75) {
+                    List<String> ids = new ArrayList<>();
+                    for (int j = 0; j < 3; j++) {
+                        ids.add("o-" + (from + random.nextInt(i - from + 1)));
+                    }
+                    live.cancelOrders(instrument.getSymbol(), ids);
+                } else if (kind < 80) {
+                    live.amendOrder(instrument, "o-" + (from + random.nextInt(i - from + 1)),
+                            1_000 + random.nextInt(30), 1 + random.nextInt(25));
+                } else if (kind < 85) {
+                    live.amendOrder(instrument, 1L + random.nextInt(i + 1),
+                            1_000 + random.nextInt(30), 1 + random.nextInt(25));
+                } else if (kind < 92) {
+                    boolean buy = side == OrderSide.BUY;
+                    live.placeStopOrder("o-" + i, "mm-1", instrument, side,
+                            buy ? 1_000 + random.nextInt(45) : 1_030 - random.nextInt(45), 0, 1 + random.nextInt(5));
+                } else if (kind < 97) {
+                    live.placeFillOrKill("o-" + i, "mm-2", instrument, side,
+                            1_000 + random.nextInt(30), 1 + random.nextInt(40));
+                } else {
+                    live.massCancel(instrument.getSymbol(), null, "mm-" + random.nextInt(3));
+                }
+            } catch (IllegalArgumentException e) {
+                // 被拒绝的命令同样写入日志，回放时须同样被拒绝
+            }
+        }
+    }
+}